@@ -0,0 +1,24 @@
+#!/bin/sh
+#
+# Runs all JMH benchmarks and stores the result as the baseline for a released version,
+# together with a description of the machine it was run on.
+#
+# Usage, from the benchmark directory after mvn package: ./run-baseline.sh <version>
+#
+set -e
+if [ -z "$1" ]; then
+	echo "Usage: $0 <version>, for example $0 6.1" >&2
+	exit 1
+fi
+result=results/baseline-$1.json
+environment=results/baseline-$1.txt
+{
+	echo "version: $1"
+	echo "date: $(date -u +%Y-%m-%dT%H:%M:%SZ)"
+	echo "commit: $(git rev-parse HEAD)"
+	echo "os: $(uname -srm)"
+	echo "cpus: $(getconf _NPROCESSORS_ONLN)"
+	java -version 2>&1 | sed 's/^/java: /'
+} > "$environment"
+java -jar target/benchmarks.jar -rf json -rff "$result"
+echo "Stored $result and $environment"
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.IndexTerm;
+import se.uu.ub.cora.data.converter.DataToJsonConverterProvider;
+import se.uu.ub.cora.solr.RecordBinaryCodec;
+import se.uu.ub.cora.solr.RecordPayload;
+import se.uu.ub.cora.solr.RecordPayloadFormat;
+
+/**
+ * BenchmarkRecords creates records shaped like Cora publication records, with a record info, a
+ * number of title, author and note groups, and the matching index terms, Solr documents and
+ * search data.
+ */
+public final class BenchmarkRecords {
+	private static final String[] INDEX_TYPES = { "indexTypeString", "indexTypeText",
+			"indexTypeText", "indexTypeNumber", "indexTypeDate", "indexTypeBoolean" };
+	private static final String NOTE = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, "
+			+ "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua. Ut enim ad "
+			+ "minim veniam, quis nostrud exercitation ullamco laboris nisi ut aliquip ex ea.";
+
+	private BenchmarkRecords() {
+	}
+
+	/**
+	 * createRecordGroup creates a record with the specified number of child groups below its
+	 * record info. A record with 10 groups is about 5 KB as JSON, a record with 100 groups about
+	 * 50 KB.
+	 */
+	public static DataRecordGroup createRecordGroup(String type, String id,
+			int numberOfGroups) {
+		DataGroup record = DataProvider.createGroupUsingNameInData("output");
+		record.addChild(createRecordInfo(type, id));
+		for (int i = 0; i < numberOfGroups; i++) {
+			record.addChild(createChildGroup(i));
+		}
+		return DataProvider.createRecordGroupFromDataGroup(record);
+	}
+
+	private static DataGroup createRecordInfo(String type, String id) {
+		DataGroup recordInfo = DataProvider.createGroupUsingNameInData("recordInfo");
+		recordInfo.addChild(DataProvider.createAtomicUsingNameInDataAndValue("id", id));
+		recordInfo.addChild(
+				DataProvider.createRecordLinkUsingNameInDataAndTypeAndId("type", "recordType", type));
+		recordInfo.addChild(DataProvider.createRecordLinkUsingNameInDataAndTypeAndId("dataDivider",
+				"system", "diva"));
+		recordInfo.addChild(DataProvider.createAtomicUsingNameInDataAndValue("tsCreated",
+				"2026-01-01T12:00:00.000000Z"));
+		return recordInfo;
+	}
+
+	private static DataGroup createChildGroup(int index) {
+		int kind = index % 3;
+		if (kind == 0) {
+			return createTitle(index);
+		}
+		if (kind == 1) {
+			return createAuthor(index);
+		}
+		return createNote(index);
+	}
+
+	private static DataGroup createTitle(int index) {
+		DataGroup title = DataProvider.createGroupUsingNameInData("titleInfo");
+		title.addChild(DataProvider.createAtomicUsingNameInDataAndValue("title",
+				"A study of indexing number " + index));
+		title.addChild(
+				DataProvider.createAtomicUsingNameInDataAndValue("subTitle", "Part " + index));
+		return title;
+	}
+
+	private static DataGroup createAuthor(int index) {
+		DataGroup author = DataProvider.createGroupUsingNameInData("name");
+		author.addChild(
+				DataProvider.createAtomicUsingNameInDataAndValue("givenName", "Given" + index));
+		author.addChild(
+				DataProvider.createAtomicUsingNameInDataAndValue("familyName", "Family" + index));
+		author.addChild(DataProvider.createRecordLinkUsingNameInDataAndTypeAndId("person",
+				"person", "person:" + index));
+		return author;
+	}
+
+	private static DataGroup createNote(int index) {
+		DataGroup note = DataProvider.createGroupUsingNameInData("note");
+		note.addChild(DataProvider.createAtomicUsingNameInDataAndValue("text", NOTE));
+		return note;
+	}
+
+	public static List<IndexTerm> createIndexTerms(int numberOfIndexTerms) {
+		List<IndexTerm> indexTerms = new ArrayList<>(numberOfIndexTerms);
+		for (int i = 0; i < numberOfIndexTerms; i++) {
+			String indexType = INDEX_TYPES[i % INDEX_TYPES.length];
+			indexTerms.add(new IndexTerm("indexTerm" + i, createValueForIndexType(indexType, i),
+					"field" + i, indexType));
+		}
+		return indexTerms;
+	}
+
+	private static String createValueForIndexType(String indexType, int index) {
+		return switch (indexType) {
+			case "indexTypeNumber" -> String.valueOf(index);
+			case "indexTypeDate" -> "2026-01-01T12:00:00Z";
+			case "indexTypeBoolean" -> "true";
+			default -> "some value " + index;
+		};
+	}
+
+	public static String createRecordAsJson(DataRecordGroup recordGroup) {
+		return DataToJsonConverterProvider.createImplementingFactory()
+				.factorUsingConvertible(recordGroup).toJson();
+	}
+
+	public static SolrDocumentList createSolrDocuments(int numberOfDocuments,
+			int numberOfGroups) {
+		return createSolrDocuments(numberOfDocuments, numberOfGroups, RecordPayloadFormat.JSON);
+	}
+
+	public static SolrDocumentList createSolrDocuments(int numberOfDocuments, int numberOfGroups,
+			RecordPayloadFormat payloadFormat) {
+		SolrDocumentList documents = new SolrDocumentList();
+		for (int i = 0; i < numberOfDocuments; i++) {
+			String id = "publication:" + i;
+			SolrDocument document = new SolrDocument();
+			document.addField("id", "publication_" + id);
+			document.addField("type", "publication");
+			DataRecordGroup recordGroup = createRecordGroup("publication", id, numberOfGroups);
+			addRecordPayload(document, recordGroup, payloadFormat);
+			documents.add(document);
+		}
+		documents.setNumFound(numberOfDocuments);
+		return documents;
+	}
+
+	private static void addRecordPayload(SolrDocument document, DataRecordGroup recordGroup,
+			RecordPayloadFormat payloadFormat) {
+		if (payloadFormat == RecordPayloadFormat.BINARY) {
+			document.addField(RecordPayload.FIELD_NAME,
+					RecordBinaryCodec.encode(recordGroup).orElseThrow());
+			return;
+		}
+		String json = createRecordAsJson(recordGroup);
+		if (payloadFormat == RecordPayloadFormat.COMPRESSED_JSON) {
+			document.addField(RecordPayload.FIELD_NAME, RecordPayload.compressJson(json));
+		} else {
+			document.addField("recordAsJson", json);
+		}
+	}
+
+	public static DataGroup createSearchData(String searchTermId, String value) {
+		DataGroup searchData = DataProvider.createGroupUsingNameInData("search");
+		DataGroup include = DataProvider.createGroupUsingNameInData("include");
+		DataGroup includePart = DataProvider.createGroupUsingNameInData("includePart");
+		includePart.addChild(DataProvider.createAtomicUsingNameInDataAndValue(searchTermId, value));
+		include.addChild(includePart);
+		searchData.addChild(include);
+		searchData.addChild(DataProvider.createAtomicUsingNameInDataAndValue("rows", "100"));
+		return searchData;
+	}
+}
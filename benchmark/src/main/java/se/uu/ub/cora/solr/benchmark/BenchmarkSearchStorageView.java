@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.searchstorage.SearchStorageView;
+
+/**
+ * BenchmarkSearchStorageView holds the search terms and collect index terms used by the
+ * benchmarks in memory.
+ * <ul>
+ * <li>titleSearchTerm, a final text search term on title_t</li>
+ * <li>identifierSearchTerm, a final string search term on identifier_s</li>
+ * <li>linkedTextSearchTerm, a linked data search term on swedish_t in coraText, linked on
+ * textId_s</li>
+ * </ul>
+ */
+public final class BenchmarkSearchStorageView implements SearchStorageView {
+	private static final String LINKED_RECORD_ID = "linkedRecordId";
+	private static final String LINKED_RECORD_TYPE = "linkedRecordType";
+	private final Map<String, DataGroup> searchTerms = new HashMap<>();
+	private final Map<String, DataGroup> collectIndexTerms = new HashMap<>();
+
+	public BenchmarkSearchStorageView() {
+		addFinalSearchTerm("titleSearchTerm", "titleIndexTerm");
+		addFinalSearchTerm("identifierSearchTerm", "identifierIndexTerm");
+		addLinkedDataSearchTerm();
+		addCollectIndexTerm("titleIndexTerm", "title", "indexTypeText");
+		addCollectIndexTerm("identifierIndexTerm", "identifier", "indexTypeString");
+		addCollectIndexTerm("linkedTextIndexTerm", "textId", "indexTypeString");
+		addCollectIndexTerm("swedishIndexTerm", "swedish", "indexTypeText");
+	}
+
+	private void addFinalSearchTerm(String searchTermId, String indexTermId) {
+		DataGroup searchTerm = DataProvider.createGroupUsingNameInData("searchTerm");
+		searchTerm.addChild(createLink("indexTerm", "collectIndexTerm", indexTermId));
+		searchTerm.addChild(
+				DataProvider.createAtomicUsingNameInDataAndValue("searchTermType", "final"));
+		searchTerms.put(searchTermId, searchTerm);
+	}
+
+	private void addLinkedDataSearchTerm() {
+		DataGroup searchTerm = DataProvider.createGroupUsingNameInData("searchTerm");
+		searchTerm.addChild(
+				DataProvider.createAtomicUsingNameInDataAndValue("searchTermType", "linkedData"));
+		searchTerm.addChild(createLink("linkedOn", "collectIndexTerm", "linkedTextIndexTerm"));
+		searchTerm.addChild(createLink("searchInRecordType", "recordType", "coraText"));
+		searchTerm.addChild(createLink("indexTerm", "collectIndexTerm", "swedishIndexTerm"));
+		searchTerms.put("linkedTextSearchTerm", searchTerm);
+	}
+
+	private DataGroup createLink(String nameInData, String linkedRecordType,
+			String linkedRecordId) {
+		DataGroup link = DataProvider.createGroupUsingNameInData(nameInData);
+		link.addChild(DataProvider.createAtomicUsingNameInDataAndValue(LINKED_RECORD_TYPE,
+				linkedRecordType));
+		link.addChild(
+				DataProvider.createAtomicUsingNameInDataAndValue(LINKED_RECORD_ID, linkedRecordId));
+		return link;
+	}
+
+	private void addCollectIndexTerm(String id, String indexFieldName, String indexType) {
+		DataGroup collectIndexTerm = DataProvider.createGroupUsingNameInData("collectTerm");
+		DataGroup extraData = DataProvider.createGroupUsingNameInData("extraData");
+		extraData.addChild(
+				DataProvider.createAtomicUsingNameInDataAndValue("indexFieldName", indexFieldName));
+		extraData.addChild(DataProvider.createAtomicUsingNameInDataAndValue("indexType", indexType));
+		collectIndexTerm.addChild(extraData);
+		collectIndexTerms.put(id, collectIndexTerm);
+	}
+
+	@Override
+	public DataGroup getSearchTerm(String searchTermId) {
+		return searchTerms.get(searchTermId);
+	}
+
+	@Override
+	public DataGroup getCollectIndexTerm(String collectIndexTermId) {
+		return collectIndexTerms.get(collectIndexTermId);
+	}
+}
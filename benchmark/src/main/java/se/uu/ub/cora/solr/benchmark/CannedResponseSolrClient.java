@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * CannedResponseSolrClient answers all requests without doing any work, queries are answered with
+ * the same list of documents. It is used to measure the code in solrsearch without the cost of a
+ * Solr server.
+ */
+public class CannedResponseSolrClient extends SolrClient {
+	private static final long serialVersionUID = 1L;
+	private final transient SolrDocumentList documentsToReturn;
+
+	public CannedResponseSolrClient(SolrDocumentList documentsToReturn) {
+		this.documentsToReturn = documentsToReturn;
+	}
+
+	@Override
+	public NamedList<Object> request(SolrRequest<?> request, String collection) {
+		NamedList<Object> response = new NamedList<>();
+		response.add("responseHeader", createResponseHeader());
+		if (request instanceof QueryRequest) {
+			response.add("response", documentsToReturn);
+		}
+		return response;
+	}
+
+	private NamedList<Object> createResponseHeader() {
+		NamedList<Object> header = new NamedList<>();
+		header.add("status", 0);
+		header.add("QTime", 0);
+		return header;
+	}
+
+	@Override
+	public void close() {
+		// nothing to close
+	}
+}
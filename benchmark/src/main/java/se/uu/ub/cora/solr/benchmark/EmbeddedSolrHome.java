@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * EmbeddedSolrHome creates a Solr home in a temporary directory from the solr-home resources,
+ * with one core named {@value #CORE_NAME} using a schema matching the fields written by
+ * SolrRecordIndexer.
+ */
+public final class EmbeddedSolrHome {
+	public static final String CORE_NAME = "coracore";
+	private static final String RESOURCE_ROOT = "/solr-home/";
+	private static final List<String> FILES = List.of("solr.xml", "coracore/core.properties",
+			"coracore/conf/solrconfig.xml", "coracore/conf/schema.xml");
+	private final Path path;
+
+	private EmbeddedSolrHome(Path path) {
+		this.path = path;
+	}
+
+	public static EmbeddedSolrHome createInTemporaryDirectory() {
+		try {
+			Path path = Files.createTempDirectory("cora-solr-home");
+			copyResourcesTo(path);
+			return new EmbeddedSolrHome(path);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void copyResourcesTo(Path path) throws IOException {
+		for (String file : FILES) {
+			Path target = path.resolve(file);
+			Files.createDirectories(target.getParent());
+			try (InputStream resource = EmbeddedSolrHome.class
+					.getResourceAsStream(RESOURCE_ROOT + file)) {
+				Files.copy(resource, target);
+			}
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * getIndexSizeInBytes returns the total size of the files in the index directory of the core.
+	 */
+	public long getIndexSizeInBytes() {
+		try (Stream<Path> files = Files.walk(path.resolve(CORE_NAME).resolve("data"))) {
+			return files.filter(Files::isRegularFile).mapToLong(EmbeddedSolrHome::readSize).sum();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static long readSize(Path file) {
+		try {
+			return Files.size(file);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	public void delete() {
+		try (Stream<Path> files = Files.walk(path)) {
+			files.sorted(Comparator.reverseOrder()).forEach(EmbeddedSolrHome::deleteFile);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void deleteFile(Path file) {
+		try {
+			Files.delete(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
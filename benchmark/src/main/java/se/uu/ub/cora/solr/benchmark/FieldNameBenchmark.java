@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.collected.IndexTerm;
+import se.uu.ub.cora.solr.field.IndexFieldRegistry;
+
+/**
+ * FieldNameBenchmark measures resolving the Solr field names for the index terms of one record,
+ * using {@link IndexFieldRegistry} and, for comparison, choosing the suffix and concatenating the
+ * field name on every call as was done before the registry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FieldNameBenchmark {
+	private List<IndexTerm> indexTerms;
+
+	@Setup
+	public void setUp() {
+		indexTerms = BenchmarkRecords.createIndexTerms(100);
+	}
+
+	@Benchmark
+	public void resolveUsingRegistry(Blackhole blackhole) {
+		for (IndexTerm indexTerm : indexTerms) {
+			blackhole.consume(IndexFieldRegistry.getFieldName(indexTerm.indexFieldName(),
+					indexTerm.indexType()));
+		}
+	}
+
+	@Benchmark
+	public void resolveUsingConcatenation(Blackhole blackhole) {
+		for (IndexTerm indexTerm : indexTerms) {
+			blackhole.consume(
+					indexTerm.indexFieldName() + chooseSuffixFromIndexType(indexTerm.indexType()));
+		}
+	}
+
+	private String chooseSuffixFromIndexType(String indexType) {
+		if ("indexTypeString".equals(indexType) || "indexTypeId".equals(indexType)) {
+			return "_s";
+		} else if ("indexTypeBoolean".equals(indexType)) {
+			return "_b";
+		} else if ("indexTypeDate".equals(indexType)) {
+			return "_dt";
+		} else if ("indexTypeNumber".equals(indexType)) {
+			return "_l";
+		} else {
+			return "_t";
+		}
+	}
+}
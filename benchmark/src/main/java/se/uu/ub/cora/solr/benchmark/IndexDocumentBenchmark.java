@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.common.SolrDocumentList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.IndexTerm;
+import se.uu.ub.cora.solr.RecordPayloadFormat;
+import se.uu.ub.cora.solrindex.SolrIndexSettings;
+import se.uu.ub.cora.solrindex.SolrRecordIndexer;
+
+/**
+ * IndexDocumentBenchmark measures SolrRecordIndexer creating the SolrInputDocument for a record,
+ * including converting the record to JSON, for a varying number of index terms. The document is
+ * sent to a {@link CannedResponseSolrClient} so no time is spent in Solr. The payload format
+ * parameter shows the cost of compressing the stored record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class IndexDocumentBenchmark {
+	@Param({ "1", "10", "100" })
+	public int numberOfIndexTerms;
+
+	@Param({ "10" })
+	public int numberOfGroups;
+
+	@Param({ "JSON", "COMPRESSED_JSON", "BINARY" })
+	public RecordPayloadFormat payloadFormat;
+
+	private SolrRecordIndexer recordIndexer;
+	private List<IndexTerm> indexTerms;
+	private DataRecordGroup recordGroup;
+
+	@Setup
+	public void setUp() {
+		CannedResponseSolrClient solrClient = new CannedResponseSolrClient(
+				new SolrDocumentList());
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setRecordPayloadFormat(payloadFormat);
+		recordIndexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(() -> solrClient,
+						indexSettings);
+		indexTerms = BenchmarkRecords.createIndexTerms(numberOfIndexTerms);
+		recordGroup = BenchmarkRecords.createRecordGroup("publication", "publication:1",
+				numberOfGroups);
+	}
+
+	@Benchmark
+	public void indexWithoutExplicitCommit() {
+		recordIndexer.indexDataWithoutExplicitCommit("publication", "publication:1", indexTerms,
+				recordGroup);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LatencyRecorder keeps all latencies recorded by one thread, so that exact percentiles can be
+ * calculated when the recorders from all threads are merged.
+ */
+public final class LatencyRecorder {
+	private static final int INITIAL_CAPACITY = 1024;
+	private long[] latencies = new long[INITIAL_CAPACITY];
+	private int count = 0;
+	private long errors = 0;
+
+	public void recordNanos(long nanos) {
+		if (count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count] = nanos;
+		count++;
+	}
+
+	public void countError() {
+		errors++;
+	}
+
+	public static LatencyRecorder merge(Iterable<LatencyRecorder> recorders) {
+		LatencyRecorder merged = new LatencyRecorder();
+		for (LatencyRecorder recorder : recorders) {
+			for (int i = 0; i < recorder.count; i++) {
+				merged.recordNanos(recorder.latencies[i]);
+			}
+			merged.errors += recorder.errors;
+		}
+		Arrays.sort(merged.latencies, 0, merged.count);
+		return merged;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * getPercentileMillis returns the latency at the percentile, only valid on a merged recorder
+	 * as the latencies must be sorted.
+	 */
+	public double getPercentileMillis(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percentile / 100 * count) - 1;
+		return toMillis(latencies[Math.max(index, 0)]);
+	}
+
+	private double toMillis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
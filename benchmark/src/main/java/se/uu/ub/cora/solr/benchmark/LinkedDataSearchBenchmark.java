@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.collected.IndexTerm;
+import se.uu.ub.cora.search.SearchResult;
+import se.uu.ub.cora.solrindex.SolrIndexSettings;
+import se.uu.ub.cora.solrindex.SolrRecordIndexer;
+import se.uu.ub.cora.solrsearch.LinkedDataStrategy;
+import se.uu.ub.cora.solrsearch.SolrRecordSearch;
+import se.uu.ub.cora.solrsearch.SolrSearchSettings;
+
+/**
+ * LinkedDataSearchBenchmark measures a linked data search with each {@link LinkedDataStrategy}
+ * against an in-process EmbeddedSolrServer, so that, unlike {@link SearchBenchmark}, the time
+ * Solr spends on the join, on the two phase id lookup and terms filter, or on the denormalized
+ * field is included.
+ * <p>
+ * The index holds numberOfTexts coraText records with a swedish_t field and numberOfPublications
+ * publication records, each linking to one text through textId_s. Every textsPerMatch:th text
+ * contains the searched word, so the parameter sets how many texts, and therefore publications,
+ * the search matches. The texts are indexed before the publications with textId_s swedish_t as
+ * a denormalized linked field, so all strategies search the same index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkedDataSearchBenchmark {
+	private static final String TEXT_TYPE = "coraText";
+	private static final String PUBLICATION_TYPE = "publication";
+	private static final String SEARCHED_WORD = "uppsala";
+
+	@Param({ "1000" })
+	public int numberOfTexts;
+
+	@Param({ "20000" })
+	public int numberOfPublications;
+
+	@Param({ "1", "10", "100" })
+	public int textsPerMatch;
+
+	@Param({ "JOIN", "TWO_PHASE", "DENORMALIZED" })
+	public LinkedDataStrategy linkedDataStrategy;
+
+	private EmbeddedSolrHome solrHome;
+	private EmbeddedSolrServer solrServer;
+	private SolrRecordSearch recordSearch;
+	private DataGroup linkedSearchData;
+	private List<String> recordTypes = List.of(PUBLICATION_TYPE);
+
+	@Setup
+	public void setUp() throws SolrServerException, IOException {
+		solrHome = EmbeddedSolrHome.createInTemporaryDirectory();
+		solrServer = new EmbeddedSolrServer(solrHome.getPath(), EmbeddedSolrHome.CORE_NAME);
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.addDenormalizedLinkedField("textId_s", "swedish_t");
+		SolrRecordIndexer recordIndexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+						() -> solrServer, indexSettings);
+		indexTexts(recordIndexer);
+		solrServer.commit();
+		indexPublications(recordIndexer);
+		solrServer.commit();
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchSettings.setLinkedDataStrategyForSearchTerm("linkedTextSearchTerm",
+				linkedDataStrategy);
+		recordSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						() -> solrServer, new BenchmarkSearchStorageView(), searchSettings);
+		linkedSearchData = BenchmarkRecords.createSearchData("linkedTextSearchTerm",
+				SEARCHED_WORD);
+	}
+
+	private void indexTexts(SolrRecordIndexer recordIndexer) {
+		for (int i = 0; i < numberOfTexts; i++) {
+			String id = "text" + i;
+			String swedish = i % textsPerMatch == 0 ? "en text om " + SEARCHED_WORD + " " + i
+					: "en text om stockholm " + i;
+			recordIndexer.indexDataWithoutExplicitCommit(TEXT_TYPE, id,
+					List.of(new IndexTerm("swedishIndexTerm", swedish, "swedish",
+							"indexTypeText")),
+					BenchmarkRecords.createRecordGroup(TEXT_TYPE, id, 1));
+		}
+	}
+
+	private void indexPublications(SolrRecordIndexer recordIndexer) {
+		for (int i = 0; i < numberOfPublications; i++) {
+			String id = "publication" + i;
+			String linkedTextId = TEXT_TYPE + "_text" + (i % numberOfTexts);
+			recordIndexer.indexDataWithoutExplicitCommit(PUBLICATION_TYPE, id,
+					List.of(new IndexTerm("titleIndexTerm", "A publication number " + i, "title",
+							"indexTypeText"),
+							new IndexTerm("linkedTextIndexTerm", linkedTextId, "textId",
+									"indexTypeString")),
+					BenchmarkRecords.createRecordGroup(PUBLICATION_TYPE, id, 1));
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		solrServer.close();
+		solrHome.delete();
+	}
+
+	@Benchmark
+	public SearchResult searchLinkedDataTerm() {
+		return recordSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(recordTypes,
+				linkedSearchData);
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.converter.DataToJsonConverterProvider;
+import se.uu.ub.cora.data.converter.JsonToDataConverterProvider;
+import se.uu.ub.cora.json.parser.JsonValue;
+import se.uu.ub.cora.json.parser.org.OrgJsonParser;
+
+/**
+ * RecordConversionBenchmark measures converting records to and from the JSON stored in the
+ * recordAsJson field, for records of different sizes. The benchmarks use the same calls as
+ * convertDataRecordGroupToJsonString in SolrRecordIndexer and convertJsonStringToDataGroup in
+ * SolrRecordSearch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RecordConversionBenchmark {
+	@Param({ "1", "10", "100" })
+	public int numberOfGroups;
+
+	private DataRecordGroup recordGroup;
+	private String recordAsJson;
+
+	@Setup
+	public void setUp() {
+		recordGroup = BenchmarkRecords.createRecordGroup("publication", "publication:1",
+				numberOfGroups);
+		recordAsJson = BenchmarkRecords.createRecordAsJson(recordGroup);
+	}
+
+	@Benchmark
+	public String convertDataRecordGroupToJsonString() {
+		return DataToJsonConverterProvider.createImplementingFactory()
+				.factorUsingConvertible(recordGroup).toJson();
+	}
+
+	@Benchmark
+	public DataGroup convertJsonStringToDataGroup() {
+		JsonValue jsonValue = new OrgJsonParser().parseString(recordAsJson);
+		return (DataGroup) JsonToDataConverterProvider.getConverterUsingJsonObject(jsonValue)
+				.toInstance();
+	}
+}
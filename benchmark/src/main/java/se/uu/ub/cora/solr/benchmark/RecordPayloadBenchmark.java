@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.solr.RecordBinaryCodec;
+import se.uu.ub.cora.solr.RecordPayload;
+
+/**
+ * RecordPayloadBenchmark measures compressing the record json when indexing and decompressing it
+ * when reading search results, for records of different sizes. It also measures encoding the
+ * record to and decoding it from the binary payload, which replaces the json conversion measured
+ * in {@link RecordConversionBenchmark}. The setup prints the size of the json, of the compressed
+ * payload and of the binary payload, which is what is stored in the index and sent in each search
+ * response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RecordPayloadBenchmark {
+	@Param({ "1", "10", "100" })
+	public int numberOfGroups;
+
+	private DataRecordGroup recordGroup;
+	private String recordAsJson;
+	private byte[] compressedPayload;
+	private byte[] binaryPayload;
+
+	@Setup
+	public void setUp() {
+		recordGroup = BenchmarkRecords.createRecordGroup("publication", "publication:1",
+				numberOfGroups);
+		recordAsJson = BenchmarkRecords.createRecordAsJson(recordGroup);
+		compressedPayload = RecordPayload.compressJson(recordAsJson);
+		binaryPayload = RecordBinaryCodec.encode(recordGroup).orElseThrow();
+		int jsonBytes = recordAsJson.getBytes(StandardCharsets.UTF_8).length;
+		System.out.printf(Locale.ROOT,
+				"%nGroups: %d json: %d bytes compressed: %d bytes (%.1f%%) binary: %d bytes "
+						+ "(%.1f%%)%n",
+				numberOfGroups, jsonBytes, compressedPayload.length,
+				100.0 * compressedPayload.length / jsonBytes, binaryPayload.length,
+				100.0 * binaryPayload.length / jsonBytes);
+	}
+
+	@Benchmark
+	public byte[] compressJson() {
+		return RecordPayload.compressJson(recordAsJson);
+	}
+
+	@Benchmark
+	public String readCompressedJson() {
+		return RecordPayload.readJson(compressedPayload);
+	}
+
+	@Benchmark
+	public byte[] encodeBinary() {
+		return RecordBinaryCodec.encode(recordGroup).orElseThrow();
+	}
+
+	@Benchmark
+	public DataGroup decodeBinary() {
+		return RecordBinaryCodec.decode(ByteBuffer.wrap(binaryPayload));
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.search.SearchResult;
+import se.uu.ub.cora.solr.RecordPayloadFormat;
+import se.uu.ub.cora.solrsearch.IdSearchResult;
+import se.uu.ub.cora.solrsearch.LinkedDataStrategy;
+import se.uu.ub.cora.solrsearch.SolrRecordSearch;
+import se.uu.ub.cora.solrsearch.SolrSearchSettings;
+
+/**
+ * SearchBenchmark measures SolrRecordSearch building the query for a search and converting the
+ * returned documents. With zero documents returned the benchmarks measure query building only.
+ * The queries are answered by a {@link CannedResponseSolrClient}, so no time is spent in Solr,
+ * the two phase strategy therefore measures the client side cost of its extra query only. The
+ * payload format parameter shows the cost of decompressing the returned records.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SearchBenchmark {
+	@Param({ "0", "10", "100" })
+	public int numberOfDocuments;
+
+	@Param({ "10" })
+	public int numberOfGroups;
+
+	@Param({ "JOIN", "TWO_PHASE", "DENORMALIZED" })
+	public LinkedDataStrategy linkedDataStrategy;
+
+	@Param({ "JSON", "COMPRESSED_JSON", "BINARY" })
+	public RecordPayloadFormat payloadFormat;
+
+	private SolrRecordSearch recordSearch;
+	private DataGroup finalSearchData;
+	private DataGroup linkedSearchData;
+	private List<String> recordTypes = List.of("publication");
+
+	@Setup
+	public void setUp() {
+		CannedResponseSolrClient solrClient = new CannedResponseSolrClient(
+				BenchmarkRecords.createSolrDocuments(numberOfDocuments, numberOfGroups,
+						payloadFormat));
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchSettings.setLinkedDataStrategyForSearchTerm("linkedTextSearchTerm",
+				linkedDataStrategy);
+		recordSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						() -> solrClient, new BenchmarkSearchStorageView(), searchSettings);
+		finalSearchData = BenchmarkRecords.createSearchData("titleSearchTerm", "indexing");
+		linkedSearchData = BenchmarkRecords.createSearchData("linkedTextSearchTerm", "uppsala");
+	}
+
+	@Benchmark
+	public SearchResult searchFinalTerm() {
+		return recordSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(recordTypes,
+				finalSearchData);
+	}
+
+	@Benchmark
+	public SearchResult searchLinkedDataTerm() {
+		return recordSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(recordTypes,
+				linkedSearchData);
+	}
+
+	@Benchmark
+	public IdSearchResult searchFinalTermForIds() {
+		return recordSearch.searchForIdsUsingListOfRecordTypesToSearchInAndSearchData(recordTypes,
+				finalSearchData);
+	}
+}
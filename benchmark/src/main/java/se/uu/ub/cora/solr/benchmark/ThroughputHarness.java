@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.collected.IndexTerm;
+import se.uu.ub.cora.solr.RecordPayloadFormat;
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solrindex.SolrIndexSettings;
+import se.uu.ub.cora.solrindex.SolrRecordIndexer;
+import se.uu.ub.cora.solrsearch.SolrRecordSearch;
+
+/**
+ * ThroughputHarness runs concurrent index and search workloads through SolrRecordIndexer and
+ * SolrRecordSearch against an in-process EmbeddedSolrServer and reports throughput and latency
+ * percentiles per workload. Running everything in one process on a fresh index makes the numbers
+ * comparable between runs, unlike numbers from a shared Solr environment.
+ * <p>
+ * Arguments, all optional: indexThreads searchThreads seconds preloadedRecords
+ * groupsPerRecord payloadFormat, defaulting to 2 8 60 10000 10 JSON. The size of the index on
+ * disk is reported after preloading, so that payload formats can be compared.
+ */
+public final class ThroughputHarness {
+	private static final String RECORD_TYPE = "publication";
+	private final HarnessSettings settings;
+	private EmbeddedSolrServer solrServer;
+	private SolrClientProvider solrClientProvider;
+	private SolrIndexSettings indexSettings;
+	private EmbeddedSolrHome solrHome;
+
+	record HarnessSettings(int indexThreads, int searchThreads, int seconds,
+			int preloadedRecords, int groupsPerRecord, RecordPayloadFormat payloadFormat) {
+
+		static HarnessSettings fromArguments(String[] args) {
+			return new HarnessSettings(readArgument(args, 0, 2), readArgument(args, 1, 8),
+					readArgument(args, 2, 60), readArgument(args, 3, 10000),
+					readArgument(args, 4, 10), readPayloadFormat(args));
+		}
+
+		private static RecordPayloadFormat readPayloadFormat(String[] args) {
+			return args.length > 5 ? RecordPayloadFormat.valueOf(args[5])
+					: RecordPayloadFormat.JSON;
+		}
+
+		private static int readArgument(String[] args, int position, int defaultValue) {
+			return args.length > position ? Integer.parseInt(args[position]) : defaultValue;
+		}
+	}
+
+	private ThroughputHarness(HarnessSettings settings) {
+		this.settings = settings;
+		indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setRecordPayloadFormat(settings.payloadFormat());
+	}
+
+	public static void main(String[] args) throws Exception {
+		new ThroughputHarness(HarnessSettings.fromArguments(args)).run();
+	}
+
+	private void run() throws Exception {
+		solrHome = EmbeddedSolrHome.createInTemporaryDirectory();
+		solrServer = new EmbeddedSolrServer(solrHome.getPath(), EmbeddedSolrHome.CORE_NAME);
+		solrClientProvider = () -> solrServer;
+		try {
+			preloadRecords();
+			runWorkloads();
+		} finally {
+			solrServer.close();
+			solrHome.delete();
+		}
+	}
+
+	private void preloadRecords() throws SolrServerException, IOException {
+		long start = System.nanoTime();
+		SolrRecordIndexer recordIndexer = createRecordIndexer();
+		for (int i = 0; i < settings.preloadedRecords(); i++) {
+			indexRecord(recordIndexer, i, false);
+		}
+		solrServer.commit();
+		System.out.printf(Locale.ROOT, "Preloaded %d records in %d ms, payload format %s,"
+				+ " index size %d KB%n", settings.preloadedRecords(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+				settings.payloadFormat(), solrHome.getIndexSizeInBytes() / 1024);
+	}
+
+	private SolrRecordIndexer createRecordIndexer() {
+		return SolrRecordIndexer.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+				solrClientProvider, indexSettings);
+	}
+
+	private void indexRecord(SolrRecordIndexer recordIndexer, int number,
+			boolean explicitCommit) {
+		String id = RECORD_TYPE + ":" + number;
+		List<IndexTerm> indexTerms = createIndexTerms(number);
+		if (explicitCommit) {
+			recordIndexer.indexData(RECORD_TYPE, id, indexTerms, BenchmarkRecords
+					.createRecordGroup(RECORD_TYPE, id, settings.groupsPerRecord()));
+		} else {
+			recordIndexer.indexDataWithoutExplicitCommit(RECORD_TYPE, id, indexTerms,
+					BenchmarkRecords.createRecordGroup(RECORD_TYPE, id,
+							settings.groupsPerRecord()));
+		}
+	}
+
+	private List<IndexTerm> createIndexTerms(int number) {
+		return List.of(
+				new IndexTerm("titleIndexTerm", "A study of indexing number " + number, "title",
+						"indexTypeText"),
+				new IndexTerm("identifierIndexTerm", "identifier-" + number, "identifier",
+						"indexTypeString"),
+				new IndexTerm("pagesIndexTerm", String.valueOf(number % 500), "pages",
+						"indexTypeNumber"),
+				new IndexTerm("publishedIndexTerm", "2026-01-01T12:00:00Z", "published",
+						"indexTypeDate"));
+	}
+
+	private void runWorkloads() throws InterruptedException, ExecutionException {
+		int numberOfThreads = settings.indexThreads() + settings.searchThreads();
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.seconds());
+		List<Future<LatencyRecorder>> indexResults = new ArrayList<>();
+		List<Future<LatencyRecorder>> searchResults = new ArrayList<>();
+		for (int i = 0; i < settings.indexThreads(); i++) {
+			indexResults.add(executor.submit(createIndexWorkload(deadline)));
+		}
+		for (int i = 0; i < settings.searchThreads(); i++) {
+			searchResults.add(executor.submit(createSearchWorkload(deadline)));
+		}
+		report("index", indexResults);
+		report("search", searchResults);
+		executor.shutdown();
+	}
+
+	private Callable<LatencyRecorder> createIndexWorkload(long deadline) {
+		return () -> {
+			SolrRecordIndexer recordIndexer = createRecordIndexer();
+			return runUntilDeadline(deadline, () -> indexRecord(recordIndexer,
+					ThreadLocalRandom.current().nextInt(settings.preloadedRecords()), true));
+		};
+	}
+
+	private Callable<LatencyRecorder> createSearchWorkload(long deadline) {
+		return () -> {
+			SolrRecordSearch recordSearch = SolrRecordSearch
+					.createSolrRecordSearchUsingSolrClientProviderAndSearchStorage(
+							solrClientProvider, new BenchmarkSearchStorageView());
+			return runUntilDeadline(deadline, () -> search(recordSearch));
+		};
+	}
+
+	private void search(SolrRecordSearch recordSearch) {
+		int number = ThreadLocalRandom.current().nextInt(settings.preloadedRecords());
+		DataGroup searchData = number % 2 == 0
+				? BenchmarkRecords.createSearchData("titleSearchTerm", String.valueOf(number))
+				: BenchmarkRecords.createSearchData("identifierSearchTerm",
+						"identifier-" + number);
+		recordSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(List.of(RECORD_TYPE),
+				searchData);
+	}
+
+	private LatencyRecorder runUntilDeadline(long deadline, Runnable operation) {
+		LatencyRecorder recorder = new LatencyRecorder();
+		while (System.nanoTime() < deadline) {
+			long start = System.nanoTime();
+			try {
+				operation.run();
+				recorder.recordNanos(System.nanoTime() - start);
+			} catch (RuntimeException e) {
+				recorder.countError();
+			}
+		}
+		return recorder;
+	}
+
+	private void report(String workload, List<Future<LatencyRecorder>> results)
+			throws InterruptedException, ExecutionException {
+		List<LatencyRecorder> recorders = new ArrayList<>();
+		for (Future<LatencyRecorder> result : results) {
+			recorders.add(result.get());
+		}
+		LatencyRecorder merged = LatencyRecorder.merge(recorders);
+		System.out.printf(Locale.ROOT,
+				"%-6s threads: %3d operations: %8d errors: %5d throughput: %9.1f ops/s"
+						+ " p50: %8.3f ms p99: %8.3f ms%n",
+				workload, results.size(), merged.getCount(), merged.getErrors(),
+				merged.getCount() / (double) settings.seconds(), merged.getPercentileMillis(50),
+				merged.getPercentileMillis(99));
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.embedded;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.apache.solr.core.CoreContainer;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.SolrClientProviders;
+
+/**
+ * EmbeddedSolrClientProvider runs Solr in the same process using EmbeddedSolrServer, without the
+ * HTTP and socket overhead of a Solr running on the same host. It is intended for small single
+ * node installations and test environments.
+ * <p>
+ * Solr is started the first time a client is requested. All providers using the same Solr home
+ * share one started Solr, as only one Solr can use an index at a time, so an indexer and a search
+ * created with the same url use the same index.
+ * <p>
+ * This module has no module-info and must be used from the class path, as solr-core and
+ * solr-solrj both contain the package org.apache.solr.client.solrj.embedded.
+ */
+public final class EmbeddedSolrClientProvider implements SolrClientProvider {
+	public static final String URL_PREFIX = SolrClientProviders.EMBEDDED_URL_PREFIX;
+	private static final Map<Path, CoreContainer> coreContainers = new ConcurrentHashMap<>();
+	private Path solrHome;
+	private String coreName;
+	private SolrClient solrClient;
+
+	private EmbeddedSolrClientProvider(Path solrHome, String coreName) {
+		this.solrHome = solrHome;
+		this.coreName = coreName;
+	}
+
+	public static EmbeddedSolrClientProvider usingSolrHomeAndCoreName(Path solrHome,
+			String coreName) {
+		return new EmbeddedSolrClientProvider(solrHome.toAbsolutePath().normalize(), coreName);
+	}
+
+	/**
+	 * usingUrl creates a provider from an url on the form embedded:{solrHome}/{coreName}, for
+	 * instance embedded:/var/lib/cora/solr/coracore, mirroring http urls where the core name is
+	 * the last part of the url.
+	 */
+	public static EmbeddedSolrClientProvider usingUrl(String url) {
+		if (!isEmbeddedUrl(url)) {
+			throw EmbeddedSolrException.withMessage("Not an embedded solr url: " + url);
+		}
+		Path corePath = Path.of(url.substring(URL_PREFIX.length()));
+		if (corePath.getParent() == null) {
+			throw EmbeddedSolrException
+					.withMessage("Embedded solr url must contain solr home and core name: " + url);
+		}
+		return usingSolrHomeAndCoreName(corePath.getParent(),
+				corePath.getFileName().toString());
+	}
+
+	public static boolean isEmbeddedUrl(String url) {
+		return url.startsWith(URL_PREFIX);
+	}
+
+	@Override
+	public SolrClient getSolrClient() {
+		if (solrClient == null) {
+			CoreContainer coreContainer = coreContainers.computeIfAbsent(solrHome,
+					EmbeddedSolrClientProvider::startSolr);
+			solrClient = new EmbeddedSolrServer(coreContainer, coreName);
+		}
+		return solrClient;
+	}
+
+	private static CoreContainer startSolr(Path solrHome) {
+		try {
+			return CoreContainer.createAndLoad(solrHome);
+		} catch (Exception e) {
+			throw EmbeddedSolrException.withMessageAndException(
+					"Error starting embedded solr using solr home: " + solrHome + " "
+							+ e.getMessage(),
+					e);
+		}
+	}
+
+	/**
+	 * shutdownAll stops all Solr instances started by embedded providers. It should be called
+	 * when the application stops, so that the indexes are closed properly.
+	 */
+	public static void shutdownAll() {
+		for (CoreContainer coreContainer : coreContainers.values()) {
+			coreContainer.shutdown();
+		}
+		coreContainers.clear();
+	}
+
+	public Path getSolrHome() {
+		return solrHome;
+	}
+
+	public String getCoreName() {
+		return coreName;
+	}
+}
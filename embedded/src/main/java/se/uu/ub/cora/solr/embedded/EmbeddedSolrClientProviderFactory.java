@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.embedded;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.SolrClientProviderFactory;
+
+/**
+ * EmbeddedSolrClientProviderFactory makes {@link se.uu.ub.cora.solr.SolrClientProviders} create
+ * an {@link EmbeddedSolrClientProvider} for urls starting with
+ * {@value EmbeddedSolrClientProvider#URL_PREFIX}. It is registered using the java ServiceLoader
+ * mechanism, so adding this module to the class path is enough to enable the embedded mode.
+ */
+public final class EmbeddedSolrClientProviderFactory implements SolrClientProviderFactory {
+
+	@Override
+	public boolean handlesUrl(String solrUrl) {
+		return EmbeddedSolrClientProvider.isEmbeddedUrl(solrUrl);
+	}
+
+	@Override
+	public SolrClientProvider factorUsingUrl(String solrUrl) {
+		return EmbeddedSolrClientProvider.usingUrl(solrUrl);
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.embedded;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.SolrClientProviders;
+
+public class EmbeddedSolrClientProviderFactoryTest {
+	private EmbeddedSolrClientProviderFactory factory = new EmbeddedSolrClientProviderFactory();
+
+	@Test
+	public void testHandlesUrl() {
+		assertTrue(factory.handlesUrl("embedded:/var/lib/solr/coracore"));
+		assertFalse(factory.handlesUrl("http://localhost:8983/solr/coracore"));
+	}
+
+	@Test
+	public void testFactorUsingUrl() {
+		EmbeddedSolrClientProvider provider = (EmbeddedSolrClientProvider) factory
+				.factorUsingUrl("embedded:/var/lib/solr/coracore");
+
+		assertEquals(provider.getCoreName(), "coracore");
+	}
+
+	@Test
+	public void testFactoryIsRegisteredForSolrClientProviders() {
+		SolrClientProvider provider = SolrClientProviders
+				.createUsingUrl("embedded:/var/lib/solr/coracore");
+
+		assertTrue(provider instanceof EmbeddedSolrClientProvider);
+		assertEquals(((EmbeddedSolrClientProvider) provider).getCoreName(), "coracore");
+	}
+}
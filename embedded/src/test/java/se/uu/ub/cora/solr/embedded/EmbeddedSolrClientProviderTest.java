@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.embedded;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class EmbeddedSolrClientProviderTest {
+	private Path solrHome;
+
+	@BeforeMethod
+	public void beforeMethod() throws IOException, URISyntaxException {
+		solrHome = Files.createTempDirectory("embeddedSolrHome");
+		copySolrHomeFromTestResources();
+	}
+
+	private void copySolrHomeFromTestResources() throws IOException, URISyntaxException {
+		Path source = Path.of(getClass().getResource("/embedded-solr-home").toURI());
+		try (Stream<Path> files = Files.walk(source)) {
+			for (Path file : files.toList()) {
+				Path target = solrHome.resolve(source.relativize(file).toString());
+				if (Files.isDirectory(file)) {
+					Files.createDirectories(target);
+				} else {
+					Files.copy(file, target);
+				}
+			}
+		}
+	}
+
+	@AfterMethod
+	public void afterMethod() throws IOException {
+		EmbeddedSolrClientProvider.shutdownAll();
+		try (Stream<Path> files = Files.walk(solrHome)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void testIsEmbeddedUrl() {
+		assertTrue(EmbeddedSolrClientProvider.isEmbeddedUrl("embedded:/some/home/core"));
+		assertFalse(EmbeddedSolrClientProvider.isEmbeddedUrl("http://localhost:8983/solr/core"));
+	}
+
+	@Test
+	public void testUsingUrl() {
+		EmbeddedSolrClientProvider provider = EmbeddedSolrClientProvider
+				.usingUrl("embedded:/some/home/someCore");
+
+		assertEquals(provider.getSolrHome(), Path.of("/some/home").toAbsolutePath());
+		assertEquals(provider.getCoreName(), "someCore");
+	}
+
+	@Test(expectedExceptions = EmbeddedSolrException.class, expectedExceptionsMessageRegExp = ""
+			+ "Not an embedded solr url: http://localhost:8983/solr/core")
+	public void testUsingUrlNotEmbedded() {
+		EmbeddedSolrClientProvider.usingUrl("http://localhost:8983/solr/core");
+	}
+
+	@Test(expectedExceptions = EmbeddedSolrException.class, expectedExceptionsMessageRegExp = ""
+			+ "Embedded solr url must contain solr home and core name: embedded:someCore")
+	public void testUsingUrlWithoutSolrHome() {
+		EmbeddedSolrClientProvider.usingUrl("embedded:someCore");
+	}
+
+	@Test
+	public void testGetSolrClientReturnsSameInstance() {
+		EmbeddedSolrClientProvider provider = createProviderForTestCore();
+
+		assertSame(provider.getSolrClient(), provider.getSolrClient());
+	}
+
+	private EmbeddedSolrClientProvider createProviderForTestCore() {
+		return EmbeddedSolrClientProvider.usingSolrHomeAndCoreName(solrHome, "testcore");
+	}
+
+	@Test
+	public void testIndexAndReadDocument() throws Exception {
+		SolrClient solrClient = createProviderForTestCore().getSolrClient();
+		SolrInputDocument document = new SolrInputDocument();
+		document.addField("id", "someType_someId");
+		document.addField("title_s", "someTitle");
+
+		solrClient.add(document);
+		solrClient.commit();
+
+		SolrDocument readDocument = solrClient.getById("someType_someId");
+		assertEquals(readDocument.getFirstValue("title_s"), "someTitle");
+	}
+
+	@Test
+	public void testProvidersForSameSolrHomeShareSolr() throws Exception {
+		SolrClient indexClient = createProviderForTestCore().getSolrClient();
+		SolrClient searchClient = EmbeddedSolrClientProvider
+				.usingUrl("embedded:" + solrHome + "/testcore").getSolrClient();
+		SolrInputDocument document = new SolrInputDocument();
+		document.addField("id", "someType_someId");
+
+		indexClient.add(document);
+		indexClient.commit();
+
+		assertNotSame(indexClient, searchClient);
+		assertEquals(searchClient.getById("someType_someId").getFirstValue("id"),
+				"someType_someId");
+	}
+
+	@Test(expectedExceptions = EmbeddedSolrException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error starting embedded solr using solr home: .*")
+	public void testErrorStartingSolr() {
+		EmbeddedSolrClientProvider
+				.usingSolrHomeAndCoreName(solrHome.resolve("nonExistingHome"), "testcore")
+				.getSolrClient();
+	}
+}
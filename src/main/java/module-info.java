@@ -3,8 +3,23 @@ module se.uu.ub.cora.solrsearch {
 	requires transitive se.uu.ub.cora.search;
 	requires transitive se.uu.ub.cora.searchstorage;
 	requires transitive se.uu.ub.cora.data;
+	requires jdk.jfr;
+	requires se.uu.ub.cora.logger;
 
 	exports se.uu.ub.cora.solr;
+	exports se.uu.ub.cora.solr.admission;
+	exports se.uu.ub.cora.solr.field;
+	exports se.uu.ub.cora.solr.hedging;
+	exports se.uu.ub.cora.solr.jfr;
+	exports se.uu.ub.cora.solr.metrics;
+	exports se.uu.ub.cora.solr.resilience;
+	exports se.uu.ub.cora.solr.slowlog;
+	exports se.uu.ub.cora.solr.warmup;
 	exports se.uu.ub.cora.solrindex;
+	exports se.uu.ub.cora.solrindex.reindex;
+	exports se.uu.ub.cora.solrindex.spool;
 	exports se.uu.ub.cora.solrsearch;
+
+	uses se.uu.ub.cora.solr.SolrClientProviderFactory;
+	uses se.uu.ub.cora.solr.metrics.SolrMetricsExporter;
 }
\ No newline at end of file
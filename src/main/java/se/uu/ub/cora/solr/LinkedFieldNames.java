@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+public final class LinkedFieldNames {
+	private static final String DENORMALIZED_FIELD_SEPARATOR = "__";
+
+	private LinkedFieldNames() {
+		// prevent instantiation
+	}
+
+	/**
+	 * createDenormalizedFieldName returns the name of the field where values from a linked
+	 * record are stored in the document that links to it. The name ends with the suffix of the
+	 * linked field, so the field gets the same field type as the field it is copied from.
+	 * 
+	 * @param linkedOnFieldName
+	 *            the name of the field holding the link, for instance textId_s
+	 * @param linkedFieldName
+	 *            the name of the field in the linked record, for instance swedish_t
+	 * @return the name of the denormalized field, for instance textId_s__swedish_t
+	 */
+	public static String createDenormalizedFieldName(String linkedOnFieldName,
+			String linkedFieldName) {
+		return linkedOnFieldName + DENORMALIZED_FIELD_SEPARATOR + linkedFieldName;
+	}
+}
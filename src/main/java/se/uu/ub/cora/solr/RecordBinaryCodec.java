@@ -0,0 +1,333 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+
+/**
+ * RecordBinaryCodec encodes a record to and from the compact binary form stored in the
+ * recordPayload field with format marker {@value RecordPayload#BINARY_MARKER}, which avoids the
+ * conversion to and parsing of json when indexing and searching.
+ * <p>
+ * After the marker follows a table of all names used in the record, each name stored once, and
+ * then the record as nested nodes. Each node starts with a one byte tag and a four byte length of
+ * the rest of the node, so that a reader can skip nodes with tags it does not know. The node
+ * continues with the index of its name in the table, its repeatId, its attributes as pairs of name
+ * table indexes and then, depending on the tag, the value of an atomic, the linked type and id of
+ * a record link or the children of a group. Numbers are stored as variable length ints and
+ * strings as utf-8 prefixed with their length.
+ * <p>
+ * Only groups, atomics and record links can be encoded, records with other kinds of children
+ * (such as resource links) are not encoded so that they can be stored as json instead.
+ */
+public final class RecordBinaryCodec {
+	static final byte GROUP = 1;
+	static final byte ATOMIC = 2;
+	static final byte RECORD_LINK = 3;
+	private static final int NODE_LENGTH_SIZE = Integer.BYTES;
+	private static final int INITIAL_BUFFER_SIZE = 1024;
+	private static final int VARINT_DATA_BITS = 7;
+	private static final int VARINT_DATA_MASK = 0x7F;
+	private static final int VARINT_CONTINUATION_BIT = 0x80;
+	private final Map<String, Integer> nameIndexes = new HashMap<>();
+	private final List<String> names = new ArrayList<>();
+	private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+	private int position = 0;
+
+	private RecordBinaryCodec() {
+	}
+
+	/**
+	 * encode returns the record in binary form, or an empty optional if the record has children
+	 * that can not be encoded.
+	 */
+	public static Optional<byte[]> encode(DataRecordGroup dataRecordGroup) {
+		DataGroup dataGroup = DataProvider.createGroupFromRecordGroup(dataRecordGroup);
+		return new RecordBinaryCodec().encodeRecord(dataGroup);
+	}
+
+	private Optional<byte[]> encodeRecord(DataGroup dataGroup) {
+		if (!writeChild(dataGroup)) {
+			return Optional.empty();
+		}
+		byte[] nodes = Arrays.copyOf(bytes, position);
+		bytes = new byte[INITIAL_BUFFER_SIZE];
+		position = 0;
+		writeByte(RecordPayload.BINARY_MARKER);
+		writeVarInt(names.size());
+		for (String name : names) {
+			writeString(name);
+		}
+		ensureCapacity(nodes.length);
+		System.arraycopy(nodes, 0, bytes, position, nodes.length);
+		position += nodes.length;
+		return Optional.of(Arrays.copyOf(bytes, position));
+	}
+
+	private boolean writeChild(DataChild child) {
+		if (child instanceof DataRecordLink recordLink) {
+			int start = writeNodeStart(RECORD_LINK, recordLink);
+			writeVarInt(indexOfName(recordLink.getLinkedRecordType()));
+			writeString(recordLink.getLinkedRecordId());
+			writeNodeLength(start);
+			return true;
+		}
+		if (child instanceof DataAtomic atomic) {
+			int start = writeNodeStart(ATOMIC, atomic);
+			writeString(atomic.getValue());
+			writeNodeLength(start);
+			return true;
+		}
+		if (child instanceof DataGroup group) {
+			return writeGroup(group);
+		}
+		return false;
+	}
+
+	private boolean writeGroup(DataGroup group) {
+		int start = writeNodeStart(GROUP, group);
+		List<DataChild> children = group.getChildren();
+		writeVarInt(children.size());
+		for (DataChild child : children) {
+			if (!writeChild(child)) {
+				return false;
+			}
+		}
+		writeNodeLength(start);
+		return true;
+	}
+
+	private int writeNodeStart(byte tag, DataChild child) {
+		writeByte(tag);
+		int lengthPosition = position;
+		ensureCapacity(NODE_LENGTH_SIZE);
+		position += NODE_LENGTH_SIZE;
+		writeVarInt(indexOfName(child.getNameInData()));
+		writeRepeatId(child);
+		writeAttributes(child);
+		return lengthPosition;
+	}
+
+	private void writeRepeatId(DataChild child) {
+		if (child.hasRepeatId()) {
+			writeVarInt(1);
+			writeString(child.getRepeatId());
+		} else {
+			writeVarInt(0);
+		}
+	}
+
+	private void writeAttributes(DataChild child) {
+		if (!child.hasAttributes()) {
+			writeVarInt(0);
+			return;
+		}
+		Collection<DataAttribute> attributes = child.getAttributes();
+		writeVarInt(attributes.size());
+		for (DataAttribute attribute : attributes) {
+			writeVarInt(indexOfName(attribute.getNameInData()));
+			writeVarInt(indexOfName(attribute.getValue()));
+		}
+	}
+
+	private void writeNodeLength(int lengthPosition) {
+		int length = position - lengthPosition - NODE_LENGTH_SIZE;
+		ByteBuffer.wrap(bytes, lengthPosition, NODE_LENGTH_SIZE).putInt(length);
+	}
+
+	private int indexOfName(String name) {
+		return nameIndexes.computeIfAbsent(name, key -> {
+			names.add(key);
+			return names.size() - 1;
+		});
+	}
+
+	private void writeString(String value) {
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(utf8.length);
+		ensureCapacity(utf8.length);
+		System.arraycopy(utf8, 0, bytes, position, utf8.length);
+		position += utf8.length;
+	}
+
+	private void writeVarInt(int value) {
+		int remaining = value;
+		while ((remaining & ~VARINT_DATA_MASK) != 0) {
+			writeByte((byte) ((remaining & VARINT_DATA_MASK) | VARINT_CONTINUATION_BIT));
+			remaining >>>= VARINT_DATA_BITS;
+		}
+		writeByte((byte) remaining);
+	}
+
+	private void writeByte(byte value) {
+		ensureCapacity(1);
+		bytes[position++] = value;
+	}
+
+	private void ensureCapacity(int needed) {
+		if (position + needed > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + needed));
+		}
+	}
+
+	/**
+	 * decode returns the record stored in binary form as a DataGroup, created using
+	 * {@link DataProvider}.
+	 * 
+	 * @param payload
+	 *            the stored value positioned at its format marker
+	 */
+	public static DataGroup decode(ByteBuffer payload) {
+		try {
+			return new Decoder(payload).decodeRecord();
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+				| NegativeArraySizeException | ClassCastException e) {
+			throw RecordPayloadException.withMessageAndException(
+					"Error while decoding binary record payload: " + e.getMessage(), e);
+		}
+	}
+
+	private static final class Decoder {
+		private final ByteBuffer payload;
+		private String[] nameTable;
+
+		private Decoder(ByteBuffer payload) {
+			this.payload = payload;
+		}
+
+		private DataGroup decodeRecord() {
+			byte marker = payload.get();
+			if (marker != RecordPayload.BINARY_MARKER) {
+				throw RecordPayloadException
+						.withMessage("Not a binary record payload, format marker: " + marker);
+			}
+			readNameTable();
+			return (DataGroup) readChild().orElseThrow(() -> RecordPayloadException
+					.withMessage("Binary record payload does not start with a group"));
+		}
+
+		private void readNameTable() {
+			nameTable = new String[readVarInt()];
+			for (int i = 0; i < nameTable.length; i++) {
+				nameTable[i] = readString();
+			}
+		}
+
+		private Optional<DataChild> readChild() {
+			byte tag = payload.get();
+			int length = payload.getInt();
+			int end = payload.position() + length;
+			Optional<DataChild> child = readKnownChild(tag);
+			payload.position(end);
+			return child;
+		}
+
+		private Optional<DataChild> readKnownChild(byte tag) {
+			if (tag != GROUP && tag != ATOMIC && tag != RECORD_LINK) {
+				return Optional.empty();
+			}
+			String nameInData = readName();
+			String repeatId = readVarInt() == 1 ? readString() : null;
+			List<String[]> attributes = readAttributes();
+			DataChild child = createChild(tag, nameInData);
+			if (repeatId != null) {
+				child.setRepeatId(repeatId);
+			}
+			for (String[] attribute : attributes) {
+				child.addAttributeByIdWithValue(attribute[0], attribute[1]);
+			}
+			return Optional.of(child);
+		}
+
+		private List<String[]> readAttributes() {
+			int numberOfAttributes = readVarInt();
+			List<String[]> attributes = new ArrayList<>(numberOfAttributes);
+			for (int i = 0; i < numberOfAttributes; i++) {
+				attributes.add(new String[] { readName(), readName() });
+			}
+			return attributes;
+		}
+
+		private DataChild createChild(byte tag, String nameInData) {
+			if (tag == ATOMIC) {
+				return DataProvider.createAtomicUsingNameInDataAndValue(nameInData, readString());
+			}
+			if (tag == RECORD_LINK) {
+				return DataProvider.createRecordLinkUsingNameInDataAndTypeAndId(nameInData,
+						readName(), readString());
+			}
+			return readGroup(nameInData);
+		}
+
+		private DataGroup readGroup(String nameInData) {
+			DataGroup group = DataProvider.createGroupUsingNameInData(nameInData);
+			int numberOfChildren = readVarInt();
+			for (int i = 0; i < numberOfChildren; i++) {
+				readChild().ifPresent(group::addChild);
+			}
+			return group;
+		}
+
+		private String readName() {
+			return nameTable[readVarInt()];
+		}
+
+		private String readString() {
+			int length = readVarInt();
+			if (!payload.hasArray()) {
+				byte[] utf8 = new byte[length];
+				payload.get(utf8);
+				return new String(utf8, StandardCharsets.UTF_8);
+			}
+			String value = new String(payload.array(), payload.arrayOffset() + payload.position(),
+					length, StandardCharsets.UTF_8);
+			payload.position(payload.position() + length);
+			return value;
+		}
+
+		private int readVarInt() {
+			int value = 0;
+			int shift = 0;
+			byte current;
+			do {
+				current = payload.get();
+				value |= (current & VARINT_DATA_MASK) << shift;
+				shift += VARINT_DATA_BITS;
+			} while ((current & VARINT_CONTINUATION_BIT) != 0);
+			return value;
+		}
+	}
+}
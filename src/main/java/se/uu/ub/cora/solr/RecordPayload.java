@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * RecordPayload encodes and decodes the binary recordPayload field, used instead of the plain text
+ * recordAsJson field to store the indexed record in a smaller form. The field must be a stored
+ * binary field (solr.BinaryField) in the schema.
+ * <p>
+ * The first byte of the payload is a format marker, so that new formats can be added while
+ * documents in older formats can still be read. Documents indexed before the payload was used
+ * have no recordPayload field and are read from recordAsJson as before.
+ * <p>
+ * Marker {@value #COMPRESSED_JSON_MARKER} is json compressed with raw deflate, after the marker
+ * follows the length of the uncompressed json in bytes as a four byte int and then the
+ * compressed utf-8 bytes.
+ * <p>
+ * Marker {@value #BINARY_MARKER} is the record encoded by {@link RecordBinaryCodec}.
+ */
+public final class RecordPayload {
+	public static final String FIELD_NAME = "recordPayload";
+	public static final byte COMPRESSED_JSON_MARKER = 1;
+	public static final byte BINARY_MARKER = 2;
+	private static final int HEADER_SIZE = 1 + Integer.BYTES;
+	private static final int BUFFER_SIZE = 8192;
+	private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal
+			.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+	private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal
+			.withInitial(() -> new Inflater(true));
+
+	private RecordPayload() {
+	}
+
+	public static byte[] compressJson(String json) {
+		byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+		Deflater deflater = DEFLATERS.get();
+		deflater.reset();
+		deflater.setInput(jsonBytes);
+		deflater.finish();
+		ByteBuffer payload = ByteBuffer.allocate(HEADER_SIZE + jsonBytes.length / 2 + BUFFER_SIZE);
+		payload.put(COMPRESSED_JSON_MARKER).putInt(jsonBytes.length);
+		while (!deflater.finished()) {
+			payload = ensureRemaining(payload);
+			int written = deflater.deflate(payload.array(), payload.position(),
+					payload.remaining());
+			payload.position(payload.position() + written);
+		}
+		return toArray(payload);
+	}
+
+	private static ByteBuffer ensureRemaining(ByteBuffer payload) {
+		if (payload.hasRemaining()) {
+			return payload;
+		}
+		ByteBuffer larger = ByteBuffer.allocate(payload.capacity() * 2);
+		payload.flip();
+		return larger.put(payload);
+	}
+
+	private static byte[] toArray(ByteBuffer payload) {
+		byte[] bytes = new byte[payload.position()];
+		System.arraycopy(payload.array(), 0, bytes, 0, bytes.length);
+		return bytes;
+	}
+
+	/**
+	 * readJson returns the json stored in a recordPayload field value, as returned by SolrJ.
+	 * 
+	 * @param storedValue
+	 *            the value as a byte[] or a ByteBuffer
+	 */
+	public static String readJson(Object storedValue) {
+		ByteBuffer payload = toByteBuffer(storedValue);
+		byte marker = payload.get();
+		if (marker != COMPRESSED_JSON_MARKER) {
+			throw RecordPayloadException
+					.withMessage("Unknown record payload format marker: " + marker);
+		}
+		return decompressJson(payload);
+	}
+
+	/**
+	 * isBinaryRecord returns true if the stored value is a record encoded by
+	 * {@link RecordBinaryCodec}, false if it holds json.
+	 */
+	public static boolean isBinaryRecord(Object storedValue) {
+		ByteBuffer payload = toByteBuffer(storedValue);
+		return payload.get(payload.position()) == BINARY_MARKER;
+	}
+
+	/**
+	 * toByteBuffer returns a buffer positioned at the format marker of the stored value.
+	 */
+	public static ByteBuffer toByteBuffer(Object storedValue) {
+		if (storedValue instanceof byte[] bytes && bytes.length > 0) {
+			return ByteBuffer.wrap(bytes);
+		}
+		if (storedValue instanceof ByteBuffer buffer && buffer.hasRemaining()) {
+			return buffer.slice();
+		}
+		throw RecordPayloadException
+				.withMessage("Record payload is not a non empty binary value: " + storedValue);
+	}
+
+	private static String decompressJson(ByteBuffer payload) {
+		byte[] json = new byte[payload.getInt()];
+		Inflater inflater = INFLATERS.get();
+		inflater.reset();
+		inflater.setInput(payload);
+		try {
+			int read = 0;
+			while (read < json.length && !inflater.finished()) {
+				read += inflate(inflater, json, read);
+			}
+			return new String(json, 0, read, StandardCharsets.UTF_8);
+		} catch (DataFormatException e) {
+			throw RecordPayloadException.withMessageAndException(
+					"Error while decompressing record payload: " + e.getMessage(), e);
+		}
+	}
+
+	private static int inflate(Inflater inflater, byte[] json, int offset)
+			throws DataFormatException {
+		int read = inflater.inflate(json, offset, json.length - offset);
+		if (read == 0 && inflater.needsInput()) {
+			throw new DataFormatException("payload ended before all json was read");
+		}
+		return read;
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+/**
+ * RecordPayloadFormat is the format the indexed record is stored in, see {@link RecordPayload}.
+ */
+public enum RecordPayloadFormat {
+	/**
+	 * The record is stored as plain json text in the recordAsJson field.
+	 */
+	JSON,
+	/**
+	 * The record is stored as deflate compressed json in the binary recordPayload field.
+	 */
+	COMPRESSED_JSON,
+	/**
+	 * The record is stored encoded by {@link RecordBinaryCodec} in the binary recordPayload field,
+	 * which avoids converting it to and from json. Records that can not be encoded are stored as
+	 * plain json text in the recordAsJson field.
+	 */
+	BINARY
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+/**
+ * SolrClientProviderFactory creates {@link SolrClientProvider}s for solr urls that are not plain
+ * HTTP urls, such as the embedded: urls handled by the solrsearch-embedded module.
+ * Implementations are found using the java ServiceLoader mechanism by
+ * {@link SolrClientProviders}.
+ */
+public interface SolrClientProviderFactory {
+
+	/**
+	 * handlesUrl returns true if this factory creates the provider for the specified url.
+	 */
+	boolean handlesUrl(String solrUrl);
+
+	SolrClientProvider factorUsingUrl(String solrUrl);
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+import java.util.ServiceLoader;
+
+/**
+ * SolrClientProviders creates the {@link SolrClientProvider} to use for a configured solr url. Urls
+ * handled by a registered {@link SolrClientProviderFactory} get their provider from that factory,
+ * all other urls are used as the base url of a Solr reached over HTTP.
+ * <p>
+ * Urls starting with {@value #EMBEDDED_URL_PREFIX} run Solr in process. They are handled by the
+ * solrsearch-embedded module, which must be on the class path as solr-core can not be read as a
+ * module together with solr-solrj.
+ * <p>
+ * Use this both when setting up indexing and search so that the url configuration selects the
+ * same mode for both.
+ */
+public final class SolrClientProviders {
+	public static final String EMBEDDED_URL_PREFIX = "embedded:";
+	private static Iterable<SolrClientProviderFactory> factories = ServiceLoader
+			.load(SolrClientProviderFactory.class);
+
+	private SolrClientProviders() {
+	}
+
+	public static SolrClientProvider createUsingUrl(String solrUrl) {
+		for (SolrClientProviderFactory factory : factories) {
+			if (factory.handlesUrl(solrUrl)) {
+				return factory.factorUsingUrl(solrUrl);
+			}
+		}
+		if (solrUrl.startsWith(EMBEDDED_URL_PREFIX)) {
+			throw SolrClientProviderException.withMessage(
+					"Embedded solr url used without solrsearch-embedded on the class path: "
+							+ solrUrl);
+		}
+		return SolrClientProviderImp.usingBaseUrl(solrUrl);
+	}
+
+	public static void onlyForTestSetFactories(Iterable<SolrClientProviderFactory> factories) {
+		SolrClientProviders.factories = factories;
+	}
+
+	public static void onlyForTestResetFactories() {
+		factories = ServiceLoader.load(SolrClientProviderFactory.class);
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.admission;
+
+import java.io.IOException;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.params.UpdateParams;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * AdmissionControlledSolrClient decorates a SolrClient so that every request first acquires a
+ * {@link Permit} for its {@link TrafficClass} from an {@link AdmissionController}. Timeouts,
+ * connection errors and server errors (status 500 and above, and 429 Too Many Requests) are
+ * reported as overload, decreasing the limit. Successful commits are not used as latency samples,
+ * as a hard commit is expected to take longer than the latency threshold without Solr being
+ * overloaded.
+ */
+public final class AdmissionControlledSolrClient extends SolrClient {
+	private static final long serialVersionUID = 1L;
+	private static final int TOO_MANY_REQUESTS = 429;
+	private static final int FIRST_SERVER_ERROR_CODE = 500;
+	private final SolrClient solrClient;
+	private final transient AdmissionController controller;
+	private final TrafficClass trafficClass;
+
+	private AdmissionControlledSolrClient(SolrClient solrClient, AdmissionController controller,
+			TrafficClass trafficClass) {
+		this.solrClient = solrClient;
+		this.controller = controller;
+		this.trafficClass = trafficClass;
+	}
+
+	public static AdmissionControlledSolrClient usingSolrClientControllerAndTrafficClass(
+			SolrClient solrClient, AdmissionController controller, TrafficClass trafficClass) {
+		return new AdmissionControlledSolrClient(solrClient, controller, trafficClass);
+	}
+
+	@Override
+	public NamedList<Object> request(SolrRequest<?> request, String collection)
+			throws SolrServerException, IOException {
+		Permit permit = controller.acquire(trafficClass);
+		try {
+			NamedList<Object> response = solrClient.request(request, collection);
+			releaseAfterResponse(permit, request);
+			return response;
+		} catch (SolrServerException | IOException | RuntimeException e) {
+			releaseAfterException(permit, e);
+			throw e;
+		}
+	}
+
+	private void releaseAfterResponse(Permit permit, SolrRequest<?> request) {
+		if (isCommit(request)) {
+			permit.releaseWithoutSample();
+		} else {
+			permit.releaseAfterSuccess();
+		}
+	}
+
+	private boolean isCommit(SolrRequest<?> request) {
+		SolrParams params = request.getParams();
+		return params != null && params.getBool(UpdateParams.COMMIT, false);
+	}
+
+	private void releaseAfterException(Permit permit, Exception e) {
+		if (isOverload(e)) {
+			permit.releaseAfterOverload();
+		} else {
+			permit.releaseAfterSuccess();
+		}
+	}
+
+	private boolean isOverload(Exception e) {
+		if (e instanceof SolrException solrException) {
+			int code = solrException.code();
+			return code == TOO_MANY_REQUESTS || code >= FIRST_SERVER_ERROR_CODE;
+		}
+		return e instanceof SolrServerException || e instanceof IOException;
+	}
+
+	@Override
+	public void close() throws IOException {
+		solrClient.close();
+	}
+
+	public SolrClient onlyForTestGetSolrClient() {
+		return solrClient;
+	}
+
+	public AdmissionController getController() {
+		return controller;
+	}
+
+	public TrafficClass getTrafficClass() {
+		return trafficClass;
+	}
+}
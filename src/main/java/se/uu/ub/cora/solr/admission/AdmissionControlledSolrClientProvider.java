@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.admission;
+
+import org.apache.solr.client.solrj.SolrClient;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+
+/**
+ * AdmissionControlledSolrClientProvider wraps the client from another provider in an
+ * {@link AdmissionControlledSolrClient}. Wrap the provider used for search with
+ * {@link TrafficClass#SEARCH} and the one used for indexing with {@link TrafficClass#INDEX}, using
+ * the same controller.
+ */
+public final class AdmissionControlledSolrClientProvider implements SolrClientProvider {
+	private final SolrClientProvider solrClientProvider;
+	private final AdmissionController controller;
+	private final TrafficClass trafficClass;
+	private AdmissionControlledSolrClient solrClient;
+
+	private AdmissionControlledSolrClientProvider(SolrClientProvider solrClientProvider,
+			AdmissionController controller, TrafficClass trafficClass) {
+		this.solrClientProvider = solrClientProvider;
+		this.controller = controller;
+		this.trafficClass = trafficClass;
+	}
+
+	public static AdmissionControlledSolrClientProvider wrapping(
+			SolrClientProvider solrClientProvider, AdmissionController controller,
+			TrafficClass trafficClass) {
+		return new AdmissionControlledSolrClientProvider(solrClientProvider, controller,
+				trafficClass);
+	}
+
+	@Override
+	public SolrClient getSolrClient() {
+		if (solrClient == null) {
+			solrClient = AdmissionControlledSolrClient.usingSolrClientControllerAndTrafficClass(
+					solrClientProvider.getSolrClient(), controller, trafficClass);
+		}
+		return solrClient;
+	}
+
+	public SolrClientProvider onlyForTestGetSolrClientProvider() {
+		return solrClientProvider;
+	}
+
+	public TrafficClass onlyForTestGetTrafficClass() {
+		return trafficClass;
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.admission;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+
+/**
+ * AdmissionController limits the number of concurrent requests sent to Solr, with one adaptive
+ * limit for each {@link TrafficClass}. The limits adapt to how Solr responds, see
+ * {@link AimdLimit}. Requests over the limit wait in a bounded queue and are rejected with an
+ * {@link AdmissionRejectedException} when the queue is full or the wait is too long.
+ * <p>
+ * Searches have priority, no indexing request is started while a search is waiting for a permit.
+ * A reindex burst therefore slows down instead of making interactive searches wait.
+ * <p>
+ * The same instance must be used for search and indexing against one Solr for the priority to
+ * work. The limit, number of requests in flight and number of rejected requests are exposed as
+ * {@value #LIMIT_GAUGE}, {@value #IN_FLIGHT_GAUGE} and {@value #REJECTED_COUNTER}, tagged with the
+ * traffic class.
+ */
+public final class AdmissionController {
+	public static final String LIMIT_GAUGE = "solr.admission.limit";
+	public static final String IN_FLIGHT_GAUGE = "solr.admission.inflight";
+	public static final String REJECTED_COUNTER = "solr.admission.rejected";
+	private final boolean enabled;
+	private final SolrMetrics metrics;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Map<TrafficClass, Lane> lanes = new EnumMap<>(TrafficClass.class);
+	private LongSupplier nanoClock = System::nanoTime;
+
+	private final class Lane {
+		private final TrafficClass trafficClass;
+		private final LimiterSettings settings;
+		private final AimdLimit limit;
+		private final Condition permitMayBeAvailable = lock.newCondition();
+		private final MetricKey rejectedKey;
+		private int inFlight = 0;
+		private int waiting = 0;
+
+		private Lane(TrafficClass trafficClass, LimiterSettings settings) {
+			this.trafficClass = trafficClass;
+			this.settings = settings;
+			limit = new AimdLimit(settings);
+			Map<String, String> tags = Map.of("trafficClass", trafficClass.getTagValue());
+			rejectedKey = new MetricKey(REJECTED_COUNTER, tags);
+			metrics.registerGauge(new MetricKey(LIMIT_GAUGE, tags), () -> getLimit(trafficClass));
+			metrics.registerGauge(new MetricKey(IN_FLIGHT_GAUGE, tags),
+					() -> getInFlight(trafficClass));
+		}
+	}
+
+	private AdmissionController(boolean enabled, SolrMetrics metrics) {
+		this.enabled = enabled;
+		this.metrics = metrics;
+	}
+
+	public static AdmissionController disabled() {
+		return new AdmissionController(false, null);
+	}
+
+	public static AdmissionController usingSearchAndIndexSettingsAndMetrics(
+			LimiterSettings searchSettings, LimiterSettings indexSettings, SolrMetrics metrics) {
+		AdmissionController controller = new AdmissionController(true, metrics);
+		controller.addLane(TrafficClass.SEARCH, searchSettings);
+		controller.addLane(TrafficClass.INDEX, indexSettings);
+		return controller;
+	}
+
+	private void addLane(TrafficClass trafficClass, LimiterSettings settings) {
+		lanes.put(trafficClass, new Lane(trafficClass, settings));
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * acquire waits for a permit to send a request of the specified traffic class. The returned
+	 * permit must be released when the request is done.
+	 * 
+	 * @throws AdmissionRejectedException
+	 *             if the queue is full or no permit was available within the maximum wait
+	 */
+	public Permit acquire(TrafficClass trafficClass) throws AdmissionRejectedException {
+		Lane lane = lanes.get(trafficClass);
+		lock.lock();
+		try {
+			if (!mayStart(lane)) {
+				waitForPermit(lane);
+			}
+			lane.inFlight++;
+			return new Permit(this, trafficClass, nanoClock.getAsLong());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean mayStart(Lane lane) {
+		return lane.inFlight < lane.limit.getLimit() && noHigherPriorityIsWaiting(lane);
+	}
+
+	private boolean noHigherPriorityIsWaiting(Lane lane) {
+		return lane.trafficClass == TrafficClass.SEARCH
+				|| lanes.get(TrafficClass.SEARCH).waiting == 0;
+	}
+
+	private void waitForPermit(Lane lane) throws AdmissionRejectedException {
+		if (lane.waiting >= lane.settings.getMaxQueueLength()) {
+			throw reject(lane, "queue is full");
+		}
+		lane.waiting++;
+		try {
+			long remainingNanos = TimeUnit.MILLISECONDS.toNanos(lane.settings.getMaxWaitMillis());
+			while (!mayStart(lane)) {
+				if (remainingNanos <= 0) {
+					throw reject(lane, "no permit within maximum wait");
+				}
+				remainingNanos = lane.permitMayBeAvailable.awaitNanos(remainingNanos);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw reject(lane, "interrupted while waiting");
+		} finally {
+			lane.waiting--;
+			signalAll();
+		}
+	}
+
+	private AdmissionRejectedException reject(Lane lane, String reason) {
+		metrics.addToCounter(lane.rejectedKey, 1);
+		return AdmissionRejectedException.withMessage("Solr " + lane.trafficClass.getTagValue()
+				+ " request rejected by admission control, " + reason);
+	}
+
+	void release(TrafficClass trafficClass, long startNanos, boolean overloaded) {
+		Lane lane = lanes.get(trafficClass);
+		lock.lock();
+		try {
+			lane.limit.onSample(nanoClock.getAsLong() - startNanos, lane.inFlight, overloaded);
+			lane.inFlight--;
+			signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void releaseWithoutSample(TrafficClass trafficClass) {
+		Lane lane = lanes.get(trafficClass);
+		lock.lock();
+		try {
+			lane.inFlight--;
+			signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void signalAll() {
+		for (Lane lane : lanes.values()) {
+			lane.permitMayBeAvailable.signalAll();
+		}
+	}
+
+	public int getLimit(TrafficClass trafficClass) {
+		lock.lock();
+		try {
+			return lanes.get(trafficClass).limit.getLimit();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getInFlight(TrafficClass trafficClass) {
+		lock.lock();
+		try {
+			return lanes.get(trafficClass).inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getWaiting(TrafficClass trafficClass) {
+		lock.lock();
+		try {
+			return lanes.get(trafficClass).waiting;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void onlyForTestSetNanoClock(LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.admission;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AimdLimit adapts a concurrency limit using additive increase, multiplicative decrease. Each
+ * request that is slower than the latency threshold or fails because of overload multiplies the
+ * limit by the backoff ratio. Each other request increases the limit by one, as long as the limit
+ * is in use, so that an idle lane does not grow its limit without knowing if Solr can take it.
+ * <p>
+ * AimdLimit is not thread safe, it is guarded by {@link AdmissionController}.
+ */
+final class AimdLimit {
+	private final LimiterSettings settings;
+	private final long latencyThresholdNanos;
+	private double limit;
+
+	AimdLimit(LimiterSettings settings) {
+		this.settings = settings;
+		latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(settings.getLatencyThresholdMillis());
+		limit = settings.getInitialLimit();
+	}
+
+	void onSample(long latencyNanos, int inFlight, boolean overloaded) {
+		if (overloaded || latencyNanos > latencyThresholdNanos) {
+			limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+		} else if (inFlight * 2 >= limit) {
+			limit = Math.min(settings.getMaxLimit(), limit + 1);
+		}
+	}
+
+	int getLimit() {
+		return (int) limit;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.admission;
+
+/**
+ * LimiterSettings holds the settings for the concurrency limit of one {@link TrafficClass}.
+ */
+public final class LimiterSettings {
+	private static final int DEFAULT_INITIAL_LIMIT = 20;
+	private static final int DEFAULT_MIN_LIMIT = 1;
+	private static final int DEFAULT_MAX_LIMIT = 200;
+	private static final long DEFAULT_LATENCY_THRESHOLD_MILLIS = 2000;
+	private static final double DEFAULT_BACKOFF_RATIO = 0.9;
+	private static final int DEFAULT_MAX_QUEUE_LENGTH = 100;
+	private static final long DEFAULT_MAX_WAIT_MILLIS = 5000;
+	private int initialLimit = DEFAULT_INITIAL_LIMIT;
+	private int minLimit = DEFAULT_MIN_LIMIT;
+	private int maxLimit = DEFAULT_MAX_LIMIT;
+	private long latencyThresholdMillis = DEFAULT_LATENCY_THRESHOLD_MILLIS;
+	private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+	private int maxQueueLength = DEFAULT_MAX_QUEUE_LENGTH;
+	private long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+
+	private LimiterSettings() {
+	}
+
+	public static LimiterSettings withDefaults() {
+		return new LimiterSettings();
+	}
+
+	/**
+	 * setLimits sets the number of concurrent requests allowed at start and the range the limit
+	 * is adapted within.
+	 * <p>
+	 * Default is 20, 1 and 200.
+	 */
+	public void setLimits(int initialLimit, int minLimit, int maxLimit) {
+		this.initialLimit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+	}
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	/**
+	 * setLatencyThresholdInMillis sets the latency above which a request is taken as a sign that
+	 * Solr is overloaded, decreasing the limit. The latency of commits is not compared to the
+	 * threshold, see {@link AdmissionControlledSolrClient}.
+	 * <p>
+	 * Default is 2000 milliseconds.
+	 */
+	public void setLatencyThresholdInMillis(long latencyThresholdMillis) {
+		this.latencyThresholdMillis = latencyThresholdMillis;
+	}
+
+	public long getLatencyThresholdMillis() {
+		return latencyThresholdMillis;
+	}
+
+	/**
+	 * setBackoffRatio sets the factor the limit is multiplied with when Solr is overloaded.
+	 * <p>
+	 * Default is 0.9.
+	 */
+	public void setBackoffRatio(double backoffRatio) {
+		this.backoffRatio = backoffRatio;
+	}
+
+	public double getBackoffRatio() {
+		return backoffRatio;
+	}
+
+	/**
+	 * setQueue sets how many requests may wait for a permit and for how long. Requests arriving
+	 * when the queue is full are rejected at once.
+	 * <p>
+	 * Default is 100 requests waiting at most 5000 milliseconds.
+	 */
+	public void setQueue(int maxQueueLength, long maxWaitMillis) {
+		this.maxQueueLength = maxQueueLength;
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	public int getMaxQueueLength() {
+		return maxQueueLength;
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.admission;
+
+/**
+ * Permit is the right to send one request to Solr, acquired from {@link AdmissionController}. It
+ * must be released exactly once when the request is done, later releases are ignored.
+ */
+public final class Permit {
+	private final AdmissionController controller;
+	private final TrafficClass trafficClass;
+	private final long startNanos;
+	private boolean released = false;
+
+	Permit(AdmissionController controller, TrafficClass trafficClass, long startNanos) {
+		this.controller = controller;
+		this.trafficClass = trafficClass;
+		this.startNanos = startNanos;
+	}
+
+	/**
+	 * releaseAfterSuccess releases the permit after Solr answered, including answers with client
+	 * errors.
+	 */
+	public void releaseAfterSuccess() {
+		release(false);
+	}
+
+	/**
+	 * releaseAfterOverload releases the permit after a request failed in a way that indicates Solr
+	 * is overloaded, such as a timeout or a server error, decreasing the limit.
+	 */
+	public void releaseAfterOverload() {
+		release(true);
+	}
+
+	/**
+	 * releaseWithoutSample releases the permit without adapting the limit, for requests whose
+	 * latency does not show how loaded Solr is, such as commits.
+	 */
+	public synchronized void releaseWithoutSample() {
+		if (!released) {
+			released = true;
+			controller.releaseWithoutSample(trafficClass);
+		}
+	}
+
+	private synchronized void release(boolean overloaded) {
+		if (!released) {
+			released = true;
+			controller.release(trafficClass, startNanos, overloaded);
+		}
+	}
+
+	public TrafficClass getTrafficClass() {
+		return trafficClass;
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.field;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IndexFieldRegistry maps the index types of collect index terms to the Solr field types they are
+ * stored as, and resolves the Solr field names used when indexing and searching. It is shared by
+ * the indexer and the search so that both always use the same field for an index term.
+ * <p>
+ * Resolved field names are cached and interned, as the same few field names are resolved for
+ * every indexed record and every search. The number of field names is bounded by the index terms
+ * in the metadata, names beyond {@link #MAX_NUMBER_OF_CACHED_FIELD_NAMES} are resolved without
+ * being cached.
+ */
+public final class IndexFieldRegistry {
+	static final int MAX_NUMBER_OF_CACHED_FIELD_NAMES = 10000;
+	private static final Map<String, SolrFieldType> FIELD_TYPES = Map.of("indexTypeString",
+			SolrFieldType.STRING, "indexTypeId", SolrFieldType.STRING, "indexTypeText",
+			SolrFieldType.TEXT, "indexTypeBoolean", SolrFieldType.BOOLEAN, "indexTypeDate",
+			SolrFieldType.DATE, "indexTypeNumber", SolrFieldType.LONG);
+	private static final Map<SolrFieldType, Map<String, String>> FIELD_NAMES = createFieldNameCaches();
+
+	private IndexFieldRegistry() {
+		// prevent instantiation
+	}
+
+	private static Map<SolrFieldType, Map<String, String>> createFieldNameCaches() {
+		Map<SolrFieldType, Map<String, String>> caches = new EnumMap<>(SolrFieldType.class);
+		for (SolrFieldType fieldType : SolrFieldType.values()) {
+			caches.put(fieldType, new ConcurrentHashMap<>());
+		}
+		return caches;
+	}
+
+	/**
+	 * getFieldTypeForIndexType returns the Solr field type that terms with the specified index
+	 * type are stored as. Unknown index types are stored as {@link SolrFieldType#TEXT}.
+	 */
+	public static SolrFieldType getFieldTypeForIndexType(String indexType) {
+		if (indexType == null) {
+			return SolrFieldType.TEXT;
+		}
+		return FIELD_TYPES.getOrDefault(indexType, SolrFieldType.TEXT);
+	}
+
+	/**
+	 * getFieldName returns the name of the Solr field that terms with the specified index field
+	 * name and index type are stored in, for instance title_t for the index field name title and
+	 * the index type indexTypeText.
+	 */
+	public static String getFieldName(String indexFieldName, String indexType) {
+		return getFieldName(indexFieldName, getFieldTypeForIndexType(indexType));
+	}
+
+	public static String getFieldName(String indexFieldName, SolrFieldType fieldType) {
+		Map<String, String> fieldNames = FIELD_NAMES.get(fieldType);
+		String fieldName = fieldNames.get(indexFieldName);
+		if (fieldName != null) {
+			return fieldName;
+		}
+		return resolveFieldName(fieldNames, indexFieldName, fieldType);
+	}
+
+	private static String resolveFieldName(Map<String, String> fieldNames, String indexFieldName,
+			SolrFieldType fieldType) {
+		String fieldName = (indexFieldName + fieldType.getSuffix()).intern();
+		if (fieldNames.size() < MAX_NUMBER_OF_CACHED_FIELD_NAMES) {
+			fieldNames.putIfAbsent(indexFieldName, fieldName);
+		}
+		return fieldName;
+	}
+
+	static int onlyForTestGetNumberOfCachedFieldNames(SolrFieldType fieldType) {
+		return FIELD_NAMES.get(fieldType).size();
+	}
+}
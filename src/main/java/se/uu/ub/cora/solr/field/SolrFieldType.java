@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.field;
+
+/**
+ * SolrFieldType lists the dynamic field types in the Solr schema that index terms are stored in,
+ * together with the suffix that gives a field its type.
+ * <p>
+ * AUTOCOMPLETE fields are not used for any index type, they are written in addition to the
+ * ordinary field for the index terms set up for autocomplete, and are indexed as edge n-grams.
+ */
+public enum SolrFieldType {
+	STRING("_s"), TEXT("_t"), BOOLEAN("_b"), DATE("_dt"), LONG("_l"), AUTOCOMPLETE("_ac");
+
+	private final String suffix;
+
+	SolrFieldType(String suffix) {
+		this.suffix = suffix;
+	}
+
+	public String getSuffix() {
+		return suffix;
+	}
+}
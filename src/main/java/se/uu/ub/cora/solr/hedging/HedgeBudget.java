@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.hedging;
+
+/**
+ * HedgeBudget limits the share of requests that are hedged. Each request adds the max hedge ratio
+ * to the budget and each hedged request uses one from it. The budget is capped, so that a long
+ * calm period does not allow a burst of hedges when all replicas become slow at the same time,
+ * which is when extra requests hurt the most.
+ */
+final class HedgeBudget {
+	static final double MAX_BALANCE = 10;
+	private final double maxHedgeRatio;
+	private double balance = MAX_BALANCE;
+
+	HedgeBudget(double maxHedgeRatio) {
+		this.maxHedgeRatio = maxHedgeRatio;
+	}
+
+	synchronized void recordRequest() {
+		balance = Math.min(MAX_BALANCE, balance + maxHedgeRatio);
+	}
+
+	/**
+	 * tryUseForHedge returns true and uses one from the budget if the budget allows one more
+	 * hedged request.
+	 */
+	synchronized boolean tryUseForHedge() {
+		if (balance < 1) {
+			return false;
+		}
+		balance--;
+		return true;
+	}
+}
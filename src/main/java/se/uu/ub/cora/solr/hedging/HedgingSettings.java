@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.hedging;
+
+/**
+ * HedgingSettings holds the settings used by {@link HedgingSolrClient} to decide when a hedged
+ * request is sent.
+ */
+public final class HedgingSettings {
+	private static final double DEFAULT_PERCENTILE = 95;
+	private static final long DEFAULT_INITIAL_DELAY_MILLIS = 100;
+	private static final long DEFAULT_MIN_DELAY_MILLIS = 5;
+	private static final int DEFAULT_MINIMUM_SAMPLES = 100;
+	private static final int DEFAULT_LATENCY_WINDOW_SIZE = 1000;
+	private static final int DEFAULT_DELAY_RECALCULATION_INTERVAL = 100;
+	private static final double DEFAULT_MAX_HEDGE_RATIO = 0.1;
+	private static final int DEFAULT_MAX_THREADS = 64;
+	private double percentile = DEFAULT_PERCENTILE;
+	private long initialDelayMillis = DEFAULT_INITIAL_DELAY_MILLIS;
+	private long minDelayMillis = DEFAULT_MIN_DELAY_MILLIS;
+	private int minimumSamples = DEFAULT_MINIMUM_SAMPLES;
+	private int latencyWindowSize = DEFAULT_LATENCY_WINDOW_SIZE;
+	private int delayRecalculationInterval = DEFAULT_DELAY_RECALCULATION_INTERVAL;
+	private double maxHedgeRatio = DEFAULT_MAX_HEDGE_RATIO;
+	private int maxThreads = DEFAULT_MAX_THREADS;
+
+	private HedgingSettings() {
+	}
+
+	public static HedgingSettings withDefaults() {
+		return new HedgingSettings();
+	}
+
+	/**
+	 * setPercentile sets the percentile of the latencies in the latency window used as the delay
+	 * before a hedged request is sent. With 95 about one request in twenty is hedged, see
+	 * {@link #setLatencyWindowSize(int)}.
+	 * <p>
+	 * Default is 95.
+	 */
+	public void setPercentile(double percentile) {
+		this.percentile = percentile;
+	}
+
+	public double getPercentile() {
+		return percentile;
+	}
+
+	/**
+	 * setInitialDelayInMillis sets the delay used until enough latencies are recorded to
+	 * calculate the percentile, see {@link #setMinimumSamples(int)}.
+	 * <p>
+	 * Default is 100 milliseconds.
+	 */
+	public void setInitialDelayInMillis(long initialDelayMillis) {
+		this.initialDelayMillis = initialDelayMillis;
+	}
+
+	public long getInitialDelayMillis() {
+		return initialDelayMillis;
+	}
+
+	/**
+	 * setMinDelayInMillis sets the shortest delay used, so that a Solr answering very fast does
+	 * not make every request hedged.
+	 * <p>
+	 * Default is 5 milliseconds.
+	 */
+	public void setMinDelayInMillis(long minDelayMillis) {
+		this.minDelayMillis = minDelayMillis;
+	}
+
+	public long getMinDelayMillis() {
+		return minDelayMillis;
+	}
+
+	/**
+	 * setMinimumSamples sets the number of recorded latencies needed before the percentile is
+	 * used as delay.
+	 * <p>
+	 * Default is 100.
+	 */
+	public void setMinimumSamples(int minimumSamples) {
+		this.minimumSamples = minimumSamples;
+	}
+
+	public int getMinimumSamples() {
+		return minimumSamples;
+	}
+
+	/**
+	 * setLatencyWindowSize sets the number of most recent latencies the percentile is calculated
+	 * from, so that the delay follows changes in the latency of the replicas.
+	 * <p>
+	 * Default is 1000.
+	 */
+	public void setLatencyWindowSize(int latencyWindowSize) {
+		this.latencyWindowSize = latencyWindowSize;
+	}
+
+	public int getLatencyWindowSize() {
+		return latencyWindowSize;
+	}
+
+	/**
+	 * setDelayRecalculationInterval sets how many latencies are recorded before the percentile
+	 * used as delay is calculated again, so that the latency window is not sorted for every
+	 * request.
+	 * <p>
+	 * Default is 100.
+	 */
+	public void setDelayRecalculationInterval(int delayRecalculationInterval) {
+		this.delayRecalculationInterval = delayRecalculationInterval;
+	}
+
+	public int getDelayRecalculationInterval() {
+		return delayRecalculationInterval;
+	}
+
+	/**
+	 * setMaxHedgeRatio sets the largest share of requests that are hedged, so that a slowdown of
+	 * all replicas does not make hedging double the load on them.
+	 * <p>
+	 * Default is 0.1.
+	 */
+	public void setMaxHedgeRatio(double maxHedgeRatio) {
+		this.maxHedgeRatio = maxHedgeRatio;
+	}
+
+	public double getMaxHedgeRatio() {
+		return maxHedgeRatio;
+	}
+
+	/**
+	 * setMaxThreads sets the largest number of threads {@link HedgingSolrClientProvider} uses for
+	 * requests to the replicas. Requests made when all threads are busy are sent without hedging.
+	 * <p>
+	 * Default is 64.
+	 */
+	public void setMaxThreads(int maxThreads) {
+		this.maxThreads = maxThreads;
+	}
+
+	public int getMaxThreads() {
+		return maxThreads;
+	}
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.hedging;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrRequest.METHOD;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.util.NamedList;
+
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+
+/**
+ * HedgingSolrClient sends requests to a set of Solr replicas holding the same data. Read only
+ * requests (GET) that have not been answered within a delay are sent once more to the next
+ * replica, the first answer is used and the other request is cancelled. This cuts the tail
+ * latency caused by a single slow replica, for instance during a garbage collection pause, at the
+ * cost of a few extra requests.
+ * <p>
+ * The delay is a percentile of the latencies of the most recent first requests, see
+ * {@link HedgingSettings#setLatencyWindowSize(int)}, so that only requests slower than usual are
+ * hedged. It is calculated again at the interval set by
+ * {@link HedgingSettings#setDelayRecalculationInterval(int)}. The latency of a first request is recorded also when it fails or is cancelled because
+ * the hedged request answered first, as leaving out the slowest requests would shorten the delay.
+ * The share of hedged requests is limited by {@link HedgingSettings#setMaxHedgeRatio(double)}.
+ * Requests are spread over the replicas round robin. Updates are always sent once, to the first
+ * replica.
+ * <p>
+ * The executor limits the number of concurrent requests. When it has no free thread is the request
+ * sent on the calling thread without hedging, and when it has no free thread for the hedged
+ * request is only the first request used.
+ * <p>
+ * Latencies of first requests are recorded in {@value #LATENCY_HISTOGRAM}. Sent and winning hedged
+ * requests are counted in {@value #HEDGES_FIRED_COUNTER} and {@value #HEDGES_WON_COUNTER}, and
+ * hedged requests not sent because of the budget or a full executor in
+ * {@value #HEDGES_SKIPPED_COUNTER}, all tagged with the name of the client.
+ */
+public final class HedgingSolrClient extends SolrClient {
+	private static final long serialVersionUID = 1L;
+	public static final String LATENCY_HISTOGRAM = "solr.hedge.latency";
+	public static final String HEDGES_FIRED_COUNTER = "solr.hedge.fired";
+	public static final String HEDGES_WON_COUNTER = "solr.hedge.won";
+	public static final String HEDGES_SKIPPED_COUNTER = "solr.hedge.skipped";
+	private final List<SolrClient> replicas;
+	private final transient HedgingSettings settings;
+	private final transient ExecutorService executor;
+	private final transient SolrMetrics metrics;
+	private final transient MetricKey latencyKey;
+	private final transient MetricKey firedKey;
+	private final transient MetricKey wonKey;
+	private final transient MetricKey skippedKey;
+	private final transient LatencyWindow latencyWindow;
+	private final transient HedgeBudget hedgeBudget;
+	private final AtomicInteger nextReplica = new AtomicInteger();
+
+	private HedgingSolrClient(String name, List<SolrClient> replicas, HedgingSettings settings,
+			ExecutorService executor, SolrMetrics metrics) {
+		this.replicas = List.copyOf(replicas);
+		this.settings = settings;
+		this.executor = executor;
+		this.metrics = metrics;
+		Map<String, String> tags = Map.of("name", name);
+		latencyKey = new MetricKey(LATENCY_HISTOGRAM, tags);
+		firedKey = new MetricKey(HEDGES_FIRED_COUNTER, tags);
+		wonKey = new MetricKey(HEDGES_WON_COUNTER, tags);
+		skippedKey = new MetricKey(HEDGES_SKIPPED_COUNTER, tags);
+		latencyWindow = new LatencyWindow(settings.getLatencyWindowSize(),
+				settings.getDelayRecalculationInterval());
+		hedgeBudget = new HedgeBudget(settings.getMaxHedgeRatio());
+	}
+
+	/**
+	 * usingNameReplicasSettingsExecutorAndMetrics creates a client sending requests to the
+	 * specified replicas.
+	 * 
+	 * @param name
+	 *            the name used as tag in metrics
+	 * @param executor
+	 *            the executor running the requests, it should reject requests when all its
+	 *            threads are busy instead of queueing them
+	 */
+	public static HedgingSolrClient usingNameReplicasSettingsExecutorAndMetrics(String name,
+			List<SolrClient> replicas, HedgingSettings settings, ExecutorService executor,
+			SolrMetrics metrics) {
+		return new HedgingSolrClient(name, replicas, settings, executor, metrics);
+	}
+
+	@Override
+	public NamedList<Object> request(SolrRequest<?> request, String collection)
+			throws SolrServerException, IOException {
+		if (request.getMethod() != METHOD.GET || replicas.size() == 1) {
+			return replicas.get(0).request(request, collection);
+		}
+		return sendHedgedRequest(request, collection);
+	}
+
+	private NamedList<Object> sendHedgedRequest(SolrRequest<?> request, String collection)
+			throws SolrServerException, IOException {
+		hedgeBudget.recordRequest();
+		int primary = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+		CompletionService<NamedList<Object>> completionService = new ExecutorCompletionService<>(
+				executor);
+		List<Future<NamedList<Object>>> futures = new ArrayList<>(2);
+		try {
+			futures.add(submitFirst(completionService, primary, request, collection));
+			Future<NamedList<Object>> first = completionService.poll(calculateDelayNanos(),
+					TimeUnit.NANOSECONDS);
+			if (first != null) {
+				return getResult(first);
+			}
+			int secondary = (primary + 1) % replicas.size();
+			if (!hedgeBudget.tryUseForHedge()) {
+				metrics.addToCounter(skippedKey, 1);
+				return getResult(completionService.take());
+			}
+			futures.add(completionService.submit(
+					() -> replicas.get(secondary).request(request, collection)));
+			metrics.addToCounter(firedKey, 1);
+			return waitForFirstSuccessfulAnswer(completionService, futures);
+		} catch (RejectedExecutionException e) {
+			return handleNoFreeThread(request, collection, primary, completionService, futures);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SolrServerException("Interrupted while waiting for solr", e);
+		} finally {
+			cancelAll(futures);
+		}
+	}
+
+	private Future<NamedList<Object>> submitFirst(
+			CompletionService<NamedList<Object>> completionService, int replica,
+			SolrRequest<?> request, String collection) {
+		return completionService
+				.submit(() -> sendAndRecordLatency(replicas.get(replica), request, collection));
+	}
+
+	private NamedList<Object> sendAndRecordLatency(SolrClient solrClient, SolrRequest<?> request,
+			String collection) throws SolrServerException, IOException {
+		long start = System.nanoTime();
+		try {
+			return solrClient.request(request, collection);
+		} finally {
+			long latency = System.nanoTime() - start;
+			latencyWindow.record(latency);
+			metrics.recordLatency(latencyKey, latency);
+		}
+	}
+
+	private NamedList<Object> handleNoFreeThread(SolrRequest<?> request, String collection,
+			int primary, CompletionService<NamedList<Object>> completionService,
+			List<Future<NamedList<Object>>> futures) throws SolrServerException, IOException {
+		metrics.addToCounter(skippedKey, 1);
+		if (futures.isEmpty()) {
+			return sendAndRecordLatency(replicas.get(primary), request, collection);
+		}
+		try {
+			return getResult(completionService.take());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SolrServerException("Interrupted while waiting for solr", e);
+		}
+	}
+
+	private long calculateDelayNanos() {
+		if (latencyWindow.count() < settings.getMinimumSamples()) {
+			return TimeUnit.MILLISECONDS.toNanos(settings.getInitialDelayMillis());
+		}
+		return Math.max(TimeUnit.MILLISECONDS.toNanos(settings.getMinDelayMillis()),
+				latencyWindow.percentileNanos(settings.getPercentile()));
+	}
+
+	private NamedList<Object> waitForFirstSuccessfulAnswer(
+			CompletionService<NamedList<Object>> completionService,
+			List<Future<NamedList<Object>>> futures)
+			throws InterruptedException, SolrServerException, IOException {
+		ExecutionException firstFailure;
+		try {
+			return getAndCountIfHedgeWon(completionService.take(), futures);
+		} catch (ExecutionException e) {
+			firstFailure = e;
+		}
+		try {
+			return getAndCountIfHedgeWon(completionService.take(), futures);
+		} catch (ExecutionException e) {
+			throw unwrap(firstFailure.getCause());
+		}
+	}
+
+	private NamedList<Object> getAndCountIfHedgeWon(Future<NamedList<Object>> answered,
+			List<Future<NamedList<Object>>> futures)
+			throws InterruptedException, ExecutionException {
+		NamedList<Object> response = answered.get();
+		if (answered == futures.get(1)) {
+			metrics.addToCounter(wonKey, 1);
+		}
+		return response;
+	}
+
+	private NamedList<Object> getResult(Future<NamedList<Object>> future)
+			throws SolrServerException, IOException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw unwrap(e.getCause());
+		}
+	}
+
+	private SolrServerException unwrap(Throwable cause) throws IOException {
+		if (cause instanceof SolrServerException solrServerException) {
+			return solrServerException;
+		}
+		if (cause instanceof IOException ioException) {
+			throw ioException;
+		}
+		if (cause instanceof RuntimeException runtimeException) {
+			throw runtimeException;
+		}
+		return new SolrServerException(cause);
+	}
+
+	private void cancelAll(List<Future<NamedList<Object>>> futures) {
+		for (Future<NamedList<Object>> future : futures) {
+			future.cancel(true);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		executor.shutdownNow();
+		for (SolrClient replica : replicas) {
+			replica.close();
+		}
+	}
+
+	public List<SolrClient> onlyForTestGetReplicas() {
+		return replicas;
+	}
+
+	public ExecutorService onlyForTestGetExecutor() {
+		return executor;
+	}
+
+	void onlyForTestRecordLatency(long latencyNanos) {
+		latencyWindow.record(latencyNanos);
+	}
+}
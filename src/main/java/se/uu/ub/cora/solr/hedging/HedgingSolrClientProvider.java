@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.hedging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.solr.client.solrj.SolrClient;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.SolrClientProviders;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+
+/**
+ * HedgingSolrClientProvider provides a {@link HedgingSolrClient} sending requests to replicas of
+ * the same Solr core. SolrRecordSearchFactory uses it for urls with hedging replica urls in the
+ * search settings. Indexing should keep using a provider for a single Solr, as updates are not
+ * hedged.
+ */
+public final class HedgingSolrClientProvider implements SolrClientProvider {
+	private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
+	private final List<SolrClientProvider> replicaProviders;
+	private final String name;
+	private final HedgingSettings settings;
+	private HedgingSolrClient solrClient;
+
+	private HedgingSolrClientProvider(String name, List<SolrClientProvider> replicaProviders,
+			HedgingSettings settings) {
+		this.name = name;
+		this.replicaProviders = replicaProviders;
+		this.settings = settings;
+	}
+
+	/**
+	 * usingReplicaUrlsAndSettings creates a provider for the replicas with the specified urls. The
+	 * first url is used as name in metrics.
+	 */
+	public static HedgingSolrClientProvider usingReplicaUrlsAndSettings(List<String> replicaUrls,
+			HedgingSettings settings) {
+		List<SolrClientProvider> providers = new ArrayList<>();
+		for (String replicaUrl : replicaUrls) {
+			providers.add(SolrClientProviders.createUsingUrl(replicaUrl));
+		}
+		return new HedgingSolrClientProvider(replicaUrls.get(0), providers, settings);
+	}
+
+	public static HedgingSolrClientProvider usingNameReplicaProvidersAndSettings(String name,
+			List<SolrClientProvider> replicaProviders, HedgingSettings settings) {
+		return new HedgingSolrClientProvider(name, List.copyOf(replicaProviders), settings);
+	}
+
+	@Override
+	public synchronized SolrClient getSolrClient() {
+		if (solrClient == null) {
+			solrClient = HedgingSolrClient.usingNameReplicasSettingsExecutorAndMetrics(name,
+					getReplicaClients(), settings, createExecutor(),
+					SolrMetricsProvider.getMetrics());
+		}
+		return solrClient;
+	}
+
+	private List<SolrClient> getReplicaClients() {
+		List<SolrClient> replicaClients = new ArrayList<>();
+		for (SolrClientProvider replicaProvider : replicaProviders) {
+			replicaClients.add(replicaProvider.getSolrClient());
+		}
+		return replicaClients;
+	}
+
+	private ExecutorService createExecutor() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, "solr-hedging-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		return new ThreadPoolExecutor(0, settings.getMaxThreads(), IDLE_THREAD_KEEP_ALIVE_SECONDS,
+				TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+	}
+
+	public List<SolrClientProvider> onlyForTestGetReplicaProviders() {
+		return replicaProviders;
+	}
+
+	public HedgingSettings onlyForTestGetSettings() {
+		return settings;
+	}
+
+	public String getName() {
+		return name;
+	}
+}
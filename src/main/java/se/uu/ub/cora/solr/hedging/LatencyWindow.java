@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.hedging;
+
+import java.util.Arrays;
+
+/**
+ * LatencyWindow holds the latencies of the most recent requests, so that the hedging delay
+ * follows the current latency of the replicas instead of all latencies since start. Percentiles
+ * are calculated from the exact recorded values. As that means sorting the window, a calculated
+ * percentile is reused until the specified number of new latencies have been recorded.
+ */
+final class LatencyWindow {
+	private final long[] latencies;
+	private final int recalculationInterval;
+	private int next;
+	private int count;
+	private int recordedSinceCalculation;
+	private double calculatedPercentile = Double.NaN;
+	private long calculatedNanos;
+
+	LatencyWindow(int size, int recalculationInterval) {
+		latencies = new long[size];
+		this.recalculationInterval = recalculationInterval;
+	}
+
+	synchronized void record(long latencyNanos) {
+		latencies[next] = latencyNanos;
+		next = (next + 1) % latencies.length;
+		count = Math.min(count + 1, latencies.length);
+		recordedSinceCalculation++;
+	}
+
+	synchronized int count() {
+		return count;
+	}
+
+	/**
+	 * percentileNanos returns the smallest recorded latency that at least the specified percent of
+	 * the recorded latencies are less than or equal to, or 0 if nothing is recorded. The value is
+	 * calculated again only when another percentile is asked for or when at least the
+	 * recalculation interval of latencies have been recorded since it was last calculated.
+	 */
+	long percentileNanos(double percentile) {
+		long[] sorted;
+		synchronized (this) {
+			if (calculatedIsValidFor(percentile)) {
+				return calculatedNanos;
+			}
+			sorted = Arrays.copyOf(latencies, count);
+			recordedSinceCalculation = 0;
+		}
+		if (sorted.length == 0) {
+			return 0;
+		}
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+		long nanos = sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+		rememberCalculated(percentile, nanos);
+		return nanos;
+	}
+
+	private boolean calculatedIsValidFor(double percentile) {
+		return percentile == calculatedPercentile
+				&& recordedSinceCalculation < recalculationInterval;
+	}
+
+	private synchronized void rememberCalculated(double percentile, long nanos) {
+		calculatedPercentile = percentile;
+		calculatedNanos = nanos;
+	}
+}
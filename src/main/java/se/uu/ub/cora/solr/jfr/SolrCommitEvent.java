@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("se.uu.ub.cora.solr.Commit")
+@Label("Solr Commit")
+@Category({ "Cora", "Solr" })
+@Description("An explicit commit sent to Solr")
+@StackTrace(false)
+public final class SolrCommitEvent extends Event {
+	@Label("Record Type")
+	@Description("Record type of the operation that triggered the commit")
+	public String recordType;
+
+	@Label("Operation")
+	@Description("Operation that triggered the commit")
+	public String operation;
+
+	@Label("Successful")
+	public boolean successful;
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("se.uu.ub.cora.solr.Delete")
+@Label("Solr Delete")
+@Category({ "Cora", "Solr" })
+@Description("Deletion of one record from Solr, including the following commit")
+@StackTrace(false)
+public final class SolrDeleteEvent extends Event {
+	@Label("Record Type")
+	public String recordType;
+
+	@Label("Record Id")
+	public String recordId;
+
+	@Label("Solr QTime")
+	@Description("Time Solr reports it spent on the delete, 0 if not reported")
+	@Timespan(Timespan.MILLISECONDS)
+	public long qTime;
+
+	@Label("Successful")
+	public boolean successful;
+}
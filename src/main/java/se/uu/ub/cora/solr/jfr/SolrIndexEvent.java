@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("se.uu.ub.cora.solr.Index")
+@Label("Solr Index")
+@Category({ "Cora", "Solr" })
+@Description("Indexing of one record in Solr, including an explicit commit if requested")
+@StackTrace(false)
+public final class SolrIndexEvent extends Event {
+	@Label("Record Type")
+	public String recordType;
+
+	@Label("Record Id")
+	public String recordId;
+
+	@Label("Number Of Index Terms")
+	public int numberOfIndexTerms;
+
+	@Label("Payload")
+	@Description("Size of the record stored in the document")
+	@DataAmount
+	public long payloadBytes;
+
+	@Label("Conversion Time")
+	@Description("Time spent converting the record to its stored format")
+	@Timespan(Timespan.NANOSECONDS)
+	public long conversionTime;
+
+	@Label("Solr QTime")
+	@Description("Time Solr reports it spent on the add, 0 if not reported")
+	@Timespan(Timespan.MILLISECONDS)
+	public long qTime;
+
+	@Label("Explicit Commit")
+	public boolean explicitCommit;
+
+	@Label("Successful")
+	public boolean successful;
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("se.uu.ub.cora.solr.Search")
+@Label("Solr Search")
+@Category({ "Cora", "Solr" })
+@Description("A search for records in Solr, from building the query to converted result")
+@StackTrace(false)
+public final class SolrSearchEvent extends Event {
+	@Label("Record Types")
+	public String recordTypes;
+
+	@Label("Start")
+	@Description("Start row requested, first row is 1")
+	public int start;
+
+	@Label("Rows")
+	@Description("Maximum number of rows requested")
+	public int rows;
+
+	@Label("Total Number Of Matches")
+	public long totalNumberOfMatches;
+
+	@Label("Number Of Documents")
+	@Description("Number of documents returned and converted")
+	public int numberOfDocuments;
+
+	@Label("Payload")
+	@Description("Size of the stored records returned from Solr")
+	@DataAmount
+	public long payloadBytes;
+
+	@Label("Query Build Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long queryBuildTime;
+
+	@Label("Solr QTime")
+	@Description("Time Solr reports it spent on the query, 0 if not reported")
+	@Timespan(Timespan.MILLISECONDS)
+	public long qTime;
+
+	@Label("Conversion Time")
+	@Description("Time spent converting stored records to data groups")
+	@Timespan(Timespan.NANOSECONDS)
+	public long conversionTime;
+
+	@Label("Successful")
+	public boolean successful;
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+/**
+ * HistogramSnapshot is a point in time copy of the values in a {@link LatencyHistogram}. All
+ * times are in nanoseconds.
+ * 
+ * @param count
+ *            the number of recorded latencies
+ * @param sumNanos
+ *            the sum of all recorded latencies
+ * @param maxNanos
+ *            the largest recorded latency
+ * @param bucketUpperBoundsNanos
+ *            the inclusive upper bound of each bucket, the last bucket is unbounded and has
+ *            Long.MAX_VALUE as upper bound
+ * @param bucketCounts
+ *            the number of recorded latencies in each bucket
+ */
+public record HistogramSnapshot(long count, long sumNanos, long maxNanos,
+		long[] bucketUpperBoundsNanos, long[] bucketCounts) {
+
+	public long meanNanos() {
+		if (count == 0) {
+			return 0;
+		}
+		return sumNanos / count;
+	}
+
+	/**
+	 * percentileNanos returns an estimate of the latency at the specified percentile, as the upper
+	 * bound of the bucket that contains it, but never more than the largest recorded latency.
+	 * 
+	 * @param percentile
+	 *            the percentile to get, between 0 and 100
+	 */
+	public long percentileNanos(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(percentile / 100 * count);
+		long countSoFar = 0;
+		for (int i = 0; i < bucketCounts.length; i++) {
+			countSoFar += bucketCounts[i];
+			if (countSoFar >= rank) {
+				return Math.min(bucketUpperBoundsNanos[i], maxNanos);
+			}
+		}
+		return maxNanos;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram records latencies in buckets with exponentially growing upper bounds, from one
+ * microsecond up to about 68 seconds, with an extra bucket for all longer latencies. Recording is
+ * lock free and can be done from many threads at the same time.
+ */
+public final class LatencyHistogram {
+	private static final int NUMBER_OF_BOUNDED_BUCKETS = 27;
+	private static final long NANOS_PER_MICRO = 1000;
+	private static final long[] BUCKET_UPPER_BOUNDS = createBucketUpperBounds();
+	private final LongAdder[] bucketCounts = new LongAdder[NUMBER_OF_BOUNDED_BUCKETS + 1];
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	public LatencyHistogram() {
+		for (int i = 0; i < bucketCounts.length; i++) {
+			bucketCounts[i] = new LongAdder();
+		}
+	}
+
+	private static long[] createBucketUpperBounds() {
+		long[] upperBounds = new long[NUMBER_OF_BOUNDED_BUCKETS + 1];
+		for (int i = 0; i < NUMBER_OF_BOUNDED_BUCKETS; i++) {
+			upperBounds[i] = (1L << i) * NANOS_PER_MICRO;
+		}
+		upperBounds[NUMBER_OF_BOUNDED_BUCKETS] = Long.MAX_VALUE;
+		return upperBounds;
+	}
+
+	public void recordNanos(long nanos) {
+		long positiveNanos = Math.max(0, nanos);
+		bucketCounts[findBucket(positiveNanos)].increment();
+		sum.add(positiveNanos);
+		max.accumulate(positiveNanos);
+	}
+
+	private int findBucket(long nanos) {
+		for (int i = 0; i < NUMBER_OF_BOUNDED_BUCKETS; i++) {
+			if (nanos <= BUCKET_UPPER_BOUNDS[i]) {
+				return i;
+			}
+		}
+		return NUMBER_OF_BOUNDED_BUCKETS;
+	}
+
+	public HistogramSnapshot snapshot() {
+		long[] counts = new long[bucketCounts.length];
+		long count = 0;
+		for (int i = 0; i < bucketCounts.length; i++) {
+			counts[i] = bucketCounts[i].sum();
+			count += counts[i];
+		}
+		return new HistogramSnapshot(count, sum.sum(), max.get(), BUCKET_UPPER_BOUNDS.clone(),
+				counts);
+	}
+}
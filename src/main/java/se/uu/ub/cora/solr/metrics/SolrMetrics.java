@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * SolrMetrics collects latency histograms, counters and gauges for the operations this module
+ * does against Solr. It has no dependencies outside the JDK, use a {@link SolrMetricsExporter} to
+ * move the collected values to a monitoring system.
+ * <p>
+ * Phase latencies are recorded in histograms named {@value #PHASE_DURATION} tagged with operation
+ * and phase. Requests, errors and documents are counted per operation and record type.
+ */
+public final class SolrMetrics {
+	public static final String PHASE_DURATION = "solr.phase.duration";
+	public static final String REQUESTS = "solr.requests";
+	public static final String ERRORS = "solr.errors";
+	public static final String DOCUMENTS = "solr.documents";
+	public static final String MULTIPLE_RECORD_TYPES = "multiple";
+	private static final String OPERATION = "operation";
+	private static final String PHASE = "phase";
+	private static final String RECORD_TYPE = "recordType";
+	private final Map<SolrOperation, Map<SolrPhase, LatencyHistogram>> phaseHistograms = new EnumMap<>(
+			SolrOperation.class);
+	private final Map<MetricKey, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+	private final Map<MetricKey, LongAdder> counters = new ConcurrentHashMap<>();
+	private final Map<MetricKey, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+	public SolrMetrics() {
+		for (SolrOperation operation : SolrOperation.values()) {
+			Map<SolrPhase, LatencyHistogram> histogramsForOperation = new EnumMap<>(
+					SolrPhase.class);
+			for (SolrPhase phase : SolrPhase.values()) {
+				histogramsForOperation.put(phase, new LatencyHistogram());
+			}
+			phaseHistograms.put(operation, histogramsForOperation);
+		}
+	}
+
+	public void recordPhase(SolrOperation operation, SolrPhase phase, long nanos) {
+		phaseHistograms.get(operation).get(phase).recordNanos(nanos);
+	}
+
+	public HistogramSnapshot getPhaseSnapshot(SolrOperation operation, SolrPhase phase) {
+		return phaseHistograms.get(operation).get(phase).snapshot();
+	}
+
+	public void recordLatency(MetricKey key, long nanos) {
+		histograms.computeIfAbsent(key, k -> new LatencyHistogram()).recordNanos(nanos);
+	}
+
+	public HistogramSnapshot getLatencySnapshot(MetricKey key) {
+		return histograms.computeIfAbsent(key, k -> new LatencyHistogram()).snapshot();
+	}
+
+	public void countRequest(SolrOperation operation, String recordType) {
+		addToCounter(createOperationKey(REQUESTS, operation, recordType), 1);
+	}
+
+	public void countError(SolrOperation operation, String recordType) {
+		addToCounter(createOperationKey(ERRORS, operation, recordType), 1);
+	}
+
+	public void countDocuments(SolrOperation operation, String recordType,
+			long numberOfDocuments) {
+		addToCounter(createOperationKey(DOCUMENTS, operation, recordType), numberOfDocuments);
+	}
+
+	private MetricKey createOperationKey(String name, SolrOperation operation,
+			String recordType) {
+		return new MetricKey(name, Map.of(OPERATION, operation.name(), RECORD_TYPE, recordType));
+	}
+
+	/**
+	 * recordTypeTagFor returns the recordType tag to use for an operation on the specified
+	 * recordTypes. An operation on a single recordType is tagged with that type, operations on
+	 * several recordTypes are all tagged with {@link #MULTIPLE_RECORD_TYPES}, so that the number of
+	 * series does not grow with the number of combinations of recordTypes.
+	 */
+	public static String recordTypeTagFor(List<String> recordTypes) {
+		return recordTypes.size() == 1 ? recordTypes.get(0) : MULTIPLE_RECORD_TYPES;
+	}
+
+	public long getRequestCount(SolrOperation operation, String recordType) {
+		return getCounterValue(createOperationKey(REQUESTS, operation, recordType));
+	}
+
+	public long getErrorCount(SolrOperation operation, String recordType) {
+		return getCounterValue(createOperationKey(ERRORS, operation, recordType));
+	}
+
+	public long getDocumentCount(SolrOperation operation, String recordType) {
+		return getCounterValue(createOperationKey(DOCUMENTS, operation, recordType));
+	}
+
+	public void addToCounter(MetricKey key, long amount) {
+		counters.computeIfAbsent(key, k -> new LongAdder()).add(amount);
+	}
+
+	public long getCounterValue(MetricKey key) {
+		LongAdder counter = counters.get(key);
+		return counter == null ? 0 : counter.sum();
+	}
+
+	/**
+	 * registerGauge registers a gauge that is read each time the metrics are exported. A gauge
+	 * registered with the same key as an earlier gauge replaces it.
+	 */
+	public void registerGauge(MetricKey key, DoubleSupplier valueSupplier) {
+		gauges.put(key, valueSupplier);
+	}
+
+	/**
+	 * getGaugeValue returns the current value of the gauge registered with the specified key, or
+	 * {@link Double#NaN} if no gauge is registered with the key.
+	 */
+	public double getGaugeValue(MetricKey key) {
+		DoubleSupplier gauge = gauges.get(key);
+		return gauge == null ? Double.NaN : gauge.getAsDouble();
+	}
+
+	/**
+	 * exportTo exports all counters, gauges and all histograms with at least one recorded value
+	 * to the specified exporter.
+	 */
+	public void exportTo(SolrMetricsExporter exporter) {
+		exportPhaseHistograms(exporter);
+		for (Entry<MetricKey, LatencyHistogram> entry : histograms.entrySet()) {
+			possiblyExportHistogram(exporter, entry.getKey(), entry.getValue().snapshot());
+		}
+		for (Entry<MetricKey, LongAdder> entry : counters.entrySet()) {
+			MetricKey key = entry.getKey();
+			exporter.exportCounter(key.name(), key.tags(), entry.getValue().sum());
+		}
+		for (Entry<MetricKey, DoubleSupplier> entry : gauges.entrySet()) {
+			MetricKey key = entry.getKey();
+			exporter.exportGauge(key.name(), key.tags(), entry.getValue().getAsDouble());
+		}
+	}
+
+	private void exportPhaseHistograms(SolrMetricsExporter exporter) {
+		for (SolrOperation operation : SolrOperation.values()) {
+			for (SolrPhase phase : SolrPhase.values()) {
+				MetricKey key = new MetricKey(PHASE_DURATION,
+						Map.of(OPERATION, operation.name(), PHASE, phase.name()));
+				possiblyExportHistogram(exporter, key, getPhaseSnapshot(operation, phase));
+			}
+		}
+	}
+
+	private void possiblyExportHistogram(SolrMetricsExporter exporter, MetricKey key,
+			HistogramSnapshot snapshot) {
+		if (snapshot.count() > 0) {
+			exporter.exportHistogram(key.name(), key.tags(), snapshot);
+		}
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import java.util.Map;
+
+/**
+ * SolrMetricsExporter is the SPI used to bridge the metrics collected in {@link SolrMetrics} to
+ * a monitoring system. Implementations can be registered using the java ServiceLoader mechanism
+ * and are then used by {@link SolrMetricsProvider#exportToRegisteredExporters()}, or be passed
+ * directly to {@link SolrMetrics#exportTo(SolrMetricsExporter)}.
+ * <p>
+ * Counters are monotonically increasing totals since the metrics were created.
+ */
+public interface SolrMetricsExporter {
+
+	void exportCounter(String name, Map<String, String> tags, long value);
+
+	void exportGauge(String name, Map<String, String> tags, double value);
+
+	void exportHistogram(String name, Map<String, String> tags, HistogramSnapshot histogram);
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import java.util.ServiceLoader;
+
+/**
+ * SolrMetricsProvider gives access to the {@link SolrMetrics} instance shared by all searches and
+ * indexers in this module.
+ */
+public final class SolrMetricsProvider {
+	private static SolrMetrics metrics = new SolrMetrics();
+
+	private SolrMetricsProvider() {
+		// prevent instantiation
+	}
+
+	public static SolrMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * exportToRegisteredExporters exports the current metrics to all {@link SolrMetricsExporter}
+	 * implementations registered using the java ServiceLoader mechanism. It is intended to be
+	 * called periodically by the application, at the interval the monitoring system expects.
+	 */
+	public static void exportToRegisteredExporters() {
+		ServiceLoader<SolrMetricsExporter> exporters = ServiceLoader
+				.load(SolrMetricsExporter.class);
+		for (SolrMetricsExporter exporter : exporters) {
+			metrics.exportTo(exporter);
+		}
+	}
+
+	public static void onlyForTestSetMetrics(SolrMetrics solrMetrics) {
+		metrics = solrMetrics;
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+/**
+ * SolrPhase is a part of a {@link SolrOperation} that has its latency measured separately.
+ */
+public enum SolrPhase {
+	/**
+	 * QUERY_BUILD is the time spent building the query, including reading search term metadata
+	 * from storage.
+	 */
+	QUERY_BUILD,
+	/**
+	 * SOLR_ROUND_TRIP is the time from sending a request to Solr until the response is read,
+	 * measured in the client.
+	 */
+	SOLR_ROUND_TRIP,
+	/**
+	 * SOLR_QTIME is the time Solr reports it spent handling the request, the difference to
+	 * SOLR_ROUND_TRIP is time spent in the network and in serialization.
+	 */
+	SOLR_QTIME,
+	/**
+	 * JSON_CONVERSION is the time spent converting records to or from json.
+	 */
+	JSON_CONVERSION,
+	/**
+	 * ADD is the time spent adding a document to Solr.
+	 */
+	ADD,
+	/**
+	 * COMMIT is the time spent waiting for an explicit commit.
+	 */
+	COMMIT
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import java.util.OptionalLong;
+
+import org.apache.solr.client.solrj.response.SolrResponseBase;
+import org.apache.solr.common.util.NamedList;
+
+public final class SolrQTime {
+	private static final String RESPONSE_HEADER = "responseHeader";
+	private static final String QTIME = "QTime";
+
+	private SolrQTime() {
+		// prevent instantiation
+	}
+
+	/**
+	 * readQTimeInMillis returns the QTime Solr reported in the response header, or an empty
+	 * OptionalLong if the response has no header or no QTime.
+	 */
+	public static OptionalLong readQTimeInMillis(SolrResponseBase response) {
+		if (response == null || response.getResponse() == null) {
+			return OptionalLong.empty();
+		}
+		Object header = response.getResponse().get(RESPONSE_HEADER);
+		if (header instanceof NamedList<?> namedHeader
+				&& namedHeader.get(QTIME) instanceof Number qTime) {
+			return OptionalLong.of(qTime.longValue());
+		}
+		return OptionalLong.empty();
+	}
+}
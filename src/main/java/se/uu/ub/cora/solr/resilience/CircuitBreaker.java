@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+
+/**
+ * CircuitBreaker keeps track of failing requests to one Solr. After a number of consecutive
+ * failures it opens and rejects all requests for a while, so that callers fail fast instead of
+ * waiting for timeouts. When the open duration has passed one trial request is let through, if it
+ * succeeds the breaker closes, otherwise it opens again.
+ * <p>
+ * The state is exposed as the gauge {@value #STATE_GAUGE}, tagged with the name of the breaker.
+ */
+public final class CircuitBreaker {
+	public static final String STATE_GAUGE = "solr.circuitbreaker.state";
+	public static final String REJECTED_COUNTER = "solr.circuitbreaker.rejected";
+	private final String name;
+	private final int failureThreshold;
+	private final long openDurationNanos;
+	private final SolrMetrics metrics;
+	private final MetricKey rejectedKey;
+	private LongSupplier nanoClock = System::nanoTime;
+	private CircuitState state = CircuitState.CLOSED;
+	private int consecutiveFailures = 0;
+	private long openedAt;
+	private boolean trialInProgress = false;
+
+	private CircuitBreaker(String name, ResilienceSettings settings, SolrMetrics metrics) {
+		this.name = name;
+		this.failureThreshold = settings.getFailureThreshold();
+		this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(settings.getOpenDurationMillis());
+		this.metrics = metrics;
+		Map<String, String> tags = Map.of("name", name);
+		rejectedKey = new MetricKey(REJECTED_COUNTER, tags);
+		metrics.registerGauge(new MetricKey(STATE_GAUGE, tags),
+				() -> getState().getGaugeValue());
+	}
+
+	public static CircuitBreaker usingNameSettingsAndMetrics(String name,
+			ResilienceSettings settings, SolrMetrics metrics) {
+		return new CircuitBreaker(name, settings, metrics);
+	}
+
+	/**
+	 * acquirePermission checks if a request may be sent.
+	 * 
+	 * @throws CircuitOpenException
+	 *             if the breaker is open, or half open with a trial request in progress
+	 */
+	public synchronized void acquirePermission() throws CircuitOpenException {
+		if (state == CircuitState.OPEN && openDurationHasPassed()) {
+			state = CircuitState.HALF_OPEN;
+		}
+		if (state == CircuitState.OPEN || (state == CircuitState.HALF_OPEN && trialInProgress)) {
+			metrics.addToCounter(rejectedKey, 1);
+			throw CircuitOpenException
+					.withMessage("Circuit breaker is open, not calling solr: " + name);
+		}
+		if (state == CircuitState.HALF_OPEN) {
+			trialInProgress = true;
+		}
+	}
+
+	private boolean openDurationHasPassed() {
+		return nanoClock.getAsLong() - openedAt >= openDurationNanos;
+	}
+
+	public synchronized void recordSuccess() {
+		consecutiveFailures = 0;
+		trialInProgress = false;
+		state = CircuitState.CLOSED;
+	}
+
+	public synchronized void recordFailure() {
+		consecutiveFailures++;
+		if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			open();
+		}
+	}
+
+	private void open() {
+		state = CircuitState.OPEN;
+		openedAt = nanoClock.getAsLong();
+		trialInProgress = false;
+	}
+
+	public synchronized CircuitState getState() {
+		return state;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void onlyForTestSetNanoClock(LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+/**
+ * ResilienceSettings holds the settings for retries and the circuit breaker used by
+ * {@link ResilientSolrClient}.
+ */
+public final class ResilienceSettings {
+	private static final int DEFAULT_MAX_ATTEMPTS = 3;
+	private static final long DEFAULT_BASE_DELAY_MILLIS = 50;
+	private static final long DEFAULT_MAX_DELAY_MILLIS = 1000;
+	private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+	private static final long DEFAULT_OPEN_DURATION_MILLIS = 10000;
+	private boolean enabled;
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+	private long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+	private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+	private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+	private long openDurationMillis = DEFAULT_OPEN_DURATION_MILLIS;
+
+	private ResilienceSettings(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public static ResilienceSettings disabled() {
+		return new ResilienceSettings(false);
+	}
+
+	public static ResilienceSettings withDefaults() {
+		return new ResilienceSettings(true);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * setMaxAttempts sets the maximum number of times an idempotent request is sent, including
+	 * the first attempt.
+	 * <p>
+	 * Default is 3.
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = maxAttempts;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * setBackoffInMillis sets the delays used between retries. The delay before retry n is a
+	 * random value between zero and baseDelay * 2^(n-1), capped at maxDelay.
+	 * <p>
+	 * Default is 50 and 1000 milliseconds.
+	 */
+	public void setBackoffInMillis(long baseDelayMillis, long maxDelayMillis) {
+		this.baseDelayMillis = baseDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+	}
+
+	public long getBaseDelayMillis() {
+		return baseDelayMillis;
+	}
+
+	public long getMaxDelayMillis() {
+		return maxDelayMillis;
+	}
+
+	/**
+	 * setFailureThreshold sets the number of consecutive failed requests that opens the circuit
+	 * breaker.
+	 * <p>
+	 * Default is 5.
+	 */
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	/**
+	 * setOpenDurationInMillis sets how long the circuit breaker rejects requests before letting a
+	 * trial request through.
+	 * <p>
+	 * Default is 10000 milliseconds.
+	 */
+	public void setOpenDurationInMillis(long openDurationMillis) {
+		this.openDurationMillis = openDurationMillis;
+	}
+
+	public long getOpenDurationMillis() {
+		return openDurationMillis;
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrRequest.METHOD;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.NamedList;
+
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+
+/**
+ * ResilientSolrClient decorates a SolrClient with retries and a {@link CircuitBreaker}. All
+ * SolrClient operations are sent through {@link #request(SolrRequest, String)}, so searches,
+ * reads, updates and commits are all covered.
+ * <p>
+ * Connection errors and server errors (status 500 and above) count as failures. Requests using
+ * GET, such as searches and reads by id, are idempotent and are retried with backoff. Updates are
+ * not retried, as an update that timed out might still have been applied. Client errors, like a
+ * query using an undefined field, are not retried and do not count as failures.
+ */
+public final class ResilientSolrClient extends SolrClient {
+	private static final long serialVersionUID = 1L;
+	public static final String RETRIES_COUNTER = "solr.retries";
+	private static final int FIRST_SERVER_ERROR_CODE = 500;
+	private final SolrClient solrClient;
+	private final transient CircuitBreaker circuitBreaker;
+	private final transient RetryPolicy retryPolicy;
+	private final transient SolrMetrics metrics;
+	private final transient MetricKey retriesKey;
+	private transient Sleeper sleeper = Thread::sleep;
+
+	@FunctionalInterface
+	interface Sleeper {
+		void sleep(long millis) throws InterruptedException;
+	}
+
+	private ResilientSolrClient(SolrClient solrClient, CircuitBreaker circuitBreaker,
+			RetryPolicy retryPolicy, SolrMetrics metrics) {
+		this.solrClient = solrClient;
+		this.circuitBreaker = circuitBreaker;
+		this.retryPolicy = retryPolicy;
+		this.metrics = metrics;
+		retriesKey = new MetricKey(RETRIES_COUNTER, Map.of("name", circuitBreaker.getName()));
+	}
+
+	public static ResilientSolrClient usingSolrClientCircuitBreakerRetryPolicyAndMetrics(
+			SolrClient solrClient, CircuitBreaker circuitBreaker, RetryPolicy retryPolicy,
+			SolrMetrics metrics) {
+		return new ResilientSolrClient(solrClient, circuitBreaker, retryPolicy, metrics);
+	}
+
+	@Override
+	public NamedList<Object> request(SolrRequest<?> request, String collection)
+			throws SolrServerException, IOException {
+		int attempt = 1;
+		while (true) {
+			try {
+				return tryToSendRequest(request, collection);
+			} catch (SolrServerException | IOException | SolrException e) {
+				if (!shouldRetry(request, attempt, e)) {
+					throw e;
+				}
+				waitBeforeRetry(attempt);
+				metrics.addToCounter(retriesKey, 1);
+				attempt++;
+			}
+		}
+	}
+
+	private NamedList<Object> tryToSendRequest(SolrRequest<?> request, String collection)
+			throws SolrServerException, IOException {
+		circuitBreaker.acquirePermission();
+		try {
+			NamedList<Object> response = solrClient.request(request, collection);
+			circuitBreaker.recordSuccess();
+			return response;
+		} catch (Exception e) {
+			recordOutcome(e);
+			throw e;
+		}
+	}
+
+	private void recordOutcome(Exception e) {
+		if (isFailure(e)) {
+			circuitBreaker.recordFailure();
+		} else {
+			circuitBreaker.recordSuccess();
+		}
+	}
+
+	private boolean isFailure(Exception e) {
+		if (e instanceof SolrException solrException) {
+			return solrException.code() >= FIRST_SERVER_ERROR_CODE;
+		}
+		return e instanceof SolrServerException || e instanceof IOException;
+	}
+
+	private boolean shouldRetry(SolrRequest<?> request, int attempt, Exception e) {
+		return !(e instanceof CircuitOpenException) && isFailure(e) && isIdempotent(request)
+				&& retryPolicy.shouldRetryAfterAttempt(attempt);
+	}
+
+	private boolean isIdempotent(SolrRequest<?> request) {
+		return request.getMethod() == METHOD.GET;
+	}
+
+	private void waitBeforeRetry(int attempt) throws SolrServerException {
+		try {
+			sleeper.sleep(retryPolicy.getDelayInMillisAfterAttempt(attempt));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SolrServerException("Interrupted while waiting to retry solr request", e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		solrClient.close();
+	}
+
+	public SolrClient onlyForTestGetSolrClient() {
+		return solrClient;
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	void onlyForTestSetSleeper(Sleeper sleeper) {
+		this.sleeper = sleeper;
+	}
+}
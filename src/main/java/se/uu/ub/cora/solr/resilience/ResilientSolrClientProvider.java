@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+import org.apache.solr.client.solrj.SolrClient;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+
+/**
+ * ResilientSolrClientProvider wraps the client from another provider in a
+ * {@link ResilientSolrClient}. All clients from one provider share one circuit breaker, so the
+ * provider should be shared by everything talking to the same Solr.
+ */
+public final class ResilientSolrClientProvider implements SolrClientProvider {
+	private SolrClientProvider solrClientProvider;
+	private CircuitBreaker circuitBreaker;
+	private RetryPolicy retryPolicy;
+	private ResilientSolrClient solrClient;
+
+	private ResilientSolrClientProvider(SolrClientProvider solrClientProvider, String name,
+			ResilienceSettings settings) {
+		this.solrClientProvider = solrClientProvider;
+		circuitBreaker = CircuitBreaker.usingNameSettingsAndMetrics(name, settings,
+				SolrMetricsProvider.getMetrics());
+		retryPolicy = RetryPolicy.usingSettings(settings);
+	}
+
+	/**
+	 * wrapping creates a provider adding retries and a circuit breaker to the clients from the
+	 * specified provider.
+	 * 
+	 * @param name
+	 *            the name of the circuit breaker used in metrics, for instance the solr url
+	 */
+	public static ResilientSolrClientProvider wrapping(SolrClientProvider solrClientProvider,
+			String name, ResilienceSettings settings) {
+		return new ResilientSolrClientProvider(solrClientProvider, name, settings);
+	}
+
+	@Override
+	public SolrClient getSolrClient() {
+		if (solrClient == null) {
+			solrClient = ResilientSolrClient.usingSolrClientCircuitBreakerRetryPolicyAndMetrics(
+					solrClientProvider.getSolrClient(), circuitBreaker, retryPolicy,
+					SolrMetricsProvider.getMetrics());
+		}
+		return solrClient;
+	}
+
+	public SolrClientProvider onlyForTestGetSolrClientProvider() {
+		return solrClientProvider;
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+}
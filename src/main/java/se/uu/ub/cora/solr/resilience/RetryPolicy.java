@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * RetryPolicy decides how many times a request is attempted and how long to wait between the
+ * attempts. Delays use exponential backoff with full jitter, spreading retries from many threads
+ * over time so that a recovering Solr is not hit by all of them at once.
+ */
+public final class RetryPolicy {
+	private final int maxAttempts;
+	private final long baseDelayMillis;
+	private final long maxDelayMillis;
+	private DoubleSupplier random = () -> ThreadLocalRandom.current().nextDouble();
+
+	private RetryPolicy(ResilienceSettings settings) {
+		maxAttempts = settings.getMaxAttempts();
+		baseDelayMillis = settings.getBaseDelayMillis();
+		maxDelayMillis = settings.getMaxDelayMillis();
+	}
+
+	public static RetryPolicy usingSettings(ResilienceSettings settings) {
+		return new RetryPolicy(settings);
+	}
+
+	public boolean shouldRetryAfterAttempt(int attempt) {
+		return attempt < maxAttempts;
+	}
+
+	/**
+	 * getDelayInMillisAfterAttempt returns a random delay between zero and the backoff for the
+	 * attempt, baseDelay * 2^(attempt-1) capped at maxDelay.
+	 */
+	public long getDelayInMillisAfterAttempt(int attempt) {
+		long backoff = calculateBackoff(attempt);
+		return (long) (random.getAsDouble() * backoff);
+	}
+
+	private long calculateBackoff(int attempt) {
+		int shift = Math.min(attempt - 1, Long.SIZE - 2);
+		long backoff = baseDelayMillis << shift;
+		if (backoff < 0 || backoff > maxDelayMillis || (backoff >> shift) != baseDelayMillis) {
+			return maxDelayMillis;
+		}
+		return backoff;
+	}
+
+	public void onlyForTestSetRandom(DoubleSupplier random) {
+		this.random = random;
+	}
+}
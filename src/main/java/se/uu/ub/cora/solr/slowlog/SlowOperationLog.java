@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.slowlog;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.logger.LoggerProvider;
+
+/**
+ * SlowOperationLog writes an entry for operations against Solr that take longer than a threshold.
+ * The entry is only built when it is written, so an enabled log costs a comparison for operations
+ * below the threshold.
+ * <p>
+ * To be able to stay enabled under production load, only every nth slow operation is sampled and
+ * at most a set number of entries are written per second. The number of slow operations not
+ * written since the previous entry is included in the next entry.
+ * <p>
+ * Entries are written as warnings using the Cora logger unless another
+ * {@link SlowOperationSink} is set.
+ */
+public final class SlowOperationLog {
+	private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final int DEFAULT_MAX_ENTRIES_PER_SECOND = 10;
+	private final long thresholdNanos;
+	private int sampleEveryNth = 1;
+	private int maxEntriesPerSecond = DEFAULT_MAX_ENTRIES_PER_SECOND;
+	private SlowOperationSink sink = SlowOperationLog::logAsWarning;
+	private LongSupplier nanoClock = System::nanoTime;
+	private final AtomicLong slowOperations = new AtomicLong();
+	private long notLogged = 0;
+	private long windowStart;
+	private int entriesInWindow = 0;
+
+	private SlowOperationLog(long thresholdNanos) {
+		this.thresholdNanos = thresholdNanos;
+		windowStart = nanoClock.getAsLong();
+	}
+
+	public static SlowOperationLog disabled() {
+		return new SlowOperationLog(Long.MAX_VALUE);
+	}
+
+	public static SlowOperationLog usingThresholdInMillis(long thresholdInMillis) {
+		return new SlowOperationLog(TimeUnit.MILLISECONDS.toNanos(thresholdInMillis));
+	}
+
+	private static void logAsWarning(String message) {
+		LoggerProvider.getLoggerForClass(SlowOperationLog.class).logWarnUsingMessage(message);
+	}
+
+	/**
+	 * setSampleEveryNth sets that only every nth slow operation is considered for logging.
+	 * <p>
+	 * Default is 1, all slow operations.
+	 */
+	public void setSampleEveryNth(int sampleEveryNth) {
+		this.sampleEveryNth = sampleEveryNth;
+	}
+
+	/**
+	 * setMaxEntriesPerSecond sets the maximum number of entries written per second.
+	 * <p>
+	 * Default is 10.
+	 */
+	public void setMaxEntriesPerSecond(int maxEntriesPerSecond) {
+		this.maxEntriesPerSecond = maxEntriesPerSecond;
+	}
+
+	public void setSink(SlowOperationSink sink) {
+		this.sink = sink;
+	}
+
+	public boolean isEnabled() {
+		return thresholdNanos != Long.MAX_VALUE;
+	}
+
+	public boolean isSlow(long durationNanos) {
+		return durationNanos >= thresholdNanos;
+	}
+
+	/**
+	 * possiblyLog writes an entry if the duration is above the threshold and the operation is
+	 * sampled and within the rate limit.
+	 * 
+	 * @param durationNanos
+	 *            the time the operation took as seen by the client
+	 * @param entrySupplier
+	 *            creates the entry, only called if an entry is written
+	 */
+	public void possiblyLog(long durationNanos, Supplier<String> entrySupplier) {
+		if (isSlow(durationNanos)) {
+			possiblyLogSlowOperation(durationNanos, entrySupplier);
+		}
+	}
+
+	private void possiblyLogSlowOperation(long durationNanos, Supplier<String> entrySupplier) {
+		long slowOperationNumber = slowOperations.incrementAndGet();
+		if (slowOperationNumber % sampleEveryNth != 0) {
+			countNotLogged();
+			return;
+		}
+		long previouslyNotLogged = tryToTakeEntryInRateLimit();
+		if (previouslyNotLogged >= 0) {
+			sink.logSlowOperation(createEntry(durationNanos, entrySupplier, previouslyNotLogged));
+		}
+	}
+
+	private synchronized void countNotLogged() {
+		notLogged++;
+	}
+
+	private synchronized long tryToTakeEntryInRateLimit() {
+		long now = nanoClock.getAsLong();
+		if (now - windowStart >= ONE_SECOND) {
+			windowStart = now;
+			entriesInWindow = 0;
+		}
+		if (entriesInWindow >= maxEntriesPerSecond) {
+			notLogged++;
+			return -1;
+		}
+		entriesInWindow++;
+		long previouslyNotLogged = notLogged;
+		notLogged = 0;
+		return previouslyNotLogged;
+	}
+
+	private String createEntry(long durationNanos, Supplier<String> entrySupplier,
+			long previouslyNotLogged) {
+		String entry = "Slow Solr operation (" + TimeUnit.NANOSECONDS.toMillis(durationNanos)
+				+ " ms): " + entrySupplier.get();
+		if (previouslyNotLogged > 0) {
+			entry += " (" + previouslyNotLogged + " slow operations not logged since last entry)";
+		}
+		return entry;
+	}
+
+	public long onlyForTestGetThresholdNanos() {
+		return thresholdNanos;
+	}
+
+	public void onlyForTestSetNanoClock(LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+		windowStart = nanoClock.getAsLong();
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.warmup;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.SolrParams;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+
+/**
+ * SolrWarmUp prepares a node for its first searches. It creates and pings the Solr client so that
+ * connections are open, preloads search term metadata using a {@link SearchTermPreloader} and
+ * sends a set of warm-up queries so that Solr fills its filter, query result and document caches.
+ * Run it from startup code with the client provider used for searches, so that the warm-up
+ * queries are treated as searches.
+ * <p>
+ * {@link #isReady()} returns true once the warm-up has run and Solr answered the ping, or the ping
+ * is disabled, use it in readiness checks so that no traffic is sent to the node before it is warm
+ * or while it cannot reach Solr. A warm-up with a failed ping can be run again. A failing step does
+ * not stop the warm-up, it is reported in the returned {@link WarmUpReport}.
+ */
+public final class SolrWarmUp {
+	private final SolrClientProvider solrClientProvider;
+	private final SearchTermPreloader searchTermPreloader;
+	private final WarmUpSettings settings;
+	private volatile boolean ready = false;
+
+	private SolrWarmUp(SolrClientProvider solrClientProvider,
+			SearchTermPreloader searchTermPreloader, WarmUpSettings settings) {
+		this.solrClientProvider = solrClientProvider;
+		this.searchTermPreloader = searchTermPreloader;
+		this.settings = settings;
+	}
+
+	/**
+	 * usingSolrClientProviderAndSettings creates a warm-up that does not preload any search
+	 * terms.
+	 */
+	public static SolrWarmUp usingSolrClientProviderAndSettings(
+			SolrClientProvider solrClientProvider, WarmUpSettings settings) {
+		return new SolrWarmUp(solrClientProvider, null, settings);
+	}
+
+	public static SolrWarmUp usingSolrClientProviderSearchTermPreloaderAndSettings(
+			SolrClientProvider solrClientProvider, SearchTermPreloader searchTermPreloader,
+			WarmUpSettings settings) {
+		return new SolrWarmUp(solrClientProvider, searchTermPreloader, settings);
+	}
+
+	public WarmUpReport warmUp() {
+		long start = System.nanoTime();
+		List<String> failures = new ArrayList<>();
+		SolrClient solrClient = solrClientProvider.getSolrClient();
+		boolean pinged = settings.isPing() && ping(solrClient, failures::add);
+		int preloaded = preloadSearchTerms(failures::add);
+		int queries = sendWarmUpQueries(solrClient, failures::add);
+		ready = pinged || !settings.isPing();
+		return new WarmUpReport(ready, pinged, preloaded, queries, List.copyOf(failures),
+				System.nanoTime() - start);
+	}
+
+	private boolean ping(SolrClient solrClient, Consumer<String> failures) {
+		try {
+			solrClient.ping();
+			return true;
+		} catch (Exception e) {
+			failures.accept("Ping failed: " + e.getMessage());
+			return false;
+		}
+	}
+
+	private int preloadSearchTerms(Consumer<String> failures) {
+		if (searchTermPreloader == null) {
+			return 0;
+		}
+		int preloaded = 0;
+		for (String searchTermId : settings.getSearchTermsToPreload()) {
+			try {
+				searchTermPreloader.preloadSearchTerm(searchTermId);
+				preloaded++;
+			} catch (Exception e) {
+				failures.accept("Preloading search term " + searchTermId + " failed: "
+						+ e.getMessage());
+			}
+		}
+		return preloaded;
+	}
+
+	private int sendWarmUpQueries(SolrClient solrClient, Consumer<String> failures) {
+		int sent = 0;
+		for (String queryString : settings.getWarmUpQueries()) {
+			try {
+				solrClient.query(parseQueryString(queryString));
+				sent++;
+			} catch (Exception e) {
+				failures.accept("Warm-up query " + queryString + " failed: " + e.getMessage());
+			}
+		}
+		return sent;
+	}
+
+	static SolrParams parseQueryString(String queryString) {
+		ModifiableSolrParams params = new ModifiableSolrParams();
+		for (String parameter : queryString.split("&")) {
+			if (!parameter.isEmpty()) {
+				addParameter(params, parameter);
+			}
+		}
+		return params;
+	}
+
+	private static void addParameter(ModifiableSolrParams params, String parameter) {
+		int equals = parameter.indexOf('=');
+		if (equals < 0) {
+			params.add(decode(parameter), "");
+		} else {
+			params.add(decode(parameter.substring(0, equals)),
+					decode(parameter.substring(equals + 1)));
+		}
+	}
+
+	private static String decode(String encoded) {
+		return URLDecoder.decode(encoded, StandardCharsets.UTF_8);
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.warmup;
+
+import java.util.List;
+
+/**
+ * WarmUpReport describes what a {@link SolrWarmUp} did. Failures do not stop the warm-up, they are
+ * collected as messages so that the caller can log them.
+ * 
+ * @param ready
+ *            true if the node can take searches, that is when Solr answered the ping or the ping
+ *            is disabled
+ * @param pinged
+ *            true if Solr answered the ping
+ * @param numberOfPreloadedSearchTerms
+ *            the number of search terms read into the cache
+ * @param numberOfWarmUpQueries
+ *            the number of warm-up queries Solr answered
+ * @param failures
+ *            a message for each step that failed
+ * @param durationNanos
+ *            how long the warm-up took
+ */
+public record WarmUpReport(boolean ready, boolean pinged, int numberOfPreloadedSearchTerms,
+		int numberOfWarmUpQueries, List<String> failures, long durationNanos) {
+
+	public boolean isSuccessful() {
+		return failures.isEmpty();
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * WarmUpSettings holds what {@link SolrWarmUp} does before reporting ready.
+ */
+public final class WarmUpSettings {
+	private boolean enabled;
+	private boolean ping = true;
+	private List<String> searchTermIds = new ArrayList<>();
+	private List<String> warmUpQueries = new ArrayList<>();
+
+	private WarmUpSettings(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public static WarmUpSettings disabled() {
+		return new WarmUpSettings(false);
+	}
+
+	public static WarmUpSettings withDefaults() {
+		return new WarmUpSettings(true);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * setPing sets if the Solr client is pinged during warm-up, opening its connections.
+	 * <p>
+	 * Default is true.
+	 */
+	public void setPing(boolean ping) {
+		this.ping = ping;
+	}
+
+	public boolean isPing() {
+		return ping;
+	}
+
+	/**
+	 * addSearchTermToPreload adds a search term to read into a cache during warm-up, see
+	 * {@link SearchTermPreloader}.
+	 */
+	public void addSearchTermToPreload(String searchTermId) {
+		searchTermIds.add(searchTermId);
+	}
+
+	public List<String> getSearchTermsToPreload() {
+		return Collections.unmodifiableList(searchTermIds);
+	}
+
+	/**
+	 * addWarmUpQuery adds a query sent to Solr during warm-up to fill its caches, written as url
+	 * encoded request parameters, for instance "q=*:*&fq=type:person&sort=id asc". Use queries
+	 * like the common searches, as Solr caches filter queries and sorts separately.
+	 */
+	public void addWarmUpQuery(String queryString) {
+		warmUpQueries.add(queryString);
+	}
+
+	public List<String> getWarmUpQueries() {
+		return Collections.unmodifiableList(warmUpQueries);
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.solr.common.SolrInputDocument;
+
+/**
+ * AtomicUpdate creates a Solr atomic update document from the difference between the fields
+ * previously sent for a document and a new version of it. Unchanged fields are left out, fields
+ * where values only were added or only were removed use the add and remove modifiers, other
+ * changed fields use set and fields no longer present are set to null. Add and remove are only
+ * used when the resulting values are in the same order as in the new version.
+ * <p>
+ * The update has {@value #VERSION_FIELD} set to 1, which makes Solr reject it with a version
+ * conflict (409) if the document does not exist, for instance after it was deleted by someone
+ * else or the index was rebuilt, instead of creating a document holding only the changed fields.
+ * The full document should be sent when that happens.
+ */
+final class AtomicUpdate {
+	static final String VERSION_FIELD = "_version_";
+	static final int VERSION_CONFLICT_CODE = 409;
+	private static final String ID_FIELD = "id";
+	private static final long VERSION_DOCUMENT_MUST_EXIST = 1;
+	private static final String SET = "set";
+	private static final String ADD = "add";
+	private static final String REMOVE = "remove";
+	private final Map<String, List<Object>> previousFields;
+	private final Map<String, List<Object>> currentFields;
+	private final SolrInputDocument document;
+	private final SolrInputDocument update = new SolrInputDocument();
+
+	private AtomicUpdate(Map<String, List<Object>> previousFields,
+			Map<String, List<Object>> currentFields, SolrInputDocument document) {
+		this.previousFields = previousFields;
+		this.currentFields = currentFields;
+		this.document = document;
+	}
+
+	/**
+	 * createUpdate returns an atomic update for the document.
+	 * 
+	 * @param previousFields
+	 *            the fields last sent, as created by
+	 *            {@link IndexedFieldsCache#createIndexedFields(SolrInputDocument)}
+	 * @param currentFields
+	 *            the fields of the document, created the same way
+	 * @param document
+	 *            the new full document
+	 */
+	static SolrInputDocument createUpdate(Map<String, List<Object>> previousFields,
+			Map<String, List<Object>> currentFields, SolrInputDocument document) {
+		return new AtomicUpdate(previousFields, currentFields, document).create();
+	}
+
+	private SolrInputDocument create() {
+		update.addField(ID_FIELD, document.getFieldValue(ID_FIELD));
+		update.addField(VERSION_FIELD, VERSION_DOCUMENT_MUST_EXIST);
+		for (Entry<String, List<Object>> field : currentFields.entrySet()) {
+			possiblyAddChangedField(field.getKey(), field.getValue());
+		}
+		for (String previousFieldName : previousFields.keySet()) {
+			possiblyAddRemovedField(previousFieldName);
+		}
+		return update;
+	}
+
+	private void possiblyAddChangedField(String fieldName, List<Object> currentValues) {
+		List<Object> previousValues = previousFields.get(fieldName);
+		if (ID_FIELD.equals(fieldName) || currentValues.equals(previousValues)) {
+			return;
+		}
+		if (previousValues == null) {
+			addModifier(fieldName, SET, getValueToSet(fieldName));
+		} else {
+			addChangedField(fieldName, previousValues, currentValues);
+		}
+	}
+
+	private void addChangedField(String fieldName, List<Object> previousValues,
+			List<Object> currentValues) {
+		if (valuesAreOnlyAppended(previousValues, currentValues)) {
+			addModifier(fieldName, ADD, new ArrayList<>(
+					currentValues.subList(previousValues.size(), currentValues.size())));
+		} else if (valuesAreOnlyRemoved(previousValues, currentValues)) {
+			List<Object> removed = new ArrayList<>(previousValues);
+			removed.removeAll(currentValues);
+			addModifier(fieldName, REMOVE, removed);
+		} else {
+			addModifier(fieldName, SET, getValueToSet(fieldName));
+		}
+	}
+
+	private boolean valuesAreOnlyAppended(List<Object> previousValues,
+			List<Object> currentValues) {
+		return currentValues.size() > previousValues.size()
+				&& currentValues.subList(0, previousValues.size()).equals(previousValues);
+	}
+
+	private boolean valuesAreOnlyRemoved(List<Object> previousValues,
+			List<Object> currentValues) {
+		List<Object> kept = new ArrayList<>(previousValues);
+		kept.retainAll(currentValues);
+		return currentValues.size() < previousValues.size()
+				&& new HashSet<>(previousValues).size() == previousValues.size()
+				&& kept.equals(currentValues);
+	}
+
+	private Object getValueToSet(String fieldName) {
+		Collection<Object> values = document.getFieldValues(fieldName);
+		if (values.size() == 1) {
+			return values.iterator().next();
+		}
+		return new ArrayList<>(values);
+	}
+
+	private void possiblyAddRemovedField(String fieldName) {
+		if (!currentFields.containsKey(fieldName)) {
+			addModifier(fieldName, SET, null);
+		}
+	}
+
+	private void addModifier(String fieldName, String modifier, Object value) {
+		update.addField(fieldName, Collections.singletonMap(modifier, value));
+	}
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.IndexTerm;
+import se.uu.ub.cora.logger.LoggerProvider;
+import se.uu.ub.cora.search.RecordIndexer;
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+
+/**
+ * CoalescingRecordIndexer buffers updates for a short window before handing them to a
+ * {@link PreparingRecordIndexer}, keyed by record type and id. A later update of a record replaces
+ * the pending one, and a delete replaces a pending add, so that only the last state of a record
+ * saved several times within the window is sent to Solr. The window is counted from the first
+ * pending update of a record, so a record saved continuously is still sent once per window.
+ * <p>
+ * Records are converted to Solr documents when they are queued, as the caller may change the
+ * record after indexData returns. Linked data is read when the document is sent.
+ * <p>
+ * Updates are sent by a background thread, one at a time, so the sending part of the wrapped
+ * indexer does not need to be thread safe. Updates are therefore visible in searches up to one
+ * window later and errors are not reported to the caller. Updates that can not be sent because
+ * Solr is unavailable are spooled by the wrapped indexer, if it has an enabled spool, any other
+ * error is counted in {@value #ERRORS_COUNTER} and written, with the record type and id, to an
+ * {@link IndexFailureSink} that by default logs it as an error. Replaced updates are counted in
+ * {@value #COALESCED_COUNTER} and the number of pending updates is exposed as
+ * {@value #PENDING_GAUGE}, all tagged with the name of the indexer.
+ */
+public final class CoalescingRecordIndexer implements RecordIndexer {
+	public static final String COALESCED_COUNTER = "solr.coalescing.coalesced";
+	public static final String ERRORS_COUNTER = "solr.coalescing.errors";
+	public static final String PENDING_GAUGE = "solr.coalescing.pending";
+	private static final long MIN_FLUSH_INTERVAL_MILLIS = 1;
+	private static final int FLUSH_CHECKS_PER_WINDOW = 4;
+	private final PreparingRecordIndexer recordIndexer;
+	private final long windowNanos;
+	private final SolrMetrics metrics;
+	private final MetricKey coalescedKey;
+	private final MetricKey errorsKey;
+	private final Map<String, PendingUpdate> pendingUpdates = new LinkedHashMap<>();
+	private final Object flushLock = new Object();
+	private LongSupplier nanoClock = System::nanoTime;
+	private IndexFailureSink failureSink = CoalescingRecordIndexer::logAsError;
+	private ScheduledExecutorService scheduler;
+
+	private enum UpdateType {
+		INDEX, DELETE
+	}
+
+	private record PendingUpdate(UpdateType updateType, String recordType, String recordId,
+			PreparedDocument preparedDocument, boolean explicitCommit, long firstQueuedNanos) {
+	}
+
+	private CoalescingRecordIndexer(PreparingRecordIndexer recordIndexer, String name,
+			long windowMillis) {
+		this.recordIndexer = recordIndexer;
+		windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		metrics = SolrMetricsProvider.getMetrics();
+		Map<String, String> tags = Map.of("name", name);
+		coalescedKey = new MetricKey(COALESCED_COUNTER, tags);
+		errorsKey = new MetricKey(ERRORS_COUNTER, tags);
+		metrics.registerGauge(new MetricKey(PENDING_GAUGE, tags),
+				this::getNumberOfPendingUpdates);
+	}
+
+	/**
+	 * usingRecordIndexerNameAndWindowInMillis creates a coalescing indexer, {@link #start()} must
+	 * be called for buffered updates to be sent.
+	 * 
+	 * @param name
+	 *            the name used to tag the metrics of the indexer, for instance the solr url
+	 */
+	public static CoalescingRecordIndexer usingRecordIndexerNameAndWindowInMillis(
+			PreparingRecordIndexer recordIndexer, String name, long windowMillis) {
+		return new CoalescingRecordIndexer(recordIndexer, name, windowMillis);
+	}
+
+	private static void logAsError(String message, Exception exception) {
+		LoggerProvider.getLoggerForClass(CoalescingRecordIndexer.class)
+				.logErrorUsingMessageAndException(message, exception);
+	}
+
+	/**
+	 * setFailureSink sets where updates that could not be sent are written.
+	 * <p>
+	 * Default is the error log of CoalescingRecordIndexer.
+	 */
+	public void setFailureSink(IndexFailureSink failureSink) {
+		this.failureSink = failureSink;
+	}
+
+	@Override
+	public void indexData(String recordType, String recordId, List<IndexTerm> indexTerms,
+			DataRecordGroup dataRecordGroup) {
+		queueIndex(recordType, recordId, indexTerms, dataRecordGroup, true);
+	}
+
+	@Override
+	public void indexDataWithoutExplicitCommit(String recordType, String recordId,
+			List<IndexTerm> indexTerms, DataRecordGroup dataRecordGroup) {
+		queueIndex(recordType, recordId, indexTerms, dataRecordGroup, false);
+	}
+
+	private void queueIndex(String recordType, String recordId, List<IndexTerm> indexTerms,
+			DataRecordGroup dataRecordGroup, boolean explicitCommit) {
+		PreparedDocument preparedDocument = recordIndexer.prepareDocument(recordType, recordId,
+				indexTerms, dataRecordGroup);
+		queuePreparedDocument(preparedDocument, explicitCommit);
+	}
+
+	private synchronized void queuePreparedDocument(PreparedDocument preparedDocument,
+			boolean explicitCommit) {
+		String recordType = preparedDocument.recordType();
+		String recordId = preparedDocument.recordId();
+		PendingUpdate earlier = pendingUpdates.get(createKey(recordType, recordId));
+		boolean commit = explicitCommit || (earlier != null && earlier.explicitCommit());
+		queue(new PendingUpdate(UpdateType.INDEX, recordType, recordId, preparedDocument, commit,
+				getFirstQueuedNanos(earlier)));
+	}
+
+	@Override
+	public synchronized void deleteFromIndex(String recordType, String recordId) {
+		PendingUpdate earlier = pendingUpdates.get(createKey(recordType, recordId));
+		queue(new PendingUpdate(UpdateType.DELETE, recordType, recordId, null, true,
+				getFirstQueuedNanos(earlier)));
+	}
+
+	private String createKey(String recordType, String recordId) {
+		return recordType + "_" + recordId;
+	}
+
+	private long getFirstQueuedNanos(PendingUpdate earlier) {
+		if (earlier == null) {
+			return nanoClock.getAsLong();
+		}
+		metrics.addToCounter(coalescedKey, 1);
+		return earlier.firstQueuedNanos();
+	}
+
+	private void queue(PendingUpdate update) {
+		pendingUpdates.put(createKey(update.recordType(), update.recordId()), update);
+	}
+
+	/**
+	 * flushDue sends all pending updates whose window has passed.
+	 */
+	public void flushDue() {
+		synchronized (flushLock) {
+			send(takeUpdates(false));
+		}
+	}
+
+	/**
+	 * flushAll sends all pending updates at once.
+	 */
+	public void flushAll() {
+		synchronized (flushLock) {
+			send(takeUpdates(true));
+		}
+	}
+
+	private synchronized List<PendingUpdate> takeUpdates(boolean all) {
+		long now = nanoClock.getAsLong();
+		List<PendingUpdate> updates = new ArrayList<>();
+		Iterator<PendingUpdate> iterator = pendingUpdates.values().iterator();
+		while (iterator.hasNext()) {
+			PendingUpdate update = iterator.next();
+			if (all || now - update.firstQueuedNanos() >= windowNanos) {
+				updates.add(update);
+				iterator.remove();
+			}
+		}
+		return updates;
+	}
+
+	private void send(List<PendingUpdate> updates) {
+		for (PendingUpdate update : updates) {
+			try {
+				sendUpdate(update);
+			} catch (RuntimeException e) {
+				metrics.addToCounter(errorsKey, 1);
+				failureSink.logIndexFailure("Coalesced " + update.updateType() + " of recordType: "
+						+ update.recordType() + ", id: " + update.recordId()
+						+ " could not be sent: " + e.getMessage(), e);
+			}
+		}
+	}
+
+	private void sendUpdate(PendingUpdate update) {
+		if (update.updateType() == UpdateType.DELETE) {
+			recordIndexer.deleteFromIndex(update.recordType(), update.recordId());
+		} else {
+			recordIndexer.indexPreparedDocument(update.preparedDocument(),
+					update.explicitCommit());
+		}
+	}
+
+	/**
+	 * start sends due updates from a background thread, checking a few times per window.
+	 */
+	public synchronized void start() {
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "solr-coalescing-indexer");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long interval = Math.max(MIN_FLUSH_INTERVAL_MILLIS,
+					TimeUnit.NANOSECONDS.toMillis(windowNanos) / FLUSH_CHECKS_PER_WINDOW);
+			scheduler.scheduleWithFixedDelay(this::flushDue, interval, interval,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * close stops the background thread and sends all pending updates.
+	 */
+	public void close() {
+		ScheduledExecutorService toStop;
+		synchronized (this) {
+			toStop = scheduler;
+			scheduler = null;
+		}
+		if (toStop != null) {
+			toStop.shutdown();
+		}
+		flushAll();
+	}
+
+	public synchronized int getNumberOfPendingUpdates() {
+		return pendingUpdates.size();
+	}
+
+	public synchronized boolean isStarted() {
+		return scheduler != null;
+	}
+
+	public PreparingRecordIndexer onlyForTestGetRecordIndexer() {
+		return recordIndexer;
+	}
+
+	public void onlyForTestSetNanoClock(LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+	}
+}
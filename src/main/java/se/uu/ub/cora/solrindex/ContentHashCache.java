@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+
+/**
+ * ContentHashCache remembers a hash of the content of the documents last sent to Solr, so that
+ * {@link SolrRecordIndexer} can skip sending a document that is unchanged since it was last
+ * indexed. The hash is calculated over all fields in the document, including the record json,
+ * and is stored in the document in the field {@value #CONTENT_HASH_FIELD}.
+ * <p>
+ * The cache holds at most the set maximum number of ids, dropping the least recently used. When
+ * {@link #setCheckSolrOnMiss(boolean)} is set, the indexer reads the stored hash from Solr for ids
+ * not in the cache, which saves the add and merge but not the read.
+ * <p>
+ * The cache only knows about updates made through indexers using it, so it must be shared by all
+ * indexers writing to the same index, and documents changed in any other way must be removed
+ * from it or the cache must be cleared. Skipped documents are counted in
+ * {@value #UNCHANGED_COUNTER}, tagged with recordType.
+ */
+public final class ContentHashCache {
+	public static final String CONTENT_HASH_FIELD = "contentHash_s";
+	public static final String UNCHANGED_COUNTER = "solr.index.unchanged";
+	private static final String HASH_ALGORITHM = "SHA-256";
+	private static final int HASH_BYTES = 16;
+	private static final byte FIELD_SEPARATOR = 0;
+	private static final byte VALUE_SEPARATOR = 1;
+	private final boolean enabled;
+	private final Map<String, String> hashes;
+	private boolean checkSolrOnMiss = false;
+
+	private ContentHashCache(boolean enabled, int maxSize) {
+		this.enabled = enabled;
+		hashes = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * disabled returns a cache that is not used, all documents are sent to Solr.
+	 */
+	public static ContentHashCache disabled() {
+		return new ContentHashCache(false, 0);
+	}
+
+	public static ContentHashCache withMaxSize(int maxSize) {
+		return new ContentHashCache(true, maxSize);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * setCheckSolrOnMiss sets if the hash stored in Solr should be read for ids not in the cache.
+	 * While the index spool of the indexer has pending updates is Solr not checked and documents
+	 * are always treated as changed, as the spooled updates may change the stored document.
+	 * <p>
+	 * Default is false.
+	 */
+	public void setCheckSolrOnMiss(boolean checkSolrOnMiss) {
+		this.checkSolrOnMiss = checkSolrOnMiss;
+	}
+
+	public boolean isCheckSolrOnMiss() {
+		return checkSolrOnMiss;
+	}
+
+	public synchronized Optional<String> getHash(String documentId) {
+		return Optional.ofNullable(hashes.get(documentId));
+	}
+
+	public synchronized void putHash(String documentId, String hash) {
+		hashes.put(documentId, hash);
+	}
+
+	public synchronized void remove(String documentId) {
+		hashes.remove(documentId);
+	}
+
+	public synchronized void clear() {
+		hashes.clear();
+	}
+
+	public synchronized int size() {
+		return hashes.size();
+	}
+
+	/**
+	 * calculateHash returns a hex encoded hash of the names and values of all fields in the
+	 * document except {@value #CONTENT_HASH_FIELD}, in the order they were added.
+	 */
+	public static String calculateHash(SolrInputDocument document) {
+		MessageDigest digest = createDigest();
+		for (SolrInputField field : document) {
+			if (!CONTENT_HASH_FIELD.equals(field.getName())) {
+				addFieldToDigest(digest, field);
+			}
+		}
+		byte[] hash = digest.digest();
+		return HexFormat.of().formatHex(hash, 0, HASH_BYTES);
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw SolrIndexException.withMessageAndException(
+					"Error while creating content hash: " + e.getMessage(), e);
+		}
+	}
+
+	private static void addFieldToDigest(MessageDigest digest, SolrInputField field) {
+		digest.update(field.getName().getBytes(StandardCharsets.UTF_8));
+		for (Object value : field.getValues()) {
+			digest.update(VALUE_SEPARATOR);
+			digest.update(toBytes(value));
+		}
+		digest.update(FIELD_SEPARATOR);
+	}
+
+	private static byte[] toBytes(Object value) {
+		if (value instanceof byte[] bytes) {
+			return bytes;
+		}
+		return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+	}
+}
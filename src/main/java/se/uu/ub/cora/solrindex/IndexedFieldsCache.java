@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+
+import se.uu.ub.cora.solr.RecordPayload;
+
+/**
+ * IndexedFieldsCache remembers the fields of the documents last sent to Solr, so that
+ * {@link SolrRecordIndexer} can send an atomic update holding only the fields that changed
+ * instead of the full document. Field values are kept as they were sent except for
+ * {@value #RECORD_AS_JSON_FIELD} and {@value RecordPayload#FIELD_NAME}, where only a hash is kept
+ * so that cached records stay small.
+ * <p>
+ * Atomic updates require that the Solr schema has an update log and that all fields are stored
+ * or have docValues, as Solr rebuilds the full document from the stored one. The cache holds at
+ * most the set maximum number of ids, dropping the least recently used, and only knows about
+ * updates made through indexers using it, so it must be shared by all indexers writing to the
+ * same index. Atomic updates are counted in {@value #ATOMIC_UPDATE_COUNTER} and atomic updates
+ * rejected because the document no longer exists in Solr, which are resent as full documents, in
+ * {@value #ATOMIC_UPDATE_CONFLICT_COUNTER}, both tagged with recordType.
+ */
+public final class IndexedFieldsCache {
+	public static final String ATOMIC_UPDATE_COUNTER = "solr.index.atomic";
+	public static final String ATOMIC_UPDATE_CONFLICT_COUNTER = "solr.index.atomic.conflict";
+	static final String RECORD_AS_JSON_FIELD = "recordAsJson";
+	private final boolean enabled;
+	private final Map<String, Map<String, List<Object>>> indexedFields;
+
+	private IndexedFieldsCache(boolean enabled, int maxSize) {
+		this.enabled = enabled;
+		indexedFields = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Map<String, List<Object>>> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * disabled returns a cache that is not used, all documents are sent in full.
+	 */
+	public static IndexedFieldsCache disabled() {
+		return new IndexedFieldsCache(false, 0);
+	}
+
+	public static IndexedFieldsCache withMaxSize(int maxSize) {
+		return new IndexedFieldsCache(true, maxSize);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public synchronized Optional<Map<String, List<Object>>> getIndexedFields(String documentId) {
+		return Optional.ofNullable(indexedFields.get(documentId));
+	}
+
+	public synchronized void putIndexedFields(String documentId, Map<String, List<Object>> fields) {
+		indexedFields.put(documentId, fields);
+	}
+
+	/**
+	 * remove forgets the fields for the document, returning them if they were known.
+	 */
+	public synchronized Optional<Map<String, List<Object>>> remove(String documentId) {
+		return Optional.ofNullable(indexedFields.remove(documentId));
+	}
+
+	public synchronized void clear() {
+		indexedFields.clear();
+	}
+
+	public synchronized int size() {
+		return indexedFields.size();
+	}
+
+	/**
+	 * createIndexedFields returns the fields and values of the document in the form they are kept
+	 * in the cache.
+	 */
+	public static Map<String, List<Object>> createIndexedFields(SolrInputDocument document) {
+		Map<String, List<Object>> fields = new LinkedHashMap<>();
+		for (SolrInputField field : document) {
+			fields.put(field.getName(), createCachedValues(field));
+		}
+		return fields;
+	}
+
+	private static List<Object> createCachedValues(SolrInputField field) {
+		if (RECORD_AS_JSON_FIELD.equals(field.getName())
+				|| RecordPayload.FIELD_NAME.equals(field.getName())) {
+			return List.of(hashValues(field));
+		}
+		return new ArrayList<>(field.getValues());
+	}
+
+	private static String hashValues(SolrInputField field) {
+		SolrInputDocument valuesOnly = new SolrInputDocument();
+		valuesOnly.put(field.getName(), field);
+		return ContentHashCache.calculateHash(valuesOnly);
+	}
+}
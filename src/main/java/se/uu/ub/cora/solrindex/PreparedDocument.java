@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import org.apache.solr.common.SolrInputDocument;
+
+/**
+ * PreparedDocument is a record converted to a Solr document by a {@link PreparingRecordIndexer}.
+ * 
+ * @param recordType
+ *            the type of the record
+ * @param recordId
+ *            the id of the record
+ * @param numberOfIndexTerms
+ *            the number of index terms the document was created from
+ * @param document
+ *            the document to send, null if the record has no index terms and nothing should be
+ *            indexed
+ * @param conversionTime
+ *            the time in nanoseconds it took to convert the record to its payload
+ * @param payloadBytes
+ *            the size of a binary or compressed payload, 0 for records stored as json
+ */
+public record PreparedDocument(String recordType, String recordId, int numberOfIndexTerms,
+		SolrInputDocument document, long conversionTime, int payloadBytes) {
+
+	static PreparedDocument withNothingToIndex(String recordType, String recordId) {
+		return new PreparedDocument(recordType, recordId, 0, null, 0, 0);
+	}
+
+	public boolean hasDocument() {
+		return document != null;
+	}
+}
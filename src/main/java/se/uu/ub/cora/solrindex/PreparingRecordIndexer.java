@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import java.util.List;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.IndexTerm;
+import se.uu.ub.cora.search.RecordIndexer;
+
+/**
+ * PreparingRecordIndexer is a RecordIndexer that can convert a record to a Solr document separately
+ * from sending it, so that a caller can keep the document instead of the record it was created
+ * from.
+ */
+public interface PreparingRecordIndexer extends RecordIndexer {
+
+	PreparedDocument prepareDocument(String recordType, String recordId,
+			List<IndexTerm> indexTerms, DataRecordGroup dataRecordGroup);
+
+	void indexPreparedDocument(PreparedDocument preparedDocument, boolean performExplicitCommit);
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import se.uu.ub.cora.solr.RecordPayload;
+import se.uu.ub.cora.solr.RecordPayloadFormat;
+import se.uu.ub.cora.solr.admission.AdmissionController;
+import se.uu.ub.cora.solr.resilience.ResilienceSettings;
+import se.uu.ub.cora.solr.slowlog.SlowOperationLog;
+import se.uu.ub.cora.solrindex.spool.IndexSpool;
+import se.uu.ub.cora.solrindex.spool.SpoolReplayer;
+
+/**
+ * SolrIndexSettings holds settings that change how {@link SolrRecordIndexer} creates the
+ * documents it sends to Solr. An instance is intended to be created once when the indexer factory
+ * is set up and then shared between all indexers.
+ */
+public final class SolrIndexSettings {
+	private Map<String, List<String>> denormalizedLinkedFields = new LinkedHashMap<>();
+	private Set<String> autocompleteIndexFieldNames = new HashSet<>();
+	private SlowOperationLog slowOperationLog = SlowOperationLog.disabled();
+	private ResilienceSettings resilienceSettings = ResilienceSettings.disabled();
+	private AdmissionController admissionController = AdmissionController.disabled();
+	private Path indexSpoolDirectory = null;
+	private long spoolReplayIntervalInMillis = 5000;
+	private long coalescingWindowInMillis = 0;
+	private ContentHashCache contentHashCache = ContentHashCache.disabled();
+	private IndexedFieldsCache indexedFieldsCache = IndexedFieldsCache.disabled();
+	private RecordPayloadFormat recordPayloadFormat = RecordPayloadFormat.JSON;
+
+	private SolrIndexSettings() {
+	}
+
+	public static SolrIndexSettings withDefaults() {
+		return new SolrIndexSettings();
+	}
+
+	/**
+	 * addDenormalizedLinkedField makes the indexer copy the values of a field in a linked record
+	 * into the document that links to it. The indexer reads the linked documents from Solr using
+	 * the ids found in the linkedOnFieldName field, so the linked records must be indexed before
+	 * the records linking to them, and records linking to a changed record must be reindexed for
+	 * the copied values to be updated.
+	 * <p>
+	 * The copied values are stored in a field named as returned by
+	 * LinkedFieldNames.createDenormalizedFieldName and can be searched using the
+	 * LinkedDataStrategy DENORMALIZED.
+	 * 
+	 * @param linkedOnFieldName
+	 *            the name of the field holding the link, for instance textId_s
+	 * @param linkedFieldName
+	 *            the name of the field in the linked record, for instance swedish_t
+	 */
+	public void addDenormalizedLinkedField(String linkedOnFieldName, String linkedFieldName) {
+		denormalizedLinkedFields.computeIfAbsent(linkedOnFieldName, key -> new ArrayList<>())
+				.add(linkedFieldName);
+	}
+
+	public Map<String, List<String>> getDenormalizedLinkedFields() {
+		return Collections.unmodifiableMap(denormalizedLinkedFields);
+	}
+
+	/**
+	 * addAutocompleteIndexFieldName makes the indexer write the values of index terms with the
+	 * specified index field name also to an autocomplete field, named as returned by
+	 * IndexFieldRegistry.getFieldName using SolrFieldType AUTOCOMPLETE, for instance title_ac.
+	 * The field is indexed as edge n-grams and can be searched using SolrAutocomplete.
+	 * 
+	 * @param indexFieldName
+	 *            the index field name of the index terms, for instance title
+	 */
+	public void addAutocompleteIndexFieldName(String indexFieldName) {
+		autocompleteIndexFieldNames.add(indexFieldName);
+	}
+
+	public Set<String> getAutocompleteIndexFieldNames() {
+		return Collections.unmodifiableSet(autocompleteIndexFieldNames);
+	}
+
+	/**
+	 * setSlowOperationLog sets the log used to write index and delete operations slower than its
+	 * threshold.
+	 * <p>
+	 * Default is a disabled log.
+	 */
+	public void setSlowOperationLog(SlowOperationLog slowOperationLog) {
+		this.slowOperationLog = slowOperationLog;
+	}
+
+	public SlowOperationLog getSlowOperationLog() {
+		return slowOperationLog;
+	}
+
+	/**
+	 * setResilienceSettings sets the retry and circuit breaker settings used for the Solr clients
+	 * created by {@link SolrRecordIndexerFactory}. Only reads are retried, updates fail on the
+	 * first error.
+	 * <p>
+	 * Default is disabled settings, sending each request once without a circuit breaker.
+	 */
+	public void setResilienceSettings(ResilienceSettings resilienceSettings) {
+		this.resilienceSettings = resilienceSettings;
+	}
+
+	public ResilienceSettings getResilienceSettings() {
+		return resilienceSettings;
+	}
+
+	/**
+	 * setAdmissionController sets the controller limiting concurrent indexing requests to Solr.
+	 * Use the same controller for the search, so that searches get priority over indexing.
+	 * <p>
+	 * Default is a disabled controller, not limiting any requests.
+	 */
+	public void setAdmissionController(AdmissionController admissionController) {
+		this.admissionController = admissionController;
+	}
+
+	public AdmissionController getAdmissionController() {
+		return admissionController;
+	}
+
+	/**
+	 * setIndexSpoolDirectory makes {@link SolrRecordIndexerFactory} write adds and deletes to a
+	 * local spool when Solr is unavailable, instead of failing. The factory keeps one
+	 * {@link IndexSpool} per solr url, in a subdirectory of the specified directory named after
+	 * the url, and starts one {@link SpoolReplayer} per url that sends the spooled updates to
+	 * Solr once it is available again. While a spool has pending updates all new updates for its
+	 * url are also spooled, so that they reach Solr in order.
+	 * <p>
+	 * Default is no directory, updates fail when Solr is unavailable.
+	 */
+	public void setIndexSpoolDirectory(Path indexSpoolDirectory) {
+		this.indexSpoolDirectory = indexSpoolDirectory;
+	}
+
+	public Optional<Path> getIndexSpoolDirectory() {
+		return Optional.ofNullable(indexSpoolDirectory);
+	}
+
+	/**
+	 * setSpoolReplayIntervalInMillis sets the delay between the attempts of the
+	 * {@link SpoolReplayer}s started by {@link SolrRecordIndexerFactory} to replay their spools.
+	 * <p>
+	 * Default is 5000.
+	 */
+	public void setSpoolReplayIntervalInMillis(long spoolReplayIntervalInMillis) {
+		this.spoolReplayIntervalInMillis = spoolReplayIntervalInMillis;
+	}
+
+	public long getSpoolReplayIntervalInMillis() {
+		return spoolReplayIntervalInMillis;
+	}
+
+	/**
+	 * setCoalescingWindowInMillis sets how long {@link SolrRecordIndexerFactory} buffers updates
+	 * before sending them to Solr, see {@link CoalescingRecordIndexer}. Updates of the same record
+	 * within the window are coalesced so that only the last one is converted and sent. When set
+	 * above 0 the factory returns one shared coalescing indexer per solr url and updates are
+	 * visible in searches up to one window later. {@link SolrRecordIndexerFactory#close()} must
+	 * then be called on shutdown, or updates still in the window are lost.
+	 * <p>
+	 * Default is 0, no coalescing.
+	 */
+	public void setCoalescingWindowInMillis(long coalescingWindowInMillis) {
+		this.coalescingWindowInMillis = coalescingWindowInMillis;
+	}
+
+	public long getCoalescingWindowInMillis() {
+		return coalescingWindowInMillis;
+	}
+
+	/**
+	 * setContentHashCache sets the cache used to skip sending documents that are unchanged since
+	 * they were last indexed. The same cache must be used by all indexers writing to the index.
+	 * <p>
+	 * Default is a disabled cache, all documents are sent.
+	 */
+	public void setContentHashCache(ContentHashCache contentHashCache) {
+		this.contentHashCache = contentHashCache;
+	}
+
+	public ContentHashCache getContentHashCache() {
+		return contentHashCache;
+	}
+
+	/**
+	 * setIndexedFieldsCache sets the cache used to send atomic updates holding only the changed
+	 * fields for documents indexed before, see {@link IndexedFieldsCache} for the schema
+	 * requirements. The same cache must be used by all indexers writing to the index.
+	 * <p>
+	 * Default is a disabled cache, all documents are sent in full.
+	 */
+	public void setIndexedFieldsCache(IndexedFieldsCache indexedFieldsCache) {
+		this.indexedFieldsCache = indexedFieldsCache;
+	}
+
+	public IndexedFieldsCache getIndexedFieldsCache() {
+		return indexedFieldsCache;
+	}
+
+	/**
+	 * setRecordPayloadFormat sets the format the record is stored in. With
+	 * {@link RecordPayloadFormat#COMPRESSED_JSON} or {@link RecordPayloadFormat#BINARY} is the
+	 * record stored in the binary field {@value RecordPayload#FIELD_NAME}, which must exist in the
+	 * schema, instead of in recordAsJson. Searches read all formats, so documents indexed before
+	 * the format was changed do not need to be reindexed.
+	 * <p>
+	 * Default is {@link RecordPayloadFormat#JSON}.
+	 */
+	public void setRecordPayloadFormat(RecordPayloadFormat recordPayloadFormat) {
+		this.recordPayloadFormat = recordPayloadFormat;
+	}
+
+	public RecordPayloadFormat getRecordPayloadFormat() {
+		return recordPayloadFormat;
+	}
+}
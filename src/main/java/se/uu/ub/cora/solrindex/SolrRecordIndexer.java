@@ -1,5 +1,5 @@
 /*
- * Copyright 2017, 2019, 2021, 2022, 2024 Uppsala University Library
+ * Copyright 2017, 2019, 2021, 2022, 2024, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -20,116 +20,505 @@
 package se.uu.ub.cora.solrindex;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.SolrResponseBase;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.ModifiableSolrParams;
 
 import se.uu.ub.cora.data.DataRecordGroup;
 import se.uu.ub.cora.data.collected.IndexTerm;
 import se.uu.ub.cora.data.converter.DataToJsonConverter;
 import se.uu.ub.cora.data.converter.DataToJsonConverterFactory;
 import se.uu.ub.cora.data.converter.DataToJsonConverterProvider;
-import se.uu.ub.cora.search.RecordIndexer;
+import se.uu.ub.cora.solr.LinkedFieldNames;
+import se.uu.ub.cora.solr.RecordBinaryCodec;
+import se.uu.ub.cora.solr.RecordPayload;
+import se.uu.ub.cora.solr.RecordPayloadFormat;
 import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.field.IndexFieldRegistry;
+import se.uu.ub.cora.solr.field.SolrFieldType;
+import se.uu.ub.cora.solr.jfr.SolrCommitEvent;
+import se.uu.ub.cora.solr.jfr.SolrDeleteEvent;
+import se.uu.ub.cora.solr.jfr.SolrIndexEvent;
+import se.uu.ub.cora.solr.admission.AdmissionRejectedException;
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+import se.uu.ub.cora.solr.metrics.SolrOperation;
+import se.uu.ub.cora.solr.metrics.SolrPhase;
+import se.uu.ub.cora.solr.metrics.SolrQTime;
+import se.uu.ub.cora.solrindex.spool.IndexSpool;
+import se.uu.ub.cora.solrindex.spool.SpoolEntry;
 
-public final class SolrRecordIndexer implements RecordIndexer {
+public final class SolrRecordIndexer implements PreparingRecordIndexer {
+	private static final int FIRST_SERVER_ERROR_CODE = 500;
 	private SolrClientProvider solrClientProvider;
+	private SolrIndexSettings indexSettings;
+	private IndexSpool indexSpool;
+	private SolrMetrics metrics;
 	private String id;
 	private String type;
-	private List<IndexTerm> indexTerms;
 	private SolrInputDocument document;
+	private SolrIndexEvent indexEvent;
+	private String contentHash;
+	private Map<String, List<Object>> indexedFields;
 
-	private SolrRecordIndexer(SolrClientProvider solrClientProvider) {
+	private SolrRecordIndexer(SolrClientProvider solrClientProvider,
+			SolrIndexSettings indexSettings, IndexSpool indexSpool) {
 		this.solrClientProvider = solrClientProvider;
+		this.indexSettings = indexSettings;
+		this.indexSpool = indexSpool;
+		metrics = SolrMetricsProvider.getMetrics();
 	}
 
 	public static SolrRecordIndexer createSolrRecordIndexerUsingSolrClientProvider(
 			SolrClientProvider solrClientProvider) {
-		return new SolrRecordIndexer(solrClientProvider);
+		return new SolrRecordIndexer(solrClientProvider, SolrIndexSettings.withDefaults(),
+				IndexSpool.disabled());
+	}
+
+	public static SolrRecordIndexer createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+			SolrClientProvider solrClientProvider, SolrIndexSettings indexSettings) {
+		return new SolrRecordIndexer(solrClientProvider, indexSettings, IndexSpool.disabled());
+	}
+
+	/**
+	 * createSolrRecordIndexerUsingSolrClientProviderIndexSettingsAndSpool creates an indexer that
+	 * writes adds and deletes to the specified spool when Solr is unavailable, instead of failing.
+	 * While the spool has pending updates all new updates are also spooled, so that they reach
+	 * Solr in order. The spool must only hold updates for the Solr of the specified provider and a
+	 * {@link se.uu.ub.cora.solrindex.spool.SpoolReplayer} must be started to send the spooled
+	 * updates to Solr once it is available again, {@link SolrRecordIndexerFactory} does both when
+	 * an index spool directory is set in the index settings.
+	 */
+	public static SolrRecordIndexer createSolrRecordIndexerUsingSolrClientProviderIndexSettingsAndSpool(
+			SolrClientProvider solrClientProvider, SolrIndexSettings indexSettings,
+			IndexSpool indexSpool) {
+		return new SolrRecordIndexer(solrClientProvider, indexSettings, indexSpool);
 	}
 
 	@Override
 	public void indexData(String recordType, String recordId, List<IndexTerm> indexTerms,
 			DataRecordGroup dataRecordGroup) {
-		type = recordType;
-		id = recordId;
-		this.indexTerms = indexTerms;
-		possiblyIndexData(dataRecordGroup, true);
+		indexPreparedDocument(prepareDocument(recordType, recordId, indexTerms, dataRecordGroup),
+				true);
 	}
 
-	private void possiblyIndexData(DataRecordGroup dataRecordGroup, boolean performExplicitCommit) {
-		if (!indexTerms.isEmpty()) {
-			indexDataKnownToContainDataToIndex(dataRecordGroup, performExplicitCommit);
+	/**
+	 * prepareDocument converts a record to the document to send to Solr, without reading from or
+	 * sending to Solr and without changing the state of this indexer, so that it can be called
+	 * when an update is queued. Linked data is added when the document is sent by
+	 * {@link #indexPreparedDocument(PreparedDocument, boolean)}.
+	 */
+	@Override
+	public PreparedDocument prepareDocument(String recordType, String recordId,
+			List<IndexTerm> indexTerms, DataRecordGroup dataRecordGroup) {
+		if (indexTerms.isEmpty()) {
+			return PreparedDocument.withNothingToIndex(recordType, recordId);
 		}
+		SolrInputDocument preparedDocument = new SolrInputDocument();
+		preparedDocument.addField("id", recordType + "_" + recordId);
+		preparedDocument.addField("type", recordType);
+		addIndexTerms(preparedDocument, indexTerms);
+		long conversionStart = System.nanoTime();
+		int payloadBytes = addRecordPayload(preparedDocument, dataRecordGroup);
+		long conversionTime = System.nanoTime() - conversionStart;
+		metrics.recordPhase(SolrOperation.INDEX, SolrPhase.JSON_CONVERSION, conversionTime);
+		return new PreparedDocument(recordType, recordId, indexTerms.size(), preparedDocument,
+				conversionTime, payloadBytes);
 	}
 
-	private void indexDataKnownToContainDataToIndex(DataRecordGroup dataRecordGroup,
+	/**
+	 * indexPreparedDocument adds linked data to a document from
+	 * {@link #prepareDocument(String, String, List, DataRecordGroup)} and sends it to Solr.
+	 */
+	@Override
+	public void indexPreparedDocument(PreparedDocument preparedDocument,
 			boolean performExplicitCommit) {
-		document = new SolrInputDocument();
-		addIdToDocument();
-		addTypeToDocument();
-		addIndexTerms();
-		String json = convertDataRecordGroupToJsonString(dataRecordGroup);
-		document.addField("recordAsJson", json);
-		sendDocumentToSolr(performExplicitCommit);
+		if (preparedDocument.hasDocument()) {
+			type = preparedDocument.recordType();
+			id = preparedDocument.recordId();
+			indexDataKnownToContainDataToIndex(preparedDocument, performExplicitCommit);
+		}
+	}
+
+	private void indexDataKnownToContainDataToIndex(PreparedDocument preparedDocument,
+			boolean performExplicitCommit) {
+		metrics.countRequest(SolrOperation.INDEX, type);
+		long indexStart = System.nanoTime();
+		document = preparedDocument.document();
+		indexEvent = createIndexEvent(preparedDocument, performExplicitCommit);
+		try {
+			addLinkedDataAndSendToSolr(performExplicitCommit);
+		} finally {
+			indexEvent.commit();
+			indexSettings.getSlowOperationLog().possiblyLog(System.nanoTime() - indexStart,
+					this::createSlowIndexEntry);
+		}
 	}
 
-	private void addIdToDocument() {
-		document.addField("id", type + "_" + id);
+	private String createSlowIndexEntry() {
+		return "index of recordType: " + type + ", id: " + id + ", indexTerms: "
+				+ indexEvent.numberOfIndexTerms + ", explicitCommit: " + indexEvent.explicitCommit
+				+ ", QTime: " + indexEvent.qTime + " ms, successful: " + indexEvent.successful
+				+ ", fields: " + String.join(" ", document.getFieldNames());
 	}
 
-	private void addTypeToDocument() {
-		document.addField("type", type);
+	private SolrIndexEvent createIndexEvent(PreparedDocument preparedDocument,
+			boolean performExplicitCommit) {
+		SolrIndexEvent event = new SolrIndexEvent();
+		event.begin();
+		event.recordType = type;
+		event.recordId = id;
+		event.numberOfIndexTerms = preparedDocument.numberOfIndexTerms();
+		event.explicitCommit = performExplicitCommit;
+		event.conversionTime = preparedDocument.conversionTime();
+		event.payloadBytes = preparedDocument.payloadBytes();
+		possiblySetJsonPayloadSize(event);
+		return event;
 	}
 
-	private void addIndexTerms() {
-		for (IndexTerm collectIndexTerm : indexTerms) {
-			addFieldAndValueToSolrDocument(collectIndexTerm);
+	private void possiblySetJsonPayloadSize(SolrIndexEvent event) {
+		Object json = document.getFieldValue("recordAsJson");
+		if (json != null && event.isEnabled()) {
+			event.payloadBytes = String.valueOf(json).getBytes(StandardCharsets.UTF_8).length;
 		}
 	}
 
-	private void addFieldAndValueToSolrDocument(IndexTerm indexTerm) {
-		document.addField(buildFieldNameUsingIndexTerm(indexTerm), indexTerm.value());
+	private void addLinkedDataAndSendToSolr(boolean performExplicitCommit) {
+		if (possiblyAddDenormalizedLinkedFields()) {
+			sendDocumentIfChanged(performExplicitCommit);
+		}
+		indexEvent.successful = true;
 	}
 
-	private String buildFieldNameUsingIndexTerm(IndexTerm indexTerm) {
-		String suffix = chooseSuffixFromIndexType(indexTerm.indexType());
-		return indexTerm.indexFieldName() + suffix;
-	}
-
-	private String chooseSuffixFromIndexType(String indexType) {
-		if ("indexTypeString".equals(indexType) || "indexTypeId".equals(indexType)) {
-			return "_s";
-		} else if ("indexTypeBoolean".equals(indexType)) {
-			return "_b";
-		} else if ("indexTypeDate".equals(indexType)) {
-			return "_dt";
-		} else if ("indexTypeNumber".equals(indexType)) {
-			return "_l";
+	private void sendDocumentIfChanged(boolean performExplicitCommit) {
+		if (contentIsUnchanged() || indexedFieldsAreUnchanged()) {
+			metrics.addToCounter(new MetricKey(ContentHashCache.UNCHANGED_COUNTER,
+					Map.of("recordType", type)), 1);
 		} else {
-			return "_t";
+			sendDocumentToSolr(performExplicitCommit);
+		}
+	}
+
+	private int addRecordPayload(SolrInputDocument preparedDocument,
+			DataRecordGroup dataRecordGroup) {
+		RecordPayloadFormat payloadFormat = indexSettings.getRecordPayloadFormat();
+		if (payloadFormat == RecordPayloadFormat.BINARY) {
+			Optional<byte[]> binaryRecord = RecordBinaryCodec.encode(dataRecordGroup);
+			if (binaryRecord.isPresent()) {
+				return addPayloadField(preparedDocument, binaryRecord.get());
+			}
+		}
+		String json = convertDataRecordGroupToJsonString(dataRecordGroup);
+		if (payloadFormat == RecordPayloadFormat.COMPRESSED_JSON) {
+			return addPayloadField(preparedDocument, RecordPayload.compressJson(json));
+		}
+		preparedDocument.addField("recordAsJson", json);
+		return 0;
+	}
+
+	private int addPayloadField(SolrInputDocument preparedDocument, byte[] recordPayload) {
+		preparedDocument.addField(RecordPayload.FIELD_NAME, recordPayload);
+		return recordPayload.length;
+	}
+
+	private boolean contentIsUnchanged() {
+		ContentHashCache contentHashCache = indexSettings.getContentHashCache();
+		if (!contentHashCache.isEnabled()) {
+			return false;
+		}
+		contentHash = ContentHashCache.calculateHash(document);
+		document.addField(ContentHashCache.CONTENT_HASH_FIELD, contentHash);
+		String documentId = type + "_" + id;
+		if (spoolHasPendingUpdates(indexSpool)) {
+			return false;
+		}
+		Optional<String> knownHash = contentHashCache.getHash(documentId);
+		if (knownHash.isEmpty() && contentHashCache.isCheckSolrOnMiss()) {
+			knownHash = readContentHashFromSolr(documentId);
+		}
+		return knownHash.isPresent() && knownHash.get().equals(contentHash);
+	}
+
+	private boolean indexedFieldsAreUnchanged() {
+		IndexedFieldsCache indexedFieldsCache = indexSettings.getIndexedFieldsCache();
+		if (!indexedFieldsCache.isEnabled()) {
+			return false;
+		}
+		indexedFields = IndexedFieldsCache.createIndexedFields(document);
+		return indexedFieldsCache.getIndexedFields(type + "_" + id)
+				.filter(indexedFields::equals).isPresent();
+	}
+
+	private Optional<String> readContentHashFromSolr(String documentId) {
+		try {
+			SolrDocument storedDocument = solrClientProvider.getSolrClient().getById(documentId,
+					new ModifiableSolrParams().set("fl", ContentHashCache.CONTENT_HASH_FIELD));
+			return Optional.ofNullable(storedDocument)
+					.map(stored -> stored.getFirstValue(ContentHashCache.CONTENT_HASH_FIELD))
+					.map(String::valueOf);
+		} catch (Exception e) {
+			return Optional.empty();
+		}
+	}
+
+	private void addIndexTerms(SolrInputDocument preparedDocument, List<IndexTerm> indexTerms) {
+		for (IndexTerm indexTerm : indexTerms) {
+			preparedDocument.addField(buildFieldNameUsingIndexTerm(indexTerm), indexTerm.value());
+			possiblyAddAutocompleteField(preparedDocument, indexTerm);
+		}
+	}
+
+	private void possiblyAddAutocompleteField(SolrInputDocument preparedDocument,
+			IndexTerm indexTerm) {
+		String indexFieldName = indexTerm.indexFieldName();
+		if (indexSettings.getAutocompleteIndexFieldNames().contains(indexFieldName)) {
+			preparedDocument.addField(
+					IndexFieldRegistry.getFieldName(indexFieldName, SolrFieldType.AUTOCOMPLETE),
+					indexTerm.value());
+		}
+	}
+
+	/**
+	 * possiblyAddDenormalizedLinkedFields copies values from all documents linked from the document
+	 * into it, reading the linked documents from Solr in one request. The copied values are a
+	 * snapshot, when a linked record changes the documents linking to it keep the old values until
+	 * they are indexed again. The records to reindex can be found by searching for the id of the
+	 * changed record in the linkedOnFieldName field.
+	 * <p>
+	 * If reading fails is the error handled as if sending the document failed. When the document
+	 * is spooled because Solr is unavailable, it is spooled without the linked values.
+	 * 
+	 * @return true if the document should be sent, false if it has been spooled
+	 */
+	private boolean possiblyAddDenormalizedLinkedFields() {
+		Map<String, List<String>> denormalizedLinkedFields = indexSettings
+				.getDenormalizedLinkedFields();
+		Set<String> linkedIds = collectLinkedIds(denormalizedLinkedFields.keySet());
+		if (linkedIds.isEmpty()) {
+			return true;
+		}
+		try {
+			Map<String, SolrDocument> linkedDocuments = readLinkedDocuments(linkedIds);
+			for (Entry<String, List<String>> linkedFields : denormalizedLinkedFields.entrySet()) {
+				possiblyAddValuesFromLinkedDocuments(linkedFields.getKey(), linkedFields.getValue(),
+						linkedDocuments);
+			}
+			return true;
+		} catch (Exception e) {
+			spoolOrThrow(indexSpool, e,
+					"Error while reading linked records with ids: " + linkedIds
+							+ " when indexing record with type: " + type + " and id: " + id);
+			return false;
+		}
+	}
+
+	private Set<String> collectLinkedIds(Set<String> linkedOnFieldNames) {
+		Set<String> linkedIds = new LinkedHashSet<>();
+		for (String linkedOnFieldName : linkedOnFieldNames) {
+			Collection<Object> values = document.getFieldValues(linkedOnFieldName);
+			if (values != null) {
+				values.forEach(linkedId -> linkedIds.add(String.valueOf(linkedId)));
+			}
+		}
+		return linkedIds;
+	}
+
+	private Map<String, SolrDocument> readLinkedDocuments(Set<String> linkedIds)
+			throws SolrServerException, IOException {
+		Map<String, SolrDocument> linkedDocuments = new HashMap<>();
+		for (SolrDocument linkedDocument : solrClientProvider.getSolrClient().getById(linkedIds)) {
+			linkedDocuments.put(String.valueOf(linkedDocument.getFieldValue("id")),
+					linkedDocument);
+		}
+		return linkedDocuments;
+	}
+
+	private void possiblyAddValuesFromLinkedDocuments(String linkedOnFieldName,
+			List<String> linkedFieldNames, Map<String, SolrDocument> linkedDocuments) {
+		Collection<Object> linkedIds = document.getFieldValues(linkedOnFieldName);
+		if (linkedIds != null) {
+			for (Object linkedId : linkedIds) {
+				possiblyAddValuesFromLinkedDocument(linkedOnFieldName, linkedFieldNames,
+						linkedDocuments.get(String.valueOf(linkedId)));
+			}
+		}
+	}
+
+	private void possiblyAddValuesFromLinkedDocument(String linkedOnFieldName,
+			List<String> linkedFieldNames, SolrDocument linkedDocument) {
+		if (linkedDocument != null) {
+			for (String linkedFieldName : linkedFieldNames) {
+				addValuesFromLinkedField(linkedOnFieldName, linkedFieldName, linkedDocument);
+			}
+		}
+	}
+
+	private void addValuesFromLinkedField(String linkedOnFieldName, String linkedFieldName,
+			SolrDocument linkedDocument) {
+		Collection<Object> values = linkedDocument.getFieldValues(linkedFieldName);
+		if (values != null) {
+			String denormalizedFieldName = LinkedFieldNames
+					.createDenormalizedFieldName(linkedOnFieldName, linkedFieldName);
+			for (Object value : values) {
+				document.addField(denormalizedFieldName, value);
+			}
 		}
 	}
 
+	private String buildFieldNameUsingIndexTerm(IndexTerm indexTerm) {
+		return IndexFieldRegistry.getFieldName(indexTerm.indexFieldName(), indexTerm.indexType());
+	}
+
 	private void sendDocumentToSolr(boolean performExplicitCommit) {
+		ContentHashCache contentHashCache = indexSettings.getContentHashCache();
+		contentHashCache.remove(type + "_" + id);
+		IndexedFieldsCache indexedFieldsCache = indexSettings.getIndexedFieldsCache();
+		Optional<Map<String, List<Object>>> previousFields = indexedFieldsCache
+				.remove(type + "_" + id);
+		IndexSpool spool = indexSpool;
+		if (spoolHasPendingUpdates(spool)) {
+			spoolUpdate(spool, SpoolEntry.add(document), type, SolrOperation.INDEX);
+			return;
+		}
 		try {
 			SolrClient solrClient = solrClientProvider.getSolrClient();
-			solrClient.add(document);
+			addDocumentOrAtomicUpdateToSolr(solrClient, previousFields);
 			possiblyPerformExplicitCommit(solrClient, performExplicitCommit);
+			metrics.countDocuments(SolrOperation.INDEX, type, 1);
+			possiblyRememberContentHash(contentHashCache);
+			possiblyRememberIndexedFields(indexedFieldsCache);
 		} catch (Exception e) {
-			throw SolrIndexException
-					.withMessageAndException("Error while indexing record with type: " + type
-							+ " and id: " + id + " " + e.getMessage(), e);
+			spoolOrThrow(spool, e,
+					"Error while indexing record with type: " + type + " and id: " + id);
+		}
+	}
+
+	private void spoolOrThrow(IndexSpool spool, Exception e, String message) {
+		if (shouldSpool(spool, e)) {
+			spoolUpdate(spool, SpoolEntry.add(document), type, SolrOperation.INDEX);
+			return;
+		}
+		metrics.countError(SolrOperation.INDEX, type);
+		throw SolrIndexException.withMessageAndException(message + " " + e.getMessage(), e);
+	}
+
+	private void possiblyRememberContentHash(ContentHashCache contentHashCache) {
+		if (contentHashCache.isEnabled()) {
+			contentHashCache.putHash(type + "_" + id, contentHash);
+		}
+	}
+
+	private void addDocumentOrAtomicUpdateToSolr(SolrClient solrClient,
+			Optional<Map<String, List<Object>>> previousFields)
+			throws SolrServerException, IOException {
+		if (previousFields.isEmpty()) {
+			addDocumentToSolr(solrClient, document);
+			return;
+		}
+		countForRecordType(IndexedFieldsCache.ATOMIC_UPDATE_COUNTER);
+		try {
+			addDocumentToSolr(solrClient,
+					AtomicUpdate.createUpdate(previousFields.get(), indexedFields, document));
+		} catch (SolrException e) {
+			if (e.code() != AtomicUpdate.VERSION_CONFLICT_CODE) {
+				throw e;
+			}
+			countForRecordType(IndexedFieldsCache.ATOMIC_UPDATE_CONFLICT_COUNTER);
+			addDocumentToSolr(solrClient, document);
+		}
+	}
+
+	private void countForRecordType(String counterName) {
+		metrics.addToCounter(new MetricKey(counterName, Map.of("recordType", type)), 1);
+	}
+
+	private void possiblyRememberIndexedFields(IndexedFieldsCache indexedFieldsCache) {
+		if (indexedFieldsCache.isEnabled()) {
+			indexedFieldsCache.putIndexedFields(type + "_" + id, indexedFields);
+		}
+	}
+
+	private boolean spoolHasPendingUpdates(IndexSpool spool) {
+		return spool.isEnabled() && spool.hasPending();
+	}
+
+	private boolean shouldSpool(IndexSpool spool, Exception e) {
+		return spool.isEnabled() && isSolrUnavailable(e);
+	}
+
+	private boolean isSolrUnavailable(Exception e) {
+		if (e instanceof AdmissionRejectedException) {
+			return false;
 		}
+		if (e instanceof SolrException solrException) {
+			return solrException.code() >= FIRST_SERVER_ERROR_CODE;
+		}
+		return e instanceof SolrServerException || e instanceof IOException;
+	}
+
+	private void spoolUpdate(IndexSpool spool, SpoolEntry entry, String recordType,
+			SolrOperation operation) {
+		spool.append(entry);
+		metrics.addToCounter(new MetricKey(IndexSpool.SPOOLED_COUNTER,
+				Map.of("operation", operation.name(), "recordType", recordType)), 1);
+	}
+
+	private void addDocumentToSolr(SolrClient solrClient, SolrInputDocument documentToSend)
+			throws SolrServerException, IOException {
+		long addStart = System.nanoTime();
+		SolrResponseBase response = solrClient.add(documentToSend);
+		metrics.recordPhase(SolrOperation.INDEX, SolrPhase.ADD, System.nanoTime() - addStart);
+		indexEvent.qTime = recordQTime(SolrOperation.INDEX, response);
+	}
+
+	private long recordQTime(SolrOperation operation, SolrResponseBase response) {
+		OptionalLong qTime = SolrQTime.readQTimeInMillis(response);
+		qTime.ifPresent(millis -> metrics.recordPhase(operation, SolrPhase.SOLR_QTIME,
+				TimeUnit.MILLISECONDS.toNanos(millis)));
+		return qTime.orElse(0);
 	}
 
 	private void possiblyPerformExplicitCommit(SolrClient solrClient, boolean performExplicitCommit)
 			throws SolrServerException, IOException {
 		if (performExplicitCommit) {
+			commit(solrClient, SolrOperation.INDEX, type);
+		}
+	}
+
+	private void commit(SolrClient solrClient, SolrOperation operation, String recordType)
+			throws SolrServerException, IOException {
+		metrics.countRequest(SolrOperation.COMMIT, recordType);
+		SolrCommitEvent commitEvent = new SolrCommitEvent();
+		commitEvent.begin();
+		commitEvent.recordType = recordType;
+		commitEvent.operation = operation.name();
+		long commitStart = System.nanoTime();
+		try {
 			solrClient.commit();
+			commitEvent.successful = true;
+		} finally {
+			commitEvent.commit();
 		}
+		long commitTime = System.nanoTime() - commitStart;
+		metrics.recordPhase(operation, SolrPhase.COMMIT, commitTime);
+		metrics.recordPhase(SolrOperation.COMMIT, SolrPhase.SOLR_ROUND_TRIP, commitTime);
 	}
 
 	private String convertDataRecordGroupToJsonString(DataRecordGroup dataRecordGroup) {
@@ -142,33 +531,100 @@ public final class SolrRecordIndexer implements RecordIndexer {
 
 	@Override
 	public void deleteFromIndex(String type, String id) {
+		metrics.countRequest(SolrOperation.DELETE, type);
+		long deleteStart = System.nanoTime();
+		SolrDeleteEvent deleteEvent = new SolrDeleteEvent();
+		deleteEvent.begin();
+		deleteEvent.recordType = type;
+		deleteEvent.recordId = id;
+		indexSettings.getContentHashCache().remove(type + "_" + id);
+		indexSettings.getIndexedFieldsCache().remove(type + "_" + id);
+		IndexSpool spool = indexSpool;
 		try {
-			tryToDeleteFromIndex(type, id);
+			deleteOrSpoolIfPending(spool, type, id, deleteEvent);
 		} catch (Exception e) {
+			if (shouldSpool(spool, e)) {
+				spoolDelete(spool, type, id, deleteEvent);
+				return;
+			}
+			metrics.countError(SolrOperation.DELETE, type);
 			throw SolrIndexException
 					.withMessageAndException("Error while deleting index for record with type: "
 							+ type + " and id: " + id + " " + e.getMessage(), e);
+		} finally {
+			deleteEvent.commit();
+			indexSettings.getSlowOperationLog().possiblyLog(System.nanoTime() - deleteStart,
+					() -> createSlowDeleteEntry(deleteEvent));
 		}
 	}
 
-	private void tryToDeleteFromIndex(String type, String id)
+	private void deleteOrSpoolIfPending(IndexSpool spool, String type, String id,
+			SolrDeleteEvent deleteEvent) throws SolrServerException, IOException {
+		if (spoolHasPendingUpdates(spool)) {
+			spoolDelete(spool, type, id, deleteEvent);
+		} else {
+			tryToDeleteFromIndex(type, id, deleteEvent);
+		}
+	}
+
+	private void spoolDelete(IndexSpool spool, String type, String id,
+			SolrDeleteEvent deleteEvent) {
+		spoolUpdate(spool, SpoolEntry.delete(type + "_" + id), type, SolrOperation.DELETE);
+		deleteEvent.successful = true;
+	}
+
+	private String createSlowDeleteEntry(SolrDeleteEvent deleteEvent) {
+		return "delete of recordType: " + deleteEvent.recordType + ", id: " + deleteEvent.recordId
+				+ ", QTime: " + deleteEvent.qTime + " ms, successful: " + deleteEvent.successful;
+	}
+
+	private void tryToDeleteFromIndex(String type, String id, SolrDeleteEvent deleteEvent)
 			throws SolrServerException, IOException {
 		SolrClient solrClient = solrClientProvider.getSolrClient();
-		solrClient.deleteById(type + "_" + id);
-		solrClient.commit();
+		long deleteStart = System.nanoTime();
+		SolrResponseBase response = solrClient.deleteById(type + "_" + id);
+		metrics.recordPhase(SolrOperation.DELETE, SolrPhase.SOLR_ROUND_TRIP,
+				System.nanoTime() - deleteStart);
+		deleteEvent.qTime = recordQTime(SolrOperation.DELETE, response);
+		commit(solrClient, SolrOperation.DELETE, type);
+		metrics.countDocuments(SolrOperation.DELETE, type, 1);
+		deleteEvent.successful = true;
 	}
 
 	@Override
 	public void indexDataWithoutExplicitCommit(String recordType, String recordId,
 			List<IndexTerm> indexTerms, DataRecordGroup dataRecordGroup) {
-		type = recordType;
-		id = recordId;
-		this.indexTerms = indexTerms;
-		possiblyIndexData(dataRecordGroup, false);
+		indexPreparedDocument(prepareDocument(recordType, recordId, indexTerms, dataRecordGroup),
+				false);
+	}
 
+	/**
+	 * commit makes all documents sent without explicit commit visible and durable in Solr. Use it
+	 * after a batch of records has been indexed using
+	 * {@link #indexDataWithoutExplicitCommit(String, String, List, DataRecordGroup)}.
+	 * 
+	 * @param recordType
+	 *            the record type the commit is done for, used in metrics
+	 */
+	public void commit(String recordType) {
+		try {
+			commit(solrClientProvider.getSolrClient(), SolrOperation.COMMIT, recordType);
+		} catch (Exception e) {
+			metrics.countError(SolrOperation.COMMIT, recordType);
+			throw SolrIndexException.withMessageAndException(
+					"Error while committing for type: " + recordType + " " + e.getMessage(), e);
+		}
 	}
 
 	public SolrClientProvider onlyForTestGetSolrClientProvider() {
 		return solrClientProvider;
 	}
+
+	public SolrIndexSettings onlyForTestGetIndexSettings() {
+		return indexSettings;
+	}
+
+	public IndexSpool onlyForTestGetIndexSpool() {
+		return indexSpool;
+	}
 }
\ No newline at end of file
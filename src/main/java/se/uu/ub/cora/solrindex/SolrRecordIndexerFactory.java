@@ -1,5 +1,5 @@
 /*
- * Copyright 2021, 2022 Uppsala University Library
+ * Copyright 2021, 2022, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -18,21 +18,143 @@
  */
 package se.uu.ub.cora.solrindex;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import se.uu.ub.cora.search.RecordIndexer;
 import se.uu.ub.cora.search.RecordIndexerFactory;
-import se.uu.ub.cora.solr.SolrClientProviderImp;
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.SolrClientProviders;
+import se.uu.ub.cora.solr.admission.AdmissionControlledSolrClientProvider;
+import se.uu.ub.cora.solr.admission.AdmissionController;
+import se.uu.ub.cora.solr.admission.TrafficClass;
+import se.uu.ub.cora.solr.resilience.ResilienceSettings;
+import se.uu.ub.cora.solr.resilience.ResilientSolrClientProvider;
+import se.uu.ub.cora.solrindex.spool.IndexSpool;
+import se.uu.ub.cora.solrindex.spool.SpoolReplayer;
 
-public class SolrRecordIndexerFactory implements RecordIndexerFactory {
+/**
+ * SolrRecordIndexerFactory factors indexers for a solr url. Urls starting with embedded: run Solr
+ * in process when the solrsearch-embedded module is on the class path, see
+ * {@link SolrClientProviders}. When the index settings have enabled
+ * {@link ResilienceSettings} are the clients wrapped with retries and a circuit breaker, and when
+ * they have an enabled {@link AdmissionController} are indexing requests limited by it. A
+ * coalescing window above 0 makes the factory return one shared {@link CoalescingRecordIndexer}
+ * per url, the factory must then be closed on shutdown so that buffered updates are sent, see
+ * {@link #close()}. When the index settings have an index spool directory does the factory keep one
+ * {@link IndexSpool} per url, in its own subdirectory, and start one {@link SpoolReplayer} per url
+ * replaying it using the same client provider as the indexers.
+ */
+public class SolrRecordIndexerFactory implements RecordIndexerFactory, AutoCloseable {
+
+	private Map<String, SolrClientProvider> solrClientProviders = new HashMap<>();
+	private Map<String, CoalescingRecordIndexer> coalescingIndexers = new HashMap<>();
+	private Map<String, IndexSpool> indexSpools = new HashMap<>();
+	private Map<String, SpoolReplayer> spoolReplayers = new HashMap<>();
+	private SolrIndexSettings indexSettings;
+
+	public SolrRecordIndexerFactory() {
+		indexSettings = SolrIndexSettings.withDefaults();
+	}
+
+	public SolrRecordIndexerFactory(SolrIndexSettings indexSettings) {
+		this.indexSettings = indexSettings;
+	}
+
+	@Override
+	public synchronized RecordIndexer factor(String solrUrl) {
+		if (indexSettings.getCoalescingWindowInMillis() > 0) {
+			return coalescingIndexers.computeIfAbsent(solrUrl, this::createCoalescingIndexer);
+		}
+		return createSolrRecordIndexer(solrUrl);
+	}
+
+	private CoalescingRecordIndexer createCoalescingIndexer(String solrUrl) {
+		CoalescingRecordIndexer coalescingIndexer = CoalescingRecordIndexer
+				.usingRecordIndexerNameAndWindowInMillis(createSolrRecordIndexer(solrUrl), solrUrl,
+						indexSettings.getCoalescingWindowInMillis());
+		coalescingIndexer.start();
+		return coalescingIndexer;
+	}
 
-	private Map<String, SolrClientProviderImp> solrClientProviders = new HashMap<>();
+	private SolrRecordIndexer createSolrRecordIndexer(String solrUrl) {
+		SolrClientProvider solrClientProvider = solrClientProviders.computeIfAbsent(solrUrl,
+				this::createSolrClientProvider);
+		IndexSpool indexSpool = indexSpools.computeIfAbsent(solrUrl,
+				url -> createIndexSpool(url, solrClientProvider));
+		return SolrRecordIndexer.createSolrRecordIndexerUsingSolrClientProviderIndexSettingsAndSpool(
+				solrClientProvider, indexSettings, indexSpool);
+	}
+
+	private IndexSpool createIndexSpool(String solrUrl, SolrClientProvider solrClientProvider) {
+		Optional<Path> indexSpoolDirectory = indexSettings.getIndexSpoolDirectory();
+		if (indexSpoolDirectory.isEmpty()) {
+			return IndexSpool.disabled();
+		}
+		IndexSpool indexSpool = IndexSpool.usingDirectory(
+				indexSpoolDirectory.get().resolve(createSpoolDirectoryName(solrUrl)));
+		startSpoolReplayer(solrUrl, solrClientProvider, indexSpool);
+		return indexSpool;
+	}
 
+	private String createSpoolDirectoryName(String solrUrl) {
+		return URLEncoder.encode(solrUrl, StandardCharsets.UTF_8);
+	}
+
+	private void startSpoolReplayer(String solrUrl, SolrClientProvider solrClientProvider,
+			IndexSpool indexSpool) {
+		SpoolReplayer spoolReplayer = SpoolReplayer
+				.usingSpoolSolrClientProviderAndName(indexSpool, solrClientProvider, solrUrl);
+		spoolReplayer.start(indexSettings.getSpoolReplayIntervalInMillis());
+		spoolReplayers.put(solrUrl, spoolReplayer);
+	}
+
+	private SolrClientProvider createSolrClientProvider(String solrUrl) {
+		SolrClientProvider solrClientProvider = SolrClientProviders.createUsingUrl(solrUrl);
+		ResilienceSettings resilienceSettings = indexSettings.getResilienceSettings();
+		if (resilienceSettings.isEnabled()) {
+			solrClientProvider = ResilientSolrClientProvider.wrapping(solrClientProvider, solrUrl,
+					resilienceSettings);
+		}
+		AdmissionController admissionController = indexSettings.getAdmissionController();
+		if (admissionController.isEnabled()) {
+			solrClientProvider = AdmissionControlledSolrClientProvider
+					.wrapping(solrClientProvider, admissionController, TrafficClass.INDEX);
+		}
+		return solrClientProvider;
+	}
+
+	/**
+	 * close sends all updates still buffered by the coalescing indexers to Solr, or to the spool
+	 * if Solr is unavailable, and then stops the spool replayers and closes the spools. Spooled
+	 * updates stay on disk and are replayed when a factory using the same spool directory is
+	 * started again.
+	 * <p>
+	 * close must be called when the application shuts down if a coalescing window or an index
+	 * spool directory is set, as updates buffered by a coalescing indexer are otherwise lost even
+	 * though indexData has returned. The factory must not be used after it is closed.
+	 */
 	@Override
-	public RecordIndexer factor(String solrUrl) {
-		SolrClientProviderImp solrClientProvider = solrClientProviders.computeIfAbsent(solrUrl,
-				SolrClientProviderImp::usingBaseUrl);
-		return SolrRecordIndexer.createSolrRecordIndexerUsingSolrClientProvider(solrClientProvider);
+	public synchronized void close() {
+		for (CoalescingRecordIndexer coalescingIndexer : coalescingIndexers.values()) {
+			coalescingIndexer.close();
+		}
+		coalescingIndexers.clear();
+		for (SpoolReplayer spoolReplayer : spoolReplayers.values()) {
+			spoolReplayer.stop();
+		}
+		spoolReplayers.clear();
+		for (IndexSpool indexSpool : indexSpools.values()) {
+			indexSpool.close();
+		}
+		indexSpools.clear();
+	}
+
+	SpoolReplayer onlyForTestGetSpoolReplayer(String solrUrl) {
+		return spoolReplayers.get(solrUrl);
 	}
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.reindex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import se.uu.ub.cora.solrindex.SolrIndexException;
+
+/**
+ * ReindexCheckpoint keeps the keys of completed partitions in a local file, one key per line. Each
+ * key is written and synced to disk when its partition is completed, so a reindex that is stopped
+ * can be resumed from the partitions not yet completed. A line cut short by a crash does not
+ * match any partition, so that partition is indexed again.
+ */
+public final class ReindexCheckpoint {
+	private final Path file;
+
+	private ReindexCheckpoint(Path file) {
+		this.file = file;
+	}
+
+	public static ReindexCheckpoint usingFile(Path file) {
+		return new ReindexCheckpoint(file);
+	}
+
+	public Set<String> readCompletedPartitionKeys() {
+		if (!Files.exists(file)) {
+			return Set.of();
+		}
+		try {
+			List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+			return new HashSet<>(lines);
+		} catch (IOException e) {
+			throw SolrIndexException.withMessageAndException(
+					"Error reading reindex checkpoint file: " + file, e);
+		}
+	}
+
+	public synchronized void markCompleted(ReindexPartition partition) {
+		try {
+			Files.writeString(file, partition.key() + "\n", StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+					StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+		} catch (IOException e) {
+			throw SolrIndexException.withMessageAndException(
+					"Error writing reindex checkpoint file: " + file, e);
+		}
+	}
+
+	public void delete() {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			throw SolrIndexException.withMessageAndException(
+					"Error deleting reindex checkpoint file: " + file, e);
+		}
+	}
+
+	public Path getFile() {
+		return file;
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.reindex;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.solrindex.SolrIndexException;
+import se.uu.ub.cora.solrindex.SolrRecordIndexer;
+
+/**
+ * ReindexCoordinator indexes all records from a {@link ReindexSource}, processing its partitions
+ * in parallel. Each partition is indexed without explicit commits and committed once completed,
+ * after which it is marked as completed in a {@link ReindexCheckpoint}.
+ * <p>
+ * A run that fails or is stopped can be resumed by running a coordinator using the same
+ * checkpoint file, partitions completed earlier are then skipped. A failing partition does not
+ * stop the other partitions, the run fails after all partitions are processed. When all
+ * partitions have completed the checkpoint file is deleted, so that the next run is a full
+ * reindex.
+ * <p>
+ * Progress, including documents per second, can be read from another thread using
+ * {@link #getProgress()}.
+ */
+public final class ReindexCoordinator {
+	private static final int DEFAULT_PARALLELISM = 4;
+	private final Supplier<SolrRecordIndexer> indexerSupplier;
+	private final ReindexSource source;
+	private final ReindexCheckpoint checkpoint;
+	private int parallelism = DEFAULT_PARALLELISM;
+	private final AtomicInteger totalPartitions = new AtomicInteger();
+	private final AtomicInteger resumedPartitions = new AtomicInteger();
+	private final AtomicInteger completedPartitions = new AtomicInteger();
+	private final AtomicInteger failedPartitions = new AtomicInteger();
+	private final AtomicLong indexedDocuments = new AtomicLong();
+	private volatile long startNanos = 0;
+	private volatile long endNanos = 0;
+
+	private ReindexCoordinator(Supplier<SolrRecordIndexer> indexerSupplier, ReindexSource source,
+			Path checkpointFile) {
+		this.indexerSupplier = indexerSupplier;
+		this.source = source;
+		checkpoint = ReindexCheckpoint.usingFile(checkpointFile);
+	}
+
+	/**
+	 * usingIndexerSupplierSourceAndCheckpointFile creates a coordinator.
+	 * 
+	 * @param indexerSupplier
+	 *            supplies the indexers used, one is used for each partition as indexers can not be
+	 *            shared between threads
+	 */
+	public static ReindexCoordinator usingIndexerSupplierSourceAndCheckpointFile(
+			Supplier<SolrRecordIndexer> indexerSupplier, ReindexSource source,
+			Path checkpointFile) {
+		return new ReindexCoordinator(indexerSupplier, source, checkpointFile);
+	}
+
+	/**
+	 * setParallelism sets the number of partitions indexed at the same time.
+	 * <p>
+	 * Default is 4.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * run indexes all partitions not completed in an earlier run.
+	 * 
+	 * @throws SolrIndexException
+	 *             if any partition failed, the completed partitions are kept in the checkpoint
+	 *             file
+	 */
+	public ReindexProgress run() {
+		startNanos = System.nanoTime();
+		List<ReindexPartition> partitions = source.listPartitions();
+		totalPartitions.set(partitions.size());
+		List<ReindexPartition> remaining = removeCompletedPartitions(partitions);
+		List<PartitionFailure> failures = indexPartitionsInParallel(remaining);
+		endNanos = System.nanoTime();
+		if (!failures.isEmpty()) {
+			throw createExceptionForFailures(failures);
+		}
+		checkpoint.delete();
+		return getProgress();
+	}
+
+	private record PartitionFailure(ReindexPartition partition, Exception exception) {
+	}
+
+	private List<ReindexPartition> removeCompletedPartitions(List<ReindexPartition> partitions) {
+		Set<String> completed = checkpoint.readCompletedPartitionKeys();
+		List<ReindexPartition> remaining = new ArrayList<>();
+		for (ReindexPartition partition : partitions) {
+			if (completed.contains(partition.key())) {
+				resumedPartitions.incrementAndGet();
+			} else {
+				remaining.add(partition);
+			}
+		}
+		return remaining;
+	}
+
+	private List<PartitionFailure> indexPartitionsInParallel(List<ReindexPartition> partitions) {
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<PartitionFailure>> futures = new ArrayList<>();
+			for (ReindexPartition partition : partitions) {
+				futures.add(executor.submit(() -> indexPartitionAndReportFailure(partition)));
+			}
+			return waitForAll(futures);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private PartitionFailure indexPartitionAndReportFailure(ReindexPartition partition) {
+		try {
+			indexPartition(partition);
+			checkpoint.markCompleted(partition);
+			completedPartitions.incrementAndGet();
+			return null;
+		} catch (Exception e) {
+			failedPartitions.incrementAndGet();
+			return new PartitionFailure(partition, e);
+		}
+	}
+
+	private void indexPartition(ReindexPartition partition) {
+		SolrRecordIndexer indexer = indexerSupplier.get();
+		source.readPartition(partition, recordToIndex -> {
+			indexer.indexDataWithoutExplicitCommit(recordToIndex.recordType(),
+					recordToIndex.recordId(), recordToIndex.indexTerms(),
+					recordToIndex.dataRecordGroup());
+			indexedDocuments.incrementAndGet();
+		});
+		indexer.commit(partition.recordType());
+	}
+
+	private List<PartitionFailure> waitForAll(List<Future<PartitionFailure>> futures) {
+		List<PartitionFailure> failures = new ArrayList<>();
+		for (Future<PartitionFailure> future : futures) {
+			PartitionFailure failure = getFailure(future);
+			if (failure != null) {
+				failures.add(failure);
+			}
+		}
+		return failures;
+	}
+
+	private PartitionFailure getFailure(Future<PartitionFailure> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw SolrIndexException.withMessageAndException("Reindex interrupted", e);
+		} catch (Exception e) {
+			throw SolrIndexException.withMessageAndException("Reindex failed", e);
+		}
+	}
+
+	private SolrIndexException createExceptionForFailures(List<PartitionFailure> failures) {
+		PartitionFailure first = failures.get(0);
+		return SolrIndexException.withMessageAndException("Reindex failed for "
+				+ failures.size() + " partitions, first failed partition: "
+				+ first.partition().key() + " " + first.exception().getMessage(),
+				first.exception());
+	}
+
+	public ReindexProgress getProgress() {
+		return new ReindexProgress(totalPartitions.get(), resumedPartitions.get(),
+				completedPartitions.get(), failedPartitions.get(), indexedDocuments.get(),
+				calculateElapsedNanos());
+	}
+
+	private long calculateElapsedNanos() {
+		if (startNanos == 0) {
+			return 0;
+		}
+		if (endNanos != 0) {
+			return endNanos - startNanos;
+		}
+		return System.nanoTime() - startNanos;
+	}
+
+	public ReindexCheckpoint getCheckpoint() {
+		return checkpoint;
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.reindex;
+
+/**
+ * ReindexPartition is one part of a reindex, the records of one record type with ids in a range.
+ * 
+ * @param recordType
+ *            the record type of the records in the partition
+ * @param fromId
+ *            the first id in the partition, inclusive, or an empty string for no lower bound
+ * @param toId
+ *            the last id in the partition, exclusive, or an empty string for no upper bound
+ */
+public record ReindexPartition(String recordType, String fromId, String toId) {
+
+	public static ReindexPartition forRecordType(String recordType) {
+		return new ReindexPartition(recordType, "", "");
+	}
+
+	/**
+	 * key returns a string identifying the partition, used in the checkpoint file.
+	 */
+	public String key() {
+		return recordType + "/" + fromId + "/" + toId;
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.reindex;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReindexProgress is a snapshot of how far a reindex has come.
+ * 
+ * @param totalPartitions
+ *            the number of partitions in the reindex
+ * @param resumedPartitions
+ *            the number of partitions skipped as they were completed in an earlier run
+ * @param completedPartitions
+ *            the number of partitions completed in this run
+ * @param failedPartitions
+ *            the number of partitions that failed in this run
+ * @param indexedDocuments
+ *            the number of documents indexed in this run
+ * @param elapsedNanos
+ *            the time since this run started
+ */
+public record ReindexProgress(int totalPartitions, int resumedPartitions,
+		int completedPartitions, int failedPartitions, long indexedDocuments, long elapsedNanos) {
+
+	public double documentsPerSecond() {
+		if (elapsedNanos == 0) {
+			return 0;
+		}
+		return indexedDocuments / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+
+	public int remainingPartitions() {
+		return totalPartitions - resumedPartitions - completedPartitions - failedPartitions;
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.reindex;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * ReindexSource provides the records to index during a reindex, split into partitions. It is
+ * implemented by the code reading records from storage.
+ * <p>
+ * Partitions are read from several threads at the same time, so implementations must be thread
+ * safe. Each partition must always contain the same records for resuming to work.
+ */
+public interface ReindexSource {
+
+	/**
+	 * listPartitions returns all partitions of the reindex, for instance one for each record type
+	 * with large record types split into id ranges.
+	 */
+	List<ReindexPartition> listPartitions();
+
+	/**
+	 * readPartition reads all records in the partition and hands them to the consumer one by one.
+	 */
+	void readPartition(ReindexPartition partition, Consumer<RecordToIndex> consumer);
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.spool;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.JavaBinCodec;
+
+import se.uu.ub.cora.solrindex.SolrIndexException;
+
+/**
+ * IndexSpool is a local write-ahead spool for index updates that could not be sent to Solr. Adds
+ * and deletes are appended, in order, to memory mapped segment files in a directory and each entry
+ * is forced to disk before append returns. Documents are stored in the javabin format.
+ * <p>
+ * A {@link SpoolReplayer} drains the spool by reading entries with {@link #peek(int)} and, once
+ * they are sent to Solr, removing them with {@link #acknowledge(int)}. Segments are deleted when
+ * all their entries are acknowledged. After a restart all entries in the remaining segments are
+ * replayed again, which is safe as replaying an add or a delete twice gives the same index.
+ * <p>
+ * Entries that Solr rejects, or that can not be read back, are moved with
+ * {@link #moveOldestToDeadLetter(String)} to the file {@value #DEAD_LETTER_FILE} in the spool
+ * directory, one line per entry with the operation, the base64 encoded payload and the reason,
+ * separated by tabs.
+ * <p>
+ * Updates spooled by SolrRecordIndexer are counted in {@value #SPOOLED_COUNTER}, tagged with the
+ * operation and record type.
+ */
+public final class IndexSpool {
+	public static final String SPOOLED_COUNTER = "solr.spool.spooled";
+	public static final String DEAD_LETTER_FILE = "dead-letter.spool";
+	private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".spool";
+	private final boolean enabled;
+	private final Path directory;
+	private final int segmentSize;
+	private final Deque<SpoolSegment> segments = new ArrayDeque<>();
+	private long nextSegmentNumber = 1;
+
+	private IndexSpool(boolean enabled, Path directory, int segmentSize) {
+		this.enabled = enabled;
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+	}
+
+	public static IndexSpool disabled() {
+		return new IndexSpool(false, null, 0);
+	}
+
+	/**
+	 * usingDirectory opens the spool in the specified directory, creating it if needed. Entries
+	 * left in the directory by an earlier run are pending again.
+	 */
+	public static IndexSpool usingDirectory(Path directory) {
+		return usingDirectoryAndSegmentSize(directory, DEFAULT_SEGMENT_SIZE);
+	}
+
+	public static IndexSpool usingDirectoryAndSegmentSize(Path directory, int segmentSize) {
+		IndexSpool spool = new IndexSpool(true, directory, segmentSize);
+		spool.openExistingSegments();
+		return spool;
+	}
+
+	private void openExistingSegments() {
+		try {
+			Files.createDirectories(directory);
+			for (Path file : listSegmentFilesInOrder()) {
+				long number = readSegmentNumber(file);
+				segments.addLast(SpoolSegment.open(number, file));
+				nextSegmentNumber = number + 1;
+			}
+		} catch (IOException e) {
+			throw SolrIndexException
+					.withMessageAndException("Error opening index spool in: " + directory, e);
+		}
+	}
+
+	private List<Path> listSegmentFilesInOrder() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(this::isSegmentFile)
+					.sorted((a, b) -> Long.compare(readSegmentNumber(a), readSegmentNumber(b)))
+					.toList();
+		}
+	}
+
+	private boolean isSegmentFile(Path file) {
+		String name = file.getFileName().toString();
+		return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+	}
+
+	private long readSegmentNumber(Path file) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(
+				name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public synchronized void append(SpoolEntry entry) {
+		appendPayload(entry.operation(), toPayload(entry));
+	}
+
+	private void appendPayload(SpoolOperation operation, byte[] payload) {
+		try {
+			SpoolSegment segment = getSegmentWithRoomFor(payload.length);
+			segment.append(operation, payload);
+		} catch (IOException e) {
+			throw SolrIndexException.withMessageAndException(
+					"Error writing to index spool in: " + directory, e);
+		}
+	}
+
+	private SpoolSegment getSegmentWithRoomFor(int payloadLength) throws IOException {
+		SpoolSegment last = segments.peekLast();
+		if (last != null && last.hasRoomFor(payloadLength)) {
+			return last;
+		}
+		long number = nextSegmentNumber++;
+		Path file = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, number,
+				SEGMENT_SUFFIX));
+		int size = Math.max(segmentSize, SpoolSegment.HEADER_SIZE + payloadLength);
+		SpoolSegment segment = SpoolSegment.create(number, file, size);
+		segments.addLast(segment);
+		return segment;
+	}
+
+	/**
+	 * peek returns up to the specified number of the oldest pending entries, without removing
+	 * them. Adds whose document can not be decoded are returned as entries for which
+	 * {@link SpoolEntry#isUnreadable()} is true.
+	 */
+	public synchronized List<SpoolEntry> peek(int maxNumberOfEntries) {
+		List<SpoolEntry> entries = new ArrayList<>();
+		Iterator<SpoolSegment> iterator = segments.iterator();
+		while (iterator.hasNext() && entries.size() < maxNumberOfEntries) {
+			peekInSegment(iterator.next(), entries, maxNumberOfEntries);
+		}
+		return entries;
+	}
+
+	private void peekInSegment(SpoolSegment segment, List<SpoolEntry> entries,
+			int maxNumberOfEntries) {
+		int position = segment.getReadPosition();
+		SpoolSegment.RawEntry rawEntry = segment.peekAt(position);
+		while (rawEntry != null && entries.size() < maxNumberOfEntries) {
+			entries.add(fromPayload(rawEntry));
+			position += SpoolSegment.HEADER_SIZE + rawEntry.payload().length;
+			rawEntry = segment.peekAt(position);
+		}
+	}
+
+	/**
+	 * acknowledge removes the specified number of the oldest pending entries, after they have been
+	 * sent to Solr.
+	 */
+	public synchronized void acknowledge(int numberOfEntries) {
+		try {
+			for (int i = 0; i < numberOfEntries; i++) {
+				acknowledgeOldestEntry();
+			}
+		} catch (IOException e) {
+			throw SolrIndexException.withMessageAndException(
+					"Error removing segment from index spool in: " + directory, e);
+		}
+	}
+
+	private void acknowledgeOldestEntry() throws IOException {
+		SpoolSegment segment = segments.peekFirst();
+		while (segment != null && segment.isFullyRead()) {
+			segments.removeFirst().closeAndDelete();
+			segment = segments.peekFirst();
+		}
+		if (segment != null) {
+			segment.advanceReadPosition();
+			if (segment.isFullyRead()) {
+				segments.removeFirst().closeAndDelete();
+			}
+		}
+	}
+
+	/**
+	 * moveOldestToDeadLetter appends the oldest pending entry, as it is stored in the spool, to the
+	 * dead letter file together with the specified reason, and then removes it from the spool.
+	 */
+	public synchronized void moveOldestToDeadLetter(String reason) {
+		SpoolSegment.RawEntry rawEntry = peekOldestRawEntry();
+		if (rawEntry == null) {
+			return;
+		}
+		writeToDeadLetterFile(rawEntry, reason);
+		acknowledge(1);
+	}
+
+	private SpoolSegment.RawEntry peekOldestRawEntry() {
+		for (SpoolSegment segment : segments) {
+			if (!segment.isFullyRead()) {
+				return segment.peekAt(segment.getReadPosition());
+			}
+		}
+		return null;
+	}
+
+	private void writeToDeadLetterFile(SpoolSegment.RawEntry rawEntry, String reason) {
+		String line = rawEntry.operation().name() + "\t"
+				+ Base64.getEncoder().encodeToString(rawEntry.payload()) + "\t"
+				+ String.valueOf(reason).replaceAll("\\s+", " ") + "\n";
+		try {
+			Files.writeString(getDeadLetterFile(), line, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+					StandardOpenOption.SYNC);
+		} catch (IOException e) {
+			throw SolrIndexException.withMessageAndException(
+					"Error writing to dead letter file in: " + directory, e);
+		}
+	}
+
+	public Path getDeadLetterFile() {
+		return directory.resolve(DEAD_LETTER_FILE);
+	}
+
+	public synchronized boolean hasPending() {
+		return getNumberOfPendingEntries() > 0;
+	}
+
+	public synchronized long getNumberOfPendingEntries() {
+		long pending = 0;
+		for (SpoolSegment segment : segments) {
+			pending += segment.getNumberOfUnreadEntries();
+		}
+		return pending;
+	}
+
+	public synchronized void close() {
+		try {
+			for (SpoolSegment segment : segments) {
+				segment.close();
+			}
+			segments.clear();
+		} catch (IOException e) {
+			throw SolrIndexException
+					.withMessageAndException("Error closing index spool in: " + directory, e);
+		}
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	int onlyForTestGetNumberOfSegments() {
+		return segments.size();
+	}
+
+	synchronized void onlyForTestAppendPayload(SpoolOperation operation, byte[] payload) {
+		appendPayload(operation, payload);
+	}
+
+	private static byte[] toPayload(SpoolEntry entry) {
+		if (entry.operation() == SpoolOperation.DELETE) {
+			return entry.documentId().getBytes(StandardCharsets.UTF_8);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JavaBinCodec codec = new JavaBinCodec()) {
+			codec.marshal(entry.document(), out);
+		} catch (IOException e) {
+			throw SolrIndexException.withMessageAndException(
+					"Error serializing document for index spool: " + entry.documentId(), e);
+		}
+		return out.toByteArray();
+	}
+
+	private static SpoolEntry fromPayload(SpoolSegment.RawEntry rawEntry) {
+		if (rawEntry.operation() == SpoolOperation.DELETE) {
+			return SpoolEntry.delete(new String(rawEntry.payload(), StandardCharsets.UTF_8));
+		}
+		try (JavaBinCodec codec = new JavaBinCodec()) {
+			SolrInputDocument document = (SolrInputDocument) codec
+					.unmarshal(new ByteArrayInputStream(rawEntry.payload()));
+			return SpoolEntry.add(document);
+		} catch (IOException | RuntimeException e) {
+			return SpoolEntry.unreadableAdd();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.spool;
+
+import org.apache.solr.common.SolrInputDocument;
+
+/**
+ * SpoolEntry is one pending update in an {@link IndexSpool}, either a document to add or the id of
+ * a document to delete.
+ * 
+ * @param operation
+ *            the kind of update
+ * @param documentId
+ *            the id of the Solr document, for instance someRecordType_someId
+ * @param document
+ *            the document to add, null for deletes and for adds that could not be read back from
+ *            the spool
+ */
+public record SpoolEntry(SpoolOperation operation, String documentId,
+		SolrInputDocument document) {
+
+	public static SpoolEntry add(SolrInputDocument document) {
+		return new SpoolEntry(SpoolOperation.ADD, (String) document.getFieldValue("id"),
+				document);
+	}
+
+	public static SpoolEntry delete(String documentId) {
+		return new SpoolEntry(SpoolOperation.DELETE, documentId, null);
+	}
+
+	static SpoolEntry unreadableAdd() {
+		return new SpoolEntry(SpoolOperation.ADD, null, null);
+	}
+
+	/**
+	 * isUnreadable returns true if this is an add whose document could not be decoded when it was
+	 * read back from the spool.
+	 */
+	public boolean isUnreadable() {
+		return operation == SpoolOperation.ADD && document == null;
+	}
+}
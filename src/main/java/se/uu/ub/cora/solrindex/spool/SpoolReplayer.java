@@ -0,0 +1,289 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.spool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+
+import se.uu.ub.cora.logger.LoggerProvider;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+
+/**
+ * SpoolReplayer drains an {@link IndexSpool} by sending its entries to Solr in batches. Each batch
+ * holds consecutive entries of the same kind, so that adds and deletes of the same document are
+ * applied in the order they were spooled. Every batch is committed before its entries are
+ * acknowledged.
+ * <p>
+ * When Solr is unavailable, that is when it answers with a server error or can not be reached,
+ * replaying stops and the entries stay in the spool until the next attempt. Any other failure means
+ * that Solr rejected the batch, the entries of a rejected batch are then sent one by one and each
+ * entry that is rejected on its own is moved to the dead letter file of the spool, so that replaying
+ * can continue with the entries after it. Adds that can not be read back from the spool are moved
+ * to the dead letter file without being sent.
+ * <p>
+ * Every failed attempt is written to a {@link ReplayFailureSink}, which by default logs it as an
+ * error. Use {@link #start(long)} to replay in the background at a fixed interval. The number of
+ * pending entries is exposed as the gauge {@value #PENDING_GAUGE}, the number of replayed entries
+ * is counted in {@value #REPLAYED_COUNTER} and the number of entries moved to the dead letter file
+ * is counted in {@value #DEAD_LETTERED_COUNTER}, all tagged with the name of the replayer when it
+ * has one.
+ */
+public final class SpoolReplayer {
+	public static final String PENDING_GAUGE = "solr.spool.pending";
+	public static final String REPLAYED_COUNTER = "solr.spool.replayed";
+	public static final String DEAD_LETTERED_COUNTER = "solr.spool.deadlettered";
+	private static final int DEFAULT_BATCH_SIZE = 500;
+	private static final int FIRST_SERVER_ERROR_CODE = 500;
+	private static final long STOP_TIMEOUT_SECONDS = 30;
+	private final IndexSpool spool;
+	private final SolrClientProvider solrClientProvider;
+	private final SolrMetrics metrics;
+	private final MetricKey replayedKey;
+	private final MetricKey deadLetteredKey;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private ReplayFailureSink failureSink = SpoolReplayer::logAsError;
+	private ScheduledExecutorService scheduler;
+
+	private SpoolReplayer(IndexSpool spool, SolrClientProvider solrClientProvider,
+			Map<String, String> tags) {
+		this.spool = spool;
+		this.solrClientProvider = solrClientProvider;
+		metrics = SolrMetricsProvider.getMetrics();
+		replayedKey = new MetricKey(REPLAYED_COUNTER, tags);
+		deadLetteredKey = new MetricKey(DEAD_LETTERED_COUNTER, tags);
+		metrics.registerGauge(new MetricKey(PENDING_GAUGE, tags),
+				spool::getNumberOfPendingEntries);
+	}
+
+	public static SpoolReplayer usingSpoolAndSolrClientProvider(IndexSpool spool,
+			SolrClientProvider solrClientProvider) {
+		return new SpoolReplayer(spool, solrClientProvider, Map.of());
+	}
+
+	/**
+	 * usingSpoolSolrClientProviderAndName creates a replayer whose metrics are tagged with the
+	 * specified name, for instance the solr url, so that the replayers of several spools can be
+	 * told apart.
+	 */
+	public static SpoolReplayer usingSpoolSolrClientProviderAndName(IndexSpool spool,
+			SolrClientProvider solrClientProvider, String name) {
+		return new SpoolReplayer(spool, solrClientProvider, Map.of("name", name));
+	}
+
+	/**
+	 * setBatchSize sets the maximum number of entries sent to Solr in one request.
+	 * <p>
+	 * Default is 500.
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	private static void logAsError(String message, Exception exception) {
+		LoggerProvider.getLoggerForClass(SpoolReplayer.class)
+				.logErrorUsingMessageAndException(message, exception);
+	}
+
+	/**
+	 * setFailureSink sets where failed replay attempts are written.
+	 * <p>
+	 * Default is the error log of SpoolReplayer.
+	 */
+	public void setFailureSink(ReplayFailureSink failureSink) {
+		this.failureSink = failureSink;
+	}
+
+	/**
+	 * replay sends pending entries to Solr until the spool is empty or Solr is unavailable.
+	 * 
+	 * @return the number of entries replayed
+	 */
+	public synchronized int replay() {
+		int replayed = 0;
+		List<SpoolEntry> entries = takeEntriesOfSameKind(spool.peek(batchSize));
+		while (!entries.isEmpty()) {
+			ReplayResult result = replayEntries(entries);
+			replayed += result.replayed();
+			if (result.solrUnavailable()) {
+				return replayed;
+			}
+			entries = takeEntriesOfSameKind(spool.peek(batchSize));
+		}
+		return replayed;
+	}
+
+	private record ReplayResult(int replayed, boolean solrUnavailable) {
+	}
+
+	private ReplayResult replayEntries(List<SpoolEntry> entries) {
+		if (entries.get(0).isUnreadable()) {
+			moveToDeadLetter("Document could not be read from the index spool", null);
+			return new ReplayResult(0, false);
+		}
+		try {
+			sendAndCommit(entries);
+			spool.acknowledge(entries.size());
+			metrics.addToCounter(replayedKey, entries.size());
+			return new ReplayResult(entries.size(), false);
+		} catch (Exception e) {
+			return handleFailedReplay(entries, e);
+		}
+	}
+
+	private void sendAndCommit(List<SpoolEntry> entries) throws Exception {
+		SolrClient solrClient = solrClientProvider.getSolrClient();
+		send(solrClient, entries);
+		solrClient.commit();
+	}
+
+	private ReplayResult handleFailedReplay(List<SpoolEntry> entries, Exception e) {
+		if (isSolrUnavailable(e)) {
+			failureSink.logReplayFailure("Solr is unavailable, keeping " + entries.size()
+					+ " entries in the index spool: " + e.getMessage(), e);
+			return new ReplayResult(0, true);
+		}
+		if (entries.size() > 1) {
+			failureSink.logReplayFailure("Solr rejected a batch of " + entries.size()
+					+ " entries from the index spool, sending them one by one: " + e.getMessage(),
+					e);
+			return replayOneByOne(entries);
+		}
+		moveToDeadLetter("Solr rejected " + entries.get(0).operation() + " of "
+				+ entries.get(0).documentId() + ": " + e.getMessage(), e);
+		return new ReplayResult(0, false);
+	}
+
+	private ReplayResult replayOneByOne(List<SpoolEntry> entries) {
+		int replayed = 0;
+		for (SpoolEntry entry : entries) {
+			ReplayResult result = replayEntries(List.of(entry));
+			replayed += result.replayed();
+			if (result.solrUnavailable()) {
+				return new ReplayResult(replayed, true);
+			}
+		}
+		return new ReplayResult(replayed, false);
+	}
+
+	private void moveToDeadLetter(String reason, Exception e) {
+		spool.moveOldestToDeadLetter(reason);
+		metrics.addToCounter(deadLetteredKey, 1);
+		failureSink.logReplayFailure(reason + ", moved to " + spool.getDeadLetterFile(), e);
+	}
+
+	private boolean isSolrUnavailable(Exception e) {
+		if (e instanceof SolrException solrException) {
+			return solrException.code() >= FIRST_SERVER_ERROR_CODE;
+		}
+		return e instanceof SolrServerException || e instanceof IOException;
+	}
+
+	private List<SpoolEntry> takeEntriesOfSameKind(List<SpoolEntry> entries) {
+		List<SpoolEntry> sameKind = new ArrayList<>();
+		for (SpoolEntry entry : entries) {
+			if (!sameKind.isEmpty() && (entry.isUnreadable() || sameKind.get(0).isUnreadable()
+					|| entry.operation() != sameKind.get(0).operation())) {
+				break;
+			}
+			sameKind.add(entry);
+		}
+		return sameKind;
+	}
+
+	private void send(SolrClient solrClient, List<SpoolEntry> entries) throws Exception {
+		if (entries.get(0).operation() == SpoolOperation.ADD) {
+			List<SolrInputDocument> documents = new ArrayList<>();
+			entries.forEach(entry -> documents.add(entry.document()));
+			solrClient.add(documents);
+		} else {
+			List<String> ids = new ArrayList<>();
+			entries.forEach(entry -> ids.add(entry.documentId()));
+			solrClient.deleteById(ids);
+		}
+	}
+
+	/**
+	 * start replays the spool in a background thread, with the specified delay between attempts.
+	 */
+	public synchronized void start(long intervalInMillis) {
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "solr-spool-replayer");
+				thread.setDaemon(true);
+				return thread;
+			});
+			scheduler.scheduleWithFixedDelay(this::replay, intervalInMillis, intervalInMillis,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * stop stops replaying in the background and waits for an ongoing replay to end, so that the
+	 * spool can be closed when stop returns. Entries not yet acknowledged stay in the spool.
+	 */
+	public void stop() {
+		ScheduledExecutorService toStop;
+		synchronized (this) {
+			toStop = scheduler;
+			scheduler = null;
+		}
+		if (toStop != null) {
+			toStop.shutdownNow();
+			awaitTermination(toStop);
+		}
+	}
+
+	private void awaitTermination(ScheduledExecutorService toStop) {
+		try {
+			toStop.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public synchronized boolean isRunning() {
+		return scheduler != null;
+	}
+
+	public IndexSpool onlyForTestGetSpool() {
+		return spool;
+	}
+
+	public SolrClientProvider onlyForTestGetSolrClientProvider() {
+		return solrClientProvider;
+	}
+}
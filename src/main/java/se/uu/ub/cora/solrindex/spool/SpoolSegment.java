@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.spool;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * SpoolSegment is one memory mapped, append only file of an {@link IndexSpool}. Each entry is
+ * written as its length, a CRC32 checksum, the operation code and the payload. A length of zero
+ * marks the end of the written entries, as the mapped file is filled with zeros when created. An
+ * entry with a wrong checksum, left by a crash while it was written, also ends the segment.
+ * <p>
+ * SpoolSegment is not thread safe, it is guarded by {@link IndexSpool}.
+ */
+final class SpoolSegment {
+	static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + 1;
+	private final long number;
+	private final Path file;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private int writePosition = 0;
+	private int readPosition = 0;
+	private int numberOfEntries = 0;
+	private int numberOfReadEntries = 0;
+
+	private SpoolSegment(long number, Path file, int size) throws IOException {
+		this.number = number;
+		this.file = file;
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		int mappedSize = (int) Math.max(size, channel.size());
+		buffer = channel.map(MapMode.READ_WRITE, 0, mappedSize);
+	}
+
+	static SpoolSegment create(long number, Path file, int size) throws IOException {
+		return new SpoolSegment(number, file, size);
+	}
+
+	static SpoolSegment open(long number, Path file) throws IOException {
+		SpoolSegment segment = new SpoolSegment(number, file, 0);
+		segment.findEndOfWrittenEntries();
+		return segment;
+	}
+
+	private void findEndOfWrittenEntries() {
+		while (readEntryAt(writePosition) != null) {
+			writePosition += HEADER_SIZE + buffer.getInt(writePosition);
+			numberOfEntries++;
+		}
+	}
+
+	boolean hasRoomFor(int payloadLength) {
+		return writePosition + HEADER_SIZE + payloadLength <= buffer.capacity();
+	}
+
+	void append(SpoolOperation operation, byte[] payload) {
+		int position = writePosition;
+		buffer.put(position + Integer.BYTES + Integer.BYTES, operation.getCode());
+		buffer.put(position + HEADER_SIZE, payload);
+		buffer.putInt(position + Integer.BYTES, (int) calculateChecksum(operation, payload));
+		buffer.putInt(position, payload.length);
+		buffer.force();
+		writePosition += HEADER_SIZE + payload.length;
+		numberOfEntries++;
+	}
+
+	private static long calculateChecksum(SpoolOperation operation, byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(operation.getCode());
+		crc.update(payload);
+		return crc.getValue();
+	}
+
+	record RawEntry(SpoolOperation operation, byte[] payload) {
+	}
+
+	RawEntry readEntryAt(int position) {
+		if (position + HEADER_SIZE > buffer.capacity()) {
+			return null;
+		}
+		int length = buffer.getInt(position);
+		if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+			return null;
+		}
+		int checksum = buffer.getInt(position + Integer.BYTES);
+		SpoolOperation operation = SpoolOperation
+				.fromCode(buffer.get(position + Integer.BYTES + Integer.BYTES));
+		byte[] payload = new byte[length];
+		buffer.get(position + HEADER_SIZE, payload);
+		if (operation == null || checksum != (int) calculateChecksum(operation, payload)) {
+			return null;
+		}
+		return new RawEntry(operation, payload);
+	}
+
+	RawEntry peekAt(int position) {
+		return position < writePosition ? readEntryAt(position) : null;
+	}
+
+	int getReadPosition() {
+		return readPosition;
+	}
+
+	void advanceReadPosition() {
+		readPosition += HEADER_SIZE + buffer.getInt(readPosition);
+		numberOfReadEntries++;
+	}
+
+	int getNumberOfUnreadEntries() {
+		return numberOfEntries - numberOfReadEntries;
+	}
+
+	boolean isFullyRead() {
+		return readPosition == writePosition;
+	}
+
+	long getNumber() {
+		return number;
+	}
+
+	Path getFile() {
+		return file;
+	}
+
+	void closeAndDelete() throws IOException {
+		channel.close();
+		Files.deleteIfExists(file);
+	}
+
+	void close() throws IOException {
+		buffer.force();
+		channel.close();
+	}
+}
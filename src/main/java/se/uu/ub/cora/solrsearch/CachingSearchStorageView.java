@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.searchstorage.SearchStorageView;
+import se.uu.ub.cora.solr.warmup.SearchTermPreloader;
+
+/**
+ * CachingSearchStorageView caches the search terms and collect index terms read from another
+ * SearchStorageView, so that each search does not have to read them again. Search terms can be
+ * preloaded at startup using {@link #preloadSearchTerm(String)}.
+ * <p>
+ * Cached terms are not updated when the metadata changes, call {@link #clear()} after metadata
+ * for search terms or collect index terms is updated.
+ */
+public final class CachingSearchStorageView implements SearchStorageView, SearchTermPreloader {
+	private static final String LINKED_RECORD_ID = "linkedRecordId";
+	private final SearchStorageView searchStorageView;
+	private final Map<String, DataGroup> searchTerms = new ConcurrentHashMap<>();
+	private final Map<String, DataGroup> collectIndexTerms = new ConcurrentHashMap<>();
+
+	private CachingSearchStorageView(SearchStorageView searchStorageView) {
+		this.searchStorageView = searchStorageView;
+	}
+
+	public static CachingSearchStorageView wrapping(SearchStorageView searchStorageView) {
+		return new CachingSearchStorageView(searchStorageView);
+	}
+
+	@Override
+	public DataGroup getSearchTerm(String searchTermId) {
+		return searchTerms.computeIfAbsent(searchTermId, searchStorageView::getSearchTerm);
+	}
+
+	@Override
+	public DataGroup getCollectIndexTerm(String collectIndexTermId) {
+		return collectIndexTerms.computeIfAbsent(collectIndexTermId,
+				searchStorageView::getCollectIndexTerm);
+	}
+
+	/**
+	 * preloadSearchTerm reads the search term with the specified id and the collect index terms it
+	 * uses into the cache.
+	 */
+	@Override
+	public void preloadSearchTerm(String searchTermId) {
+		DataGroup searchTerm = getSearchTerm(searchTermId);
+		preloadCollectIndexTermLinkedFrom(searchTerm, "indexTerm");
+		preloadCollectIndexTermLinkedFrom(searchTerm, "linkedOn");
+	}
+
+	private void preloadCollectIndexTermLinkedFrom(DataGroup searchTerm, String nameInData) {
+		if (searchTerm.containsChildWithNameInData(nameInData)) {
+			DataGroup link = searchTerm.getFirstGroupWithNameInData(nameInData);
+			getCollectIndexTerm(link.getFirstAtomicValueWithNameInData(LINKED_RECORD_ID));
+		}
+	}
+
+	public void clear() {
+		searchTerms.clear();
+		collectIndexTerms.clear();
+	}
+
+	public int getNumberOfCachedTerms() {
+		return searchTerms.size() + collectIndexTerms.size();
+	}
+
+	public SearchStorageView onlyForTestGetSearchStorageView() {
+		return searchStorageView;
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * IdSearchResult is the result of an id only search, holding the type and id of the found
+ * records in the requested rows together with the total number of matching records. The start is
+ * the 1-based position of the first record, in the same way as in the search data.
+ */
+public record IdSearchResult(long start, long totalNumberOfMatches,
+		List<RecordIdentifier> records) {
+
+	static IdSearchResult emptyFromStart(long start) {
+		return new IdSearchResult(start, 0, Collections.emptyList());
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+/**
+ * LinkedDataStrategy is the way a search using a linked data search term is executed in Solr. All
+ * strategies match the linked field using the same escaped query, so they find the same records.
+ */
+public enum LinkedDataStrategy {
+	/**
+	 * JOIN searches the linked records using a {!join} query, executed by Solr as part of the
+	 * search.
+	 */
+	JOIN,
+	/**
+	 * TWO_PHASE first searches for the ids of the matching linked records and then filters the
+	 * search on those ids using a {!terms} filter.
+	 */
+	TWO_PHASE,
+	/**
+	 * DENORMALIZED searches a field in the referencing document where the indexer has copied the
+	 * values from the linked record, see SolrIndexSettings in the solrindex package.
+	 */
+	DENORMALIZED
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+/**
+ * QueryClauseListener is notified about each clause {@link SolrRecordSearch} adds to a query and
+ * how the clause was classified. It can be set in {@link SolrSearchSettings} to log or count the
+ * generated clauses.
+ */
+@FunctionalInterface
+public interface QueryClauseListener {
+
+	void clauseClassified(QueryClauseType clauseType, String clause);
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+/**
+ * QueryClauseType is the classification {@link SolrRecordSearch} gives each clause it sends to
+ * Solr, based on how expensive the clause is estimated to be. The classification decides if the
+ * clause is part of the scored query (q) or a filter query (fq), and which cache and cost local
+ * params the clause gets.
+ * <p>
+ * Solr runs non cached filters in order of increasing cost after the cached filters.
+ */
+public enum QueryClauseType {
+	/**
+	 * SCORED clauses are part of the scored query (q).
+	 */
+	SCORED(""),
+	/**
+	 * CACHED_FILTER clauses are cheap filters likely to be repeated, such as record type and
+	 * exact match filters, that are stored in Solrs filterCache.
+	 */
+	CACHED_FILTER(""),
+	/**
+	 * UNCACHED_FILTER clauses are filters unlikely to be repeated, such as a list of ids, that are
+	 * not cached and run after the cached filters.
+	 */
+	UNCACHED_FILTER(" cache=false cost=50"),
+	/**
+	 * JOIN_FILTER clauses are joins matching documents that link to records matching a query.
+	 * Solrs join query parser is not a post filter, so the join is computed against the whole
+	 * index whatever its cost is. It is therefore cached, so that searches repeating the same
+	 * linked value reuse it until the next commit.
+	 */
+	JOIN_FILTER("");
+
+	private final String localParams;
+
+	QueryClauseType(String localParams) {
+		this.localParams = localParams;
+	}
+
+	/**
+	 * getLocalParams returns the local params to add to the clause, starting with a space, or an
+	 * empty string if the clause should not have any local params.
+	 */
+	public String getLocalParams() {
+		return localParams;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import java.util.regex.Pattern;
+
+import se.uu.ub.cora.solr.field.SolrFieldType;
+
+/**
+ * RangeQuery creates range queries for search values on number and date fields written in the
+ * Solr range syntax, for instance [10 TO 20], {2020-01-01T00:00:00Z TO *] or [* TO NOW]. A square
+ * bracket includes the bound and a curly bracket excludes it, and * leaves that end of the range
+ * open.
+ * <p>
+ * Numbers are whole numbers, dates are UTC timestamps as stored by the indexer or Solr date math
+ * starting with NOW. Date math should be rounded to a unit, for instance NOW/DAY, as a range using
+ * NOW without rounding changes every millisecond, see {@link #hasUnroundedNow(String)}.
+ */
+final class RangeQuery {
+	private static final String RANGE_SEPARATOR = " TO ";
+	private static final String OPEN_BOUND = "*";
+	private static final char ROUNDING = '/';
+	private static final Pattern NUMBER = Pattern.compile("-?\\d{1,19}");
+	private static final Pattern DATE = Pattern
+			.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(\\.\\d{1,9})?Z(/[A-Z]+)?");
+	private static final Pattern DATE_MATH = Pattern.compile("NOW([+-]\\d+[A-Z]+|/[A-Z]+)*");
+
+	private RangeQuery() {
+		// prevent instantiation
+	}
+
+	/**
+	 * isRange returns true if the value is a range for the field type, a value on a number or date
+	 * field starting with [ or { and ending with ] or }.
+	 */
+	static boolean isRange(SolrFieldType fieldType, String value) {
+		return isRangeFieldType(fieldType) && value.length() > 1 && isStartOfRange(value.charAt(0))
+				&& isEndOfRange(value.charAt(value.length() - 1));
+	}
+
+	private static boolean isRangeFieldType(SolrFieldType fieldType) {
+		return fieldType == SolrFieldType.LONG || fieldType == SolrFieldType.DATE;
+	}
+
+	private static boolean isStartOfRange(char character) {
+		return character == '[' || character == '{';
+	}
+
+	private static boolean isEndOfRange(char character) {
+		return character == ']' || character == '}';
+	}
+
+	/**
+	 * createQuery returns the range query for the field, for instance year_l:[2000 TO *]
+	 * 
+	 * @throws SolrSearchException
+	 *             if the range is not two bounds separated by TO, or if a bound is not valid for
+	 *             the field type
+	 */
+	static String createQuery(String fieldName, SolrFieldType fieldType, String range) {
+		String bounds = range.substring(1, range.length() - 1).trim();
+		int separatorIndex = bounds.indexOf(RANGE_SEPARATOR);
+		if (separatorIndex == -1) {
+			throw SolrSearchException.withMessage("Range " + range + " is not on the form "
+					+ "[from TO to] for field " + fieldName);
+		}
+		String from = bounds.substring(0, separatorIndex).trim();
+		String to = bounds.substring(separatorIndex + RANGE_SEPARATOR.length()).trim();
+		ensureValidBound(fieldName, fieldType, range, from);
+		ensureValidBound(fieldName, fieldType, range, to);
+		return fieldName + ":" + range.charAt(0) + from + RANGE_SEPARATOR + to
+				+ range.charAt(range.length() - 1);
+	}
+
+	/**
+	 * hasUnroundedNow returns true if a bound of the range is date math using NOW without rounding
+	 * it to a unit, such as NOW or NOW-1YEAR. Such a range is different for every request, so a
+	 * filter using it is never reused and should not be stored in Solrs filterCache, while a range
+	 * using NOW/DAY or NOW-1YEAR/DAY is the same for a whole day.
+	 */
+	static boolean hasUnroundedNow(String range) {
+		String bounds = range.substring(1, range.length() - 1);
+		for (String bound : bounds.split(RANGE_SEPARATOR)) {
+			if (isUnroundedNow(bound.trim())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isUnroundedNow(String bound) {
+		return DATE_MATH.matcher(bound).matches() && bound.indexOf(ROUNDING) == -1;
+	}
+
+	private static void ensureValidBound(String fieldName, SolrFieldType fieldType, String range,
+			String bound) {
+		if (!isValidBound(fieldType, bound)) {
+			throw SolrSearchException.withMessage("Range " + range + " has an invalid bound "
+					+ bound + " for field " + fieldName);
+		}
+	}
+
+	private static boolean isValidBound(SolrFieldType fieldType, String bound) {
+		if (OPEN_BOUND.equals(bound)) {
+			return true;
+		}
+		if (fieldType == SolrFieldType.LONG) {
+			return NUMBER.matcher(bound).matches();
+		}
+		return DATE.matcher(bound).matches() || DATE_MATH.matcher(bound).matches();
+	}
+}
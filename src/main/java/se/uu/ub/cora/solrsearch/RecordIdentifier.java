@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import org.apache.solr.common.SolrDocument;
+
+/**
+ * RecordIdentifier identifies a record found in Solr by its type and id.
+ */
+public record RecordIdentifier(String recordType, String recordId) {
+
+	/**
+	 * fromSolrDocument reads the type and id of the record from a document with the type and id
+	 * fields written by the indexer, where the id field holds the type and the id separated by an
+	 * underscore.
+	 */
+	static RecordIdentifier fromSolrDocument(SolrDocument document) {
+		String recordType = (String) document.getFirstValue("type");
+		String documentId = (String) document.getFirstValue("id");
+		return new RecordIdentifier(recordType, documentId.substring(recordType.length() + 1));
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.searchstorage.SearchStorageView;
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.field.IndexFieldRegistry;
+import se.uu.ub.cora.solr.field.SolrFieldType;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+import se.uu.ub.cora.solr.metrics.SolrOperation;
+import se.uu.ub.cora.solr.metrics.SolrPhase;
+
+/**
+ * SolrAutocomplete finds records with a value starting with a typed prefix, for typeahead fields
+ * that search on every keystroke. It searches the autocomplete field that the indexer writes for
+ * index terms set up using SolrIndexSettings.addAutocompleteIndexFieldName, which is indexed as
+ * edge n-grams so that a prefix is matched as an ordinary term instead of as an expensive
+ * wildcard query.
+ * <p>
+ * Only the type, id and matched value of each record are read from Solr, the stored records are
+ * neither read nor converted. When the autocomplete field has several values is the first value
+ * with words starting with all typed words used as label, or the first value if none of them has.
+ */
+public final class SolrAutocomplete {
+	private static final String LINKED_RECORD_ID = "linkedRecordId";
+	private static final String TYPE = "type";
+	private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private SolrClientProvider solrClientProvider;
+	private SearchStorageView searchStorageView;
+	private SolrMetrics metrics;
+
+	private SolrAutocomplete(SolrClientProvider solrClientProvider,
+			SearchStorageView searchStorageView) {
+		this.solrClientProvider = solrClientProvider;
+		this.searchStorageView = searchStorageView;
+		metrics = SolrMetricsProvider.getMetrics();
+	}
+
+	public static SolrAutocomplete usingSolrClientProviderAndSearchStorage(
+			SolrClientProvider solrClientProvider, SearchStorageView searchStorageView) {
+		return new SolrAutocomplete(solrClientProvider, searchStorageView);
+	}
+
+	/**
+	 * suggest returns the records of the specified types where the value of the index term used
+	 * by the search term has words starting with all words in the prefix, for instance
+	 * "Uppsala University" for the prefix "upps uni". An empty or null prefix returns no
+	 * suggestions without searching.
+	 * 
+	 * @param recordTypes
+	 *            the record types to search in
+	 * @param searchTermId
+	 *            the id of the search term, its index term must be set up for autocomplete
+	 * @param prefix
+	 *            the text typed so far
+	 * @param maxNumberOfSuggestions
+	 *            the maximum number of suggestions to return
+	 * @throws SolrSearchException
+	 *             if the search fails
+	 */
+	public List<Suggestion> suggest(List<String> recordTypes, String searchTermId, String prefix,
+			int maxNumberOfSuggestions) {
+		List<String> words = splitIntoWords(prefix);
+		if (words.isEmpty()) {
+			return Collections.emptyList();
+		}
+		String recordTypesForMetrics = SolrMetrics.recordTypeTagFor(recordTypes);
+		metrics.countRequest(SolrOperation.SUGGEST, recordTypesForMetrics);
+		try {
+			return tryToSuggest(recordTypes, searchTermId, words, maxNumberOfSuggestions);
+		} catch (Exception e) {
+			metrics.countError(SolrOperation.SUGGEST, recordTypesForMetrics);
+			throw SolrSearchException.withMessage("Error getting suggestions: " + e.getMessage());
+		}
+	}
+
+	private List<String> splitIntoWords(String prefix) {
+		List<String> words = new ArrayList<>();
+		if (prefix == null) {
+			return words;
+		}
+		for (String word : prefix.trim().split("\\s+")) {
+			if (!word.isEmpty()) {
+				words.add(word);
+			}
+		}
+		return words;
+	}
+
+	private List<Suggestion> tryToSuggest(List<String> recordTypes, String searchTermId,
+			List<String> words, int maxNumberOfSuggestions) throws SolrServerException, IOException {
+		String fieldName = getAutocompleteFieldNameForSearchTerm(searchTermId);
+		SolrQuery query = createQuery(recordTypes, fieldName, words, maxNumberOfSuggestions);
+		long roundTripStart = System.nanoTime();
+		SolrDocumentList documents = solrClientProvider.getSolrClient().query(query).getResults();
+		metrics.recordPhase(SolrOperation.SUGGEST, SolrPhase.SOLR_ROUND_TRIP,
+				System.nanoTime() - roundTripStart);
+		return createSuggestions(documents, fieldName, words);
+	}
+
+	private String getAutocompleteFieldNameForSearchTerm(String searchTermId) {
+		DataGroup searchTerm = searchStorageView.getSearchTerm(searchTermId);
+		String indexTermId = searchTerm.getFirstGroupWithNameInData("indexTerm")
+				.getFirstAtomicValueWithNameInData(LINKED_RECORD_ID);
+		DataGroup collectIndexTerm = searchStorageView.getCollectIndexTerm(indexTermId);
+		String indexFieldName = collectIndexTerm.getFirstGroupWithNameInData("extraData")
+				.getFirstAtomicValueWithNameInData("indexFieldName");
+		return IndexFieldRegistry.getFieldName(indexFieldName, SolrFieldType.AUTOCOMPLETE);
+	}
+
+	private SolrQuery createQuery(List<String> recordTypes, String fieldName, List<String> words,
+			int maxNumberOfSuggestions) {
+		SolrQuery query = new SolrQuery();
+		query.setQuery(createPrefixQuery(fieldName, words));
+		query.addFilterQuery(createRecordTypeFilter(recordTypes));
+		query.setFields("id", TYPE, fieldName);
+		query.setRows(maxNumberOfSuggestions);
+		return query;
+	}
+
+	private String createPrefixQuery(String fieldName, List<String> words) {
+		List<String> clauses = new ArrayList<>(words.size());
+		for (String word : words) {
+			clauses.add(fieldName + ":" + ClientUtils.escapeQueryChars(word));
+		}
+		return String.join(" AND ", clauses);
+	}
+
+	private String createRecordTypeFilter(List<String> recordTypes) {
+		List<String> recordTypesWithType = new ArrayList<>(recordTypes.size());
+		for (String recordType : recordTypes) {
+			recordTypesWithType.add("type:" + recordType);
+		}
+		return String.join(" OR ", recordTypesWithType);
+	}
+
+	private List<Suggestion> createSuggestions(SolrDocumentList documents, String fieldName,
+			List<String> words) {
+		List<String> prefixWords = splitIntoLowerCaseWords(String.join(" ", words));
+		List<Suggestion> suggestions = new ArrayList<>(documents.size());
+		for (SolrDocument document : documents) {
+			suggestions.add(createSuggestion(document, fieldName, prefixWords));
+		}
+		return suggestions;
+	}
+
+	private List<String> splitIntoLowerCaseWords(String text) {
+		List<String> words = new ArrayList<>();
+		for (String word : NON_WORD_CHARACTERS.split(text.toLowerCase(Locale.ROOT))) {
+			if (!word.isEmpty()) {
+				words.add(word);
+			}
+		}
+		return words;
+	}
+
+	private Suggestion createSuggestion(SolrDocument document, String fieldName,
+			List<String> prefixWords) {
+		RecordIdentifier recordIdentifier = RecordIdentifier.fromSolrDocument(document);
+		return new Suggestion(recordIdentifier.recordType(), recordIdentifier.recordId(),
+				chooseLabel(document, fieldName, prefixWords));
+	}
+
+	private String chooseLabel(SolrDocument document, String fieldName,
+			List<String> prefixWords) {
+		Collection<Object> values = document.getFieldValues(fieldName);
+		if (values != null) {
+			for (Object value : values) {
+				if (hasWordsStartingWithAll((String) value, prefixWords)) {
+					return (String) value;
+				}
+			}
+		}
+		return (String) document.getFirstValue(fieldName);
+	}
+
+	private boolean hasWordsStartingWithAll(String value, List<String> prefixWords) {
+		List<String> valueWords = splitIntoLowerCaseWords(value);
+		for (String prefixWord : prefixWords) {
+			if (!hasWordStartingWith(valueWords, prefixWord)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean hasWordStartingWith(List<String> valueWords, String prefixWord) {
+		for (String valueWord : valueWords) {
+			if (valueWord.startsWith(prefixWord)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public SolrClientProvider onlyForTestGetSolrClientProvider() {
+		return solrClientProvider;
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017, 2019 Uppsala University Library
+ * Copyright 2017, 2019, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -20,11 +20,19 @@
 package se.uu.ub.cora.solrsearch;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrQuery.ORDER;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
@@ -41,7 +49,18 @@ import se.uu.ub.cora.json.parser.org.OrgJsonParser;
 import se.uu.ub.cora.search.RecordSearch;
 import se.uu.ub.cora.search.SearchResult;
 import se.uu.ub.cora.searchstorage.SearchStorageView;
+import se.uu.ub.cora.solr.LinkedFieldNames;
+import se.uu.ub.cora.solr.RecordBinaryCodec;
+import se.uu.ub.cora.solr.RecordPayload;
 import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.field.IndexFieldRegistry;
+import se.uu.ub.cora.solr.field.SolrFieldType;
+import se.uu.ub.cora.solr.jfr.SolrSearchEvent;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+import se.uu.ub.cora.solr.metrics.SolrOperation;
+import se.uu.ub.cora.solr.metrics.SolrPhase;
+import se.uu.ub.cora.solr.metrics.SolrQTime;
 
 public final class SolrRecordSearch implements RecordSearch {
 
@@ -49,44 +68,120 @@ public final class SolrRecordSearch implements RecordSearch {
 	private static final String START_STRING = "start";
 	private static final int DEFAULT_NUMBER_OF_ROWS_TO_RETURN = 100;
 	private static final String LINKED_RECORD_ID = "linkedRecordId";
+	private static final String MATCH_ALL_QUERY = "*:*";
+	private static final String SORT = "sort";
+	private static final Set<SolrFieldType> SORTABLE_FIELD_TYPES = EnumSet
+			.of(SolrFieldType.STRING, SolrFieldType.LONG, SolrFieldType.DATE);
 	private SolrClientProvider solrClientProvider;
 	private SearchStorageView searchStorageView;
+	private SolrSearchSettings searchSettings;
+	private SolrMetrics metrics;
+	private String recordTypesForMetrics;
+	private SolrSearchEvent searchEvent;
 	private SolrQuery solrQuery;
+	private List<String> scoredQueryParts;
 	private SolrClient solrClient;
 	private int start;
 
 	private SolrRecordSearch(SolrClientProvider solrClientProvider,
-			SearchStorageView searchStorage) {
+			SearchStorageView searchStorage, SolrSearchSettings searchSettings) {
 		this.solrClientProvider = solrClientProvider;
 		this.searchStorageView = searchStorage;
+		this.searchSettings = searchSettings;
+		metrics = SolrMetricsProvider.getMetrics();
 	}
 
 	public static SolrRecordSearch createSolrRecordSearchUsingSolrClientProviderAndSearchStorage(
 			SolrClientProvider solrClientProvider, SearchStorageView searchStorage) {
-		return new SolrRecordSearch(solrClientProvider, searchStorage);
+		return new SolrRecordSearch(solrClientProvider, searchStorage,
+				SolrSearchSettings.withDefaults());
+	}
+
+	public static SolrRecordSearch createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+			SolrClientProvider solrClientProvider, SearchStorageView searchStorage,
+			SolrSearchSettings searchSettings) {
+		return new SolrRecordSearch(solrClientProvider, searchStorage, searchSettings);
 	}
 
 	@Override
 	public SearchResult searchUsingListOfRecordTypesToSearchInAndSearchData(
 			List<String> recordTypes, DataGroup searchData) {
+		return search(recordTypes, searchData, false, this::createSearchResultFromSolrResults,
+				this::createEmptySearchResult);
+	}
+
+	/**
+	 * searchForIdsUsingListOfRecordTypesToSearchInAndSearchData searches in the same way as
+	 * {@link #searchUsingListOfRecordTypesToSearchInAndSearchData(List, DataGroup)}, but only
+	 * requests the type and id of the found records from Solr and returns them without reading
+	 * the stored records. It is intended for callers that already hold the records they need, for
+	 * instance in a cache.
+	 */
+	public IdSearchResult searchForIdsUsingListOfRecordTypesToSearchInAndSearchData(
+			List<String> recordTypes, DataGroup searchData) {
+		return search(recordTypes, searchData, true, this::createIdSearchResultFromSolrResults,
+				() -> IdSearchResult.emptyFromStart(start));
+	}
+
+	private <T> T search(List<String> recordTypes, DataGroup searchData, boolean idsOnly,
+			Function<SolrDocumentList, T> resultCreator, Supplier<T> emptyResultCreator) {
+		recordTypesForMetrics = SolrMetrics.recordTypeTagFor(recordTypes);
+		metrics.countRequest(SolrOperation.SEARCH, recordTypesForMetrics);
+		long searchStart = System.nanoTime();
+		solrQuery = null;
+		start = DEFAULT_START;
+		searchEvent = new SolrSearchEvent();
+		searchEvent.begin();
+		searchEvent.recordTypes = String.join(",", recordTypes);
 		try {
-			return tryToSearchUsingListOfRecordTypesToSearchInAndSearchData(recordTypes,
-					searchData);
+			SolrDocumentList results = tryToSearchUsingListOfRecordTypesToSearchInAndSearchData(
+					recordTypes, searchData, idsOnly);
+			return resultCreator.apply(results);
 		} catch (Exception e) {
-			return handleErrors(e);
+			return handleErrors(e, emptyResultCreator);
+		} finally {
+			searchEvent.commit();
+			searchSettings.getSlowOperationLog().possiblyLog(System.nanoTime() - searchStart,
+					this::createSlowSearchEntry);
+		}
+	}
+
+	private String createSlowSearchEntry() {
+		return "search in recordTypes: " + searchEvent.recordTypes + ", start: "
+				+ searchEvent.start + ", rows: " + searchEvent.rows + ", QTime: "
+				+ searchEvent.qTime + " ms, totalNumberOfMatches: "
+				+ searchEvent.totalNumberOfMatches + ", returned: "
+				+ searchEvent.numberOfDocuments + ", successful: " + searchEvent.successful
+				+ ", params: " + createReadableSolrParams();
+	}
+
+	private String createReadableSolrParams() {
+		if (solrQuery == null) {
+			return "none";
+		}
+		List<String> params = new ArrayList<>();
+		Iterator<String> parameterNames = solrQuery.getParameterNamesIterator();
+		while (parameterNames.hasNext()) {
+			String name = parameterNames.next();
+			for (String value : solrQuery.getParams(name)) {
+				params.add(name + "=" + value);
+			}
 		}
+		return String.join(" ", params);
 	}
 
-	private SearchResult handleErrors(Exception e) {
+	private <T> T handleErrors(Exception e, Supplier<T> emptyResultCreator) {
 		if (isUndefinedFieldError(e)) {
-			return createEmptySearchResult();
+			return emptyResultCreator.get();
 		}
+		metrics.countError(SolrOperation.SEARCH, recordTypesForMetrics);
 		throw SolrSearchException.withMessage("Error searching for records: " + e.getMessage());
 	}
 
-	private SearchResult tryToSearchUsingListOfRecordTypesToSearchInAndSearchData(
-			List<String> recordTypes, DataGroup searchData)
+	private SolrDocumentList tryToSearchUsingListOfRecordTypesToSearchInAndSearchData(
+			List<String> recordTypes, DataGroup searchData, boolean idsOnly)
 			throws SolrServerException, IOException {
+		long queryBuildStart = System.nanoTime();
 		solrClient = solrClientProvider.getSolrClient();
 
 		solrQuery = new SolrQuery();
@@ -94,9 +189,23 @@ public final class SolrRecordSearch implements RecordSearch {
 		solrQuery.setRows(rows);
 		start = getStartRowToRequest(searchData);
 		solrQuery.setStart(start - 1);
+		scoredQueryParts = new ArrayList<>();
 		addRecordTypesToFilterQuery(recordTypes);
 		addSearchTermsToQuery(searchData);
-		return searchInSolr();
+		addSortToQuery(searchData);
+		possiblyLimitFieldsToIds(idsOnly);
+		long queryBuildTime = System.nanoTime() - queryBuildStart;
+		metrics.recordPhase(SolrOperation.SEARCH, SolrPhase.QUERY_BUILD, queryBuildTime);
+		searchEvent.queryBuildTime = queryBuildTime;
+		searchEvent.start = start;
+		searchEvent.rows = rows;
+		return getSolrDocumentsFromSolr();
+	}
+
+	private void possiblyLimitFieldsToIds(boolean idsOnly) {
+		if (idsOnly) {
+			solrQuery.setFields("id", "type");
+		}
 	}
 
 	private int getNumberOfRowsToRequest(DataGroup searchData) {
@@ -133,7 +242,7 @@ public final class SolrRecordSearch implements RecordSearch {
 	private void addRecordTypesToFilterQuery(List<String> recordTypes) {
 		List<String> recordTypesWithType = addTypeToRecordTypes(recordTypes);
 		String filterQuery = String.join(" OR ", recordTypesWithType);
-		solrQuery.addFilterQuery(filterQuery);
+		addClause(QueryClauseType.CACHED_FILTER, filterQuery);
 	}
 
 	private List<String> addTypeToRecordTypes(List<String> recordTypes) {
@@ -144,48 +253,243 @@ public final class SolrRecordSearch implements RecordSearch {
 		return recordTypesWithType;
 	}
 
-	private void addSearchTermsToQuery(DataGroup searchData) {
+	private void addSearchTermsToQuery(DataGroup searchData)
+			throws SolrServerException, IOException {
 		List<DataChild> childElementsFromSearchData = getChildElementsFromIncludePartOfSearch(
 				searchData);
 
-		List<String> queryParts = new ArrayList<>(childElementsFromSearchData.size());
-
 		for (DataChild childElementFromSearch : childElementsFromSearchData) {
-			queryParts.add(addSearchDataToQuery((DataAtomic) childElementFromSearch));
+			addSearchDataToQueryOrFilterQuery((DataAtomic) childElementFromSearch);
+		}
+		setSolrQuery();
+	}
+
+	private void addSortToQuery(DataGroup searchData) {
+		List<DataGroup> sorts = searchData.getAllGroupsWithNameInData(SORT);
+		if (sorts.isEmpty()) {
+			return;
+		}
+		for (DataGroup sort : sorts) {
+			addSortForSearchTerm(sort);
+		}
+		solrQuery.addSort("id", ORDER.asc);
+	}
+
+	private void addSortForSearchTerm(DataGroup sort) {
+		String searchTermId = sort.getFirstAtomicValueWithNameInData("searchTerm");
+		DataGroup searchTerm = searchStorageView.getSearchTerm(searchTermId);
+		if (searchTypeIsLinkedData(searchTerm)) {
+			throw SolrSearchException.withMessage(
+					"Sorting on linked data search term " + searchTermId + " is not supported");
+		}
+		DataGroup collectIndexTerm = getCollectIndexTermForSearchTerm(searchTerm);
+		ensureSortableFieldType(searchTermId, collectIndexTerm);
+		ORDER order = getSortOrder(sort);
+		solrQuery.addSort(createSortField(extractFieldName(collectIndexTerm), order), order);
+	}
+
+	private void ensureSortableFieldType(String searchTermId, DataGroup collectIndexTerm) {
+		SolrFieldType fieldType = IndexFieldRegistry
+				.getFieldTypeForIndexType(extractIndexType(collectIndexTerm));
+		if (!SORTABLE_FIELD_TYPES.contains(fieldType)) {
+			throw SolrSearchException.withMessage("Sorting on search term " + searchTermId
+					+ " with field type " + fieldType + " is not supported");
+		}
+	}
+
+	private ORDER getSortOrder(DataGroup sort) {
+		if (!sort.containsChildWithNameInData("order")) {
+			return ORDER.asc;
+		}
+		String order = sort.getFirstAtomicValueWithNameInData("order");
+		if ("asc".equals(order)) {
+			return ORDER.asc;
+		}
+		if ("desc".equals(order)) {
+			return ORDER.desc;
+		}
+		throw SolrSearchException.withMessage("Sort order " + order + " is not asc or desc");
+	}
+
+	private String createSortField(String fieldName, ORDER order) {
+		String valueToSortOn = order == ORDER.asc ? "min" : "max";
+		return "field(" + fieldName + "," + valueToSortOn + ")";
+	}
+
+	private void setSolrQuery() {
+		if (scoredQueryParts.isEmpty()) {
+			solrQuery.set("q", MATCH_ALL_QUERY);
+		} else {
+			String query = String.join(" AND ", scoredQueryParts);
+			solrQuery.set("q", query);
 		}
-		setSolrQuery(queryParts);
 	}
 
-	private void setSolrQuery(List<String> queryParts) {
-		String query = String.join(" AND ", queryParts);
-		solrQuery.set("q", query);
+	private void addClause(QueryClauseType clauseType, String clause) {
+		searchSettings.getQueryClauseListener().clauseClassified(clauseType, clause);
+		if (clauseType == QueryClauseType.SCORED) {
+			scoredQueryParts.add(clause);
+		} else {
+			solrQuery.addFilterQuery(clause);
+		}
 	}
 
-	private String addSearchDataToQuery(DataAtomic childElementFromSearch) {
+	private void addSearchDataToQueryOrFilterQuery(DataAtomic childElementFromSearch)
+			throws SolrServerException, IOException {
 		DataGroup searchTerm = searchStorageView
 				.getSearchTerm(childElementFromSearch.getNameInData());
-		String indexFieldName = extractIndexFieldName(searchTerm);
-		String query = null;
 
 		if (searchTypeIsLinkedData(searchTerm)) {
-			query = createQueryForLinkedData(childElementFromSearch, searchTerm, indexFieldName);
+			addQueryForLinkedData(childElementFromSearch, searchTerm);
 		} else {
-			query = createQueryForFinal(childElementFromSearch, indexFieldName);
+			addQueryForFinal(childElementFromSearch, searchTerm);
 		}
-		return query;
 	}
 
-	private String createQueryForLinkedData(DataAtomic childElementFromSearchAsAtomic,
-			DataGroup searchTerm, String indexFieldName) {
+	private void addQueryForLinkedData(DataAtomic childElementFromSearch, DataGroup searchTerm)
+			throws SolrServerException, IOException {
+		DataGroup collectIndexTerm = getCollectIndexTermForSearchTerm(searchTerm);
+		String indexFieldName = extractFieldName(collectIndexTerm);
 		String linkedOnIndexFieldName = getLinkedOnIndexFieldNameFromStorageUsingSearchTerm(
 				searchTerm);
-		String query = "{!join from=id to=" + linkedOnIndexFieldName + "}" + indexFieldName + ":"
-				+ childElementFromSearchAsAtomic.getValue();
-		query += " AND type:" + searchTerm.getFirstGroupWithNameInData("searchInRecordType")
-				.getFirstAtomicValueWithNameInData(LINKED_RECORD_ID);
+		LinkedDataStrategy strategy = searchSettings
+				.getLinkedDataStrategyForSearchTerm(childElementFromSearch.getNameInData());
+
+		if (strategy == LinkedDataStrategy.TWO_PHASE) {
+			addTwoPhaseQueryForLinkedData(childElementFromSearch, searchTerm, collectIndexTerm,
+					linkedOnIndexFieldName);
+		} else if (strategy == LinkedDataStrategy.DENORMALIZED) {
+			addQueryForDenormalizedLinkedData(childElementFromSearch, collectIndexTerm,
+					indexFieldName, linkedOnIndexFieldName);
+		} else {
+			addJoinQueryForLinkedData(childElementFromSearch, searchTerm, collectIndexTerm,
+					linkedOnIndexFieldName);
+		}
+	}
+
+	private void addJoinQueryForLinkedData(DataAtomic childElementFromSearch,
+			DataGroup searchTerm, DataGroup collectIndexTerm, String linkedOnIndexFieldName) {
+		String query = createQueryForLinkedData(childElementFromSearch, searchTerm,
+				collectIndexTerm, linkedOnIndexFieldName);
+		addClause(QueryClauseType.JOIN_FILTER, query);
+	}
+
+	private void addTwoPhaseQueryForLinkedData(DataAtomic childElementFromSearch,
+			DataGroup searchTerm, DataGroup collectIndexTerm, String linkedOnIndexFieldName)
+			throws SolrServerException, IOException {
+		String indexFieldName = extractFieldName(collectIndexTerm);
+		SolrDocumentList linkedDocuments = findLinkedDocuments(childElementFromSearch, searchTerm,
+				collectIndexTerm, indexFieldName);
+		if (tooManyLinkedDocumentsForTermsFilter(linkedDocuments)) {
+			addJoinQueryForLinkedData(childElementFromSearch, searchTerm, collectIndexTerm,
+					linkedOnIndexFieldName);
+		} else {
+			addClause(QueryClauseType.UNCACHED_FILTER,
+					createTermsFilterForLinkedDocuments(linkedOnIndexFieldName, linkedDocuments));
+		}
+	}
+
+	private SolrDocumentList findLinkedDocuments(DataAtomic childElementFromSearch,
+			DataGroup searchTerm, DataGroup collectIndexTerm, String indexFieldName)
+			throws SolrServerException, IOException {
+		SolrQuery linkedIdsQuery = new SolrQuery();
+		linkedIdsQuery.set("q",
+				createQueryForField(childElementFromSearch, collectIndexTerm, indexFieldName));
+		linkedIdsQuery.addFilterQuery("type:" + getSearchInRecordType(searchTerm));
+		linkedIdsQuery.setFields("id");
+		linkedIdsQuery.setRows(searchSettings.getMaxNumberOfLinkedIdsForTwoPhase());
+		return solrClient.query(linkedIdsQuery).getResults();
+	}
+
+	private boolean tooManyLinkedDocumentsForTermsFilter(SolrDocumentList linkedDocuments) {
+		return linkedDocuments.getNumFound() > searchSettings
+				.getMaxNumberOfLinkedIdsForTwoPhase();
+	}
+
+	private String createTermsFilterForLinkedDocuments(String linkedOnIndexFieldName,
+			SolrDocumentList linkedDocuments) {
+		List<String> linkedIds = new ArrayList<>(linkedDocuments.size());
+		for (SolrDocument linkedDocument : linkedDocuments) {
+			linkedIds.add((String) linkedDocument.getFirstValue("id"));
+		}
+		return "{!terms f=" + linkedOnIndexFieldName
+				+ QueryClauseType.UNCACHED_FILTER.getLocalParams() + "}"
+				+ String.join(",", linkedIds);
+	}
+
+	private void addQueryForDenormalizedLinkedData(DataAtomic childElementFromSearch,
+			DataGroup collectIndexTerm, String indexFieldName, String linkedOnIndexFieldName) {
+		String denormalizedFieldName = LinkedFieldNames
+				.createDenormalizedFieldName(linkedOnIndexFieldName, indexFieldName);
+		String query = createQueryForField(childElementFromSearch, collectIndexTerm,
+				denormalizedFieldName);
+		addClauseForField(childElementFromSearch, collectIndexTerm, query);
+	}
+
+	private void addQueryForFinal(DataAtomic childElementFromSearch, DataGroup searchTerm) {
+		DataGroup collectIndexTerm = getCollectIndexTermForSearchTerm(searchTerm);
+		String indexFieldName = extractFieldName(collectIndexTerm);
+		String query = createQueryForField(childElementFromSearch, collectIndexTerm,
+				indexFieldName);
+		addClauseForField(childElementFromSearch, collectIndexTerm, query);
+	}
+
+	private void addClauseForField(DataAtomic childElementFromSearch, DataGroup collectIndexTerm,
+			String query) {
+		if (isRangeWithUnroundedNow(childElementFromSearch, collectIndexTerm)) {
+			addClause(QueryClauseType.UNCACHED_FILTER,
+					"{!lucene" + QueryClauseType.UNCACHED_FILTER.getLocalParams() + "}" + query);
+		} else {
+			addClause(chooseClauseTypeForField(collectIndexTerm), query);
+		}
+	}
+
+	private boolean isRangeWithUnroundedNow(DataAtomic childElementFromSearch,
+			DataGroup collectIndexTerm) {
+		SolrFieldType fieldType = IndexFieldRegistry
+				.getFieldTypeForIndexType(extractIndexType(collectIndexTerm));
+		String value = childElementFromSearch.getValue();
+		return RangeQuery.isRange(fieldType, value) && RangeQuery.hasUnroundedNow(value);
+	}
+
+	private String createQueryForField(DataAtomic childElementFromSearch,
+			DataGroup collectIndexTerm, String fieldName) {
+		SolrFieldType fieldType = IndexFieldRegistry
+				.getFieldTypeForIndexType(extractIndexType(collectIndexTerm));
+		String value = childElementFromSearch.getValue();
+		if (RangeQuery.isRange(fieldType, value)) {
+			return RangeQuery.createQuery(fieldName, fieldType, value);
+		}
+		return createQueryForFinal(childElementFromSearch, fieldName);
+	}
+
+	private QueryClauseType chooseClauseTypeForField(DataGroup collectIndexTerm) {
+		if (searchSettings.isRelevanceScoring() && isTextIndexType(collectIndexTerm)) {
+			return QueryClauseType.SCORED;
+		}
+		return QueryClauseType.CACHED_FILTER;
+	}
+
+	private boolean isTextIndexType(DataGroup collectIndexTerm) {
+		String indexType = extractIndexType(collectIndexTerm);
+		return IndexFieldRegistry.getFieldTypeForIndexType(indexType) == SolrFieldType.TEXT;
+	}
+
+	private String createQueryForLinkedData(DataAtomic childElementFromSearchAsAtomic,
+			DataGroup searchTerm, DataGroup collectIndexTerm, String linkedOnIndexFieldName) {
+		String query = "{!join from=id to=" + linkedOnIndexFieldName
+				+ QueryClauseType.JOIN_FILTER.getLocalParams() + "}"
+				+ createQueryForField(childElementFromSearchAsAtomic, collectIndexTerm,
+						extractFieldName(collectIndexTerm));
+		query += " AND type:" + getSearchInRecordType(searchTerm);
 		return query;
 	}
 
+	private String getSearchInRecordType(DataGroup searchTerm) {
+		return searchTerm.getFirstGroupWithNameInData("searchInRecordType")
+				.getFirstAtomicValueWithNameInData(LINKED_RECORD_ID);
+	}
+
 	private String createQueryForFinal(DataAtomic childElementFromSearchAsAtomic,
 			String indexFieldName) {
 		String searchStringWithParenthesis = getEscapedSearchStringFromChildSurroundedWithParenthesis(
@@ -214,10 +518,9 @@ public final class SolrRecordSearch implements RecordSearch {
 		return "linkedData".equals(searchTerm.getFirstAtomicValueWithNameInData("searchTermType"));
 	}
 
-	private String extractIndexFieldName(DataGroup searchTerm) {
+	private DataGroup getCollectIndexTermForSearchTerm(DataGroup searchTerm) {
 		String id = getIndexTermIdFromSearchTermDataGroup(searchTerm);
-		DataGroup collectIndexTerm = searchStorageView.getCollectIndexTerm(id);
-		return extractFieldName(collectIndexTerm);
+		return searchStorageView.getCollectIndexTerm(id);
 	}
 
 	private String extractFieldName(DataGroup collectIndexTerm) {
@@ -225,22 +528,12 @@ public final class SolrRecordSearch implements RecordSearch {
 		String indexType = extraData.getFirstAtomicValueWithNameInData("indexType");
 
 		String fieldName = extraData.getFirstAtomicValueWithNameInData("indexFieldName");
-		String suffix = chooseSuffixFromIndexType(indexType);
-		return fieldName + suffix;
-	}
-
-	private String chooseSuffixFromIndexType(String indexType) {
-		if ("indexTypeString".equals(indexType)) {
-			return "_s";
-		} else if ("indexTypeBoolean".equals(indexType)) {
-			return "_b";
-		} else if ("indexTypeDate".equals(indexType)) {
-			return "_dt";
-		} else if ("indexTypeNumber".equals(indexType)) {
-			return "_l";
-		} else {
-			return "_t";
-		}
+		return IndexFieldRegistry.getFieldName(fieldName, indexType);
+	}
+
+	private String extractIndexType(DataGroup collectIndexTerm) {
+		DataGroup extraData = collectIndexTerm.getFirstGroupWithNameInData("extraData");
+		return extraData.getFirstAtomicValueWithNameInData("indexType");
 	}
 
 	private List<DataChild> getChildElementsFromIncludePartOfSearch(DataGroup searchData) {
@@ -259,39 +552,92 @@ public final class SolrRecordSearch implements RecordSearch {
 		return indexTerm.getFirstAtomicValueWithNameInData(LINKED_RECORD_ID);
 	}
 
-	private SearchResult searchInSolr() throws SolrServerException, IOException {
-		SolrDocumentList results = getSolrDocumentsFromSolr();
-		return createSearchResultFromSolrResults(results);
-	}
-
 	private SolrDocumentList getSolrDocumentsFromSolr() throws SolrServerException, IOException {
+		long roundTripStart = System.nanoTime();
 		QueryResponse response = solrClient.query(solrQuery);
-
+		metrics.recordPhase(SolrOperation.SEARCH, SolrPhase.SOLR_ROUND_TRIP,
+				System.nanoTime() - roundTripStart);
+		SolrQTime.readQTimeInMillis(response).ifPresent(this::recordQTime);
 		return response.getResults();
 	}
 
+	private void recordQTime(long qTime) {
+		metrics.recordPhase(SolrOperation.SEARCH, SolrPhase.SOLR_QTIME,
+				TimeUnit.MILLISECONDS.toNanos(qTime));
+		searchEvent.qTime = qTime;
+	}
+
 	private SearchResult createSearchResultFromSolrResults(SolrDocumentList results) {
 		SearchResult searchResult = createEmptySearchResult();
 		searchResult.start = start;
 		searchResult.totalNumberOfMatches = results.getNumFound();
 		convertAndAddJsonResultsToSearchResult(searchResult, results);
+		searchEvent.totalNumberOfMatches = results.getNumFound();
+		searchEvent.successful = true;
 		return searchResult;
 	}
 
+	private IdSearchResult createIdSearchResultFromSolrResults(SolrDocumentList results) {
+		List<RecordIdentifier> records = new ArrayList<>(results.size());
+		for (SolrDocument solrDocument : results) {
+			records.add(RecordIdentifier.fromSolrDocument(solrDocument));
+		}
+		metrics.countDocuments(SolrOperation.SEARCH, recordTypesForMetrics, results.size());
+		searchEvent.numberOfDocuments = results.size();
+		searchEvent.totalNumberOfMatches = results.getNumFound();
+		searchEvent.successful = true;
+		return new IdSearchResult(start, results.getNumFound(), records);
+	}
+
 	private void convertAndAddJsonResultsToSearchResult(SearchResult searchResult,
-			Iterable<SolrDocument> results) {
+			SolrDocumentList results) {
+		long conversionStart = System.nanoTime();
 		for (SolrDocument solrDocument : results) {
 			convertAndAddJsonResultToSearchResult(searchResult, solrDocument);
 		}
+		long conversionTime = System.nanoTime() - conversionStart;
+		metrics.recordPhase(SolrOperation.SEARCH, SolrPhase.JSON_CONVERSION, conversionTime);
+		metrics.countDocuments(SolrOperation.SEARCH, recordTypesForMetrics, results.size());
+		searchEvent.conversionTime = conversionTime;
+		searchEvent.numberOfDocuments = results.size();
 	}
 
 	private void convertAndAddJsonResultToSearchResult(SearchResult searchResult,
 			SolrDocument solrDocument) {
-		String recordAsJson = (String) solrDocument.getFirstValue("recordAsJson");
-		DataGroup dataGroup = convertJsonStringToDataGroup(recordAsJson);
+		DataGroup dataGroup = readDataGroup(solrDocument);
 		searchResult.listOfDataGroups.add(dataGroup);
 	}
 
+	private DataGroup readDataGroup(SolrDocument solrDocument) {
+		Object recordPayload = solrDocument.getFirstValue(RecordPayload.FIELD_NAME);
+		if (recordPayload != null) {
+			possiblyAddToPayloadSize(recordPayload);
+			return readDataGroupFromRecordPayload(recordPayload);
+		}
+		String recordAsJson = (String) solrDocument.getFirstValue("recordAsJson");
+		possiblyAddToPayloadSize(recordAsJson);
+		return convertJsonStringToDataGroup(recordAsJson);
+	}
+
+	private DataGroup readDataGroupFromRecordPayload(Object recordPayload) {
+		if (RecordPayload.isBinaryRecord(recordPayload)) {
+			return RecordBinaryCodec.decode(RecordPayload.toByteBuffer(recordPayload));
+		}
+		return convertJsonStringToDataGroup(RecordPayload.readJson(recordPayload));
+	}
+
+	private void possiblyAddToPayloadSize(String recordAsJson) {
+		if (searchEvent.isEnabled()) {
+			searchEvent.payloadBytes += recordAsJson.getBytes(StandardCharsets.UTF_8).length;
+		}
+	}
+
+	private void possiblyAddToPayloadSize(Object recordPayload) {
+		if (searchEvent.isEnabled()) {
+			searchEvent.payloadBytes += RecordPayload.toByteBuffer(recordPayload).remaining();
+		}
+	}
+
 	private DataGroup convertJsonStringToDataGroup(String jsonRecord) {
 		JsonParser jsonParser = new OrgJsonParser();
 		JsonValue jsonValue = jsonParser.parseString(jsonRecord);
@@ -319,4 +665,8 @@ public final class SolrRecordSearch implements RecordSearch {
 		return solrClientProvider;
 	}
 
+	public SolrSearchSettings onlyForTestGetSearchSettings() {
+		return searchSettings;
+	}
+
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import se.uu.ub.cora.searchstorage.SearchStorageView;
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.SolrClientProviders;
+import se.uu.ub.cora.solr.admission.AdmissionControlledSolrClientProvider;
+import se.uu.ub.cora.solr.admission.AdmissionController;
+import se.uu.ub.cora.solr.admission.TrafficClass;
+import se.uu.ub.cora.solr.hedging.HedgingSolrClientProvider;
+import se.uu.ub.cora.solr.resilience.ResilienceSettings;
+import se.uu.ub.cora.solr.resilience.ResilientSolrClientProvider;
+import se.uu.ub.cora.solr.warmup.SolrWarmUp;
+import se.uu.ub.cora.solr.warmup.WarmUpReport;
+import se.uu.ub.cora.solr.warmup.WarmUpSettings;
+
+/**
+ * SolrRecordSearchFactory factors searches and autocompletes for a solr url. The client provider
+ * for an url is created once using {@link SolrClientProviders} and shared by everything factored
+ * for that url, in the same way as for indexers, so an url starting with embedded: runs the
+ * searches against the same in process Solr as the indexers. When the search settings have
+ * hedging replica urls for an url are the searches hedged over the url and its replicas using a
+ * {@link HedgingSolrClientProvider}. When the search settings have enabled
+ * {@link ResilienceSettings} are the clients wrapped with retries and a circuit breaker,
+ * and when they have an enabled {@link AdmissionController} are the requests limited by it as
+ * searches.
+ * <p>
+ * Enabled {@link WarmUpSettings} are run by {@link #warmUp(String, CachingSearchStorageView)},
+ * which should be called from startup code before {@link #isReady(String)} is used in readiness
+ * checks. Factoring a search never runs the warm-up.
+ */
+public class SolrRecordSearchFactory {
+	private static final String SEARCH_CIRCUIT_BREAKER_PREFIX = "search:";
+
+	private Map<String, SolrClientProvider> solrClientProviders = new HashMap<>();
+	private Map<String, WarmUpReport> warmUpReports = new ConcurrentHashMap<>();
+	private SolrSearchSettings searchSettings;
+
+	public SolrRecordSearchFactory() {
+		searchSettings = SolrSearchSettings.withDefaults();
+	}
+
+	public SolrRecordSearchFactory(SolrSearchSettings searchSettings) {
+		this.searchSettings = searchSettings;
+	}
+
+	public SolrRecordSearch factorUsingSolrUrlAndSearchStorage(String solrUrl,
+			SearchStorageView searchStorage) {
+		return SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						getSolrClientProvider(solrUrl), searchStorage, searchSettings);
+	}
+
+	public SolrAutocomplete factorAutocompleteUsingSolrUrlAndSearchStorage(String solrUrl,
+			SearchStorageView searchStorage) {
+		return SolrAutocomplete.usingSolrClientProviderAndSearchStorage(
+				getSolrClientProvider(solrUrl), searchStorage);
+	}
+
+	private synchronized SolrClientProvider getSolrClientProvider(String solrUrl) {
+		return solrClientProviders.computeIfAbsent(solrUrl, this::createSolrClientProvider);
+	}
+
+	private SolrClientProvider createSolrClientProvider(String solrUrl) {
+		SolrClientProvider solrClientProvider = createSolrClientProviderForUrlAndReplicas(solrUrl);
+		ResilienceSettings resilienceSettings = searchSettings.getResilienceSettings();
+		if (resilienceSettings.isEnabled()) {
+			solrClientProvider = ResilientSolrClientProvider.wrapping(solrClientProvider,
+					SEARCH_CIRCUIT_BREAKER_PREFIX + solrUrl, resilienceSettings);
+		}
+		AdmissionController admissionController = searchSettings.getAdmissionController();
+		if (admissionController.isEnabled()) {
+			solrClientProvider = AdmissionControlledSolrClientProvider
+					.wrapping(solrClientProvider, admissionController, TrafficClass.SEARCH);
+		}
+		return solrClientProvider;
+	}
+
+	private SolrClientProvider createSolrClientProviderForUrlAndReplicas(String solrUrl) {
+		List<String> replicaUrls = searchSettings.getHedgingReplicaUrlsForSolrUrl(solrUrl);
+		if (replicaUrls.isEmpty()) {
+			return SolrClientProviders.createUsingUrl(solrUrl);
+		}
+		List<String> urls = new ArrayList<>();
+		urls.add(solrUrl);
+		urls.addAll(replicaUrls);
+		return HedgingSolrClientProvider.usingReplicaUrlsAndSettings(urls,
+				searchSettings.getHedgingSettings());
+	}
+
+	/**
+	 * warmUp runs the warm-up from the search settings for the solr url, using the client the
+	 * searches for the url use and preloading search terms into the specified search storage,
+	 * which should be the one used by the searches. When warm-up is disabled is nothing done.
+	 */
+	public WarmUpReport warmUp(String solrUrl, CachingSearchStorageView searchStorage) {
+		WarmUpSettings warmUpSettings = searchSettings.getWarmUpSettings();
+		WarmUpReport report = new WarmUpReport(true, false, 0, 0, List.of(), 0);
+		if (warmUpSettings.isEnabled()) {
+			report = SolrWarmUp.usingSolrClientProviderSearchTermPreloaderAndSettings(
+					getSolrClientProvider(solrUrl), searchStorage, warmUpSettings).warmUp();
+		}
+		warmUpReports.put(solrUrl, report);
+		return report;
+	}
+
+	/**
+	 * isReady returns true if searches for the solr url can be sent, that is when warm-up is
+	 * disabled or the latest {@link #warmUp(String, CachingSearchStorageView)} for the url reported
+	 * the node as ready, see {@link WarmUpReport#ready()}.
+	 */
+	public boolean isReady(String solrUrl) {
+		if (!searchSettings.getWarmUpSettings().isEnabled()) {
+			return true;
+		}
+		WarmUpReport report = warmUpReports.get(solrUrl);
+		return report != null && report.ready();
+	}
+
+	/**
+	 * getWarmUpReport returns the report from the warm-up for the specified solr url, or null if
+	 * no warm-up has been run for it.
+	 */
+	public WarmUpReport getWarmUpReport(String solrUrl) {
+		return warmUpReports.get(solrUrl);
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.uu.ub.cora.solr.admission.AdmissionController;
+import se.uu.ub.cora.solr.hedging.HedgingSettings;
+import se.uu.ub.cora.solr.hedging.HedgingSolrClientProvider;
+import se.uu.ub.cora.solr.resilience.ResilienceSettings;
+import se.uu.ub.cora.solr.slowlog.SlowOperationLog;
+import se.uu.ub.cora.solr.warmup.WarmUpSettings;
+
+/**
+ * SolrSearchSettings holds settings that change how {@link SolrRecordSearch} builds the queries
+ * it sends to Solr. An instance is intended to be created once when the search is set up and then
+ * shared between all searches.
+ */
+public final class SolrSearchSettings {
+	private static final int DEFAULT_MAX_NUMBER_OF_LINKED_IDS_FOR_TWO_PHASE = 1000;
+	private boolean relevanceScoring = true;
+	private Map<String, LinkedDataStrategy> linkedDataStrategies = new HashMap<>();
+	private int maxNumberOfLinkedIdsForTwoPhase = DEFAULT_MAX_NUMBER_OF_LINKED_IDS_FOR_TWO_PHASE;
+	private QueryClauseListener queryClauseListener = (clauseType, clause) -> {
+	};
+	private SlowOperationLog slowOperationLog = SlowOperationLog.disabled();
+	private Map<String, List<String>> hedgingReplicaUrls = new HashMap<>();
+	private HedgingSettings hedgingSettings = HedgingSettings.withDefaults();
+	private ResilienceSettings resilienceSettings = ResilienceSettings.disabled();
+	private AdmissionController admissionController = AdmissionController.disabled();
+	private WarmUpSettings warmUpSettings = WarmUpSettings.disabled();
+
+	private SolrSearchSettings() {
+	}
+
+	public static SolrSearchSettings withDefaults() {
+		return new SolrSearchSettings();
+	}
+
+	/**
+	 * setRelevanceScoring sets if text search terms should be part of the scored query (q). When
+	 * set to false are all search terms sent as filter queries (fq) and the results are returned
+	 * in index order with a constant score, which is cheaper when no relevance ordering is needed.
+	 * <p>
+	 * Default is true.
+	 */
+	public void setRelevanceScoring(boolean relevanceScoring) {
+		this.relevanceScoring = relevanceScoring;
+	}
+
+	public boolean isRelevanceScoring() {
+		return relevanceScoring;
+	}
+
+	/**
+	 * setLinkedDataStrategyForSearchTerm sets how searches using the linked data search term with
+	 * the specified id are executed. Search terms without a set strategy use
+	 * {@link LinkedDataStrategy#JOIN}.
+	 */
+	public void setLinkedDataStrategyForSearchTerm(String searchTermId,
+			LinkedDataStrategy strategy) {
+		linkedDataStrategies.put(searchTermId, strategy);
+	}
+
+	public LinkedDataStrategy getLinkedDataStrategyForSearchTerm(String searchTermId) {
+		return linkedDataStrategies.getOrDefault(searchTermId, LinkedDataStrategy.JOIN);
+	}
+
+	/**
+	 * setMaxNumberOfLinkedIdsForTwoPhase sets the maximum number of linked ids a
+	 * {@link LinkedDataStrategy#TWO_PHASE} search sends in its terms filter. Searches where the
+	 * first phase finds more linked records than this falls back to a join.
+	 * <p>
+	 * Default is 1000.
+	 */
+	public void setMaxNumberOfLinkedIdsForTwoPhase(int maxNumberOfLinkedIds) {
+		maxNumberOfLinkedIdsForTwoPhase = maxNumberOfLinkedIds;
+	}
+
+	public int getMaxNumberOfLinkedIdsForTwoPhase() {
+		return maxNumberOfLinkedIdsForTwoPhase;
+	}
+
+	/**
+	 * setQueryClauseListener sets a listener that is notified about how each generated query
+	 * clause is classified.
+	 */
+	public void setQueryClauseListener(QueryClauseListener queryClauseListener) {
+		this.queryClauseListener = queryClauseListener;
+	}
+
+	public QueryClauseListener getQueryClauseListener() {
+		return queryClauseListener;
+	}
+
+	/**
+	 * setSlowOperationLog sets the log used to write searches slower than its threshold together
+	 * with the parameters sent to Solr.
+	 * <p>
+	 * Default is a disabled log.
+	 */
+	public void setSlowOperationLog(SlowOperationLog slowOperationLog) {
+		this.slowOperationLog = slowOperationLog;
+	}
+
+	public SlowOperationLog getSlowOperationLog() {
+		return slowOperationLog;
+	}
+
+	/**
+	 * setHedgingReplicaUrlsForSolrUrl makes {@link SolrRecordSearchFactory} send searches for the
+	 * solr url using a {@link HedgingSolrClientProvider}, to the solr url and the specified
+	 * replicas of the same core. Searches for urls without replicas are not hedged.
+	 */
+	public void setHedgingReplicaUrlsForSolrUrl(String solrUrl, List<String> replicaUrls) {
+		hedgingReplicaUrls.put(solrUrl, List.copyOf(replicaUrls));
+	}
+
+	public List<String> getHedgingReplicaUrlsForSolrUrl(String solrUrl) {
+		return hedgingReplicaUrls.getOrDefault(solrUrl, List.of());
+	}
+
+	/**
+	 * setHedgingSettings sets the settings used for searches sent to replicas, see
+	 * {@link #setHedgingReplicaUrlsForSolrUrl(String, List)}.
+	 * <p>
+	 * Default is {@link HedgingSettings#withDefaults()}.
+	 */
+	public void setHedgingSettings(HedgingSettings hedgingSettings) {
+		this.hedgingSettings = hedgingSettings;
+	}
+
+	public HedgingSettings getHedgingSettings() {
+		return hedgingSettings;
+	}
+
+	/**
+	 * setResilienceSettings sets the retry and circuit breaker settings used for the Solr clients
+	 * of searches factored by {@link SolrRecordSearchFactory}, so that searches fail fast while
+	 * Solr is unavailable instead of waiting for the socket timeout. The circuit breaker is named
+	 * search: followed by the solr url, so that it is told apart from the one of the indexers.
+	 * <p>
+	 * Default is disabled settings, sending each request once without a circuit breaker.
+	 */
+	public void setResilienceSettings(ResilienceSettings resilienceSettings) {
+		this.resilienceSettings = resilienceSettings;
+	}
+
+	public ResilienceSettings getResilienceSettings() {
+		return resilienceSettings;
+	}
+
+	/**
+	 * setAdmissionController sets the controller limiting concurrent search requests to Solr for
+	 * searches factored by {@link SolrRecordSearchFactory}. Use the same controller for indexing,
+	 * so that searches get priority over indexing.
+	 * <p>
+	 * Default is a disabled controller, not limiting any requests.
+	 */
+	public void setAdmissionController(AdmissionController admissionController) {
+		this.admissionController = admissionController;
+	}
+
+	public AdmissionController getAdmissionController() {
+		return admissionController;
+	}
+
+	/**
+	 * setWarmUpSettings sets the warm-up run by {@link SolrRecordSearchFactory#warmUp(String,
+	 * CachingSearchStorageView)}.
+	 * <p>
+	 * Default is disabled settings, no warm-up.
+	 */
+	public void setWarmUpSettings(WarmUpSettings warmUpSettings) {
+		this.warmUpSettings = warmUpSettings;
+	}
+
+	public WarmUpSettings getWarmUpSettings() {
+		return warmUpSettings;
+	}
+}
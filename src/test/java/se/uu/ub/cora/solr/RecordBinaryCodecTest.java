@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.spies.DataAtomicSpy;
+import se.uu.ub.cora.data.spies.DataAttributeSpy;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordLinkSpy;
+
+public class RecordBinaryCodecTest {
+	private DataFactorySpy dataFactory;
+	private DataRecordGroupSpy dataRecordGroup;
+	private DataGroupSpy recordAsGroup;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataFactory = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactory);
+		dataRecordGroup = new DataRecordGroupSpy();
+		recordAsGroup = createGroup("book");
+		dataFactory.MRV.setDefaultReturnValuesSupplier("factorGroupFromDataRecordGroup",
+				() -> recordAsGroup);
+	}
+
+	private DataGroupSpy createGroup(String nameInData, DataChild... children) {
+		DataGroupSpy group = new DataGroupSpy();
+		group.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		group.MRV.setDefaultReturnValuesSupplier("getChildren",
+				() -> new ArrayList<>(Arrays.asList(children)));
+		return group;
+	}
+
+	private DataAtomicSpy createAtomic(String nameInData, String value) {
+		DataAtomicSpy atomic = new DataAtomicSpy();
+		atomic.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		atomic.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		return atomic;
+	}
+
+	private DataRecordLinkSpy createLink(String nameInData, String type, String id) {
+		DataRecordLinkSpy link = new DataRecordLinkSpy();
+		link.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		link.MRV.setDefaultReturnValuesSupplier("getLinkedRecordType", () -> type);
+		link.MRV.setDefaultReturnValuesSupplier("getLinkedRecordId", () -> id);
+		return link;
+	}
+
+	@Test
+	public void testEncodeUsesGroupFromRecordGroupAndStartsWithMarker() {
+		byte[] payload = RecordBinaryCodec.encode(dataRecordGroup).get();
+
+		dataFactory.MCR.assertParameters("factorGroupFromDataRecordGroup", 0, dataRecordGroup);
+		assertEquals(payload[0], RecordPayload.BINARY_MARKER);
+		assertTrue(RecordPayload.isBinaryRecord(payload));
+	}
+
+	@Test
+	public void testDecodeEmptyGroup() {
+		byte[] payload = RecordBinaryCodec.encode(dataRecordGroup).get();
+
+		DataFactorySpy decodeFactory = useNewDataFactory();
+		Object decoded = RecordBinaryCodec.decode(ByteBuffer.wrap(payload));
+
+		decodeFactory.MCR.assertParameters("factorGroupUsingNameInData", 0, "book");
+		decodeFactory.MCR.assertNumberOfCallsToMethod("factorGroupUsingNameInData", 1);
+		assertEquals(decoded,
+				decodeFactory.MCR.getReturnValue("factorGroupUsingNameInData", 0));
+	}
+
+	private DataFactorySpy useNewDataFactory() {
+		DataFactorySpy decodeFactory = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(decodeFactory);
+		return decodeFactory;
+	}
+
+	@Test
+	public void testDecodeChildrenInOrder() {
+		recordAsGroup = createGroup("book", createAtomic("title", "En bok"),
+				createGroup("recordInfo", createLink("dataDivider", "system", "cora"),
+						createAtomic("id", "book:1")),
+				createAtomic("title", "En annan bok"));
+		byte[] payload = RecordBinaryCodec.encode(dataRecordGroup).get();
+
+		DataFactorySpy decodeFactory = useNewDataFactory();
+		RecordBinaryCodec.decode(ByteBuffer.wrap(payload));
+
+		decodeFactory.MCR.assertParameters("factorGroupUsingNameInData", 0, "book");
+		decodeFactory.MCR.assertParameters("factorGroupUsingNameInData", 1, "recordInfo");
+		decodeFactory.MCR.assertParameters("factorAtomicUsingNameInDataAndValue", 0, "title",
+				"En bok");
+		decodeFactory.MCR.assertParameters("factorRecordLinkUsingNameInDataAndTypeAndId", 0,
+				"dataDivider", "system", "cora");
+		decodeFactory.MCR.assertParameters("factorAtomicUsingNameInDataAndValue", 1, "id",
+				"book:1");
+		decodeFactory.MCR.assertParameters("factorAtomicUsingNameInDataAndValue", 2, "title",
+				"En annan bok");
+		DataGroupSpy book = (DataGroupSpy) decodeFactory.MCR
+				.getReturnValue("factorGroupUsingNameInData", 0);
+		DataGroupSpy recordInfo = (DataGroupSpy) decodeFactory.MCR
+				.getReturnValue("factorGroupUsingNameInData", 1);
+		book.MCR.assertParameters("addChild", 0,
+				decodeFactory.MCR.getReturnValue("factorAtomicUsingNameInDataAndValue", 0));
+		book.MCR.assertParameters("addChild", 1, recordInfo);
+		book.MCR.assertParameters("addChild", 2,
+				decodeFactory.MCR.getReturnValue("factorAtomicUsingNameInDataAndValue", 2));
+		recordInfo.MCR.assertParameters("addChild", 0, decodeFactory.MCR
+				.getReturnValue("factorRecordLinkUsingNameInDataAndTypeAndId", 0));
+	}
+
+	@Test
+	public void testDecodeRepeatIdAndAttributes() {
+		DataAtomicSpy title = createAtomic("title", "En bok");
+		title.MRV.setDefaultReturnValuesSupplier("hasRepeatId", () -> true);
+		title.MRV.setDefaultReturnValuesSupplier("getRepeatId", () -> "2");
+		title.MRV.setDefaultReturnValuesSupplier("hasAttributes", () -> true);
+		title.MRV.setDefaultReturnValuesSupplier("getAttributes",
+				() -> List.of(createAttribute("language", "sv"), createAttribute("type", "main")));
+		recordAsGroup = createGroup("book", title);
+		byte[] payload = RecordBinaryCodec.encode(dataRecordGroup).get();
+
+		DataFactorySpy decodeFactory = useNewDataFactory();
+		RecordBinaryCodec.decode(ByteBuffer.wrap(payload));
+
+		DataAtomicSpy decodedTitle = (DataAtomicSpy) decodeFactory.MCR
+				.getReturnValue("factorAtomicUsingNameInDataAndValue", 0);
+		decodedTitle.MCR.assertParameters("setRepeatId", 0, "2");
+		decodedTitle.MCR.assertParameters("addAttributeByIdWithValue", 0, "language", "sv");
+		decodedTitle.MCR.assertParameters("addAttributeByIdWithValue", 1, "type", "main");
+		DataGroupSpy decodedBook = (DataGroupSpy) decodeFactory.MCR
+				.getReturnValue("factorGroupUsingNameInData", 0);
+		decodedBook.MCR.assertMethodNotCalled("setRepeatId");
+		decodedBook.MCR.assertMethodNotCalled("addAttributeByIdWithValue");
+	}
+
+	private DataAttribute createAttribute(String nameInData, String value) {
+		DataAttributeSpy attribute = new DataAttributeSpy();
+		attribute.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		attribute.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		return attribute;
+	}
+
+	@Test
+	public void testNamesAreStoredOnce() {
+		List<DataChild> children = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			children.add(createAtomic("someLongNameInDataUsedManyTimes", "v"));
+		}
+		recordAsGroup = createGroup("book", children.toArray(new DataChild[0]));
+
+		byte[] payload = RecordBinaryCodec.encode(dataRecordGroup).get();
+
+		String asText = new String(payload, StandardCharsets.ISO_8859_1);
+		assertEquals(asText.indexOf("someLongNameInDataUsedManyTimes"),
+				asText.lastIndexOf("someLongNameInDataUsedManyTimes"));
+	}
+
+	@Test
+	public void testManyNamesAndLongValues() {
+		List<DataChild> children = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			children.add(createAtomic("name" + i, "value".repeat(i)));
+		}
+		recordAsGroup = createGroup("book", children.toArray(new DataChild[0]));
+		byte[] payload = RecordBinaryCodec.encode(dataRecordGroup).get();
+
+		DataFactorySpy decodeFactory = useNewDataFactory();
+		RecordBinaryCodec.decode(ByteBuffer.wrap(payload));
+
+		decodeFactory.MCR.assertNumberOfCallsToMethod("factorAtomicUsingNameInDataAndValue", 300);
+		decodeFactory.MCR.assertParameters("factorAtomicUsingNameInDataAndValue", 299, "name299",
+				"value".repeat(299));
+	}
+
+	@Test
+	public void testUnsupportedChildIsNotEncoded() {
+		recordAsGroup = createGroup("book", createAtomic("title", "En bok"),
+				createGroup("attachment", new UnsupportedDataChildSpy()));
+
+		Optional<byte[]> payload = RecordBinaryCodec.encode(dataRecordGroup);
+
+		assertTrue(payload.isEmpty());
+	}
+
+	@Test
+	public void testUnknownTagIsSkipped() {
+		ByteBuffer payload = ByteBuffer.allocate(100);
+		payload.put(RecordPayload.BINARY_MARKER);
+		payload.put((byte) 2).put((byte) 4).put(getBytes("book")).put((byte) 5)
+				.put(getBytes("title"));
+		int groupLength = 4 + 8 + 11;
+		payload.put(RecordBinaryCodec.GROUP).putInt(groupLength).put((byte) 0).put((byte) 0)
+				.put((byte) 0).put((byte) 2);
+		payload.put((byte) 9).putInt(3).put(new byte[] { 7, 7, 7 });
+		payload.put(RecordBinaryCodec.ATOMIC).putInt(6).put((byte) 1).put((byte) 0)
+				.put((byte) 0).put((byte) 2).put(getBytes("ok"));
+		payload.flip();
+
+		RecordBinaryCodec.decode(payload);
+
+		dataFactory.MCR.assertNumberOfCallsToMethod("factorAtomicUsingNameInDataAndValue", 1);
+		dataFactory.MCR.assertParameters("factorAtomicUsingNameInDataAndValue", 0, "title",
+				"ok");
+	}
+
+	private byte[] getBytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testWrongMarker() {
+		try {
+			RecordBinaryCodec.decode(ByteBuffer.wrap(RecordPayload.compressJson("{}")));
+			fail("Should have thrown");
+		} catch (RecordPayloadException e) {
+			assertEquals(e.getMessage(), "Not a binary record payload, format marker: 1");
+		}
+	}
+
+	@Test
+	public void testTruncatedPayload() {
+		recordAsGroup = createGroup("book", createAtomic("title", "En bok"));
+		byte[] payload = RecordBinaryCodec.encode(dataRecordGroup).get();
+
+		try {
+			RecordBinaryCodec.decode(ByteBuffer.wrap(Arrays.copyOf(payload, payload.length - 3)));
+			fail("Should have thrown");
+		} catch (RecordPayloadException e) {
+			assertTrue(e.getMessage().startsWith("Error while decoding binary record payload: "));
+		}
+	}
+
+	@Test
+	public void testPayloadNotStartingWithGroup() {
+		ByteBuffer payload = ByteBuffer.allocate(20);
+		payload.put(RecordPayload.BINARY_MARKER).put((byte) 0);
+		payload.put((byte) 9).putInt(0);
+		payload.flip();
+
+		try {
+			RecordBinaryCodec.decode(payload);
+			fail("Should have thrown");
+		} catch (RecordPayloadException e) {
+			assertEquals(e.getMessage(), "Binary record payload does not start with a group");
+		}
+	}
+}
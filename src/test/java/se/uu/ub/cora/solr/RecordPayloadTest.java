@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class RecordPayloadTest {
+	private static final String JSON = "{\"name\":\"book\",\"children\":[{\"name\":\"title\","
+			+ "\"value\":\"En bok om \u00e5\u00e4\u00f6\"},{\"name\":\"title\",\"value\":\"En bok om \u00e5\u00e4\u00f6\"}]}";
+
+	@Test
+	public void testCompressedJsonStartsWithMarkerAndLength() {
+		byte[] payload = RecordPayload.compressJson(JSON);
+
+		ByteBuffer buffer = ByteBuffer.wrap(payload);
+		assertEquals(buffer.get(), RecordPayload.COMPRESSED_JSON_MARKER);
+		assertEquals(buffer.getInt(), JSON.getBytes(StandardCharsets.UTF_8).length);
+	}
+
+	@Test
+	public void testReadCompressedJson() {
+		assertEquals(RecordPayload.readJson(RecordPayload.compressJson(JSON)), JSON);
+	}
+
+	@Test
+	public void testReadCompressedJsonFromByteBuffer() {
+		byte[] payload = RecordPayload.compressJson(JSON);
+
+		assertEquals(RecordPayload.readJson(ByteBuffer.wrap(payload)), JSON);
+	}
+
+	@Test
+	public void testEmptyJson() {
+		assertEquals(RecordPayload.readJson(RecordPayload.compressJson("")), "");
+	}
+
+	@Test
+	public void testLargeRepetitiveJsonIsSmallerAndReadBack() {
+		String json = JSON.repeat(2000);
+
+		byte[] payload = RecordPayload.compressJson(json);
+
+		assertTrue(payload.length < json.length() / 10);
+		assertEquals(RecordPayload.readJson(payload), json);
+	}
+
+	@Test
+	public void testLargeRandomJsonIsReadBack() {
+		StringBuilder json = new StringBuilder();
+		Random random = new Random(1);
+		for (int i = 0; i < 50000; i++) {
+			json.append((char) ('a' + random.nextInt(26)));
+		}
+
+		assertEquals(RecordPayload.readJson(RecordPayload.compressJson(json.toString())),
+				json.toString());
+	}
+
+	@Test
+	public void testUnknownMarker() {
+		try {
+			RecordPayload.readJson(new byte[] { 9, 0, 0, 0, 0 });
+			fail("Should have thrown");
+		} catch (RecordPayloadException e) {
+			assertEquals(e.getMessage(), "Unknown record payload format marker: 9");
+		}
+	}
+
+	@Test
+	public void testNotBinary() {
+		try {
+			RecordPayload.readJson("someString");
+			fail("Should have thrown");
+		} catch (RecordPayloadException e) {
+			assertEquals(e.getMessage(),
+					"Record payload is not a non empty binary value: someString");
+		}
+	}
+
+	@Test
+	public void testTruncatedPayload() {
+		byte[] payload = RecordPayload.compressJson(JSON.repeat(10));
+
+		try {
+			RecordPayload.readJson(Arrays.copyOf(payload, payload.length / 2));
+			fail("Should have thrown");
+		} catch (RecordPayloadException e) {
+			assertTrue(e.getMessage().startsWith("Error while decompressing record payload: "));
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class SolrClientProvidersTest {
+
+	@AfterMethod
+	public void afterMethod() {
+		SolrClientProviders.onlyForTestResetFactories();
+	}
+
+	@Test
+	public void testHttpUrl() {
+		SolrClientProvider provider = SolrClientProviders
+				.createUsingUrl("http://localhost:8983/solr/coracore");
+
+		assertTrue(provider instanceof SolrClientProviderImp);
+		assertEquals(((SolrClientProviderImp) provider).getBaseURL(),
+				"http://localhost:8983/solr/coracore");
+	}
+
+	@Test(expectedExceptions = SolrClientProviderException.class, expectedExceptionsMessageRegExp = ""
+			+ "Embedded solr url used without solrsearch-embedded on the class path: "
+			+ "embedded:/var/lib/solr/coracore")
+	public void testEmbeddedUrlWithoutRegisteredFactory() {
+		SolrClientProviders.createUsingUrl("embedded:/var/lib/solr/coracore");
+	}
+
+	@Test
+	public void testUrlHandledByRegisteredFactory() {
+		SolrClientProviderFactorySpy factory = new SolrClientProviderFactorySpy("embedded:");
+		SolrClientProviders.onlyForTestSetFactories(List.of(factory));
+
+		SolrClientProvider provider = SolrClientProviders
+				.createUsingUrl("embedded:/var/lib/solr/coracore");
+
+		assertEquals(factory.factoredUrls, List.of("embedded:/var/lib/solr/coracore"));
+		assertSame(provider, factory.factoredProviders.get(0));
+	}
+
+	@Test
+	public void testUrlNotHandledByRegisteredFactoryUsesHttp() {
+		SolrClientProviderFactorySpy factory = new SolrClientProviderFactorySpy("embedded:");
+		SolrClientProviders.onlyForTestSetFactories(List.of(factory));
+
+		SolrClientProvider provider = SolrClientProviders
+				.createUsingUrl("http://localhost:8983/solr/coracore");
+
+		assertTrue(factory.factoredUrls.isEmpty());
+		assertEquals(((SolrClientProviderImp) provider).getBaseURL(),
+				"http://localhost:8983/solr/coracore");
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+
+/**
+ * UnsupportedDataChildSpy is a child that is neither a group, an atomic nor a record link, such as
+ * a resource link, which {@link RecordBinaryCodec} can not encode.
+ */
+public class UnsupportedDataChildSpy implements DataChild {
+
+	@Override
+	public String getRepeatId() {
+		return null;
+	}
+
+	@Override
+	public String getNameInData() {
+		return "someResourceLink";
+	}
+
+	@Override
+	public void setRepeatId(String repeatId) {
+		// not used
+	}
+
+	@Override
+	public boolean hasRepeatId() {
+		return false;
+	}
+
+	@Override
+	public void addAttributeByIdWithValue(String nameInData, String value) {
+		// not used
+	}
+
+	@Override
+	public boolean hasAttributes() {
+		return false;
+	}
+
+	@Override
+	public DataAttribute getAttribute(String nameInData) {
+		return null;
+	}
+
+	@Override
+	public Collection<DataAttribute> getAttributes() {
+		return List.of();
+	}
+
+	@Override
+	public Optional<String> getAttributeValue(String nameInData) {
+		return Optional.empty();
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.admission;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+
+public class AdmissionControlledSolrClientTest {
+	private SolrClientSpy solrClient;
+	private AdmissionController controller;
+	private AdmissionControlledSolrClient admissionClient;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		LimiterSettings searchSettings = LimiterSettings.withDefaults();
+		searchSettings.setLimits(2, 1, 10);
+		controller = AdmissionController.usingSearchAndIndexSettingsAndMetrics(searchSettings,
+				LimiterSettings.withDefaults(), new SolrMetrics());
+		solrClient = new SolrClientSpy();
+		solrClient.controller = controller;
+		admissionClient = AdmissionControlledSolrClient.usingSolrClientControllerAndTrafficClass(
+				solrClient, controller, TrafficClass.SEARCH);
+	}
+
+	@Test
+	public void testRequestHoldsPermit() throws Exception {
+		admissionClient.query(new ModifiableSolrParams());
+
+		assertEquals(solrClient.inFlightDuringRequest, 1);
+		assertEquals(controller.getInFlight(TrafficClass.SEARCH), 0);
+		assertEquals(controller.getLimit(TrafficClass.SEARCH), 3);
+		assertSame(admissionClient.getController(), controller);
+		assertEquals(admissionClient.getTrafficClass(), TrafficClass.SEARCH);
+		assertSame(admissionClient.onlyForTestGetSolrClient(), solrClient);
+	}
+
+	@Test
+	public void testConnectionErrorIsOverload() throws Exception {
+		solrClient.exceptionToThrow = new IOException("read timed out");
+		try {
+			admissionClient.query(new ModifiableSolrParams());
+			fail("Should have thrown");
+		} catch (IOException e) {
+			assertSame(e, solrClient.exceptionToThrow);
+		}
+		assertEquals(controller.getInFlight(TrafficClass.SEARCH), 0);
+		assertEquals(controller.getLimit(TrafficClass.SEARCH), 1);
+	}
+
+	@Test
+	public void testTooManyRequestsIsOverload() throws Exception {
+		solrClient.exceptionToThrow = new SolrException(ErrorCode.TOO_MANY_REQUESTS, "busy");
+		assertThrowsSolrException();
+
+		assertEquals(controller.getLimit(TrafficClass.SEARCH), 1);
+	}
+
+	private void assertThrowsSolrException() throws Exception {
+		try {
+			admissionClient.query(new ModifiableSolrParams());
+			fail("Should have thrown");
+		} catch (SolrException e) {
+			assertSame(e, solrClient.exceptionToThrow);
+		}
+		assertEquals(controller.getInFlight(TrafficClass.SEARCH), 0);
+	}
+
+	@Test
+	public void testClientErrorIsNotOverload() throws Exception {
+		solrClient.exceptionToThrow = new SolrException(ErrorCode.BAD_REQUEST, "undefined field");
+		assertThrowsSolrException();
+
+		assertEquals(controller.getLimit(TrafficClass.SEARCH), 3);
+	}
+
+	@Test
+	public void testSlowCommitDoesNotDecreaseLimit() throws Exception {
+		AdmissionControlledSolrClient indexClient = createIndexClientWhereEachRequestTakesMillis(
+				3000);
+
+		indexClient.commit();
+
+		assertEquals(controller.getInFlight(TrafficClass.INDEX), 0);
+		assertEquals(controller.getLimit(TrafficClass.INDEX), 20);
+	}
+
+	private AdmissionControlledSolrClient createIndexClientWhereEachRequestTakesMillis(
+			long millis) {
+		long[] now = { 0 };
+		controller.onlyForTestSetNanoClock(
+				() -> now[0] += TimeUnit.MILLISECONDS.toNanos(millis));
+		return AdmissionControlledSolrClient.usingSolrClientControllerAndTrafficClass(solrClient,
+				controller, TrafficClass.INDEX);
+	}
+
+	@Test
+	public void testSlowAddDecreasesLimit() throws Exception {
+		AdmissionControlledSolrClient indexClient = createIndexClientWhereEachRequestTakesMillis(
+				3000);
+
+		indexClient.add(new SolrInputDocument());
+
+		assertEquals(controller.getInFlight(TrafficClass.INDEX), 0);
+		assertEquals(controller.getLimit(TrafficClass.INDEX), 18);
+	}
+
+	@Test
+	public void testFailedCommitIsOverload() throws Exception {
+		AdmissionControlledSolrClient indexClient = createIndexClientWhereEachRequestTakesMillis(
+				10);
+		solrClient.exceptionToThrow = new IOException("read timed out");
+		try {
+			indexClient.commit();
+			fail("Should have thrown");
+		} catch (IOException e) {
+			assertSame(e, solrClient.exceptionToThrow);
+		}
+		assertEquals(controller.getInFlight(TrafficClass.INDEX), 0);
+		assertEquals(controller.getLimit(TrafficClass.INDEX), 18);
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		admissionClient.close();
+
+		assertTrue(solrClient.closed);
+	}
+
+	@Test
+	public void testProviderWrapsClient() {
+		SolrClientProvider solrClientProvider = () -> solrClient;
+		AdmissionControlledSolrClientProvider provider = AdmissionControlledSolrClientProvider
+				.wrapping(solrClientProvider, controller, TrafficClass.INDEX);
+
+		AdmissionControlledSolrClient client = (AdmissionControlledSolrClient) provider
+				.getSolrClient();
+
+		assertSame(client.onlyForTestGetSolrClient(), solrClient);
+		assertEquals(client.getTrafficClass(), TrafficClass.INDEX);
+		assertSame(provider.getSolrClient(), client);
+		assertSame(provider.onlyForTestGetSolrClientProvider(), solrClientProvider);
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.admission;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+
+public class AdmissionControllerTest {
+	private static final Map<String, String> SEARCH_TAGS = Map.of("trafficClass", "search");
+	private static final Map<String, String> INDEX_TAGS = Map.of("trafficClass", "index");
+	private SolrMetrics metrics;
+	private LimiterSettings searchSettings;
+	private LimiterSettings indexSettings;
+	private AdmissionController controller;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		metrics = new SolrMetrics();
+		searchSettings = LimiterSettings.withDefaults();
+		searchSettings.setLimits(1, 1, 10);
+		searchSettings.setQueue(1, 5000);
+		indexSettings = LimiterSettings.withDefaults();
+		indexSettings.setLimits(2, 1, 10);
+		indexSettings.setQueue(5, 20);
+		controller = AdmissionController.usingSearchAndIndexSettingsAndMetrics(searchSettings,
+				indexSettings, metrics);
+	}
+
+	@Test
+	public void testDisabled() {
+		assertFalse(AdmissionController.disabled().isEnabled());
+		assertTrue(controller.isEnabled());
+	}
+
+	@Test
+	public void testAcquireAndReleaseUpdatesInFlight() throws Exception {
+		Permit permit = controller.acquire(TrafficClass.INDEX);
+
+		assertEquals(permit.getTrafficClass(), TrafficClass.INDEX);
+		assertEquals(controller.getInFlight(TrafficClass.INDEX), 1);
+		assertEquals(metrics.getGaugeValue(new MetricKey(AdmissionController.IN_FLIGHT_GAUGE,
+				INDEX_TAGS)), 1.0);
+
+		permit.releaseAfterSuccess();
+		permit.releaseAfterSuccess();
+
+		assertEquals(controller.getInFlight(TrafficClass.INDEX), 0);
+	}
+
+	@Test
+	public void testLimitAdaptsToResults() throws Exception {
+		controller.acquire(TrafficClass.INDEX).releaseAfterSuccess();
+		assertEquals(controller.getLimit(TrafficClass.INDEX), 3);
+
+		controller.acquire(TrafficClass.INDEX).releaseAfterOverload();
+
+		assertEquals(controller.getLimit(TrafficClass.INDEX), 2);
+		assertEquals(metrics.getGaugeValue(new MetricKey(AdmissionController.LIMIT_GAUGE,
+				INDEX_TAGS)), 2.0);
+	}
+
+	@Test
+	public void testSlowRequestDecreasesLimit() throws Exception {
+		long[] now = { 0 };
+		controller.onlyForTestSetNanoClock(() -> now[0]);
+		Permit permit = controller.acquire(TrafficClass.INDEX);
+		now[0] = TimeUnit.SECONDS.toNanos(3);
+
+		permit.releaseAfterSuccess();
+
+		assertEquals(controller.getLimit(TrafficClass.INDEX), 1);
+	}
+
+	@Test
+	public void testRejectedAfterMaxWait() throws Exception {
+		controller.acquire(TrafficClass.INDEX);
+		controller.acquire(TrafficClass.INDEX);
+		try {
+			controller.acquire(TrafficClass.INDEX);
+			fail("Should have been rejected");
+		} catch (AdmissionRejectedException e) {
+			assertEquals(e.getMessage(), "Solr index request rejected by admission control, "
+					+ "no permit within maximum wait");
+		}
+		assertEquals(controller.getWaiting(TrafficClass.INDEX), 0);
+		assertEquals(metrics.getCounterValue(
+				new MetricKey(AdmissionController.REJECTED_COUNTER, INDEX_TAGS)), 1);
+	}
+
+	@Test
+	public void testRejectedAtOnceWhenQueueIsFull() throws Exception {
+		Permit permit = controller.acquire(TrafficClass.SEARCH);
+		CompletableFuture<Permit> queued = acquireInOtherThread(TrafficClass.SEARCH);
+		waitUntilWaiting(TrafficClass.SEARCH, 1);
+		try {
+			controller.acquire(TrafficClass.SEARCH);
+			fail("Should have been rejected");
+		} catch (AdmissionRejectedException e) {
+			assertEquals(e.getMessage(),
+					"Solr search request rejected by admission control, queue is full");
+		}
+		assertEquals(metrics.getCounterValue(
+				new MetricKey(AdmissionController.REJECTED_COUNTER, SEARCH_TAGS)), 1);
+
+		permit.releaseAfterSuccess();
+
+		assertEquals(queued.get(5, TimeUnit.SECONDS).getTrafficClass(), TrafficClass.SEARCH);
+	}
+
+	private CompletableFuture<Permit> acquireInOtherThread(TrafficClass trafficClass) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return controller.acquire(trafficClass);
+			} catch (AdmissionRejectedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+	}
+
+	private void waitUntilWaiting(TrafficClass trafficClass, int waiting)
+			throws InterruptedException {
+		long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (controller.getWaiting(trafficClass) != waiting && System.nanoTime() < giveUpAt) {
+			Thread.sleep(1);
+		}
+		assertEquals(controller.getWaiting(trafficClass), waiting);
+	}
+
+	@Test
+	public void testIndexingWaitsWhileSearchIsWaiting() throws Exception {
+		indexSettings.setQueue(5, 5000);
+		Permit searchPermit = controller.acquire(TrafficClass.SEARCH);
+		CompletableFuture<Permit> queuedSearch = acquireInOtherThread(TrafficClass.SEARCH);
+		waitUntilWaiting(TrafficClass.SEARCH, 1);
+
+		CompletableFuture<Permit> queuedIndex = acquireInOtherThread(TrafficClass.INDEX);
+		waitUntilWaiting(TrafficClass.INDEX, 1);
+		assertEquals(controller.getInFlight(TrafficClass.INDEX), 0);
+
+		searchPermit.releaseAfterSuccess();
+
+		queuedSearch.get(5, TimeUnit.SECONDS);
+		queuedIndex.get(5, TimeUnit.SECONDS);
+		assertEquals(controller.getInFlight(TrafficClass.INDEX), 1);
+	}
+}
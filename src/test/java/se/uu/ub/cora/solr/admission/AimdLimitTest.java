@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.admission;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AimdLimitTest {
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(101);
+	private AimdLimit limit;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		LimiterSettings settings = LimiterSettings.withDefaults();
+		settings.setLimits(10, 2, 12);
+		settings.setLatencyThresholdInMillis(100);
+		settings.setBackoffRatio(0.5);
+		limit = new AimdLimit(settings);
+	}
+
+	@Test
+	public void testInitialLimit() {
+		assertEquals(limit.getLimit(), 10);
+	}
+
+	@Test
+	public void testFastRequestIncreasesLimitWhenInUse() {
+		limit.onSample(FAST, 5, false);
+
+		assertEquals(limit.getLimit(), 11);
+	}
+
+	@Test
+	public void testLimitNotIncreasedWhenMostlyIdle() {
+		limit.onSample(FAST, 4, false);
+
+		assertEquals(limit.getLimit(), 10);
+	}
+
+	@Test
+	public void testIncreaseStopsAtMaxLimit() {
+		for (int i = 0; i < 5; i++) {
+			limit.onSample(FAST, 10, false);
+		}
+
+		assertEquals(limit.getLimit(), 12);
+	}
+
+	@Test
+	public void testSlowRequestDecreasesLimit() {
+		limit.onSample(SLOW, 10, false);
+
+		assertEquals(limit.getLimit(), 5);
+	}
+
+	@Test
+	public void testOverloadDecreasesLimitDownToMinLimit() {
+		limit.onSample(FAST, 10, true);
+		limit.onSample(FAST, 10, true);
+		limit.onSample(FAST, 10, true);
+
+		assertEquals(limit.getLimit(), 2);
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.field;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import org.testng.annotations.Test;
+
+public class IndexFieldRegistryTest {
+
+	@Test
+	public void testFieldTypeForIndexTypes() {
+		assertFieldType("indexTypeString", SolrFieldType.STRING);
+		assertFieldType("indexTypeId", SolrFieldType.STRING);
+		assertFieldType("indexTypeText", SolrFieldType.TEXT);
+		assertFieldType("indexTypeBoolean", SolrFieldType.BOOLEAN);
+		assertFieldType("indexTypeDate", SolrFieldType.DATE);
+		assertFieldType("indexTypeNumber", SolrFieldType.LONG);
+	}
+
+	private void assertFieldType(String indexType, SolrFieldType fieldType) {
+		assertEquals(IndexFieldRegistry.getFieldTypeForIndexType(indexType), fieldType);
+	}
+
+	@Test
+	public void testUnknownIndexTypeIsText() {
+		assertFieldType("someUnknownIndexType", SolrFieldType.TEXT);
+		assertFieldType(null, SolrFieldType.TEXT);
+	}
+
+	@Test
+	public void testFieldNameForIndexTypes() {
+		assertEquals(IndexFieldRegistry.getFieldName("title", "indexTypeString"), "title_s");
+		assertEquals(IndexFieldRegistry.getFieldName("title", "indexTypeId"), "title_s");
+		assertEquals(IndexFieldRegistry.getFieldName("title", "indexTypeText"), "title_t");
+		assertEquals(IndexFieldRegistry.getFieldName("title", "indexTypeBoolean"), "title_b");
+		assertEquals(IndexFieldRegistry.getFieldName("title", "indexTypeDate"), "title_dt");
+		assertEquals(IndexFieldRegistry.getFieldName("title", "indexTypeNumber"), "title_l");
+	}
+
+	@Test
+	public void testFieldNameIsCachedAndInterned() {
+		String fieldName = IndexFieldRegistry.getFieldName(new String("cachedField"),
+				SolrFieldType.STRING);
+
+		assertSame(IndexFieldRegistry.getFieldName("cachedField", "indexTypeId"), fieldName);
+		assertSame(fieldName, "cachedField_s");
+	}
+
+	@Test
+	public void testNumberOfCachedFieldNamesIsBounded() {
+		for (int i = 0; i <= IndexFieldRegistry.MAX_NUMBER_OF_CACHED_FIELD_NAMES; i++) {
+			IndexFieldRegistry.getFieldName("boundedField" + i, SolrFieldType.BOOLEAN);
+		}
+
+		assertEquals(
+				IndexFieldRegistry.onlyForTestGetNumberOfCachedFieldNames(SolrFieldType.BOOLEAN),
+				IndexFieldRegistry.MAX_NUMBER_OF_CACHED_FIELD_NAMES);
+		assertEquals(IndexFieldRegistry.getFieldName("boundedFieldNotCached", "indexTypeBoolean"),
+				"boundedFieldNotCached_b");
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.hedging;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class HedgeBudgetTest {
+
+	@Test
+	public void testBudgetStartsFull() {
+		HedgeBudget budget = new HedgeBudget(0);
+
+		for (int i = 0; i < HedgeBudget.MAX_BALANCE; i++) {
+			assertTrue(budget.tryUseForHedge());
+		}
+		assertFalse(budget.tryUseForHedge());
+	}
+
+	@Test
+	public void testRequestsRefillBudgetByRatio() {
+		HedgeBudget budget = createEmptyBudgetWithRatio(0.25);
+
+		budget.recordRequest();
+		budget.recordRequest();
+		budget.recordRequest();
+		assertFalse(budget.tryUseForHedge());
+		budget.recordRequest();
+
+		assertTrue(budget.tryUseForHedge());
+		assertFalse(budget.tryUseForHedge());
+	}
+
+	private HedgeBudget createEmptyBudgetWithRatio(double maxHedgeRatio) {
+		HedgeBudget budget = new HedgeBudget(maxHedgeRatio);
+		while (budget.tryUseForHedge()) {
+			// use the initial budget
+		}
+		return budget;
+	}
+
+	@Test
+	public void testBudgetIsCapped() {
+		HedgeBudget budget = createEmptyBudgetWithRatio(1);
+		for (int i = 0; i < 100; i++) {
+			budget.recordRequest();
+		}
+
+		for (int i = 0; i < HedgeBudget.MAX_BALANCE; i++) {
+			assertTrue(budget.tryUseForHedge());
+		}
+		assertFalse(budget.tryUseForHedge());
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.hedging;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.SolrClientProviderImp;
+
+public class HedgingSolrClientProviderTest {
+
+	@Test
+	public void testUsingReplicaUrls() {
+		HedgingSolrClientProvider provider = HedgingSolrClientProvider.usingReplicaUrlsAndSettings(
+				List.of("http://solr1/coracore", "http://solr2/coracore"),
+				HedgingSettings.withDefaults());
+
+		List<SolrClientProvider> replicaProviders = provider.onlyForTestGetReplicaProviders();
+		assertEquals(((SolrClientProviderImp) replicaProviders.get(0)).getBaseURL(),
+				"http://solr1/coracore");
+		assertEquals(((SolrClientProviderImp) replicaProviders.get(1)).getBaseURL(),
+				"http://solr2/coracore");
+		assertEquals(provider.getName(), "http://solr1/coracore");
+	}
+
+	@Test
+	public void testGetSolrClientUsesClientsFromReplicaProviders() throws Exception {
+		ReplicaSolrClientSpy replica1 = new ReplicaSolrClientSpy();
+		ReplicaSolrClientSpy replica2 = new ReplicaSolrClientSpy();
+		HedgingSolrClientProvider provider = HedgingSolrClientProvider
+				.usingNameReplicaProvidersAndSettings("someSolr",
+						List.of(() -> replica1, () -> replica2), HedgingSettings.withDefaults());
+
+		HedgingSolrClient solrClient = (HedgingSolrClient) provider.getSolrClient();
+
+		assertEquals(solrClient.onlyForTestGetReplicas(), List.of(replica1, replica2));
+		assertSame(provider.getSolrClient(), solrClient);
+		solrClient.close();
+	}
+
+	@Test
+	public void testExecutorIsBoundedByMaxThreads() throws Exception {
+		HedgingSettings settings = HedgingSettings.withDefaults();
+		settings.setMaxThreads(3);
+		HedgingSolrClientProvider provider = HedgingSolrClientProvider
+				.usingNameReplicaProvidersAndSettings("someSolr",
+						List.of(ReplicaSolrClientSpy::new, ReplicaSolrClientSpy::new), settings);
+
+		HedgingSolrClient solrClient = (HedgingSolrClient) provider.getSolrClient();
+
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) solrClient.onlyForTestGetExecutor();
+		assertEquals(executor.getMaximumPoolSize(), 3);
+		assertTrue(executor.getQueue() instanceof SynchronousQueue);
+		solrClient.close();
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.hedging;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+
+public class HedgingSolrClientTest {
+	private static final Map<String, String> TAGS = Map.of("name", "someSolr");
+	private static final MetricKey FIRED_KEY = new MetricKey(
+			HedgingSolrClient.HEDGES_FIRED_COUNTER, TAGS);
+	private static final MetricKey WON_KEY = new MetricKey(HedgingSolrClient.HEDGES_WON_COUNTER,
+			TAGS);
+	private static final MetricKey SKIPPED_KEY = new MetricKey(
+			HedgingSolrClient.HEDGES_SKIPPED_COUNTER, TAGS);
+	private static final MetricKey LATENCY_KEY = new MetricKey(
+			HedgingSolrClient.LATENCY_HISTOGRAM, TAGS);
+	private SolrMetrics metrics;
+	private ReplicaSolrClientSpy replica1;
+	private ReplicaSolrClientSpy replica2;
+	private HedgingSettings settings;
+	private ExecutorService executor;
+	private HedgingSolrClient hedgingClient;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		metrics = new SolrMetrics();
+		replica1 = new ReplicaSolrClientSpy();
+		replica2 = new ReplicaSolrClientSpy();
+		settings = HedgingSettings.withDefaults();
+		settings.setInitialDelayInMillis(20);
+		executor = Executors.newCachedThreadPool();
+		hedgingClient = HedgingSolrClient.usingNameReplicasSettingsExecutorAndMetrics("someSolr",
+				List.of(replica1, replica2), settings, executor, metrics);
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testUpdateIsSentToFirstReplicaOnly() throws Exception {
+		replica1.delayMillis = 100;
+		UpdateRequest request = new UpdateRequest();
+		request.deleteById("someId");
+
+		assertSame(hedgingClient.request(request, null), replica1.response);
+
+		assertEquals(replica1.numberOfRequests.get(), 1);
+		assertEquals(replica2.numberOfRequests.get(), 0);
+		assertEquals(metrics.getCounterValue(FIRED_KEY), 0);
+	}
+
+	@Test
+	public void testFastAnswerIsNotHedged() throws Exception {
+		assertSame(sendQuery(), replica1.response);
+
+		assertEquals(replica2.numberOfRequests.get(), 0);
+		assertEquals(metrics.getCounterValue(FIRED_KEY), 0);
+		assertEquals(metrics.getLatencySnapshot(LATENCY_KEY).count(), 1);
+	}
+
+	private Object sendQuery() throws Exception {
+		return hedgingClient.request(new QueryRequest(new ModifiableSolrParams()), null);
+	}
+
+	@Test
+	public void testRequestsAreSpreadRoundRobin() throws Exception {
+		settings.setInitialDelayInMillis(10_000);
+
+		assertSame(sendQuery(), replica1.response);
+		assertSame(sendQuery(), replica2.response);
+		assertSame(sendQuery(), replica1.response);
+	}
+
+	@Test
+	public void testSlowAnswerIsHedgedAndSlowRequestCancelled() throws Exception {
+		replica1.delayMillis = 10_000;
+
+		assertSame(sendQuery(), replica2.response);
+
+		assertEquals(metrics.getCounterValue(FIRED_KEY), 1);
+		assertEquals(metrics.getCounterValue(WON_KEY), 1);
+		assertEventuallyInterrupted(replica1);
+	}
+
+	private void assertEventuallyInterrupted(ReplicaSolrClientSpy replica)
+			throws InterruptedException {
+		long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!replica.interrupted.get() && System.nanoTime() < giveUpAt) {
+			Thread.sleep(1);
+		}
+		assertTrue(replica.interrupted.get());
+	}
+
+	@Test
+	public void testPrimaryWinsWhenHedgeFails() throws Exception {
+		replica1.delayMillis = 100;
+		replica2.exceptionToThrow = new IOException("connection refused");
+
+		assertSame(sendQuery(), replica1.response);
+
+		assertEquals(metrics.getCounterValue(FIRED_KEY), 1);
+		assertEquals(metrics.getCounterValue(WON_KEY), 0);
+	}
+
+	@Test
+	public void testFastFailureIsThrownWithoutHedging() throws Exception {
+		replica1.exceptionToThrow = new IOException("connection refused");
+		try {
+			sendQuery();
+			fail("Should have thrown");
+		} catch (IOException e) {
+			assertSame(e, replica1.exceptionToThrow);
+		}
+		assertEquals(replica2.numberOfRequests.get(), 0);
+	}
+
+	@Test
+	public void testBothFailingThrowsFirstFailure() throws Exception {
+		replica1.delayMillis = 100;
+		replica1.exceptionToThrow = new IOException("primary failed");
+		replica2.exceptionToThrow = new IOException("hedge failed");
+		try {
+			sendQuery();
+			fail("Should have thrown");
+		} catch (IOException e) {
+			assertEquals(e.getMessage(), "hedge failed");
+		}
+	}
+
+	@Test
+	public void testPercentileOfRecordedLatenciesIsUsedAsDelay() throws Exception {
+		settings.setMinimumSamples(2);
+		hedgingClient.onlyForTestRecordLatency(TimeUnit.SECONDS.toNanos(2));
+		hedgingClient.onlyForTestRecordLatency(TimeUnit.SECONDS.toNanos(2));
+		replica1.delayMillis = 100;
+
+		assertSame(sendQuery(), replica1.response);
+
+		assertEquals(metrics.getCounterValue(FIRED_KEY), 0);
+	}
+
+	@Test
+	public void testOnlyMostRecentLatenciesAreUsedForDelay() throws Exception {
+		settings.setMinimumSamples(2);
+		settings.setLatencyWindowSize(2);
+		hedgingClient = HedgingSolrClient.usingNameReplicasSettingsExecutorAndMetrics("someSolr",
+				List.of(replica1, replica2), settings, executor, metrics);
+		hedgingClient.onlyForTestRecordLatency(TimeUnit.SECONDS.toNanos(2));
+		hedgingClient.onlyForTestRecordLatency(TimeUnit.MILLISECONDS.toNanos(10));
+		hedgingClient.onlyForTestRecordLatency(TimeUnit.MILLISECONDS.toNanos(10));
+		replica1.delayMillis = 10_000;
+
+		assertSame(sendQuery(), replica2.response);
+
+		assertEquals(metrics.getCounterValue(FIRED_KEY), 1);
+	}
+
+	@Test
+	public void testLatencyOfCancelledFirstRequestIsRecorded() throws Exception {
+		replica1.delayMillis = 10_000;
+
+		sendQuery();
+
+		assertEventuallyInterrupted(replica1);
+		assertEventuallyRecordedLatencies(1);
+	}
+
+	private void assertEventuallyRecordedLatencies(long count) throws InterruptedException {
+		long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (metrics.getLatencySnapshot(LATENCY_KEY).count() < count
+				&& System.nanoTime() < giveUpAt) {
+			Thread.sleep(1);
+		}
+		assertEquals(metrics.getLatencySnapshot(LATENCY_KEY).count(), count);
+	}
+
+	@Test
+	public void testLatencyOfFailedFirstRequestIsRecorded() throws Exception {
+		replica1.exceptionToThrow = new IOException("connection refused");
+		try {
+			sendQuery();
+			fail("Should have thrown");
+		} catch (IOException e) {
+			assertEquals(metrics.getLatencySnapshot(LATENCY_KEY).count(), 1);
+		}
+	}
+
+	@Test
+	public void testHedgesAreLimitedByBudget() throws Exception {
+		settings.setMaxHedgeRatio(0);
+		hedgingClient = HedgingSolrClient.usingNameReplicasSettingsExecutorAndMetrics("someSolr",
+				List.of(replica1, replica2), settings, executor, metrics);
+		replica1.delayMillis = 40;
+		replica2.delayMillis = 40;
+		int allowedHedges = (int) HedgeBudget.MAX_BALANCE;
+
+		for (int i = 0; i < allowedHedges + 2; i++) {
+			sendQuery();
+		}
+
+		assertEquals(metrics.getCounterValue(FIRED_KEY), allowedHedges);
+		assertEquals(metrics.getCounterValue(SKIPPED_KEY), 2);
+	}
+
+	@Test
+	public void testRequestIsSentOnCallingThreadWhenExecutorIsFull() throws Exception {
+		executor.shutdownNow();
+		executor = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS, new SynchronousQueue<>());
+		hedgingClient = HedgingSolrClient.usingNameReplicasSettingsExecutorAndMetrics("someSolr",
+				List.of(replica1, replica2), settings, executor, metrics);
+		CountDownLatch occupied = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() -> occupyThread(occupied, release));
+		occupied.await();
+
+		try {
+			assertSame(sendQuery(), replica1.response);
+		} finally {
+			release.countDown();
+		}
+
+		assertEquals(replica1.numberOfRequests.get(), 1);
+		assertEquals(metrics.getCounterValue(SKIPPED_KEY), 1);
+		assertEquals(metrics.getLatencySnapshot(LATENCY_KEY).count(), 1);
+	}
+
+	private void occupyThread(CountDownLatch occupied, CountDownLatch release) {
+		occupied.countDown();
+		try {
+			release.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	public void testOnlyFirstRequestIsUsedWhenExecutorHasNoThreadForHedge() throws Exception {
+		executor.shutdownNow();
+		executor = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS, new SynchronousQueue<>());
+		hedgingClient = HedgingSolrClient.usingNameReplicasSettingsExecutorAndMetrics("someSolr",
+				List.of(replica1, replica2), settings, executor, metrics);
+		replica1.delayMillis = 60;
+
+		assertSame(sendQuery(), replica1.response);
+
+		assertEquals(replica2.numberOfRequests.get(), 0);
+		assertEquals(metrics.getCounterValue(FIRED_KEY), 0);
+		assertEquals(metrics.getCounterValue(SKIPPED_KEY), 1);
+	}
+
+	@Test
+	public void testMinDelayIsUsedWhenPercentileIsShorter() throws Exception {
+		settings.setMinimumSamples(2);
+		settings.setMinDelayInMillis(2000);
+		hedgingClient.onlyForTestRecordLatency(1000);
+		hedgingClient.onlyForTestRecordLatency(1000);
+		replica1.delayMillis = 100;
+
+		assertSame(sendQuery(), replica1.response);
+
+		assertEquals(metrics.getCounterValue(FIRED_KEY), 0);
+	}
+
+	@Test
+	public void testSingleReplicaIsNeverHedged() throws Exception {
+		hedgingClient = HedgingSolrClient.usingNameReplicasSettingsExecutorAndMetrics("someSolr",
+				List.of(replica1), settings, executor, metrics);
+		replica1.delayMillis = 50;
+
+		assertSame(sendQuery(), replica1.response);
+
+		assertEquals(replica1.numberOfRequests.get(), 1);
+		assertEquals(metrics.getCounterValue(FIRED_KEY), 0);
+	}
+
+	@Test
+	public void testCloseClosesReplicasAndExecutor() throws Exception {
+		List<SolrClient> replicas = hedgingClient.onlyForTestGetReplicas();
+
+		hedgingClient.close();
+
+		assertEquals(replicas, List.of(replica1, replica2));
+		assertTrue(replica1.closed);
+		assertTrue(replica2.closed);
+		assertTrue(hedgingClient.onlyForTestGetExecutor().isShutdown());
+	}
+}
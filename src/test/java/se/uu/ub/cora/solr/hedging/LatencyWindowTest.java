@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.hedging;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+public class LatencyWindowTest {
+
+	@Test
+	public void testEmptyWindow() {
+		LatencyWindow window = new LatencyWindow(10, 1);
+
+		assertEquals(window.count(), 0);
+		assertEquals(window.percentileNanos(95), 0);
+	}
+
+	@Test
+	public void testPercentileUsesExactValues() {
+		LatencyWindow window = new LatencyWindow(100, 1);
+		for (int latency = 1; latency <= 100; latency++) {
+			window.record(latency * 1000L + 1);
+		}
+
+		assertEquals(window.count(), 100);
+		assertEquals(window.percentileNanos(95), 95_001);
+		assertEquals(window.percentileNanos(100), 100_001);
+		assertEquals(window.percentileNanos(0), 1001);
+	}
+
+	@Test
+	public void testOldestLatenciesAreReplaced() {
+		LatencyWindow window = new LatencyWindow(2, 1);
+		window.record(500);
+		window.record(10);
+		window.record(20);
+
+		assertEquals(window.count(), 2);
+		assertEquals(window.percentileNanos(100), 20);
+	}
+
+	@Test
+	public void testPercentileIsReusedUntilRecalculationInterval() {
+		LatencyWindow window = new LatencyWindow(10, 3);
+		window.record(10);
+		assertEquals(window.percentileNanos(100), 10);
+
+		window.record(500);
+		window.record(500);
+		assertEquals(window.percentileNanos(100), 10);
+
+		window.record(500);
+		assertEquals(window.percentileNanos(100), 500);
+	}
+
+	@Test
+	public void testOtherPercentileIsCalculatedAtOnce() {
+		LatencyWindow window = new LatencyWindow(10, 100);
+		window.record(10);
+		window.record(500);
+
+		assertEquals(window.percentileNanos(50), 10);
+		assertEquals(window.percentileNanos(100), 500);
+	}
+}
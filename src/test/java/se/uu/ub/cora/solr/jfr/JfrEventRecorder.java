@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.jfr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * JfrEventRecorder runs a flight recording with the specified events enabled, for use in tests
+ * that check which events an operation emits. Only the specified events are returned, as custom
+ * events are enabled by default in every recording.
+ */
+public class JfrEventRecorder {
+	private Recording recording;
+	private List<String> eventNames;
+
+	public static JfrEventRecorder startRecordingEvents(String... eventNames) {
+		return new JfrEventRecorder(eventNames);
+	}
+
+	private JfrEventRecorder(String... eventNames) {
+		this.eventNames = List.of(eventNames);
+		recording = new Recording();
+		for (String eventName : eventNames) {
+			recording.enable(eventName).withoutThreshold();
+		}
+		recording.start();
+	}
+
+	public List<RecordedEvent> stopAndGetEvents() {
+		recording.stop();
+		try {
+			Path file = Files.createTempFile("solrEvents", ".jfr");
+			recording.dump(file);
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+			Files.delete(file);
+			return events.stream()
+					.filter(event -> eventNames.contains(event.getEventType().getName())).toList();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			recording.close();
+		}
+	}
+}
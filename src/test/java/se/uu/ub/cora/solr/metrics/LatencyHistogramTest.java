@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+	private static final long ONE_MILLI = 1_000_000;
+	private LatencyHistogram histogram;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		histogram = new LatencyHistogram();
+	}
+
+	@Test
+	public void testEmptySnapshot() {
+		HistogramSnapshot snapshot = histogram.snapshot();
+
+		assertEquals(snapshot.count(), 0);
+		assertEquals(snapshot.sumNanos(), 0);
+		assertEquals(snapshot.maxNanos(), 0);
+		assertEquals(snapshot.meanNanos(), 0);
+		assertEquals(snapshot.percentileNanos(99), 0);
+	}
+
+	@Test
+	public void testBucketBounds() {
+		HistogramSnapshot snapshot = histogram.snapshot();
+
+		assertEquals(snapshot.bucketUpperBoundsNanos().length, 28);
+		assertEquals(snapshot.bucketUpperBoundsNanos()[0], 1_000);
+		assertEquals(snapshot.bucketUpperBoundsNanos()[1], 2_000);
+		assertEquals(snapshot.bucketUpperBoundsNanos()[10], 1_024_000);
+		assertEquals(snapshot.bucketUpperBoundsNanos()[27], Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testRecordedValuesEndUpInCorrectBuckets() {
+		histogram.recordNanos(500);
+		histogram.recordNanos(1_000);
+		histogram.recordNanos(1_001);
+		histogram.recordNanos(Long.MAX_VALUE / 2);
+
+		long[] bucketCounts = histogram.snapshot().bucketCounts();
+		assertEquals(bucketCounts[0], 2);
+		assertEquals(bucketCounts[1], 1);
+		assertEquals(bucketCounts[27], 1);
+	}
+
+	@Test
+	public void testNegativeValuesAreRecordedAsZero() {
+		histogram.recordNanos(-10);
+
+		HistogramSnapshot snapshot = histogram.snapshot();
+		assertEquals(snapshot.count(), 1);
+		assertEquals(snapshot.sumNanos(), 0);
+		assertEquals(snapshot.bucketCounts()[0], 1);
+	}
+
+	@Test
+	public void testCountSumMaxAndMean() {
+		histogram.recordNanos(ONE_MILLI);
+		histogram.recordNanos(3 * ONE_MILLI);
+
+		HistogramSnapshot snapshot = histogram.snapshot();
+		assertEquals(snapshot.count(), 2);
+		assertEquals(snapshot.sumNanos(), 4 * ONE_MILLI);
+		assertEquals(snapshot.maxNanos(), 3 * ONE_MILLI);
+		assertEquals(snapshot.meanNanos(), 2 * ONE_MILLI);
+	}
+
+	@Test
+	public void testPercentiles() {
+		for (int i = 0; i < 99; i++) {
+			histogram.recordNanos(900);
+		}
+		histogram.recordNanos(100 * ONE_MILLI);
+
+		HistogramSnapshot snapshot = histogram.snapshot();
+		assertEquals(snapshot.percentileNanos(50), 1_000);
+		assertEquals(snapshot.percentileNanos(99), 1_000);
+		assertEquals(snapshot.percentileNanos(100), 100 * ONE_MILLI);
+	}
+
+	@Test
+	public void testPercentileIsNeverMoreThanMax() {
+		histogram.recordNanos(1_500);
+
+		assertEquals(histogram.snapshot().percentileNanos(50), 1_500);
+	}
+}
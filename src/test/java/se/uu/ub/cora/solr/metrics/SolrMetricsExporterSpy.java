@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class SolrMetricsExporterSpy implements SolrMetricsExporter {
+	public List<String> exportedCounters = new ArrayList<>();
+	public List<String> exportedGauges = new ArrayList<>();
+	public List<String> exportedHistograms = new ArrayList<>();
+
+	@Override
+	public void exportCounter(String name, Map<String, String> tags, long value) {
+		exportedCounters.add(name + " " + tags + " " + value);
+	}
+
+	@Override
+	public void exportGauge(String name, Map<String, String> tags, double value) {
+		exportedGauges.add(name + " " + tags + " " + value);
+	}
+
+	@Override
+	public void exportHistogram(String name, Map<String, String> tags,
+			HistogramSnapshot histogram) {
+		exportedHistograms.add(name + " " + tags + " " + histogram.count());
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+
+import org.testng.annotations.Test;
+
+public class SolrMetricsProviderTest {
+
+	@Test
+	public void testGetMetricsReturnsSameInstance() {
+		SolrMetrics metrics = SolrMetricsProvider.getMetrics();
+
+		assertNotNull(metrics);
+		assertSame(SolrMetricsProvider.getMetrics(), metrics);
+	}
+
+	@Test
+	public void testOnlyForTestSetMetrics() {
+		SolrMetrics original = SolrMetricsProvider.getMetrics();
+		SolrMetrics metrics = new SolrMetrics();
+
+		SolrMetricsProvider.onlyForTestSetMetrics(metrics);
+
+		assertSame(SolrMetricsProvider.getMetrics(), metrics);
+		SolrMetricsProvider.onlyForTestSetMetrics(original);
+	}
+
+	@Test
+	public void testExportToRegisteredExportersWithoutExporters() {
+		SolrMetricsProvider.exportToRegisteredExporters();
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SolrMetricsTest {
+	private SolrMetrics metrics;
+	private SolrMetricsExporterSpy exporter;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		metrics = new SolrMetrics();
+		exporter = new SolrMetricsExporterSpy();
+	}
+
+	@Test
+	public void testRecordPhase() {
+		metrics.recordPhase(SolrOperation.SEARCH, SolrPhase.QUERY_BUILD, 10);
+		metrics.recordPhase(SolrOperation.SEARCH, SolrPhase.QUERY_BUILD, 20);
+
+		HistogramSnapshot snapshot = metrics.getPhaseSnapshot(SolrOperation.SEARCH,
+				SolrPhase.QUERY_BUILD);
+		assertEquals(snapshot.count(), 2);
+		assertEquals(snapshot.sumNanos(), 30);
+		assertEquals(metrics.getPhaseSnapshot(SolrOperation.INDEX, SolrPhase.QUERY_BUILD).count(),
+				0);
+	}
+
+	@Test
+	public void testCountersPerOperationAndRecordType() {
+		metrics.countRequest(SolrOperation.SEARCH, "book");
+		metrics.countRequest(SolrOperation.SEARCH, "book");
+		metrics.countRequest(SolrOperation.INDEX, "book");
+		metrics.countError(SolrOperation.SEARCH, "person");
+		metrics.countDocuments(SolrOperation.SEARCH, "book", 17);
+
+		assertEquals(metrics.getRequestCount(SolrOperation.SEARCH, "book"), 2);
+		assertEquals(metrics.getRequestCount(SolrOperation.INDEX, "book"), 1);
+		assertEquals(metrics.getRequestCount(SolrOperation.SEARCH, "person"), 0);
+		assertEquals(metrics.getErrorCount(SolrOperation.SEARCH, "person"), 1);
+		assertEquals(metrics.getDocumentCount(SolrOperation.SEARCH, "book"), 17);
+	}
+
+	@Test
+	public void testGenericCounterAndLatency() {
+		MetricKey key = new MetricKey("some.metric", Map.of("someTag", "someValue"));
+
+		metrics.addToCounter(key, 3);
+		metrics.recordLatency(key, 42);
+
+		assertEquals(metrics.getCounterValue(key), 3);
+		assertEquals(metrics.getLatencySnapshot(key).count(), 1);
+		assertEquals(metrics.getCounterValue(new MetricKey("some.metric", Map.of())), 0);
+	}
+
+	@Test
+	public void testGauge() {
+		MetricKey key = new MetricKey("some.gauge", Map.of());
+		metrics.registerGauge(key, () -> 2.5);
+
+		assertEquals(metrics.getGaugeValue(key), 2.5);
+	}
+
+	@Test
+	public void testGaugeNotRegisteredIsNaN() {
+		MetricKey key = new MetricKey("some.gauge", Map.of());
+
+		assertTrue(Double.isNaN(metrics.getGaugeValue(key)));
+	}
+
+	@Test
+	public void testRecordTypeTagForSingleRecordTypeIsTheRecordType() {
+		assertEquals(SolrMetrics.recordTypeTagFor(List.of("book")), "book");
+	}
+
+	@Test
+	public void testRecordTypeTagForSeveralRecordTypesIsMultiple() {
+		assertEquals(SolrMetrics.recordTypeTagFor(List.of("book", "article")), "multiple");
+		assertEquals(SolrMetrics.recordTypeTagFor(List.of("article", "book")), "multiple");
+	}
+
+	@Test
+	public void testExportOnlyExportsHistogramsWithValues() {
+		metrics.recordPhase(SolrOperation.INDEX, SolrPhase.COMMIT, 10);
+
+		metrics.exportTo(exporter);
+
+		assertEquals(exporter.exportedHistograms.size(), 1);
+		String exported = exporter.exportedHistograms.get(0);
+		assertTrue(exported.startsWith("solr.phase.duration {"));
+		assertTrue(exported.contains("operation=INDEX"));
+		assertTrue(exported.contains("phase=COMMIT"));
+		assertTrue(exported.endsWith(" 1"));
+	}
+
+	@Test
+	public void testExportCountersGaugesAndHistograms() {
+		metrics.countRequest(SolrOperation.DELETE, "book");
+		metrics.registerGauge(new MetricKey("some.gauge", Map.of()), () -> 1);
+		metrics.recordLatency(new MetricKey("some.latency", Map.of()), 5);
+
+		metrics.exportTo(exporter);
+
+		assertEquals(exporter.exportedCounters.size(), 1);
+		String exportedCounter = exporter.exportedCounters.get(0);
+		assertTrue(exportedCounter.startsWith("solr.requests {"));
+		assertTrue(exportedCounter.contains("operation=DELETE"));
+		assertTrue(exportedCounter.contains("recordType=book"));
+		assertTrue(exportedCounter.endsWith(" 1"));
+		assertEquals(exporter.exportedGauges, java.util.List.of("some.gauge {} 1.0"));
+		assertEquals(exporter.exportedHistograms, java.util.List.of("some.latency {} 1"));
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.util.NamedList;
+import org.testng.annotations.Test;
+
+public class SolrQTimeTest {
+
+	@Test
+	public void testNoResponse() {
+		assertFalse(SolrQTime.readQTimeInMillis(null).isPresent());
+	}
+
+	@Test
+	public void testResponseWithoutContent() {
+		assertFalse(SolrQTime.readQTimeInMillis(new QueryResponse()).isPresent());
+	}
+
+	@Test
+	public void testResponseWithoutHeader() {
+		QueryResponse response = new QueryResponse();
+		response.setResponse(new NamedList<>());
+
+		assertFalse(SolrQTime.readQTimeInMillis(response).isPresent());
+	}
+
+	@Test
+	public void testResponseWithQTime() {
+		QueryResponse response = createResponseWithQTime(17);
+
+		assertEquals(SolrQTime.readQTimeInMillis(response).getAsLong(), 17);
+	}
+
+	public static QueryResponse createResponseWithQTime(int qTime) {
+		NamedList<Object> header = new NamedList<>();
+		header.add("status", 0);
+		header.add("QTime", qTime);
+		NamedList<Object> content = new NamedList<>();
+		content.add("responseHeader", header);
+		QueryResponse response = new QueryResponse();
+		response.setResponse(content);
+		return response;
+	}
+}
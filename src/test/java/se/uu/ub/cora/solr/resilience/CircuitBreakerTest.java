@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+
+public class CircuitBreakerTest {
+	private static final MetricKey STATE_KEY = new MetricKey(CircuitBreaker.STATE_GAUGE,
+			Map.of("name", "someSolr"));
+	private static final MetricKey REJECTED_KEY = new MetricKey(CircuitBreaker.REJECTED_COUNTER,
+			Map.of("name", "someSolr"));
+	private SolrMetrics metrics;
+	private CircuitBreaker circuitBreaker;
+	private long now = 0;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		now = 0;
+		metrics = new SolrMetrics();
+		ResilienceSettings settings = ResilienceSettings.withDefaults();
+		settings.setFailureThreshold(2);
+		settings.setOpenDurationInMillis(100);
+		circuitBreaker = CircuitBreaker.usingNameSettingsAndMetrics("someSolr", settings,
+				metrics);
+		circuitBreaker.onlyForTestSetNanoClock(() -> now);
+	}
+
+	@Test
+	public void testStartsClosed() throws Exception {
+		assertEquals(circuitBreaker.getName(), "someSolr");
+		assertEquals(circuitBreaker.getState(), CircuitState.CLOSED);
+		assertEquals(metrics.getGaugeValue(STATE_KEY), 0.0);
+		circuitBreaker.acquirePermission();
+	}
+
+	@Test
+	public void testOpensAtFailureThreshold() {
+		circuitBreaker.recordFailure();
+		assertEquals(circuitBreaker.getState(), CircuitState.CLOSED);
+
+		circuitBreaker.recordFailure();
+
+		assertEquals(circuitBreaker.getState(), CircuitState.OPEN);
+		assertEquals(metrics.getGaugeValue(STATE_KEY), 2.0);
+	}
+
+	@Test
+	public void testSuccessResetsConsecutiveFailures() {
+		circuitBreaker.recordFailure();
+		circuitBreaker.recordSuccess();
+		circuitBreaker.recordFailure();
+
+		assertEquals(circuitBreaker.getState(), CircuitState.CLOSED);
+	}
+
+	@Test
+	public void testOpenRejectsAndCounts() {
+		openCircuitBreaker();
+
+		assertRejected();
+		assertRejected();
+
+		assertEquals(metrics.getCounterValue(REJECTED_KEY), 2);
+	}
+
+	private void openCircuitBreaker() {
+		circuitBreaker.recordFailure();
+		circuitBreaker.recordFailure();
+	}
+
+	private void assertRejected() {
+		try {
+			circuitBreaker.acquirePermission();
+			fail("Should have been rejected");
+		} catch (CircuitOpenException e) {
+			assertEquals(e.getMessage(), "Circuit breaker is open, not calling solr: someSolr");
+		}
+	}
+
+	@Test
+	public void testHalfOpenAfterOpenDurationLetsOneTrialThrough() throws Exception {
+		openCircuitBreaker();
+		now = TimeUnit.MILLISECONDS.toNanos(100);
+
+		circuitBreaker.acquirePermission();
+
+		assertEquals(circuitBreaker.getState(), CircuitState.HALF_OPEN);
+		assertEquals(metrics.getGaugeValue(STATE_KEY), 1.0);
+		assertRejected();
+	}
+
+	@Test
+	public void testSuccessfulTrialCloses() throws Exception {
+		openCircuitBreaker();
+		now = TimeUnit.MILLISECONDS.toNanos(100);
+		circuitBreaker.acquirePermission();
+
+		circuitBreaker.recordSuccess();
+
+		assertEquals(circuitBreaker.getState(), CircuitState.CLOSED);
+		circuitBreaker.acquirePermission();
+	}
+
+	@Test
+	public void testFailedTrialOpensAgain() throws Exception {
+		openCircuitBreaker();
+		now = TimeUnit.MILLISECONDS.toNanos(100);
+		circuitBreaker.acquirePermission();
+
+		circuitBreaker.recordFailure();
+
+		assertEquals(circuitBreaker.getState(), CircuitState.OPEN);
+		now = TimeUnit.MILLISECONDS.toNanos(199);
+		assertRejected();
+		now = TimeUnit.MILLISECONDS.toNanos(200);
+		circuitBreaker.acquirePermission();
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+
+public class ResilientSolrClientProviderTest {
+	private SolrClientScriptedSpy solrClient;
+	private SolrClientProvider solrClientProvider;
+	private ResilientSolrClientProvider provider;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		SolrMetricsProvider.onlyForTestSetMetrics(new SolrMetrics());
+		solrClient = new SolrClientScriptedSpy();
+		solrClientProvider = () -> solrClient;
+		provider = ResilientSolrClientProvider.wrapping(solrClientProvider, "someSolr",
+				ResilienceSettings.withDefaults());
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		SolrMetricsProvider.onlyForTestSetMetrics(new SolrMetrics());
+	}
+
+	@Test
+	public void testGetSolrClientWrapsClientFromProvider() {
+		ResilientSolrClient resilientClient = (ResilientSolrClient) provider.getSolrClient();
+
+		assertSame(resilientClient.onlyForTestGetSolrClient(), solrClient);
+		assertSame(resilientClient.getCircuitBreaker(), provider.getCircuitBreaker());
+		assertSame(provider.onlyForTestGetSolrClientProvider(), solrClientProvider);
+		assertEquals(provider.getCircuitBreaker().getName(), "someSolr");
+	}
+
+	@Test
+	public void testSameClientIsReturned() {
+		assertSame(provider.getSolrClient(), provider.getSolrClient());
+	}
+}
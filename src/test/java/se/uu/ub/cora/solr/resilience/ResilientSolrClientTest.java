@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+
+public class ResilientSolrClientTest {
+	private static final MetricKey RETRIES_KEY = new MetricKey(
+			ResilientSolrClient.RETRIES_COUNTER, Map.of("name", "someSolr"));
+	private SolrMetrics metrics;
+	private SolrClientScriptedSpy solrClient;
+	private CircuitBreaker circuitBreaker;
+	private ResilientSolrClient resilientClient;
+	private List<Long> sleeps;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		metrics = new SolrMetrics();
+		solrClient = new SolrClientScriptedSpy();
+		ResilienceSettings settings = ResilienceSettings.withDefaults();
+		settings.setFailureThreshold(4);
+		circuitBreaker = CircuitBreaker.usingNameSettingsAndMetrics("someSolr", settings,
+				metrics);
+		RetryPolicy retryPolicy = RetryPolicy.usingSettings(settings);
+		retryPolicy.onlyForTestSetRandom(() -> 1.0);
+		resilientClient = ResilientSolrClient.usingSolrClientCircuitBreakerRetryPolicyAndMetrics(
+				solrClient, circuitBreaker, retryPolicy, metrics);
+		sleeps = new ArrayList<>();
+		resilientClient.onlyForTestSetSleeper(sleeps::add);
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		Thread.interrupted();
+	}
+
+	@Test
+	public void testSuccessfulRequestIsPassedOn() throws Exception {
+		QueryRequest request = new QueryRequest(new ModifiableSolrParams());
+
+		assertSame(resilientClient.request(request, null), solrClient.response);
+
+		assertEquals(solrClient.numberOfRequests, 1);
+		assertSame(resilientClient.onlyForTestGetSolrClient(), solrClient);
+		assertSame(resilientClient.getCircuitBreaker(), circuitBreaker);
+	}
+
+	@Test
+	public void testQueryIsRetriedWithBackoffOnConnectionError() throws Exception {
+		solrClient.exceptionsToThrow.add(new IOException("connection refused"));
+		solrClient.exceptionsToThrow.add(new SolrServerException("timeout"));
+
+		resilientClient.query(new ModifiableSolrParams());
+
+		assertEquals(solrClient.numberOfRequests, 3);
+		assertEquals(sleeps, List.of(50L, 100L));
+		assertEquals(metrics.getCounterValue(RETRIES_KEY), 2);
+		assertEquals(circuitBreaker.getState(), CircuitState.CLOSED);
+	}
+
+	@Test
+	public void testQueryIsRetriedOnServerError() throws Exception {
+		solrClient.exceptionsToThrow
+				.add(new SolrException(ErrorCode.SERVICE_UNAVAILABLE, "unavailable"));
+
+		resilientClient.query(new ModifiableSolrParams());
+
+		assertEquals(solrClient.numberOfRequests, 2);
+	}
+
+	@Test
+	public void testQueryGivesUpAfterMaxAttempts() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			solrClient.exceptionsToThrow.add(new IOException("connection refused " + i));
+		}
+		try {
+			resilientClient.query(new ModifiableSolrParams());
+			fail("Should have thrown");
+		} catch (IOException e) {
+			assertEquals(e.getMessage(), "connection refused 2");
+		}
+		assertEquals(solrClient.numberOfRequests, 3);
+		assertEquals(metrics.getCounterValue(RETRIES_KEY), 2);
+	}
+
+	@Test
+	public void testClientErrorIsNotRetriedAndNotAFailure() throws Exception {
+		SolrException badRequest = new SolrException(ErrorCode.BAD_REQUEST, "undefined field");
+		solrClient.exceptionsToThrow.add(badRequest);
+		for (int i = 0; i < 3; i++) {
+			solrClient.exceptionsToThrow.add(new IOException("connection refused"));
+		}
+		try {
+			resilientClient.query(new ModifiableSolrParams());
+			fail("Should have thrown");
+		} catch (SolrException e) {
+			assertSame(e, badRequest);
+		}
+		assertEquals(solrClient.numberOfRequests, 1);
+		assertThrowsIOException();
+		assertEquals(circuitBreaker.getState(), CircuitState.CLOSED);
+	}
+
+	private void assertThrowsIOException() throws SolrServerException {
+		try {
+			resilientClient.query(new ModifiableSolrParams());
+			fail("Should have thrown");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testUpdateIsNotRetried() throws Exception {
+		solrClient.exceptionsToThrow.add(new IOException("read timed out"));
+		UpdateRequest request = new UpdateRequest();
+		request.deleteById("someId");
+		try {
+			resilientClient.request(request, null);
+			fail("Should have thrown");
+		} catch (IOException e) {
+			assertEquals(e.getMessage(), "read timed out");
+		}
+		assertEquals(solrClient.numberOfRequests, 1);
+		assertTrue(sleeps.isEmpty());
+	}
+
+	@Test
+	public void testOpenCircuitFailsFastWithoutCallingSolr() throws Exception {
+		for (int i = 0; i < 4; i++) {
+			circuitBreaker.recordFailure();
+		}
+		try {
+			resilientClient.query(new ModifiableSolrParams());
+			fail("Should have thrown");
+		} catch (CircuitOpenException e) {
+			assertEquals(e.getMessage(), "Circuit breaker is open, not calling solr: someSolr");
+		}
+		assertEquals(solrClient.numberOfRequests, 0);
+		assertTrue(sleeps.isEmpty());
+	}
+
+	@Test
+	public void testFailuresOpenCircuitDuringRetries() throws Exception {
+		for (int i = 0; i < 6; i++) {
+			solrClient.exceptionsToThrow.add(new IOException("connection refused"));
+		}
+		assertThrowsIOException();
+		try {
+			resilientClient.query(new ModifiableSolrParams());
+			fail("Should have thrown");
+		} catch (CircuitOpenException e) {
+			// expected
+		}
+		assertEquals(solrClient.numberOfRequests, 4);
+		assertEquals(circuitBreaker.getState(), CircuitState.OPEN);
+	}
+
+	@Test
+	public void testInterruptedWhileWaitingStopsRetrying() throws Exception {
+		resilientClient.onlyForTestSetSleeper(millis -> {
+			throw new InterruptedException();
+		});
+		solrClient.exceptionsToThrow.add(new IOException("connection refused"));
+		try {
+			resilientClient.query(new ModifiableSolrParams());
+			fail("Should have thrown");
+		} catch (SolrServerException e) {
+			assertEquals(e.getMessage(), "Interrupted while waiting to retry solr request");
+		}
+		assertTrue(Thread.currentThread().isInterrupted());
+		assertEquals(solrClient.numberOfRequests, 1);
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		resilientClient.close();
+
+		assertTrue(solrClient.closed);
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class RetryPolicyTest {
+	private RetryPolicy retryPolicy;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		ResilienceSettings settings = ResilienceSettings.withDefaults();
+		settings.setMaxAttempts(3);
+		settings.setBackoffInMillis(50, 300);
+		retryPolicy = RetryPolicy.usingSettings(settings);
+	}
+
+	@Test
+	public void testShouldRetryAfterAttempt() {
+		assertTrue(retryPolicy.shouldRetryAfterAttempt(1));
+		assertTrue(retryPolicy.shouldRetryAfterAttempt(2));
+		assertFalse(retryPolicy.shouldRetryAfterAttempt(3));
+	}
+
+	@Test
+	public void testBackoffDoublesUpToMax() {
+		retryPolicy.onlyForTestSetRandom(() -> 1.0);
+
+		assertEquals(retryPolicy.getDelayInMillisAfterAttempt(1), 50);
+		assertEquals(retryPolicy.getDelayInMillisAfterAttempt(2), 100);
+		assertEquals(retryPolicy.getDelayInMillisAfterAttempt(3), 200);
+		assertEquals(retryPolicy.getDelayInMillisAfterAttempt(4), 300);
+		assertEquals(retryPolicy.getDelayInMillisAfterAttempt(100), 300);
+	}
+
+	@Test
+	public void testDelayIsJittered() {
+		retryPolicy.onlyForTestSetRandom(() -> 0.5);
+
+		assertEquals(retryPolicy.getDelayInMillisAfterAttempt(2), 50);
+	}
+
+	@Test
+	public void testDefaultRandomStaysWithinBackoff() {
+		for (int i = 0; i < 100; i++) {
+			long delay = retryPolicy.getDelayInMillisAfterAttempt(2);
+			assertTrue(delay >= 0 && delay <= 100);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.resilience;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.util.NamedList;
+
+public class SolrClientScriptedSpy extends SolrClient {
+	private static final long serialVersionUID = 1L;
+	public Deque<Exception> exceptionsToThrow = new ArrayDeque<>();
+	public NamedList<Object> response = new NamedList<>();
+	public int numberOfRequests = 0;
+	public boolean closed = false;
+
+	@Override
+	public NamedList<Object> request(SolrRequest<?> request, String collection)
+			throws SolrServerException, IOException {
+		numberOfRequests++;
+		Exception exception = exceptionsToThrow.poll();
+		if (exception instanceof SolrServerException solrServerException) {
+			throw solrServerException;
+		}
+		if (exception instanceof IOException ioException) {
+			throw ioException;
+		}
+		if (exception instanceof RuntimeException runtimeException) {
+			throw runtimeException;
+		}
+		return response;
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+	}
+}
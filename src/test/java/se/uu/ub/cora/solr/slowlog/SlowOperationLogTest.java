@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.slowlog;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SlowOperationLogTest {
+	private static final long TEN_MILLIS = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+	private SlowOperationLog slowLog;
+	private List<String> entries;
+	private long now;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		entries = new ArrayList<>();
+		now = 0;
+		slowLog = SlowOperationLog.usingThresholdInMillis(10);
+		slowLog.setSink(entries::add);
+		slowLog.onlyForTestSetNanoClock(() -> now);
+	}
+
+	@Test
+	public void testDisabled() {
+		SlowOperationLog disabledLog = SlowOperationLog.disabled();
+
+		assertFalse(disabledLog.isEnabled());
+		assertFalse(disabledLog.isSlow(Long.MAX_VALUE - 1));
+	}
+
+	@Test
+	public void testThreshold() {
+		assertTrue(slowLog.isEnabled());
+		assertEquals(slowLog.onlyForTestGetThresholdNanos(), TEN_MILLIS);
+		assertFalse(slowLog.isSlow(TEN_MILLIS - 1));
+		assertTrue(slowLog.isSlow(TEN_MILLIS));
+	}
+
+	@Test
+	public void testFastOperationIsNotLoggedAndEntryNotCreated() {
+		slowLog.possiblyLog(TEN_MILLIS - 1, () -> {
+			throw new RuntimeException("entry should not be created");
+		});
+
+		assertEquals(entries.size(), 0);
+	}
+
+	@Test
+	public void testSlowOperationIsLogged() {
+		slowLog.possiblyLog(TEN_MILLIS, () -> "some operation");
+
+		assertEquals(entries, List.of("Slow Solr operation (10 ms): some operation"));
+	}
+
+	@Test
+	public void testSampleEveryNth() {
+		slowLog.setSampleEveryNth(3);
+
+		for (int i = 1; i <= 6; i++) {
+			String operation = "operation" + i;
+			slowLog.possiblyLog(TEN_MILLIS, () -> operation);
+		}
+
+		assertEquals(entries, List.of(
+				"Slow Solr operation (10 ms): operation3"
+						+ " (2 slow operations not logged since last entry)",
+				"Slow Solr operation (10 ms): operation6"
+						+ " (2 slow operations not logged since last entry)"));
+	}
+
+	@Test
+	public void testRateLimit() {
+		slowLog.setMaxEntriesPerSecond(2);
+
+		logSlowOperations(3);
+		now = ONE_SECOND - 1;
+		logSlowOperations(1);
+
+		assertEquals(entries.size(), 2);
+
+		now = ONE_SECOND;
+		slowLog.possiblyLog(TEN_MILLIS, () -> "operation");
+
+		assertEquals(entries.size(), 3);
+		assertEquals(entries.get(2), "Slow Solr operation (10 ms): operation"
+				+ " (2 slow operations not logged since last entry)");
+	}
+
+	private void logSlowOperations(int numberOfOperations) {
+		for (int i = 0; i < numberOfOperations; i++) {
+			slowLog.possiblyLog(TEN_MILLIS, () -> "operation");
+		}
+	}
+
+	@Test
+	public void testDefaultMaxEntriesPerSecond() {
+		logSlowOperations(11);
+
+		assertEquals(entries.size(), 10);
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solr.warmup;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.solr.common.params.SolrParams;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+
+public class SolrWarmUpTest {
+	private WarmUpSolrClientSpy solrClient;
+	private List<String> preloadedSearchTermIds;
+	private WarmUpSettings settings;
+	private SolrWarmUp warmUp;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		solrClient = new WarmUpSolrClientSpy();
+		preloadedSearchTermIds = new ArrayList<>();
+		settings = WarmUpSettings.withDefaults();
+		warmUp = SolrWarmUp.usingSolrClientProviderSearchTermPreloaderAndSettings(
+				() -> solrClient, preloadedSearchTermIds::add, settings);
+	}
+
+	@Test
+	public void testSettings() {
+		assertFalse(WarmUpSettings.disabled().isEnabled());
+		assertTrue(settings.isEnabled());
+		assertTrue(settings.isPing());
+		assertTrue(settings.getSearchTermsToPreload().isEmpty());
+		assertTrue(settings.getWarmUpQueries().isEmpty());
+	}
+
+	@Test
+	public void testNotReadyBeforeWarmUp() {
+		assertFalse(warmUp.isReady());
+	}
+
+	@Test
+	public void testPingOnly() {
+		WarmUpReport report = warmUp.warmUp();
+
+		assertTrue(warmUp.isReady());
+		assertTrue(report.ready());
+		assertTrue(report.pinged());
+		assertTrue(report.isSuccessful());
+		assertEquals(solrClient.paths, List.of("/admin/ping"));
+		assertTrue(report.durationNanos() > 0);
+	}
+
+	@Test
+	public void testNoPing() {
+		settings.setPing(false);
+
+		WarmUpReport report = warmUp.warmUp();
+
+		assertTrue(warmUp.isReady());
+		assertTrue(report.ready());
+		assertFalse(report.pinged());
+		assertTrue(solrClient.paths.isEmpty());
+	}
+
+	@Test
+	public void testFailedPingIsReportedAndWarmUpContinues() {
+		solrClient.failingPath = "/admin/ping";
+		settings.addWarmUpQuery("q=*:*");
+
+		WarmUpReport report = warmUp.warmUp();
+
+		assertFalse(warmUp.isReady());
+		assertFalse(report.ready());
+		assertFalse(report.pinged());
+		assertEquals(report.failures(), List.of("Ping failed: Solr not reachable"));
+		assertEquals(report.numberOfWarmUpQueries(), 1);
+	}
+
+	@Test
+	public void testAllFailedWarmUpIsNotReady() {
+		solrClient.failAll = true;
+		settings.addWarmUpQuery("q=*:*");
+		settings.addWarmUpQuery("q=type:person");
+
+		WarmUpReport report = warmUp.warmUp();
+
+		assertFalse(warmUp.isReady());
+		assertFalse(report.ready());
+		assertFalse(report.pinged());
+		assertEquals(report.numberOfWarmUpQueries(), 0);
+		assertEquals(report.failures(), List.of("Ping failed: Solr not reachable",
+				"Warm-up query q=*:* failed: Solr not reachable",
+				"Warm-up query q=type:person failed: Solr not reachable"));
+	}
+
+	@Test
+	public void testWarmUpRunAgainAfterFailedPingIsReady() {
+		solrClient.failAll = true;
+		warmUp.warmUp();
+		solrClient.failAll = false;
+
+		WarmUpReport report = warmUp.warmUp();
+
+		assertTrue(warmUp.isReady());
+		assertTrue(report.ready());
+	}
+
+	@Test
+	public void testPreloadSearchTerms() {
+		settings.addSearchTermToPreload("titleSearchTerm");
+		settings.addSearchTermToPreload("linkedTextSearchTerm");
+
+		WarmUpReport report = warmUp.warmUp();
+
+		assertEquals(report.numberOfPreloadedSearchTerms(), 2);
+		assertEquals(preloadedSearchTermIds, List.of("titleSearchTerm", "linkedTextSearchTerm"));
+	}
+
+	@Test
+	public void testFailedPreloadIsReported() {
+		SolrWarmUp failingWarmUp = SolrWarmUp.usingSolrClientProviderSearchTermPreloaderAndSettings(
+				() -> solrClient, searchTermId -> {
+					throw new RuntimeException("No search term found");
+				}, settings);
+		settings.addSearchTermToPreload("missingSearchTerm");
+
+		WarmUpReport report = failingWarmUp.warmUp();
+
+		assertEquals(report.numberOfPreloadedSearchTerms(), 0);
+		assertEquals(report.failures(), List
+				.of("Preloading search term missingSearchTerm failed: No search term found"));
+	}
+
+	@Test
+	public void testWithoutPreloaderNoTermsArePreloaded() {
+		settings.addSearchTermToPreload("titleSearchTerm");
+		warmUp = SolrWarmUp.usingSolrClientProviderAndSettings(() -> solrClient, settings);
+
+		WarmUpReport report = warmUp.warmUp();
+
+		assertEquals(report.numberOfPreloadedSearchTerms(), 0);
+		assertTrue(preloadedSearchTermIds.isEmpty());
+	}
+
+	@Test
+	public void testWarmUpQueriesAreSent() {
+		settings.setPing(false);
+		settings.addWarmUpQuery("q=*:*&fq=type:person&sort=id asc");
+		settings.addWarmUpQuery("q=title_t%3Ahello&rows=10");
+
+		WarmUpReport report = warmUp.warmUp();
+
+		assertEquals(report.numberOfWarmUpQueries(), 2);
+		assertEquals(solrClient.paths, List.of("/select", "/select"));
+		SolrParams first = solrClient.params.get(0);
+		assertEquals(first.get("q"), "*:*");
+		assertEquals(first.get("fq"), "type:person");
+		assertEquals(first.get("sort"), "id asc");
+		assertEquals(solrClient.params.get(1).get("q"), "title_t:hello");
+	}
+
+	@Test
+	public void testFailedWarmUpQueryIsReported() {
+		settings.setPing(false);
+		solrClient.failingPath = "/select";
+		settings.addWarmUpQuery("q=*:*");
+
+		WarmUpReport report = warmUp.warmUp();
+
+		assertEquals(report.numberOfWarmUpQueries(), 0);
+		assertEquals(report.failures(), List.of("Warm-up query q=*:* failed: Solr not reachable"));
+	}
+
+	@Test
+	public void testParseQueryString() {
+		SolrParams params = SolrWarmUp.parseQueryString("fq=a&fq=b&&debug");
+
+		assertEquals(params.getParams("fq"), new String[] { "a", "b" });
+		assertEquals(params.get("debug"), "");
+	}
+}
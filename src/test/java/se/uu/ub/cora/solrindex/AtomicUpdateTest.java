@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.testng.annotations.Test;
+
+public class AtomicUpdateTest {
+
+	@Test
+	public void testUnchangedFieldsAreLeftOut() {
+		SolrInputDocument previous = createDocument("someJson", "first");
+		SolrInputDocument current = createDocument("someJson", "first");
+
+		SolrInputDocument update = createUpdate(previous, current);
+
+		assertEquals(update.getFieldNames(), List.of("id", "_version_"));
+		assertEquals(update.getFieldValue("id"), "someType_someId");
+	}
+
+	@Test
+	public void testUpdateRequiresExistingDocument() {
+		SolrInputDocument update = createUpdate(createDocument("someJson", "first"),
+				createDocument("otherJson", "second"));
+
+		assertEquals(update.getFieldValue("_version_"), 1L);
+	}
+
+	private SolrInputDocument createDocument(String json, String... titles) {
+		SolrInputDocument document = new SolrInputDocument();
+		document.addField("id", "someType_someId");
+		document.addField("type", "someType");
+		for (String title : titles) {
+			document.addField("title_s", title);
+		}
+		document.addField("recordAsJson", json);
+		return document;
+	}
+
+	private SolrInputDocument createUpdate(SolrInputDocument previous,
+			SolrInputDocument current) {
+		return AtomicUpdate.createUpdate(IndexedFieldsCache.createIndexedFields(previous),
+				IndexedFieldsCache.createIndexedFields(current), current);
+	}
+
+	@Test
+	public void testChangedSingleValueIsSet() {
+		SolrInputDocument update = createUpdate(createDocument("someJson", "first"),
+				createDocument("otherJson", "second"));
+
+		assertEquals(update.getFieldNames(), List.of("id", "_version_", "title_s", "recordAsJson"));
+		assertEquals(update.getFieldValue("title_s"), Map.of("set", "second"));
+		assertEquals(update.getFieldValue("recordAsJson"), Map.of("set", "otherJson"));
+	}
+
+	@Test
+	public void testAppendedValuesAreAdded() {
+		SolrInputDocument update = createUpdate(createDocument("someJson", "first"),
+				createDocument("someJson", "first", "second", "third"));
+
+		assertEquals(update.getFieldValue("title_s"), Map.of("add", List.of("second", "third")));
+	}
+
+	@Test
+	public void testRemovedValuesAreRemoved() {
+		SolrInputDocument update = createUpdate(createDocument("someJson", "a", "b", "c"),
+				createDocument("someJson", "a", "c"));
+
+		assertEquals(update.getFieldValue("title_s"), Map.of("remove", List.of("b")));
+	}
+
+	@Test
+	public void testValuesInNewPositionAreSet() {
+		SolrInputDocument update = createUpdate(createDocument("someJson", "a", "b"),
+				createDocument("someJson", "c", "a", "b"));
+
+		assertEquals(update.getFieldValue("title_s"), Map.of("set", List.of("c", "a", "b")));
+	}
+
+	@Test
+	public void testAddedAndRemovedValuesAreSet() {
+		SolrInputDocument update = createUpdate(createDocument("someJson", "a", "b"),
+				createDocument("someJson", "a", "c"));
+
+		assertEquals(update.getFieldValue("title_s"), Map.of("set", List.of("a", "c")));
+	}
+
+	@Test
+	public void testRemoveIsNotUsedWithDuplicateValues() {
+		SolrInputDocument update = createUpdate(createDocument("someJson", "a", "b", "a"),
+				createDocument("someJson", "b", "a"));
+
+		assertEquals(update.getFieldValue("title_s"), Map.of("set", List.of("b", "a")));
+	}
+
+	@Test
+	public void testNewFieldIsSet() {
+		SolrInputDocument update = createUpdate(createDocument("someJson"),
+				createDocument("someJson", "first"));
+
+		assertEquals(update.getFieldValue("title_s"), Map.of("set", "first"));
+	}
+
+	@Test
+	public void testMissingFieldIsSetToNull() {
+		SolrInputDocument update = createUpdate(createDocument("someJson", "first"),
+				createDocument("someJson"));
+
+		Map<?, ?> modifier = (Map<?, ?>) update.getFieldValue("title_s");
+		assertEquals(modifier, Collections.singletonMap("set", null));
+		assertNull(modifier.get("set"));
+	}
+}
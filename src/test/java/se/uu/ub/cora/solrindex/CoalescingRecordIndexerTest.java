@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+
+public class CoalescingRecordIndexerTest {
+	private static final long WINDOW_MILLIS = 100;
+	private static final long MILLIS = 1_000_000;
+	private static final String SOLR_URL = "http://localhost:8983/solr/coracore";
+	private static final Map<String, String> TAGS = Map.of("name", SOLR_URL);
+	private SolrMetrics metrics;
+	private RecordIndexerSpy recordIndexerSpy;
+	private CoalescingRecordIndexer indexer;
+	private long now;
+	private List<String> failures;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		metrics = new SolrMetrics();
+		SolrMetricsProvider.onlyForTestSetMetrics(metrics);
+		recordIndexerSpy = new RecordIndexerSpy();
+		indexer = CoalescingRecordIndexer.usingRecordIndexerNameAndWindowInMillis(recordIndexerSpy,
+				SOLR_URL, WINDOW_MILLIS);
+		failures = new ArrayList<>();
+		indexer.setFailureSink((message, exception) -> failures.add(message));
+		now = 0;
+		indexer.onlyForTestSetNanoClock(() -> now);
+	}
+
+	@Test
+	public void testUpdatesAreBufferedUntilWindowHasPassed() {
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+
+		now = (WINDOW_MILLIS - 1) * MILLIS;
+		indexer.flushDue();
+		assertEquals(recordIndexerSpy.calls.size(), 0);
+		assertEquals(indexer.getNumberOfPendingUpdates(), 1);
+
+		now = WINDOW_MILLIS * MILLIS;
+		indexer.flushDue();
+		assertEquals(recordIndexerSpy.calls, List.of("indexData:someType:someId"));
+		assertEquals(indexer.getNumberOfPendingUpdates(), 0);
+	}
+
+	@Test
+	public void testLaterUpdateReplacesPendingUpdate() {
+		DataRecordGroup last = new DataRecordGroupSpy();
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+		indexer.indexData("someType", "someId", Collections.emptyList(), last);
+
+		indexer.flushAll();
+
+		assertEquals(recordIndexerSpy.calls, List.of("indexData:someType:someId"));
+		assertSame(recordIndexerSpy.preparedGroups.get(2), last);
+		assertSame(recordIndexerSpy.sentDocuments.get(0),
+				recordIndexerSpy.preparedDocuments.get(2));
+		assertEquals(getCounter(CoalescingRecordIndexer.COALESCED_COUNTER), 2);
+	}
+
+	@Test
+	public void testRecordIsPreparedWhenQueued() {
+		DataRecordGroup dataRecordGroup = new DataRecordGroupSpy();
+		indexer.indexData("someType", "someId", Collections.emptyList(), dataRecordGroup);
+
+		assertSame(recordIndexerSpy.preparedGroups.get(0), dataRecordGroup);
+		assertEquals(recordIndexerSpy.calls.size(), 0);
+
+		indexer.flushAll();
+
+		assertSame(recordIndexerSpy.sentDocuments.get(0),
+				recordIndexerSpy.preparedDocuments.get(0));
+		assertEquals(recordIndexerSpy.indexedGroups.get(0), null);
+	}
+
+	private long getCounter(String name) {
+		return metrics.getCounterValue(new MetricKey(name, TAGS));
+	}
+
+	@Test
+	public void testWindowIsCountedFromFirstPendingUpdate() {
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+		now = (WINDOW_MILLIS - 1) * MILLIS;
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+
+		now = WINDOW_MILLIS * MILLIS;
+		indexer.flushDue();
+
+		assertEquals(recordIndexerSpy.calls.size(), 1);
+	}
+
+	@Test
+	public void testDifferentRecordsAreNotCoalesced() {
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+		indexer.indexData("someType", "otherId", Collections.emptyList(),
+				new DataRecordGroupSpy());
+		indexer.indexData("otherType", "someId", Collections.emptyList(),
+				new DataRecordGroupSpy());
+
+		indexer.flushAll();
+
+		assertEquals(recordIndexerSpy.calls, List.of("indexData:someType:someId",
+				"indexData:someType:otherId", "indexData:otherType:someId"));
+	}
+
+	@Test
+	public void testDeleteReplacesPendingIndex() {
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+		indexer.deleteFromIndex("someType", "someId");
+
+		indexer.flushAll();
+
+		assertEquals(recordIndexerSpy.calls, List.of("deleteFromIndex:someType:someId"));
+	}
+
+	@Test
+	public void testIndexAfterDeleteReplacesPendingDelete() {
+		indexer.deleteFromIndex("someType", "someId");
+		indexer.indexDataWithoutExplicitCommit("someType", "someId", Collections.emptyList(),
+				new DataRecordGroupSpy());
+
+		indexer.flushAll();
+
+		assertEquals(recordIndexerSpy.calls, List.of("indexData:someType:someId"));
+	}
+
+	@Test
+	public void testWithoutExplicitCommitIsKeptWhenNoUpdateAskedForCommit() {
+		indexer.indexDataWithoutExplicitCommit("someType", "someId", Collections.emptyList(),
+				new DataRecordGroupSpy());
+		indexer.indexDataWithoutExplicitCommit("someType", "someId", Collections.emptyList(),
+				new DataRecordGroupSpy());
+
+		indexer.flushAll();
+
+		assertEquals(recordIndexerSpy.calls,
+				List.of("indexDataWithoutExplicitCommit:someType:someId"));
+	}
+
+	@Test
+	public void testExplicitCommitIsKeptWhenReplacedByUpdateWithoutCommit() {
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+		indexer.indexDataWithoutExplicitCommit("someType", "someId", Collections.emptyList(),
+				new DataRecordGroupSpy());
+
+		indexer.flushAll();
+
+		assertEquals(recordIndexerSpy.calls, List.of("indexData:someType:someId"));
+	}
+
+	@Test
+	public void testErrorsAreCountedAndDoNotStopFlush() {
+		recordIndexerSpy.throwException = true;
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+		indexer.deleteFromIndex("someType", "otherId");
+
+		indexer.flushAll();
+
+		assertEquals(recordIndexerSpy.calls.size(), 2);
+		assertEquals(getCounter(CoalescingRecordIndexer.ERRORS_COUNTER), 2);
+		assertEquals(indexer.getNumberOfPendingUpdates(), 0);
+		assertEquals(failures, List.of(
+				"Coalesced INDEX of recordType: someType, id: someId could not be sent:"
+						+ " Error from RecordIndexerSpy",
+				"Coalesced DELETE of recordType: someType, id: otherId could not be sent:"
+						+ " Error from RecordIndexerSpy"));
+	}
+
+	@Test
+	public void testPendingGauge() {
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+		indexer.deleteFromIndex("someType", "otherId");
+
+		assertEquals(metrics.getGaugeValue(
+				new MetricKey(CoalescingRecordIndexer.PENDING_GAUGE, TAGS)), 2.0);
+	}
+
+	@Test
+	public void testPendingGaugeIsRegisteredPerName() {
+		CoalescingRecordIndexer otherIndexer = CoalescingRecordIndexer
+				.usingRecordIndexerNameAndWindowInMillis(new RecordIndexerSpy(), "otherUrl",
+						WINDOW_MILLIS);
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+
+		assertEquals(metrics.getGaugeValue(
+				new MetricKey(CoalescingRecordIndexer.PENDING_GAUGE, TAGS)), 1.0);
+		assertEquals(metrics.getGaugeValue(new MetricKey(CoalescingRecordIndexer.PENDING_GAUGE,
+				Map.of("name", "otherUrl"))), 0.0);
+		assertEquals(otherIndexer.getNumberOfPendingUpdates(), 0);
+	}
+
+	@Test
+	public void testStartSendsDueUpdatesAndCloseSendsTheRest() throws Exception {
+		indexer = CoalescingRecordIndexer.usingRecordIndexerNameAndWindowInMillis(recordIndexerSpy,
+				SOLR_URL, 10);
+		indexer.start();
+		assertTrue(indexer.isStarted());
+		indexer.indexData("someType", "someId", Collections.emptyList(), new DataRecordGroupSpy());
+
+		waitForPendingUpdatesToBeSent();
+		assertEquals(recordIndexerSpy.calls, List.of("indexData:someType:someId"));
+
+		indexer.deleteFromIndex("someType", "someId");
+		indexer.close();
+		assertFalse(indexer.isStarted());
+		assertEquals(indexer.getNumberOfPendingUpdates(), 0);
+		assertEquals(recordIndexerSpy.calls.get(1), "deleteFromIndex:someType:someId");
+	}
+
+	private void waitForPendingUpdatesToBeSent() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (indexer.getNumberOfPendingUpdates() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		indexer.flushAll();
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.testng.annotations.Test;
+
+public class ContentHashCacheTest {
+
+	@Test
+	public void testDisabled() {
+		ContentHashCache cache = ContentHashCache.disabled();
+
+		assertFalse(cache.isEnabled());
+		assertFalse(cache.isCheckSolrOnMiss());
+	}
+
+	@Test
+	public void testPutGetAndRemove() {
+		ContentHashCache cache = ContentHashCache.withMaxSize(10);
+		assertTrue(cache.isEnabled());
+
+		cache.putHash("someId", "someHash");
+		assertEquals(cache.getHash("someId").get(), "someHash");
+
+		cache.remove("someId");
+		assertTrue(cache.getHash("someId").isEmpty());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsDroppedWhenFull() {
+		ContentHashCache cache = ContentHashCache.withMaxSize(2);
+		cache.putHash("first", "hash1");
+		cache.putHash("second", "hash2");
+		cache.getHash("first");
+
+		cache.putHash("third", "hash3");
+
+		assertEquals(cache.size(), 2);
+		assertTrue(cache.getHash("first").isPresent());
+		assertTrue(cache.getHash("second").isEmpty());
+	}
+
+	@Test
+	public void testClear() {
+		ContentHashCache cache = ContentHashCache.withMaxSize(2);
+		cache.putHash("first", "hash1");
+
+		cache.clear();
+
+		assertEquals(cache.size(), 0);
+	}
+
+	@Test
+	public void testCheckSolrOnMiss() {
+		ContentHashCache cache = ContentHashCache.withMaxSize(2);
+
+		cache.setCheckSolrOnMiss(true);
+
+		assertTrue(cache.isCheckSolrOnMiss());
+	}
+
+	@Test
+	public void testHashIsCompactAndStable() {
+		String hash = ContentHashCache.calculateHash(createDocument("someValue"));
+
+		assertEquals(hash.length(), 32);
+		assertEquals(ContentHashCache.calculateHash(createDocument("someValue")), hash);
+	}
+
+	private SolrInputDocument createDocument(String value) {
+		SolrInputDocument document = new SolrInputDocument();
+		document.addField("id", "someType_someId");
+		document.addField("title_s", value);
+		document.addField("recordAsJson", "{}");
+		return document;
+	}
+
+	@Test
+	public void testHashChangesWithContent() {
+		assertNotEquals(ContentHashCache.calculateHash(createDocument("someValue")),
+				ContentHashCache.calculateHash(createDocument("someOtherValue")));
+	}
+
+	@Test
+	public void testHashSeparatesFieldsAndValues() {
+		SolrInputDocument document = new SolrInputDocument();
+		document.addField("a_s", "bc");
+		SolrInputDocument other = new SolrInputDocument();
+		other.addField("a_s", "b");
+		other.addField("a_s", "c");
+
+		assertNotEquals(ContentHashCache.calculateHash(document),
+				ContentHashCache.calculateHash(other));
+	}
+
+	@Test
+	public void testHashIgnoresContentHashField() {
+		SolrInputDocument document = createDocument("someValue");
+		String hash = ContentHashCache.calculateHash(document);
+
+		document.addField(ContentHashCache.CONTENT_HASH_FIELD, hash);
+
+		assertEquals(ContentHashCache.calculateHash(document), hash);
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.testng.annotations.Test;
+
+public class IndexedFieldsCacheTest {
+
+	@Test
+	public void testDisabled() {
+		assertFalse(IndexedFieldsCache.disabled().isEnabled());
+	}
+
+	@Test
+	public void testPutGetAndRemove() {
+		IndexedFieldsCache cache = IndexedFieldsCache.withMaxSize(10);
+		Map<String, List<Object>> fields = Map.of("title_s", List.of("someTitle"));
+		assertTrue(cache.isEnabled());
+
+		cache.putIndexedFields("someId", fields);
+		assertEquals(cache.getIndexedFields("someId").get(), fields);
+
+		assertEquals(cache.remove("someId").get(), fields);
+		assertTrue(cache.getIndexedFields("someId").isEmpty());
+		assertTrue(cache.remove("someId").isEmpty());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsDroppedWhenFull() {
+		IndexedFieldsCache cache = IndexedFieldsCache.withMaxSize(2);
+		cache.putIndexedFields("first", Map.of());
+		cache.putIndexedFields("second", Map.of());
+		cache.getIndexedFields("first");
+
+		cache.putIndexedFields("third", Map.of());
+
+		assertEquals(cache.size(), 2);
+		assertTrue(cache.getIndexedFields("second").isEmpty());
+		cache.clear();
+		assertEquals(cache.size(), 0);
+	}
+
+	@Test
+	public void testCreateIndexedFieldsKeepsValuesButHashesJson() {
+		SolrInputDocument document = createDocument("{\"name\":\"someRecord\"}");
+
+		Map<String, List<Object>> fields = IndexedFieldsCache.createIndexedFields(document);
+
+		assertEquals(fields.keySet(), List.of("id", "title_s", "recordAsJson"));
+		assertEquals(fields.get("title_s"), List.of("first", "second"));
+		assertEquals(String.valueOf(fields.get("recordAsJson").get(0)).length(), 32);
+	}
+
+	private SolrInputDocument createDocument(String json) {
+		SolrInputDocument document = new SolrInputDocument();
+		document.addField("id", "someType_someId");
+		document.addField("title_s", "first");
+		document.addField("title_s", "second");
+		document.addField("recordAsJson", json);
+		return document;
+	}
+
+	@Test
+	public void testChangedJsonChangesIndexedFields() {
+		assertNotEquals(IndexedFieldsCache.createIndexedFields(createDocument("{}")),
+				IndexedFieldsCache.createIndexedFields(createDocument("{\"a\":1}")));
+	}
+}
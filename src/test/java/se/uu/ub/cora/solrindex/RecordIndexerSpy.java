@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.solr.common.SolrInputDocument;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.IndexTerm;
+
+public class RecordIndexerSpy implements PreparingRecordIndexer {
+	public List<String> calls = new ArrayList<>();
+	public List<DataRecordGroup> indexedGroups = new ArrayList<>();
+	public List<DataRecordGroup> preparedGroups = new ArrayList<>();
+	public List<PreparedDocument> preparedDocuments = new ArrayList<>();
+	public List<PreparedDocument> sentDocuments = new ArrayList<>();
+	public boolean throwException = false;
+
+	@Override
+	public PreparedDocument prepareDocument(String recordType, String recordId,
+			List<IndexTerm> indexTerms, DataRecordGroup dataRecordGroup) {
+		preparedGroups.add(dataRecordGroup);
+		PreparedDocument preparedDocument = new PreparedDocument(recordType, recordId,
+				indexTerms.size(), new SolrInputDocument(), 0, 0);
+		preparedDocuments.add(preparedDocument);
+		return preparedDocument;
+	}
+
+	@Override
+	public void indexPreparedDocument(PreparedDocument preparedDocument,
+			boolean performExplicitCommit) {
+		String method = performExplicitCommit ? "indexData" : "indexDataWithoutExplicitCommit";
+		sentDocuments.add(preparedDocument);
+		record(method, preparedDocument.recordType(), preparedDocument.recordId(), null);
+	}
+
+	@Override
+	public void indexData(String recordType, String recordId, List<IndexTerm> indexTerms,
+			DataRecordGroup dataRecordGroup) {
+		record("indexData", recordType, recordId, dataRecordGroup);
+	}
+
+	@Override
+	public void indexDataWithoutExplicitCommit(String recordType, String recordId,
+			List<IndexTerm> indexTerms, DataRecordGroup dataRecordGroup) {
+		record("indexDataWithoutExplicitCommit", recordType, recordId, dataRecordGroup);
+	}
+
+	@Override
+	public void deleteFromIndex(String recordType, String recordId) {
+		record("deleteFromIndex", recordType, recordId, null);
+	}
+
+	private void record(String method, String recordType, String recordId,
+			DataRecordGroup dataRecordGroup) {
+		calls.add(method + ":" + recordType + ":" + recordId);
+		indexedGroups.add(dataRecordGroup);
+		if (throwException) {
+			throw SolrIndexException.withMessage("Error from RecordIndexerSpy");
+		}
+	}
+}
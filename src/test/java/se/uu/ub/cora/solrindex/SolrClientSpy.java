@@ -1,12 +1,20 @@
 package se.uu.ub.cora.solrindex;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.util.NamedList;
@@ -16,12 +24,25 @@ public class SolrClientSpy extends SolrClient {
 	public SolrInputDocument document;
 	public boolean committed = false;
 	public SolrParams params;
+	public List<SolrParams> allParams = new ArrayList<>();
+	public Map<String, SolrDocument> documentsById = new HashMap<>();
+	public List<String> requestedIds = new ArrayList<>();
+	public int numberOfGetByIdRequests = 0;
 	public QueryResponse queryResponse = new QueryResponse();
 	public String deletedId = "";
+	public int numberOfAdds = 0;
+	public List<SolrInputDocument> addedDocuments = new ArrayList<>();
+	public SolrException exceptionForAtomicUpdates;
+	public List<SolrParams> getByIdParams = new ArrayList<>();
 
 	@Override
 	public UpdateResponse add(SolrInputDocument doc) throws SolrServerException, IOException {
 		this.document = doc;
+		numberOfAdds++;
+		addedDocuments.add(doc);
+		if (exceptionForAtomicUpdates != null && doc.containsKey("_version_")) {
+			throw exceptionForAtomicUpdates;
+		}
 		return super.add(doc);
 	}
 
@@ -45,9 +66,39 @@ public class SolrClientSpy extends SolrClient {
 	@Override
 	public QueryResponse query(SolrParams params) throws SolrServerException, IOException {
 		this.params = params;
+		allParams.add(params);
 		return queryResponse;
 	}
 
+	@Override
+	public SolrDocument getById(String id) throws SolrServerException, IOException {
+		requestedIds.add(id);
+		return documentsById.get(id);
+	}
+
+	@Override
+	public SolrDocumentList getById(Collection<String> ids)
+			throws SolrServerException, IOException {
+		numberOfGetByIdRequests++;
+		SolrDocumentList documents = new SolrDocumentList();
+		for (String id : ids) {
+			requestedIds.add(id);
+			SolrDocument document = documentsById.get(id);
+			if (document != null) {
+				document.setField("id", id);
+				documents.add(document);
+			}
+		}
+		return documents;
+	}
+
+	@Override
+	public SolrDocument getById(String id, SolrParams params)
+			throws SolrServerException, IOException {
+		getByIdParams.add(params);
+		return getById(id);
+	}
+
 	@Override
 	public UpdateResponse deleteById(String id) throws SolrServerException, IOException {
 		deletedId = id;
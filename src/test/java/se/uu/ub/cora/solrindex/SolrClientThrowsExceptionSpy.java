@@ -1,12 +1,15 @@
 package se.uu.ub.cora.solrindex;
 
 import java.io.IOException;
+import java.util.Collection;
 
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.util.NamedList;
@@ -41,4 +44,20 @@ public class SolrClientThrowsExceptionSpy extends SolrClient {
 	public UpdateResponse deleteById(String id) throws SolrServerException, IOException {
 		throw new SolrExceptionSpy(errorMessage);
 	}
+
+	@Override
+	public SolrDocument getById(String id) throws SolrServerException, IOException {
+		throw new SolrExceptionSpy(errorMessage);
+	}
+
+	@Override
+	public SolrDocumentList getById(Collection<String> ids)
+			throws SolrServerException, IOException {
+		throw new SolrExceptionSpy(errorMessage);
+	}
+
+	@Override
+	public UpdateResponse commit() throws SolrServerException, IOException {
+		throw new SolrExceptionSpy(errorMessage);
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2021, 2022 Uppsala University Library
+ * Copyright 2021, 2022, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -19,14 +19,33 @@
 package se.uu.ub.cora.solrindex;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import se.uu.ub.cora.search.RecordIndexerFactory;
+import se.uu.ub.cora.solr.SolrClientProviderFactorySpy;
 import se.uu.ub.cora.solr.SolrClientProviderImp;
+import se.uu.ub.cora.solr.SolrClientProviders;
+import se.uu.ub.cora.solr.admission.AdmissionControlledSolrClientProvider;
+import se.uu.ub.cora.solr.admission.AdmissionController;
+import se.uu.ub.cora.solr.admission.LimiterSettings;
+import se.uu.ub.cora.solr.admission.TrafficClass;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.resilience.ResilienceSettings;
+import se.uu.ub.cora.solr.resilience.ResilientSolrClientProvider;
+import se.uu.ub.cora.solrindex.spool.IndexSpool;
+import se.uu.ub.cora.solrindex.spool.SpoolReplayer;
 
 public class SolrRecordIndexerFactoryTest {
 	private RecordIndexerFactory solrIndexerFactory;
@@ -75,4 +94,184 @@ public class SolrRecordIndexerFactoryTest {
 		assertNotSame(solrClientProvider, solrClientProvider2);
 	}
 
+	@Test
+	public void testFactorEmbeddedUrlUsesRegisteredProviderFactory() {
+		SolrClientProviderFactorySpy providerFactory = new SolrClientProviderFactorySpy(
+				"embedded:");
+		SolrClientProviders.onlyForTestSetFactories(List.of(providerFactory));
+		try {
+			SolrRecordIndexer recordIndexer = (SolrRecordIndexer) solrIndexerFactory
+					.factor("embedded:/var/lib/solr/coracore");
+
+			assertSame(recordIndexer.onlyForTestGetSolrClientProvider(),
+					providerFactory.factoredProviders.get(0));
+		} finally {
+			SolrClientProviders.onlyForTestResetFactories();
+		}
+	}
+
+	@Test
+	public void testFactorUsesDefaultIndexSettings() {
+		SolrRecordIndexer recordIndexer = (SolrRecordIndexer) solrIndexerFactory
+				.factor(defaultSolrUrl);
+
+		assertTrue(recordIndexer.onlyForTestGetIndexSettings().getDenormalizedLinkedFields()
+				.isEmpty());
+	}
+
+	@Test
+	public void testFactorUsesIndexSettings() {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		solrIndexerFactory = new SolrRecordIndexerFactory(indexSettings);
+
+		SolrRecordIndexer recordIndexer = (SolrRecordIndexer) solrIndexerFactory
+				.factor(defaultSolrUrl);
+
+		assertSame(recordIndexer.onlyForTestGetIndexSettings(), indexSettings);
+	}
+
+	@Test
+	public void testFactorWithResilienceWrapsSolrClientProvider() {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setResilienceSettings(ResilienceSettings.withDefaults());
+		solrIndexerFactory = new SolrRecordIndexerFactory(indexSettings);
+
+		SolrRecordIndexer recordIndexer = (SolrRecordIndexer) solrIndexerFactory
+				.factor(defaultSolrUrl);
+		ResilientSolrClientProvider resilientProvider = (ResilientSolrClientProvider) recordIndexer
+				.onlyForTestGetSolrClientProvider();
+
+		SolrClientProviderImp solrClientProvider = (SolrClientProviderImp) resilientProvider
+				.onlyForTestGetSolrClientProvider();
+		assertEquals(solrClientProvider.getBaseURL(), defaultSolrUrl);
+		assertEquals(resilientProvider.getCircuitBreaker().getName(), defaultSolrUrl);
+		SolrRecordIndexer recordIndexer2 = (SolrRecordIndexer) solrIndexerFactory
+				.factor(defaultSolrUrl);
+		assertSame(recordIndexer2.onlyForTestGetSolrClientProvider(), resilientProvider);
+	}
+
+	@Test
+	public void testFactorWithAdmissionControllerWrapsResilientSolrClientProvider() {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setResilienceSettings(ResilienceSettings.withDefaults());
+		indexSettings.setAdmissionController(
+				AdmissionController.usingSearchAndIndexSettingsAndMetrics(
+						LimiterSettings.withDefaults(), LimiterSettings.withDefaults(),
+						new SolrMetrics()));
+		solrIndexerFactory = new SolrRecordIndexerFactory(indexSettings);
+
+		SolrRecordIndexer recordIndexer = (SolrRecordIndexer) solrIndexerFactory
+				.factor(defaultSolrUrl);
+		AdmissionControlledSolrClientProvider admissionProvider = (AdmissionControlledSolrClientProvider) recordIndexer
+				.onlyForTestGetSolrClientProvider();
+
+		assertTrue(admissionProvider
+				.onlyForTestGetSolrClientProvider() instanceof ResilientSolrClientProvider);
+		assertEquals(admissionProvider.onlyForTestGetTrafficClass(), TrafficClass.INDEX);
+	}
+
+	@Test
+	public void testFactorWithCoalescingWindowReturnsSharedCoalescingIndexer() {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setCoalescingWindowInMillis(50);
+		SolrRecordIndexerFactory factory = new SolrRecordIndexerFactory(indexSettings);
+
+		CoalescingRecordIndexer recordIndexer = (CoalescingRecordIndexer) factory
+				.factor(defaultSolrUrl);
+
+		assertSame(factory.factor(defaultSolrUrl), recordIndexer);
+		assertNotSame(factory.factor("someOtherSolrUrl"), recordIndexer);
+		assertTrue(recordIndexer.isStarted());
+		SolrRecordIndexer solrRecordIndexer = (SolrRecordIndexer) recordIndexer
+				.onlyForTestGetRecordIndexer();
+		assertSame(solrRecordIndexer.onlyForTestGetIndexSettings(), indexSettings);
+		recordIndexer.close();
+	}
+
+	@Test
+	public void testFactorWithoutIndexSpoolDirectoryUsesDisabledSpool() {
+		SolrRecordIndexer recordIndexer = (SolrRecordIndexer) solrIndexerFactory
+				.factor(defaultSolrUrl);
+
+		assertFalse(recordIndexer.onlyForTestGetIndexSpool().isEnabled());
+	}
+
+	@Test
+	public void testFactorWithIndexSpoolDirectoryStartsOneReplayerAndSpoolPerUrl()
+			throws Exception {
+		Path spoolDirectory = Files.createTempDirectory("indexSpools");
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setIndexSpoolDirectory(spoolDirectory);
+		SolrRecordIndexerFactory factory = new SolrRecordIndexerFactory(indexSettings);
+		String otherSolrUrl = "http://solr:8983/solr/othercore";
+
+		SolrRecordIndexer recordIndexer = (SolrRecordIndexer) factory.factor(defaultSolrUrl);
+		SolrRecordIndexer otherRecordIndexer = (SolrRecordIndexer) factory.factor(otherSolrUrl);
+
+		IndexSpool spool = recordIndexer.onlyForTestGetIndexSpool();
+		IndexSpool otherSpool = otherRecordIndexer.onlyForTestGetIndexSpool();
+		assertEquals(spool.getDirectory(), spoolDirectory.resolve(defaultSolrUrl));
+		assertEquals(otherSpool.getDirectory(),
+				spoolDirectory.resolve("http%3A%2F%2Fsolr%3A8983%2Fsolr%2Fothercore"));
+		assertSame(((SolrRecordIndexer) factory.factor(defaultSolrUrl)).onlyForTestGetIndexSpool(),
+				spool);
+		assertReplayerIsStartedForSpoolAndProvider(
+				factory.onlyForTestGetSpoolReplayer(defaultSolrUrl), spool, recordIndexer);
+		assertReplayerIsStartedForSpoolAndProvider(
+				factory.onlyForTestGetSpoolReplayer(otherSolrUrl), otherSpool, otherRecordIndexer);
+		stopAndDelete(factory.onlyForTestGetSpoolReplayer(defaultSolrUrl), spool);
+		stopAndDelete(factory.onlyForTestGetSpoolReplayer(otherSolrUrl), otherSpool);
+		Files.delete(spoolDirectory);
+	}
+
+	private void assertReplayerIsStartedForSpoolAndProvider(SpoolReplayer spoolReplayer,
+			IndexSpool spool, SolrRecordIndexer recordIndexer) {
+		assertTrue(spoolReplayer.isRunning());
+		assertSame(spoolReplayer.onlyForTestGetSpool(), spool);
+		assertSame(spoolReplayer.onlyForTestGetSolrClientProvider(),
+				recordIndexer.onlyForTestGetSolrClientProvider());
+	}
+
+	private void stopAndDelete(SpoolReplayer spoolReplayer, IndexSpool spool) throws Exception {
+		spoolReplayer.stop();
+		spool.close();
+		Files.delete(spool.getDirectory());
+	}
+
+	@Test
+	public void testCloseSendsBufferedUpdatesOfCoalescingIndexers() {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setCoalescingWindowInMillis(60_000);
+		SolrRecordIndexerFactory factory = new SolrRecordIndexerFactory(indexSettings);
+		CoalescingRecordIndexer recordIndexer = (CoalescingRecordIndexer) factory
+				.factor(defaultSolrUrl);
+		List<String> failures = new ArrayList<>();
+		recordIndexer.setFailureSink((message, exception) -> failures.add(message));
+		recordIndexer.deleteFromIndex("someType", "someId");
+
+		factory.close();
+
+		assertEquals(recordIndexer.getNumberOfPendingUpdates(), 0);
+		assertEquals(failures.size(), 1);
+		assertFalse(recordIndexer.isStarted());
+		assertNotSame(factory.factor(defaultSolrUrl), recordIndexer);
+		factory.close();
+	}
+
+	@Test
+	public void testCloseStopsReplayersAndClosesSpools() throws Exception {
+		Path spoolDirectory = Files.createTempDirectory("indexSpools");
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setIndexSpoolDirectory(spoolDirectory);
+		SolrRecordIndexerFactory factory = new SolrRecordIndexerFactory(indexSettings);
+		SolrRecordIndexer recordIndexer = (SolrRecordIndexer) factory.factor(defaultSolrUrl);
+		SpoolReplayer spoolReplayer = factory.onlyForTestGetSpoolReplayer(defaultSolrUrl);
+
+		factory.close();
+
+		assertFalse(spoolReplayer.isRunning());
+		assertNull(factory.onlyForTestGetSpoolReplayer(defaultSolrUrl));
+		Files.delete(recordIndexer.onlyForTestGetIndexSpool().getDirectory());
+		Files.delete(spoolDirectory);
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017, 2021, 2022, 2024 Uppsala University Library
+ * Copyright 2017, 2021, 2022, 2024, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -19,24 +19,51 @@
 package se.uu.ub.cora.solrindex;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
 import org.apache.solr.common.SolrInputDocument;
+import jdk.jfr.consumer.RecordedEvent;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import se.uu.ub.cora.data.DataProvider;
 import se.uu.ub.cora.data.DataRecordGroup;
 import se.uu.ub.cora.data.collected.IndexTerm;
 import se.uu.ub.cora.data.converter.DataToJsonConverterProvider;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
 import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
 import se.uu.ub.cora.search.RecordIndexer;
+import se.uu.ub.cora.solr.RecordPayload;
+import se.uu.ub.cora.solr.RecordPayloadFormat;
 import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.UnsupportedDataChildSpy;
+import se.uu.ub.cora.solr.jfr.JfrEventRecorder;
+import se.uu.ub.cora.solr.admission.AdmissionRejectedException;
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+import se.uu.ub.cora.solr.metrics.SolrOperation;
+import se.uu.ub.cora.solr.metrics.SolrPhase;
+import se.uu.ub.cora.solr.slowlog.SlowOperationLog;
+import se.uu.ub.cora.solrindex.spool.IndexSpool;
+import se.uu.ub.cora.solrindex.spool.SpoolEntry;
+import se.uu.ub.cora.solrindex.spool.SpoolOperation;
 
 public class SolrRecordIndexerTest {
 	private static final String RECORD_TYPE = "someRecordType";
@@ -49,8 +76,12 @@ public class SolrRecordIndexerTest {
 	private DataToJsonConverterFactorySpy dataToJsonConverterFactory;
 	private DataRecordGroup dataRecordGroup;
 
+	private SolrMetrics metrics;
+
 	@BeforeMethod
 	public void beforeTest() {
+		metrics = new SolrMetrics();
+		SolrMetricsProvider.onlyForTestSetMetrics(metrics);
 		setUpConverters();
 		solrClientProvider = new SolrClientProviderSpy();
 		recordIndexer = SolrRecordIndexer
@@ -150,6 +181,36 @@ public class SolrRecordIndexerTest {
 		return indexTerms;
 	}
 
+	@Test
+	public void testPrepareDocumentConvertsRecordWithoutSendingIt() {
+		List<IndexTerm> indexTerms = createCollectedDataWithOneCollectedIndexDataTerm();
+
+		PreparedDocument preparedDocument = recordIndexer.prepareDocument(RECORD_TYPE, RECORD_ID,
+				indexTerms, dataRecordGroup);
+
+		dataToJsonConverterFactory.MCR.assertCalledParameters("factorUsingConvertible",
+				dataRecordGroup);
+		assertNull(getCreatedDocument());
+		assertEquals(preparedDocument.numberOfIndexTerms(), 1);
+		assertEquals(preparedDocument.document().getFieldValue("title_s"), "someEnteredValue");
+
+		recordIndexer.indexPreparedDocument(preparedDocument, true);
+
+		assertSame(getCreatedDocument(), preparedDocument.document());
+		assertCorrectDocumentWhenOneSearchTerm();
+		dataToJsonConverterFactory.MCR.assertNumberOfCallsToMethod("factorUsingConvertible", 1);
+	}
+
+	@Test
+	public void testPrepareDocumentWithoutIndexTermsHasNothingToIndex() {
+		PreparedDocument preparedDocument = recordIndexer.prepareDocument(RECORD_TYPE, RECORD_ID,
+				createEmptyIndexTermList(), dataRecordGroup);
+
+		assertFalse(preparedDocument.hasDocument());
+		recordIndexer.indexPreparedDocument(preparedDocument, true);
+		assertNull(getCreatedDocument());
+	}
+
 	@Test
 	public void testIndexDataCommittedToSolr() {
 		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
@@ -227,6 +288,31 @@ public class SolrRecordIndexerTest {
 		}
 	}
 
+	@Test
+	public void testCommit() {
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+
+		recordIndexer.commit(RECORD_TYPE);
+
+		assertTrue(solrClientSpy.committed);
+		assertEquals(metrics.getRequestCount(SolrOperation.COMMIT, RECORD_TYPE), 1);
+		assertEquals(metrics.getPhaseSnapshot(SolrOperation.COMMIT, SolrPhase.COMMIT).count(), 1);
+	}
+
+	@Test(expectedExceptions = SolrIndexException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error while committing for type: someRecordType something went wrong")
+	public void testCommitExceptionFromSolrClient() {
+		SolrClientProviderSpy solrClientProviderSpy = new SolrClientProviderSpy();
+		solrClientProviderSpy.returnErrorThrowingClient = true;
+		SolrRecordIndexer indexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProvider(solrClientProviderSpy);
+		try {
+			indexer.commit(RECORD_TYPE);
+		} finally {
+			assertEquals(metrics.getErrorCount(SolrOperation.COMMIT, RECORD_TYPE), 1);
+		}
+	}
+
 	@Test
 	public void testDeleteFromIndex() {
 		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
@@ -342,4 +428,715 @@ public class SolrRecordIndexerTest {
 
 		assertEquals(solrClientSpy.committed, false);
 	}
+
+	@Test
+	public void testDefaultIndexSettings() {
+		assertTrue(recordIndexer.onlyForTestGetIndexSettings().getDenormalizedLinkedFields()
+				.isEmpty());
+		assertTrue(recordIndexer.onlyForTestGetIndexSettings().getAutocompleteIndexFieldNames()
+				.isEmpty());
+	}
+
+	@Test
+	public void testNoAutocompleteFieldByDefault() {
+		recordIndexer.indexData(RECORD_TYPE, RECORD_ID,
+				createCollectedDataWithOneCollectedIndexDataTerm(), dataRecordGroup);
+
+		assertNull(getCreatedDocument().getField("title_ac"));
+	}
+
+	@Test
+	public void testAutocompleteFieldIsAddedForAutocompleteIndexFieldNames() {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.addAutocompleteIndexFieldName("title");
+		recordIndexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+						solrClientProvider, indexSettings);
+		List<IndexTerm> indexTerms = createCollectedDataWithOneCollectedIndexDataTerm();
+		indexTerms.add(new IndexTerm("someIndexTerm", "someOtherValue", "title", "indexTypeText"));
+		indexTerms.add(new IndexTerm("someIndexTerm", "notAutocompleted", "subTitle",
+				"indexTypeText"));
+
+		recordIndexer.indexData(RECORD_TYPE, RECORD_ID, indexTerms, dataRecordGroup);
+
+		SolrInputDocument created = getCreatedDocument();
+		assertEquals(created.getFieldValues("title_ac"),
+				List.of("someEnteredValue", "someOtherValue"));
+		assertNull(created.getField("subTitle_ac"));
+	}
+
+	@Test
+	public void testDenormalizedLinkedFieldsAreCopiedFromLinkedDocument() {
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+		SolrDocument linkedDocument = new SolrDocument();
+		linkedDocument.addField("swedish_t", "en text");
+		linkedDocument.addField("swedish_t", "en annan text");
+		linkedDocument.addField("english_t", "some text");
+		solrClientSpy.documentsById.put("coraText_someText", linkedDocument);
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.addDenormalizedLinkedField("textId_s", "swedish_t");
+		indexSettings.addDenormalizedLinkedField("textId_s", "english_t");
+		indexSettings.addDenormalizedLinkedField("textId_s", "missing_t");
+		recordIndexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+						solrClientProvider, indexSettings);
+
+		List<IndexTerm> indexTerms = createCollectedDataWithOneCollectedIndexDataTerm();
+		indexTerms.add(new IndexTerm("textIndexTerm", "coraText_someText", "textId",
+				"indexTypeString"));
+		indexTerms.add(new IndexTerm("textIndexTerm", "coraText_notIndexed", "textId",
+				"indexTypeString"));
+		indexTerms.add(new IndexTerm("textIndexTerm", "coraText_someText", "textId",
+				"indexTypeString"));
+		recordIndexer.indexData(RECORD_TYPE, RECORD_ID, indexTerms, dataRecordGroup);
+
+		assertEquals(solrClientSpy.numberOfGetByIdRequests, 1);
+		assertEquals(solrClientSpy.requestedIds,
+				List.of("coraText_someText", "coraText_notIndexed"));
+		SolrInputDocument created = getCreatedDocument();
+		Iterator<Object> iterator = created.getField("textId_s__swedish_t").getValues()
+				.iterator();
+		assertEquals(iterator.next(), "en text");
+		assertEquals(iterator.next(), "en annan text");
+		assertEquals(iterator.next(), "en text");
+		assertEquals(iterator.next(), "en annan text");
+		assertEquals(created.getFieldValues("textId_s__english_t"),
+				List.of("some text", "some text"));
+		assertNull(created.getField("textId_s__missing_t"));
+	}
+
+	@Test
+	public void testDenormalizedLinkedFieldsNoLinkInDocument() {
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.addDenormalizedLinkedField("textId_s", "swedish_t");
+		recordIndexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+						solrClientProvider, indexSettings);
+
+		List<IndexTerm> indexTerms = createCollectedDataWithOneCollectedIndexDataTerm();
+		recordIndexer.indexData(RECORD_TYPE, RECORD_ID, indexTerms, dataRecordGroup);
+
+		assertTrue(solrClientSpy.requestedIds.isEmpty());
+		assertEquals(getCreatedDocument().getField("title_s").getValue(), "someEnteredValue");
+	}
+
+	@Test(expectedExceptions = SolrIndexException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error while reading linked records with ids: \\[coraText_someText\\] when indexing"
+			+ " record with type: someRecordType and id: someRecordId something went wrong")
+	public void testDenormalizedLinkedFieldsErrorReadingLinkedDocument() {
+		SolrClientProviderSpy solrClientProviderSpy = new SolrClientProviderSpy();
+		solrClientProviderSpy.returnErrorThrowingClient = true;
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.addDenormalizedLinkedField("textId_s", "swedish_t");
+		recordIndexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+						solrClientProviderSpy, indexSettings);
+
+		List<IndexTerm> indexTerms = createCollectedDataWithOneCollectedIndexDataTerm();
+		indexTerms.add(new IndexTerm("textIndexTerm", "coraText_someText", "textId",
+				"indexTypeString"));
+		try {
+			recordIndexer.indexData(RECORD_TYPE, RECORD_ID, indexTerms, dataRecordGroup);
+		} finally {
+			assertEquals(metrics.getErrorCount(SolrOperation.INDEX, RECORD_TYPE), 1);
+		}
+	}
+
+	@Test
+	public void testDenormalizedLinkedFieldsDocumentIsSpooledWhenSolrIsUnavailable()
+			throws Exception {
+		IndexSpool spool = createSpool();
+		SolrClientUnavailableSpy solrClient = new SolrClientUnavailableSpy();
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.addDenormalizedLinkedField("textId_s", "swedish_t");
+		SolrRecordIndexer indexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProviderIndexSettingsAndSpool(
+						() -> solrClient, indexSettings, spool);
+		List<IndexTerm> indexTerms = createCollectedDataWithOneCollectedIndexDataTerm();
+		indexTerms.add(new IndexTerm("textIndexTerm", "coraText_someText", "textId",
+				"indexTypeString"));
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, indexTerms, dataRecordGroup);
+
+		assertEquals(solrClient.numberOfRequests, 1);
+		List<SpoolEntry> entries = spool.peek(10);
+		assertEquals(entries.size(), 1);
+		assertEquals(entries.get(0).document().getFieldValue("textId_s"), "coraText_someText");
+		assertEquals(metrics.getErrorCount(SolrOperation.INDEX, RECORD_TYPE), 0);
+		closeAndDelete(spool);
+	}
+
+	@Test
+	public void testIndexDataRecordsMetrics() {
+		List<IndexTerm> indexTerms = createCollectedDataWithOneCollectedIndexDataTerm();
+
+		recordIndexer.indexData(RECORD_TYPE, RECORD_ID, indexTerms, dataRecordGroup);
+
+		assertEquals(metrics.getRequestCount(SolrOperation.INDEX, RECORD_TYPE), 1);
+		assertEquals(metrics.getDocumentCount(SolrOperation.INDEX, RECORD_TYPE), 1);
+		assertEquals(metrics.getRequestCount(SolrOperation.COMMIT, RECORD_TYPE), 1);
+		assertEquals(metrics.getPhaseSnapshot(SolrOperation.INDEX, SolrPhase.JSON_CONVERSION)
+				.count(), 1);
+		assertEquals(metrics.getPhaseSnapshot(SolrOperation.INDEX, SolrPhase.ADD).count(), 1);
+		assertEquals(metrics.getPhaseSnapshot(SolrOperation.INDEX, SolrPhase.COMMIT).count(), 1);
+	}
+
+	@Test
+	public void testIndexErrorIsCountedInMetrics() {
+
+		try {
+			setUpIndexCallThatThrowsError();
+		} catch (SolrIndexException e) {
+			// expected
+		}
+
+		assertEquals(metrics.getRequestCount(SolrOperation.INDEX, RECORD_TYPE), 1);
+		assertEquals(metrics.getErrorCount(SolrOperation.INDEX, RECORD_TYPE), 1);
+		assertEquals(metrics.getDocumentCount(SolrOperation.INDEX, RECORD_TYPE), 0);
+	}
+
+	@Test
+	public void testDeleteRecordsMetrics() {
+
+		recordIndexer.deleteFromIndex("someType", "someId");
+
+		assertEquals(metrics.getRequestCount(SolrOperation.DELETE, "someType"), 1);
+		assertEquals(metrics.getDocumentCount(SolrOperation.DELETE, "someType"), 1);
+		assertEquals(metrics.getPhaseSnapshot(SolrOperation.DELETE, SolrPhase.SOLR_ROUND_TRIP)
+				.count(), 1);
+		assertEquals(metrics.getPhaseSnapshot(SolrOperation.DELETE, SolrPhase.COMMIT).count(), 1);
+	}
+
+	@Test
+	public void testDeleteErrorIsCountedInMetrics() {
+
+		try {
+			setUpDeleteToThrowError();
+		} catch (SolrIndexException e) {
+			// expected
+		}
+
+		assertEquals(metrics.getErrorCount(SolrOperation.DELETE, "someType"), 1);
+	}
+
+	@Test
+	public void testIndexDataEmitsFlightRecorderEvents() {
+		JfrEventRecorder recorder = JfrEventRecorder.startRecordingEvents(
+				"se.uu.ub.cora.solr.Index", "se.uu.ub.cora.solr.Commit");
+		List<IndexTerm> indexTerms = createCollectedDataWithOneCollectedIndexDataTerm();
+
+		recordIndexer.indexData(RECORD_TYPE, RECORD_ID, indexTerms, dataRecordGroup);
+
+		List<RecordedEvent> events = recorder.stopAndGetEvents();
+		assertEquals(events.size(), 2);
+		RecordedEvent commitEvent = getEventOfType(events, "se.uu.ub.cora.solr.Commit");
+		assertEquals(commitEvent.getString("recordType"), RECORD_TYPE);
+		assertEquals(commitEvent.getString("operation"), "INDEX");
+		RecordedEvent indexEvent = getEventOfType(events, "se.uu.ub.cora.solr.Index");
+		assertEquals(indexEvent.getString("recordType"), RECORD_TYPE);
+		assertEquals(indexEvent.getString("recordId"), RECORD_ID);
+		assertEquals(indexEvent.getInt("numberOfIndexTerms"), 1);
+		assertEquals(indexEvent.getLong("payloadBytes"),
+				"Json from DataToJsonConverterSpy".length());
+		assertTrue(indexEvent.getBoolean("explicitCommit"));
+		assertTrue(indexEvent.getBoolean("successful"));
+	}
+
+	private RecordedEvent getEventOfType(List<RecordedEvent> events, String eventName) {
+		return events.stream().filter(event -> event.getEventType().getName().equals(eventName))
+				.findFirst().orElseThrow();
+	}
+
+	@Test
+	public void testDeleteEmitsFlightRecorderEvent() {
+		JfrEventRecorder recorder = JfrEventRecorder
+				.startRecordingEvents("se.uu.ub.cora.solr.Delete");
+
+		recordIndexer.deleteFromIndex("someType", "someId");
+
+		List<RecordedEvent> events = recorder.stopAndGetEvents();
+		assertEquals(events.size(), 1);
+		assertEquals(events.get(0).getString("recordType"), "someType");
+		assertEquals(events.get(0).getString("recordId"), "someId");
+		assertTrue(events.get(0).getBoolean("successful"));
+	}
+
+	@Test
+	public void testFailedDeleteEmitsUnsuccessfulFlightRecorderEvent() {
+		JfrEventRecorder recorder = JfrEventRecorder
+				.startRecordingEvents("se.uu.ub.cora.solr.Delete");
+
+		try {
+			setUpDeleteToThrowError();
+		} catch (SolrIndexException e) {
+			// expected
+		}
+
+		List<RecordedEvent> events = recorder.stopAndGetEvents();
+		assertEquals(events.size(), 1);
+		assertEquals(events.get(0).getBoolean("successful"), false);
+	}
+
+	@Test
+	public void testSlowIndexIsLogged() {
+		List<String> slowLogEntries = setUpIndexerWithSlowOperationLogLoggingAll();
+		List<IndexTerm> indexTerms = createCollectedDataWithOneCollectedIndexDataTerm();
+
+		recordIndexer.indexData(RECORD_TYPE, RECORD_ID, indexTerms, dataRecordGroup);
+
+		assertEquals(slowLogEntries.size(), 1);
+		assertTrue(slowLogEntries.get(0).endsWith(" ms): index of recordType: someRecordType,"
+				+ " id: someRecordId, indexTerms: 1, explicitCommit: true, QTime: 0 ms,"
+				+ " successful: true, fields: id type title_s recordAsJson"));
+	}
+
+	private List<String> setUpIndexerWithSlowOperationLogLoggingAll() {
+		List<String> slowLogEntries = new ArrayList<>();
+		SlowOperationLog slowOperationLog = SlowOperationLog.usingThresholdInMillis(0);
+		slowOperationLog.setSink(slowLogEntries::add);
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setSlowOperationLog(slowOperationLog);
+		recordIndexer = SolrRecordIndexer.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+				solrClientProvider, indexSettings);
+		return slowLogEntries;
+	}
+
+	@Test
+	public void testSlowDeleteIsLogged() {
+		List<String> slowLogEntries = setUpIndexerWithSlowOperationLogLoggingAll();
+
+		recordIndexer.deleteFromIndex("someType", "someId");
+
+		assertEquals(slowLogEntries.size(), 1);
+		assertTrue(slowLogEntries.get(0).endsWith(
+				" ms): delete of recordType: someType, id: someId, QTime: 0 ms, successful: true"));
+	}
+
+	@Test
+	public void testIndexIsSpooledWhenSolrIsUnavailable() throws Exception {
+		IndexSpool spool = createSpool();
+		SolrClientUnavailableSpy solrClient = new SolrClientUnavailableSpy();
+		SolrRecordIndexer indexer = createIndexerUsingClientAndSpool(solrClient, spool);
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		List<SpoolEntry> entries = spool.peek(10);
+		assertEquals(entries.size(), 1);
+		assertEquals(entries.get(0).operation(), SpoolOperation.ADD);
+		assertEquals(entries.get(0).document().getFieldValue("title_s"), "someEnteredValue");
+		assertEquals(metrics.getErrorCount(SolrOperation.INDEX, RECORD_TYPE), 0);
+		assertEquals(metrics.getCounterValue(new MetricKey(IndexSpool.SPOOLED_COUNTER,
+				Map.of("operation", "INDEX", "recordType", RECORD_TYPE))), 1);
+		closeAndDelete(spool);
+	}
+
+	private IndexSpool createSpool() throws Exception {
+		return IndexSpool.usingDirectory(Files.createTempDirectory("indexSpool"));
+	}
+
+	private SolrRecordIndexer createIndexerUsingClientAndSpool(
+			SolrClient solrClient, IndexSpool spool) {
+		return SolrRecordIndexer.createSolrRecordIndexerUsingSolrClientProviderIndexSettingsAndSpool(
+				() -> solrClient, SolrIndexSettings.withDefaults(), spool);
+	}
+
+	private void closeAndDelete(IndexSpool spool) throws Exception {
+		spool.acknowledge((int) spool.getNumberOfPendingEntries());
+		spool.close();
+		Files.delete(spool.getDirectory());
+	}
+
+	@Test
+	public void testUpdatesAreSpooledWhileSpoolHasPendingUpdates() throws Exception {
+		IndexSpool spool = createSpool();
+		spool.append(SpoolEntry.delete("someRecordType_someOtherId"));
+		SolrClientUnavailableSpy solrClient = new SolrClientUnavailableSpy();
+		SolrRecordIndexer indexer = createIndexerUsingClientAndSpool(solrClient, spool);
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		indexer.deleteFromIndex(RECORD_TYPE, RECORD_ID);
+
+		assertEquals(solrClient.numberOfRequests, 0);
+		List<SpoolEntry> entries = spool.peek(10);
+		assertEquals(entries.size(), 3);
+		assertEquals(entries.get(1).documentId(), "someRecordType_someRecordId");
+		assertEquals(entries.get(2), SpoolEntry.delete("someRecordType_someRecordId"));
+		closeAndDelete(spool);
+	}
+
+	@Test
+	public void testDeleteIsSpooledWhenSolrIsUnavailable() throws Exception {
+		IndexSpool spool = createSpool();
+		SolrClientUnavailableSpy solrClient = new SolrClientUnavailableSpy();
+		SolrRecordIndexer indexer = createIndexerUsingClientAndSpool(solrClient, spool);
+
+		indexer.deleteFromIndex("someType", "someId");
+
+		assertEquals(solrClient.numberOfRequests, 1);
+		assertEquals(spool.peek(10), List.of(SpoolEntry.delete("someType_someId")));
+		assertEquals(metrics.getErrorCount(SolrOperation.DELETE, "someType"), 0);
+		closeAndDelete(spool);
+	}
+
+	@Test
+	public void testAdmissionRejectionsAreNotSpooled() throws Exception {
+		IndexSpool spool = createSpool();
+		SolrClientUnavailableSpy solrClient = new SolrClientUnavailableSpy();
+		solrClient.exceptionToThrow = AdmissionRejectedException
+				.withMessage("Solr index request rejected by admission control, queue is full");
+		SolrRecordIndexer indexer = createIndexerUsingClientAndSpool(solrClient, spool);
+		try {
+			indexer.indexData(RECORD_TYPE, RECORD_ID,
+					createCollectedDataWithOneCollectedIndexDataTerm(), dataRecordGroup);
+			fail("Should have thrown");
+		} catch (SolrIndexException e) {
+			assertSame(e.getCause(), solrClient.exceptionToThrow);
+		}
+		assertEquals(spool.getNumberOfPendingEntries(), 0);
+		assertEquals(metrics.getErrorCount(SolrOperation.INDEX, RECORD_TYPE), 1);
+		closeAndDelete(spool);
+	}
+
+	@Test
+	public void testClientErrorsAreNotSpooled() throws Exception {
+		IndexSpool spool = createSpool();
+		SolrClientProviderSpy solrClientProviderSpy = new SolrClientProviderSpy();
+		solrClientProviderSpy.returnErrorThrowingClient = true;
+		SolrRecordIndexer indexer = createIndexerUsingClientAndSpool(
+				solrClientProviderSpy.getSolrClient(), spool);
+		try {
+			indexer.deleteFromIndex("someType", "someId");
+			fail("Should have thrown");
+		} catch (SolrIndexException e) {
+			assertTrue(e.getCause() instanceof SolrExceptionSpy);
+		}
+		assertEquals(spool.getNumberOfPendingEntries(), 0);
+		closeAndDelete(spool);
+	}
+
+	@Test
+	public void testContentHashIsNotAddedByDefault() {
+		recordIndexer.indexData(RECORD_TYPE, RECORD_ID,
+				createCollectedDataWithOneCollectedIndexDataTerm(), dataRecordGroup);
+
+		assertNull(getCreatedDocument().getField(ContentHashCache.CONTENT_HASH_FIELD));
+	}
+
+	@Test
+	public void testUnchangedDocumentIsNotSentAgain() {
+		ContentHashCache contentHashCache = ContentHashCache.withMaxSize(10);
+		SolrRecordIndexer indexer = createIndexerUsingContentHashCache(contentHashCache);
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		solrClientSpy.committed = false;
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		assertEquals(solrClientSpy.numberOfAdds, 1);
+		assertFalse(solrClientSpy.committed);
+		String hash = String.valueOf(
+				getCreatedDocument().getFieldValue(ContentHashCache.CONTENT_HASH_FIELD));
+		assertEquals(contentHashCache.getHash("someRecordType_someRecordId").get(), hash);
+		assertEquals(metrics.getCounterValue(new MetricKey(ContentHashCache.UNCHANGED_COUNTER,
+				Map.of("recordType", RECORD_TYPE))), 1);
+	}
+
+	private SolrRecordIndexer createIndexerUsingContentHashCache(
+			ContentHashCache contentHashCache) {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setContentHashCache(contentHashCache);
+		return SolrRecordIndexer.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+				solrClientProvider, indexSettings);
+	}
+
+	@Test
+	public void testChangedDocumentIsSent() {
+		SolrRecordIndexer indexer = createIndexerUsingContentHashCache(
+				ContentHashCache.withMaxSize(10));
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		indexer.indexData(RECORD_TYPE, RECORD_ID, List.of(new IndexTerm("someIndexTerm",
+				"someOtherValue", "title", "indexTypeString")), dataRecordGroup);
+
+		assertEquals(solrClientSpy.numberOfAdds, 2);
+	}
+
+	@Test
+	public void testDeleteForgetsContentHash() {
+		ContentHashCache contentHashCache = ContentHashCache.withMaxSize(10);
+		SolrRecordIndexer indexer = createIndexerUsingContentHashCache(contentHashCache);
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		indexer.deleteFromIndex(RECORD_TYPE, RECORD_ID);
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		assertEquals(solrClientSpy.numberOfAdds, 2);
+	}
+
+	@Test
+	public void testFailedIndexForgetsContentHash() {
+		ContentHashCache contentHashCache = ContentHashCache.withMaxSize(10);
+		contentHashCache.putHash("someRecordType_someRecordId", "someHash");
+		((SolrClientProviderSpy) solrClientProvider).returnErrorThrowingClient = true;
+		SolrRecordIndexer indexer = createIndexerUsingContentHashCache(contentHashCache);
+		try {
+			indexer.indexData(RECORD_TYPE, RECORD_ID,
+					createCollectedDataWithOneCollectedIndexDataTerm(), dataRecordGroup);
+			fail("Should have thrown");
+		} catch (SolrIndexException e) {
+			assertTrue(contentHashCache.getHash("someRecordType_someRecordId").isEmpty());
+		}
+	}
+
+	@Test
+	public void testHashIsReadFromSolrOnCacheMissWhenChecking() {
+		ContentHashCache contentHashCache = ContentHashCache.withMaxSize(10);
+		contentHashCache.setCheckSolrOnMiss(true);
+		SolrRecordIndexer indexer = createIndexerUsingContentHashCache(contentHashCache);
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		SolrDocument stored = new SolrDocument();
+		stored.setField(ContentHashCache.CONTENT_HASH_FIELD,
+				getCreatedDocument().getFieldValue(ContentHashCache.CONTENT_HASH_FIELD));
+		solrClientSpy.documentsById.put("someRecordType_someRecordId", stored);
+		contentHashCache.clear();
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		assertEquals(solrClientSpy.numberOfAdds, 1);
+		assertEquals(solrClientSpy.requestedIds, List.of("someRecordType_someRecordId",
+				"someRecordType_someRecordId"));
+		assertEquals(solrClientSpy.getByIdParams.get(1).get("fl"),
+				ContentHashCache.CONTENT_HASH_FIELD);
+	}
+
+	@Test
+	public void testUnchangedDocumentIsSpooledWhenSpoolHasPendingDeleteOfIt() throws Exception {
+		ContentHashCache contentHashCache = ContentHashCache.withMaxSize(10);
+		contentHashCache.setCheckSolrOnMiss(true);
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setContentHashCache(contentHashCache);
+		IndexSpool spool = createSpool();
+		SolrRecordIndexer indexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProviderIndexSettingsAndSpool(
+						solrClientProvider, indexSettings, spool);
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		SolrDocument stored = new SolrDocument();
+		stored.setField(ContentHashCache.CONTENT_HASH_FIELD,
+				getCreatedDocument().getFieldValue(ContentHashCache.CONTENT_HASH_FIELD));
+		solrClientSpy.documentsById.put("someRecordType_someRecordId", stored);
+		spool.append(SpoolEntry.delete("someRecordType_someRecordId"));
+		contentHashCache.clear();
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		assertEquals(solrClientSpy.requestedIds, List.of("someRecordType_someRecordId"));
+		List<SpoolEntry> entries = spool.peek(10);
+		assertEquals(entries.size(), 2);
+		assertEquals(entries.get(1).operation(), SpoolOperation.ADD);
+		assertEquals(entries.get(1).documentId(), "someRecordType_someRecordId");
+		closeAndDelete(spool);
+	}
+
+	@Test
+	public void testReindexSendsOnlyChangedFieldsAsAtomicUpdate() {
+		IndexedFieldsCache indexedFieldsCache = IndexedFieldsCache.withMaxSize(10);
+		SolrRecordIndexer indexer = createIndexerUsingIndexedFieldsCache(indexedFieldsCache);
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		assertEquals(getCreatedDocument().getFieldValue("title_s"), "someEnteredValue");
+		indexer.indexData(RECORD_TYPE, RECORD_ID, List.of(new IndexTerm("someIndexTerm",
+				"someOtherValue", "title", "indexTypeString")), dataRecordGroup);
+
+		SolrInputDocument update = getCreatedDocument();
+		assertEquals(update.getFieldNames(), List.of("id", "_version_", "title_s"));
+		assertEquals(update.getFieldValue("title_s"), Map.of("set", "someOtherValue"));
+		assertTrue(indexedFieldsCache.getIndexedFields("someRecordType_someRecordId").isPresent());
+		assertEquals(metrics.getCounterValue(new MetricKey(IndexedFieldsCache.ATOMIC_UPDATE_COUNTER,
+				Map.of("recordType", RECORD_TYPE))), 1);
+	}
+
+	@Test
+	public void testAtomicUpdateOfMissingDocumentIsResentAsFullDocument() {
+		IndexedFieldsCache indexedFieldsCache = IndexedFieldsCache.withMaxSize(10);
+		SolrRecordIndexer indexer = createIndexerUsingIndexedFieldsCache(indexedFieldsCache);
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		solrClientSpy.exceptionForAtomicUpdates = new SolrException(ErrorCode.CONFLICT,
+				"version conflict");
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, List.of(new IndexTerm("someIndexTerm",
+				"someOtherValue", "title", "indexTypeString")), dataRecordGroup);
+
+		assertEquals(solrClientSpy.numberOfAdds, 3);
+		assertTrue(solrClientSpy.addedDocuments.get(1).containsKey("_version_"));
+		SolrInputDocument resent = solrClientSpy.addedDocuments.get(2);
+		assertFalse(resent.containsKey("_version_"));
+		assertEquals(resent.getFieldValue("title_s"), "someOtherValue");
+		assertEquals(resent.getFieldValue("type"), RECORD_TYPE);
+		assertTrue(indexedFieldsCache.getIndexedFields("someRecordType_someRecordId").isPresent());
+		assertEquals(metrics.getCounterValue(new MetricKey(
+				IndexedFieldsCache.ATOMIC_UPDATE_CONFLICT_COUNTER,
+				Map.of("recordType", RECORD_TYPE))), 1);
+	}
+
+	@Test
+	public void testAtomicUpdateFailingWithOtherErrorIsNotResent() {
+		IndexedFieldsCache indexedFieldsCache = IndexedFieldsCache.withMaxSize(10);
+		SolrRecordIndexer indexer = createIndexerUsingIndexedFieldsCache(indexedFieldsCache);
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		solrClientSpy.exceptionForAtomicUpdates = new SolrException(ErrorCode.BAD_REQUEST,
+				"undefined field");
+		try {
+			indexer.indexData(RECORD_TYPE, RECORD_ID, List.of(new IndexTerm("someIndexTerm",
+					"someOtherValue", "title", "indexTypeString")), dataRecordGroup);
+			fail("Should have thrown");
+		} catch (SolrIndexException e) {
+			assertEquals(solrClientSpy.numberOfAdds, 2);
+			assertEquals(metrics.getCounterValue(new MetricKey(
+					IndexedFieldsCache.ATOMIC_UPDATE_CONFLICT_COUNTER,
+					Map.of("recordType", RECORD_TYPE))), 0);
+		}
+	}
+
+	private SolrRecordIndexer createIndexerUsingIndexedFieldsCache(
+			IndexedFieldsCache indexedFieldsCache) {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setIndexedFieldsCache(indexedFieldsCache);
+		return SolrRecordIndexer.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+				solrClientProvider, indexSettings);
+	}
+
+	@Test
+	public void testReindexWithUnchangedFieldsIsNotSent() {
+		SolrRecordIndexer indexer = createIndexerUsingIndexedFieldsCache(
+				IndexedFieldsCache.withMaxSize(10));
+		SolrClientSpy solrClientSpy = ((SolrClientProviderSpy) solrClientProvider).solrClientSpy;
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		assertEquals(solrClientSpy.numberOfAdds, 1);
+		assertEquals(metrics.getCounterValue(new MetricKey(ContentHashCache.UNCHANGED_COUNTER,
+				Map.of("recordType", RECORD_TYPE))), 1);
+	}
+
+	@Test
+	public void testDeleteForgetsIndexedFields() {
+		IndexedFieldsCache indexedFieldsCache = IndexedFieldsCache.withMaxSize(10);
+		SolrRecordIndexer indexer = createIndexerUsingIndexedFieldsCache(indexedFieldsCache);
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+		indexer.deleteFromIndex(RECORD_TYPE, RECORD_ID);
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		assertEquals(getCreatedDocument().getFieldValue("title_s"), "someEnteredValue");
+	}
+
+	@Test
+	public void testFailedIndexForgetsIndexedFields() {
+		IndexedFieldsCache indexedFieldsCache = IndexedFieldsCache.withMaxSize(10);
+		indexedFieldsCache.putIndexedFields("someRecordType_someRecordId", Map.of());
+		((SolrClientProviderSpy) solrClientProvider).returnErrorThrowingClient = true;
+		SolrRecordIndexer indexer = createIndexerUsingIndexedFieldsCache(indexedFieldsCache);
+		try {
+			indexer.indexData(RECORD_TYPE, RECORD_ID,
+					createCollectedDataWithOneCollectedIndexDataTerm(), dataRecordGroup);
+			fail("Should have thrown");
+		} catch (SolrIndexException e) {
+			assertEquals(indexedFieldsCache.size(), 0);
+		}
+	}
+
+	@Test
+	public void testCompressedJsonPayloadFormat() {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setRecordPayloadFormat(RecordPayloadFormat.COMPRESSED_JSON);
+		SolrRecordIndexer indexer = SolrRecordIndexer
+				.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(solrClientProvider,
+						indexSettings);
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		SolrInputDocument created = getCreatedDocument();
+		assertNull(created.getField("recordAsJson"));
+		assertEquals(RecordPayload.readJson(created.getFieldValue(RecordPayload.FIELD_NAME)),
+				"Json from DataToJsonConverterSpy");
+	}
+
+	@Test
+	public void testJsonPayloadFormatIsDefault() {
+		assertEquals(SolrIndexSettings.withDefaults().getRecordPayloadFormat(),
+				RecordPayloadFormat.JSON);
+	}
+
+	@Test
+	public void testBinaryPayloadFormatSkipsJsonConversion() {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactory);
+		DataGroupSpy recordAsGroup = new DataGroupSpy();
+		recordAsGroup.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someRecord");
+		dataFactory.MRV.setDefaultReturnValuesSupplier("factorGroupFromDataRecordGroup",
+				() -> recordAsGroup);
+		SolrRecordIndexer indexer = createIndexerUsingPayloadFormat(RecordPayloadFormat.BINARY);
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		dataFactory.MCR.assertParameters("factorGroupFromDataRecordGroup", 0, dataRecordGroup);
+		dataToJsonConverterFactory.MCR.assertMethodNotCalled("factorUsingConvertible");
+		SolrInputDocument created = getCreatedDocument();
+		assertNull(created.getField("recordAsJson"));
+		assertTrue(RecordPayload.isBinaryRecord(created.getFieldValue(RecordPayload.FIELD_NAME)));
+	}
+
+	private SolrRecordIndexer createIndexerUsingPayloadFormat(RecordPayloadFormat payloadFormat) {
+		SolrIndexSettings indexSettings = SolrIndexSettings.withDefaults();
+		indexSettings.setRecordPayloadFormat(payloadFormat);
+		return SolrRecordIndexer.createSolrRecordIndexerUsingSolrClientProviderAndIndexSettings(
+				solrClientProvider, indexSettings);
+	}
+
+	@Test
+	public void testBinaryPayloadFormatFallsBackToJsonForUnsupportedRecord() {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactory);
+		DataGroupSpy recordAsGroup = new DataGroupSpy();
+		recordAsGroup.MRV.setDefaultReturnValuesSupplier("getChildren",
+				() -> List.of(new UnsupportedDataChildSpy()));
+		dataFactory.MRV.setDefaultReturnValuesSupplier("factorGroupFromDataRecordGroup",
+				() -> recordAsGroup);
+		SolrRecordIndexer indexer = createIndexerUsingPayloadFormat(RecordPayloadFormat.BINARY);
+
+		indexer.indexData(RECORD_TYPE, RECORD_ID, createCollectedDataWithOneCollectedIndexDataTerm(),
+				dataRecordGroup);
+
+		SolrInputDocument created = getCreatedDocument();
+		assertNull(created.getField(RecordPayload.FIELD_NAME));
+		assertEquals(created.getFieldValue("recordAsJson"), "Json from DataToJsonConverterSpy");
+	}
 }
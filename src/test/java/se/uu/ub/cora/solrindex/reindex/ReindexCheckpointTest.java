@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.reindex;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solrindex.SolrIndexException;
+
+public class ReindexCheckpointTest {
+	private Path directory;
+	private Path file;
+	private ReindexCheckpoint checkpoint;
+
+	@BeforeMethod
+	public void beforeMethod() throws Exception {
+		directory = Files.createTempDirectory("reindexCheckpoint");
+		file = directory.resolve("checkpoint.txt");
+		checkpoint = ReindexCheckpoint.usingFile(file);
+	}
+
+	@AfterMethod
+	public void afterMethod() throws Exception {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(directory);
+	}
+
+	@Test
+	public void testNoFileMeansNothingCompleted() {
+		assertTrue(checkpoint.readCompletedPartitionKeys().isEmpty());
+		assertEquals(checkpoint.getFile(), file);
+	}
+
+	@Test
+	public void testMarkCompletedIsReadBack() throws Exception {
+		checkpoint.markCompleted(new ReindexPartition("person", "a", "m"));
+		checkpoint.markCompleted(ReindexPartition.forRecordType("place"));
+
+		assertEquals(Files.readString(file, StandardCharsets.UTF_8), "person/a/m\nplace//\n");
+		assertEquals(ReindexCheckpoint.usingFile(file).readCompletedPartitionKeys(),
+				Set.of("person/a/m", "place//"));
+	}
+
+	@Test
+	public void testDelete() {
+		checkpoint.markCompleted(ReindexPartition.forRecordType("place"));
+
+		checkpoint.delete();
+
+		assertFalse(Files.exists(file));
+	}
+
+	@Test(expectedExceptions = SolrIndexException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error writing reindex checkpoint file: .*")
+	public void testWriteErrorIsWrapped() {
+		ReindexCheckpoint.usingFile(directory.resolve("missing").resolve("checkpoint.txt"))
+				.markCompleted(ReindexPartition.forRecordType("place"));
+	}
+
+	@Test(expectedExceptions = SolrIndexException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error reading reindex checkpoint file: .*")
+	public void testReadErrorIsWrapped() {
+		ReindexCheckpoint.usingFile(directory).readCompletedPartitionKeys();
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.reindex;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.converter.DataToJsonConverterProvider;
+import se.uu.ub.cora.solrindex.DataToJsonConverterFactoryCreatorSpy;
+import se.uu.ub.cora.solrindex.DataToJsonConverterFactorySpy;
+import se.uu.ub.cora.solrindex.DataToJsonConverterSpy;
+import se.uu.ub.cora.solrindex.SolrIndexException;
+import se.uu.ub.cora.solrindex.SolrRecordIndexer;
+
+public class ReindexCoordinatorTest {
+	private static final ReindexPartition PERSON_A_TO_M = new ReindexPartition("person", "", "m");
+	private static final ReindexPartition PERSON_M_ON = new ReindexPartition("person", "m", "");
+	private static final ReindexPartition PLACE = ReindexPartition.forRecordType("place");
+	private Path directory;
+	private Path checkpointFile;
+	private ReindexSolrClientSpy solrClient;
+	private ReindexSourceSpy source;
+	private ReindexCoordinator coordinator;
+
+	@BeforeMethod
+	public void beforeMethod() throws Exception {
+		setUpConverters();
+		directory = Files.createTempDirectory("reindex");
+		checkpointFile = directory.resolve("checkpoint.txt");
+		solrClient = new ReindexSolrClientSpy();
+		source = new ReindexSourceSpy();
+		source.addPartition(PERSON_A_TO_M, "anna", "bertil");
+		source.addPartition(PERSON_M_ON, "nils");
+		source.addPartition(PLACE, "uppsala", "stockholm", "lund");
+		coordinator = ReindexCoordinator.usingIndexerSupplierSourceAndCheckpointFile(
+				this::createIndexer, source, checkpointFile);
+	}
+
+	private void setUpConverters() {
+		DataToJsonConverterFactorySpy converterFactory = new DataToJsonConverterFactorySpy();
+		DataToJsonConverterFactoryCreatorSpy converterFactoryCreator = new DataToJsonConverterFactoryCreatorSpy();
+		converterFactoryCreator.MRV.setDefaultReturnValuesSupplier("createFactory",
+				() -> converterFactory);
+		converterFactory.MRV.setDefaultReturnValuesSupplier("factorUsingConvertible",
+				DataToJsonConverterSpy::new);
+		DataToJsonConverterProvider.setDataToJsonConverterFactoryCreator(converterFactoryCreator);
+	}
+
+	private SolrRecordIndexer createIndexer() {
+		return SolrRecordIndexer.createSolrRecordIndexerUsingSolrClientProvider(() -> solrClient);
+	}
+
+	@AfterMethod
+	public void afterMethod() throws Exception {
+		Files.deleteIfExists(checkpointFile);
+		Files.deleteIfExists(directory);
+	}
+
+	@Test
+	public void testDefaultParallelism() {
+		assertEquals(coordinator.getParallelism(), 4);
+	}
+
+	@Test
+	public void testAllPartitionsAreIndexedAndCommitted() {
+		ReindexProgress progress = coordinator.run();
+
+		assertEquals(Set.copyOf(solrClient.indexedIds),
+				Set.of("person_anna", "person_bertil", "person_nils", "place_uppsala",
+						"place_stockholm", "place_lund"));
+		assertEquals(solrClient.numberOfCommits.get(), 3);
+		assertEquals(progress.totalPartitions(), 3);
+		assertEquals(progress.completedPartitions(), 3);
+		assertEquals(progress.resumedPartitions(), 0);
+		assertEquals(progress.remainingPartitions(), 0);
+		assertEquals(progress.indexedDocuments(), 6);
+		assertTrue(progress.documentsPerSecond() > 0);
+	}
+
+	@Test
+	public void testCheckpointFileIsDeletedWhenAllPartitionsCompleted() {
+		coordinator.run();
+
+		assertFalse(Files.exists(checkpointFile));
+		assertEquals(coordinator.getCheckpoint().getFile(), checkpointFile);
+	}
+
+	@Test
+	public void testFailedPartitionKeepsCheckpointsOfCompletedPartitions() {
+		coordinator.setParallelism(1);
+		source.failingPartition = PERSON_M_ON;
+		try {
+			coordinator.run();
+			fail("Should have thrown");
+		} catch (SolrIndexException e) {
+			assertEquals(e.getMessage(), "Reindex failed for 1 partitions, first failed "
+					+ "partition: person/m/ Error reading nils");
+		}
+		assertEquals(coordinator.getCheckpoint().readCompletedPartitionKeys(),
+				Set.of(PERSON_A_TO_M.key(), PLACE.key()));
+		ReindexProgress progress = coordinator.getProgress();
+		assertEquals(progress.completedPartitions(), 2);
+		assertEquals(progress.failedPartitions(), 1);
+	}
+
+	@Test
+	public void testResumeSkipsCompletedPartitions() {
+		source.failingPartition = PERSON_M_ON;
+		try {
+			coordinator.run();
+			fail("Should have thrown");
+		} catch (SolrIndexException e) {
+			// expected
+		}
+		source.failingPartition = null;
+		source.readPartitions.clear();
+		solrClient.indexedIds.clear();
+		ReindexCoordinator resumed = ReindexCoordinator.usingIndexerSupplierSourceAndCheckpointFile(
+				this::createIndexer, source, checkpointFile);
+
+		ReindexProgress progress = resumed.run();
+
+		assertEquals(source.readPartitions, List.of(PERSON_M_ON));
+		assertEquals(solrClient.indexedIds, List.of("person_nils"));
+		assertEquals(progress.resumedPartitions(), 2);
+		assertEquals(progress.completedPartitions(), 1);
+	}
+
+	@Test
+	public void testProgressBeforeRun() {
+		ReindexProgress progress = coordinator.getProgress();
+
+		assertEquals(progress.totalPartitions(), 0);
+		assertEquals(progress.elapsedNanos(), 0);
+		assertEquals(progress.documentsPerSecond(), 0.0);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.reindex;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.AbstractUpdateRequest.ACTION;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+
+public class ReindexSolrClientSpy extends SolrClient {
+	private static final long serialVersionUID = 1L;
+	public List<String> indexedIds = Collections.synchronizedList(new ArrayList<>());
+	public AtomicInteger numberOfCommits = new AtomicInteger();
+
+	@Override
+	public NamedList<Object> request(SolrRequest<?> request, String collection)
+			throws SolrServerException, IOException {
+		UpdateRequest updateRequest = (UpdateRequest) request;
+		if (updateRequest.getAction() == ACTION.COMMIT) {
+			numberOfCommits.incrementAndGet();
+		}
+		if (updateRequest.getDocuments() != null) {
+			for (SolrInputDocument document : updateRequest.getDocuments()) {
+				indexedIds.add((String) document.getFieldValue("id"));
+			}
+		}
+		return new NamedList<>();
+	}
+
+	@Override
+	public void close() throws IOException {
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.reindex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import se.uu.ub.cora.data.collected.IndexTerm;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+
+public class ReindexSourceSpy implements ReindexSource {
+	public Map<ReindexPartition, List<String>> recordIdsInPartitions = new LinkedHashMap<>();
+	public List<ReindexPartition> readPartitions = Collections.synchronizedList(new ArrayList<>());
+	public ReindexPartition failingPartition;
+
+	public void addPartition(ReindexPartition partition, String... recordIds) {
+		recordIdsInPartitions.put(partition, List.of(recordIds));
+	}
+
+	@Override
+	public List<ReindexPartition> listPartitions() {
+		return new ArrayList<>(recordIdsInPartitions.keySet());
+	}
+
+	@Override
+	public void readPartition(ReindexPartition partition, Consumer<RecordToIndex> consumer) {
+		readPartitions.add(partition);
+		for (String recordId : recordIdsInPartitions.get(partition)) {
+			if (partition.equals(failingPartition)) {
+				throw new RuntimeException("Error reading " + recordId);
+			}
+			consumer.accept(new RecordToIndex(partition.recordType(), recordId,
+					List.of(new IndexTerm("someIndexTerm", "someValue", "title",
+							"indexTypeString")),
+					new DataRecordGroupSpy()));
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.spool;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class IndexSpoolTest {
+	private Path directory;
+	private IndexSpool spool;
+
+	@BeforeMethod
+	public void beforeMethod() throws Exception {
+		directory = Files.createTempDirectory("indexSpool");
+		spool = IndexSpool.usingDirectoryAndSegmentSize(directory, 1024);
+	}
+
+	@AfterMethod
+	public void afterMethod() throws Exception {
+		spool.close();
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	@Test
+	public void testDisabled() {
+		assertFalse(IndexSpool.disabled().isEnabled());
+		assertTrue(spool.isEnabled());
+		assertEquals(spool.getDirectory(), directory);
+	}
+
+	@Test
+	public void testEmptySpool() {
+		assertFalse(spool.hasPending());
+		assertTrue(spool.peek(10).isEmpty());
+		assertEquals(spool.onlyForTestGetNumberOfSegments(), 0);
+	}
+
+	@Test
+	public void testAppendedEntriesArePeekedInOrder() {
+		spool.append(SpoolEntry.add(createDocument("person_1", "Anna")));
+		spool.append(SpoolEntry.delete("person_2"));
+
+		List<SpoolEntry> entries = spool.peek(10);
+
+		assertEquals(spool.getNumberOfPendingEntries(), 2);
+		assertEquals(entries.size(), 2);
+		assertEquals(entries.get(0).operation(), SpoolOperation.ADD);
+		assertEquals(entries.get(0).documentId(), "person_1");
+		assertEquals(entries.get(0).document().getFieldValue("name_s"), "Anna");
+		assertEquals(entries.get(1), SpoolEntry.delete("person_2"));
+	}
+
+	private SolrInputDocument createDocument(String id, String name) {
+		SolrInputDocument document = new SolrInputDocument();
+		document.addField("id", id);
+		document.addField("name_s", name);
+		return document;
+	}
+
+	@Test
+	public void testPeekIsLimited() {
+		spool.append(SpoolEntry.delete("person_1"));
+		spool.append(SpoolEntry.delete("person_2"));
+
+		assertEquals(spool.peek(1), List.of(SpoolEntry.delete("person_1")));
+	}
+
+	@Test
+	public void testAcknowledgeRemovesOldestEntries() {
+		spool.append(SpoolEntry.delete("person_1"));
+		spool.append(SpoolEntry.delete("person_2"));
+
+		spool.acknowledge(1);
+
+		assertEquals(spool.peek(10), List.of(SpoolEntry.delete("person_2")));
+		assertEquals(spool.getNumberOfPendingEntries(), 1);
+	}
+
+	@Test
+	public void testFullyAcknowledgedSegmentIsDeleted() throws Exception {
+		spool.append(SpoolEntry.delete("person_1"));
+
+		spool.acknowledge(1);
+
+		assertFalse(spool.hasPending());
+		assertEquals(spool.onlyForTestGetNumberOfSegments(), 0);
+		assertEquals(countFiles(), 0);
+	}
+
+	private long countFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		}
+	}
+
+	@Test
+	public void testNewSegmentWhenSegmentIsFull() throws Exception {
+		for (int i = 0; i < 30; i++) {
+			spool.append(SpoolEntry.add(createDocument("person_" + i, "someName")));
+		}
+
+		assertTrue(spool.onlyForTestGetNumberOfSegments() > 1);
+		assertEquals(spool.getNumberOfPendingEntries(), 30);
+		List<SpoolEntry> entries = spool.peek(30);
+		assertEquals(entries.get(29).documentId(), "person_29");
+
+		spool.acknowledge(30);
+
+		assertEquals(countFiles(), 0);
+	}
+
+	@Test
+	public void testEntryLargerThanSegmentSize() {
+		SolrInputDocument document = createDocument("person_1", "x".repeat(5000));
+
+		spool.append(SpoolEntry.add(document));
+
+		assertEquals(spool.peek(1).get(0).document().getFieldValue("name_s"), "x".repeat(5000));
+	}
+
+	@Test
+	public void testPendingEntriesSurviveReopen() {
+		spool.append(SpoolEntry.delete("person_1"));
+		spool.append(SpoolEntry.delete("person_2"));
+		spool.acknowledge(1);
+		spool.close();
+
+		spool = IndexSpool.usingDirectoryAndSegmentSize(directory, 1024);
+
+		assertEquals(spool.peek(10),
+				List.of(SpoolEntry.delete("person_1"), SpoolEntry.delete("person_2")));
+		spool.append(SpoolEntry.delete("person_3"));
+		assertEquals(spool.getNumberOfPendingEntries(), 3);
+	}
+
+	@Test
+	public void testTornEntryEndsSegmentOnReopen() throws Exception {
+		spool.append(SpoolEntry.delete("person_1"));
+		spool.append(SpoolEntry.delete("person_2"));
+		spool.close();
+		corruptLastByteOfSecondEntry();
+
+		spool = IndexSpool.usingDirectoryAndSegmentSize(directory, 1024);
+
+		assertEquals(spool.peek(10), List.of(SpoolEntry.delete("person_1")));
+		spool.append(SpoolEntry.delete("person_3"));
+		assertEquals(spool.peek(10),
+				List.of(SpoolEntry.delete("person_1"), SpoolEntry.delete("person_3")));
+	}
+
+	private void corruptLastByteOfSecondEntry() throws IOException {
+		Path segment;
+		try (Stream<Path> files = Files.list(directory)) {
+			segment = files.findFirst().get();
+		}
+		int entrySize = SpoolSegment.HEADER_SIZE + "person_1".length();
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 'X' }), 2L * entrySize - 1);
+		}
+	}
+}
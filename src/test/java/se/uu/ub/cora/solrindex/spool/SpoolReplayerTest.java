@@ -0,0 +1,270 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrindex.spool;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.AbstractUpdateRequest.ACTION;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.metrics.MetricKey;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+
+public class SpoolReplayerTest {
+	private Path directory;
+	private IndexSpool spool;
+	private SolrMetrics metrics;
+	private RecordingSolrClient solrClient;
+	private SpoolReplayer replayer;
+	private List<String> failures;
+
+	private static class RecordingSolrClient extends SolrClient {
+		private static final long serialVersionUID = 1L;
+		List<String> requests = new ArrayList<>();
+		volatile boolean unavailable = false;
+		Set<Object> rejectedIds = new HashSet<>();
+
+		@Override
+		public NamedList<Object> request(SolrRequest<?> request, String collection)
+				throws SolrServerException, IOException {
+			if (unavailable) {
+				throw new SolrServerException("Server refused connection");
+			}
+			UpdateRequest updateRequest = (UpdateRequest) request;
+			if (containsRejectedId(updateRequest)) {
+				throw new SolrException(ErrorCode.BAD_REQUEST, "Document is invalid");
+			}
+			requests.add(describe(updateRequest));
+			return new NamedList<>();
+		}
+
+		private boolean containsRejectedId(UpdateRequest request) {
+			if (request.getDocuments() != null) {
+				return request.getDocuments().stream()
+						.anyMatch(document -> rejectedIds.contains(document.getFieldValue("id")));
+			}
+			return request.getDeleteById() != null
+					&& request.getDeleteById().stream().anyMatch(rejectedIds::contains);
+		}
+
+		private String describe(UpdateRequest request) {
+			if (request.getAction() == ACTION.COMMIT) {
+				return "commit";
+			}
+			if (request.getDocuments() != null) {
+				List<Object> ids = new ArrayList<>();
+				request.getDocuments().forEach(document -> ids.add(document.getFieldValue("id")));
+				return "add " + ids;
+			}
+			return "delete " + request.getDeleteById();
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+
+	@BeforeMethod
+	public void beforeMethod() throws Exception {
+		metrics = new SolrMetrics();
+		SolrMetricsProvider.onlyForTestSetMetrics(metrics);
+		directory = Files.createTempDirectory("spoolReplayer");
+		spool = IndexSpool.usingDirectory(directory);
+		solrClient = new RecordingSolrClient();
+		replayer = SpoolReplayer.usingSpoolAndSolrClientProvider(spool, () -> solrClient);
+		failures = new ArrayList<>();
+		replayer.setFailureSink((message, exception) -> failures.add(message));
+	}
+
+	@AfterMethod
+	public void afterMethod() throws Exception {
+		replayer.stop();
+		spool.close();
+		SolrMetricsProvider.onlyForTestSetMetrics(new SolrMetrics());
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	private void spoolAdd(String id) {
+		SolrInputDocument document = new SolrInputDocument();
+		document.addField("id", id);
+		spool.append(SpoolEntry.add(document));
+	}
+
+	@Test
+	public void testDefaultBatchSize() {
+		assertEquals(replayer.getBatchSize(), 500);
+	}
+
+	@Test
+	public void testEmptySpoolSendsNothing() {
+		assertEquals(replayer.replay(), 0);
+		assertTrue(solrClient.requests.isEmpty());
+	}
+
+	@Test
+	public void testReplayKeepsOrderBetweenAddsAndDeletes() {
+		spoolAdd("person_1");
+		spoolAdd("person_2");
+		spool.append(SpoolEntry.delete("person_1"));
+		spoolAdd("person_1");
+
+		assertEquals(replayer.replay(), 4);
+
+		assertEquals(solrClient.requests,
+				List.of("add [person_1, person_2]", "commit", "delete [person_1]", "commit",
+						"add [person_1]", "commit"));
+		assertFalse(spool.hasPending());
+		assertEquals(metrics.getCounterValue(
+				new MetricKey(SpoolReplayer.REPLAYED_COUNTER, Map.of())), 4);
+	}
+
+	@Test
+	public void testReplayInBatches() {
+		replayer.setBatchSize(2);
+		spoolAdd("person_1");
+		spoolAdd("person_2");
+		spoolAdd("person_3");
+
+		replayer.replay();
+
+		assertEquals(solrClient.requests, List.of("add [person_1, person_2]", "commit",
+				"add [person_3]", "commit"));
+	}
+
+	@Test
+	public void testUnavailableSolrKeepsEntries() {
+		spoolAdd("person_1");
+		solrClient.unavailable = true;
+
+		assertEquals(replayer.replay(), 0);
+
+		assertEquals(spool.getNumberOfPendingEntries(), 1);
+		assertEquals(metrics.getGaugeValue(new MetricKey(SpoolReplayer.PENDING_GAUGE, Map.of())),
+				1.0);
+		assertEquals(failures, List.of("Solr is unavailable, keeping 1 entries in the index spool:"
+				+ " Server refused connection"));
+		assertFalse(Files.exists(spool.getDeadLetterFile()));
+	}
+
+	@Test
+	public void testRejectedEntryIsMovedToDeadLetterAndReplayContinues() throws Exception {
+		spoolAdd("person_1");
+		spoolAdd("person_2");
+		spoolAdd("person_3");
+		spool.append(SpoolEntry.delete("person_1"));
+		solrClient.rejectedIds.add("person_2");
+
+		assertEquals(replayer.replay(), 3);
+
+		assertEquals(solrClient.requests, List.of("add [person_1]", "commit", "add [person_3]",
+				"commit", "delete [person_1]", "commit"));
+		assertFalse(spool.hasPending());
+		assertEquals(metrics.getCounterValue(
+				new MetricKey(SpoolReplayer.DEAD_LETTERED_COUNTER, Map.of())), 1);
+		assertEquals(metrics.getCounterValue(
+				new MetricKey(SpoolReplayer.REPLAYED_COUNTER, Map.of())), 3);
+		List<String> deadLetters = Files.readAllLines(spool.getDeadLetterFile());
+		assertEquals(deadLetters.size(), 1);
+		assertTrue(deadLetters.get(0)
+				.startsWith("ADD\t"));
+		assertTrue(deadLetters.get(0)
+				.endsWith("\tSolr rejected ADD of person_2: Document is invalid"));
+		assertEquals(failures.size(), 2);
+		assertEquals(failures.get(0), "Solr rejected a batch of 3 entries from the index spool,"
+				+ " sending them one by one: Document is invalid");
+		assertEquals(failures.get(1), "Solr rejected ADD of person_2: Document is invalid,"
+				+ " moved to " + spool.getDeadLetterFile());
+	}
+
+	@Test
+	public void testRejectedDeleteIsMovedToDeadLetter() throws Exception {
+		spool.append(SpoolEntry.delete("person_1"));
+		solrClient.rejectedIds.add("person_1");
+
+		assertEquals(replayer.replay(), 0);
+
+		assertFalse(spool.hasPending());
+		assertEquals(Files.readAllLines(spool.getDeadLetterFile()),
+				List.of("DELETE\tcGVyc29uXzE=\tSolr rejected DELETE of person_1:"
+						+ " Document is invalid"));
+	}
+
+	@Test
+	public void testUnreadableEntryIsMovedToDeadLetterWithoutBeingSent() throws Exception {
+		spoolAdd("person_1");
+		spool.onlyForTestAppendPayload(SpoolOperation.ADD, new byte[] { 1, 2, 3 });
+		spoolAdd("person_2");
+
+		assertEquals(replayer.replay(), 2);
+
+		assertEquals(solrClient.requests,
+				List.of("add [person_1]", "commit", "add [person_2]", "commit"));
+		assertEquals(Files.readAllLines(spool.getDeadLetterFile()),
+				List.of("ADD\tAQID\tDocument could not be read from the index spool"));
+		assertEquals(metrics.getCounterValue(
+				new MetricKey(SpoolReplayer.DEAD_LETTERED_COUNTER, Map.of())), 1);
+		assertEquals(failures, List.of("Document could not be read from the index spool, moved to "
+				+ spool.getDeadLetterFile()));
+	}
+
+	@Test
+	public void testBackgroundReplay() throws Exception {
+		spoolAdd("person_1");
+
+		replayer.start(1);
+
+		assertTrue(replayer.isRunning());
+		long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (spool.hasPending() && System.nanoTime() < giveUpAt) {
+			Thread.sleep(1);
+		}
+		assertFalse(spool.hasPending());
+		replayer.stop();
+		assertFalse(replayer.isRunning());
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+
+public class CachingSearchStorageViewTest {
+	private SearchStorageViewSpy searchStorageView;
+	private CachingSearchStorageView cachingView;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		searchStorageView = new SearchStorageViewSpy();
+		cachingView = CachingSearchStorageView.wrapping(searchStorageView);
+	}
+
+	@Test
+	public void testSearchTermIsReadOnce() {
+		DataGroup searchTerm = cachingView.getSearchTerm("titleSearchTerm");
+
+		assertSame(cachingView.getSearchTerm("titleSearchTerm"), searchTerm);
+		assertEquals(searchStorageView.searchTermIds, List.of("titleSearchTerm"));
+		assertSame(cachingView.onlyForTestGetSearchStorageView(), searchStorageView);
+	}
+
+	@Test
+	public void testCollectIndexTermIsReadOnce() {
+		DataGroup collectIndexTerm = cachingView.getCollectIndexTerm("titleIndexTerm");
+
+		assertSame(cachingView.getCollectIndexTerm("titleIndexTerm"), collectIndexTerm);
+		assertEquals(searchStorageView.collectIndexTermIds, List.of("titleIndexTerm"));
+	}
+
+	@Test
+	public void testPreloadFinalSearchTerm() {
+		cachingView.preloadSearchTerm("titleSearchTerm");
+
+		assertEquals(searchStorageView.searchTermIds, List.of("titleSearchTerm"));
+		assertEquals(searchStorageView.collectIndexTermIds, List.of("titleIndexTerm"));
+		assertEquals(cachingView.getNumberOfCachedTerms(), 2);
+	}
+
+	@Test
+	public void testPreloadLinkedDataSearchTermAlsoLoadsLinkedOnTerm() {
+		cachingView.preloadSearchTerm("linkedTextSearchTerm");
+
+		assertEquals(searchStorageView.collectIndexTermIds,
+				List.of("swedishIndexTerm", "linkedTextIndexTerm"));
+		cachingView.getCollectIndexTerm("linkedTextIndexTerm");
+		assertEquals(searchStorageView.collectIndexTermIds.size(), 2);
+	}
+
+	@Test
+	public void testClear() {
+		cachingView.preloadSearchTerm("titleSearchTerm");
+
+		cachingView.clear();
+
+		assertEquals(cachingView.getNumberOfCachedTerms(), 0);
+		cachingView.getSearchTerm("titleSearchTerm");
+		assertEquals(searchStorageView.searchTermIds.size(), 2);
+	}
+}
@@ -1,5 +1,7 @@
 package se.uu.ub.cora.solrsearch;
 
+import java.util.function.Function;
+
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
@@ -10,6 +12,7 @@ public class QueryResponseSpy extends QueryResponse {
 	public int noOfDocumentsToReturn = 1;
 	public int noOfDocumentsFound = 1;
 	public int idsStartAt = 552199;
+	public Function<String, Object> recordAsJsonToRecordPayload;
 
 	@Override
 	public SolrDocumentList getResults() {
@@ -32,7 +35,11 @@ public class QueryResponseSpy extends QueryResponse {
 		document.addField("price", "49.99");
 		String bookAsJson = "{\"name\":\"book\",\"children\":[{\"name\":\"recordInfo\",\"children\":[{\"name\":\"id\",\"value\":\"book:39921376484193\"},{\"name\":\"type\",\"children\":[{\"name\":\"linkedRecordType\",\"value\":\"recordType\"},{\"name\":\"linkedRecordId\",\"value\":\"book\"}]},{\"name\":\"createdBy\",\"value\":\"141414\"},{\"name\":\"dataDivider\",\"children\":[{\"name\":\"linkedRecordType\",\"value\":\"system\"},{\"name\":\"linkedRecordId\",\"value\":\"bibsys\"}]}]},{\"name\":\"bookTitle\",\"value\":\"Workshop 2\"}]}";
 
-		document.addField("recordAsJson", bookAsJson);
+		if (recordAsJsonToRecordPayload != null) {
+			document.addField("recordPayload", recordAsJsonToRecordPayload.apply(bookAsJson));
+		} else {
+			document.addField("recordAsJson", bookAsJson);
+		}
 		return document;
 	}
 }
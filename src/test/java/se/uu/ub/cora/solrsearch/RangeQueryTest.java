@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.field.SolrFieldType;
+
+public class RangeQueryTest {
+
+	@Test
+	public void testIsRangeOnlyForNumberAndDateFields() {
+		assertTrue(RangeQuery.isRange(SolrFieldType.LONG, "[1 TO 2]"));
+		assertTrue(RangeQuery.isRange(SolrFieldType.DATE, "{* TO NOW}"));
+		assertFalse(RangeQuery.isRange(SolrFieldType.STRING, "[1 TO 2]"));
+		assertFalse(RangeQuery.isRange(SolrFieldType.TEXT, "[1 TO 2]"));
+	}
+
+	@Test
+	public void testIsRangeOnlyForBracketedValues() {
+		assertFalse(RangeQuery.isRange(SolrFieldType.LONG, "12"));
+		assertFalse(RangeQuery.isRange(SolrFieldType.LONG, "[12"));
+		assertFalse(RangeQuery.isRange(SolrFieldType.LONG, "12]"));
+		assertFalse(RangeQuery.isRange(SolrFieldType.LONG, "["));
+		assertFalse(RangeQuery.isRange(SolrFieldType.DATE, "2026-01-01T00:00:00Z"));
+	}
+
+	@Test
+	public void testInclusiveAndExclusiveNumberRanges() {
+		assertQuery(SolrFieldType.LONG, "[10 TO 20]", "year_l:[10 TO 20]");
+		assertQuery(SolrFieldType.LONG, "{10 TO 20}", "year_l:{10 TO 20}");
+		assertQuery(SolrFieldType.LONG, "[-10 TO 20}", "year_l:[-10 TO 20}");
+	}
+
+	private void assertQuery(SolrFieldType fieldType, String range, String expectedQuery) {
+		assertEquals(RangeQuery.createQuery("year_l", fieldType, range), expectedQuery);
+	}
+
+	@Test
+	public void testOpenEndedRanges() {
+		assertQuery(SolrFieldType.LONG, "[10 TO *]", "year_l:[10 TO *]");
+		assertQuery(SolrFieldType.LONG, "[* TO 20]", "year_l:[* TO 20]");
+	}
+
+	@Test
+	public void testWhitespaceAroundBoundsIsRemoved() {
+		assertQuery(SolrFieldType.LONG, "[ 10  TO  20 ]", "year_l:[10 TO 20]");
+	}
+
+	@Test
+	public void testDateRanges() {
+		assertQuery(SolrFieldType.DATE, "[2020-01-01T00:00:00Z TO 2021-01-01T00:00:00.123Z}",
+				"year_l:[2020-01-01T00:00:00Z TO 2021-01-01T00:00:00.123Z}");
+		assertQuery(SolrFieldType.DATE, "[NOW-1YEAR/DAY TO NOW]",
+				"year_l:[NOW-1YEAR/DAY TO NOW]");
+		assertQuery(SolrFieldType.DATE, "[2020-01-01T00:00:00Z/DAY TO *]",
+				"year_l:[2020-01-01T00:00:00Z/DAY TO *]");
+	}
+
+	@Test
+	public void testHasUnroundedNow() {
+		assertTrue(RangeQuery.hasUnroundedNow("[NOW-1YEAR/DAY TO NOW]"));
+		assertTrue(RangeQuery.hasUnroundedNow("{* TO NOW}"));
+		assertTrue(RangeQuery.hasUnroundedNow("[NOW-1YEAR TO NOW/DAY]"));
+		assertTrue(RangeQuery.hasUnroundedNow("[ NOW+1DAY  TO * ]"));
+	}
+
+	@Test
+	public void testHasNoUnroundedNow() {
+		assertFalse(RangeQuery.hasUnroundedNow("[NOW-1YEAR/DAY TO NOW/DAY]"));
+		assertFalse(RangeQuery.hasUnroundedNow("{* TO NOW/HOUR}"));
+		assertFalse(RangeQuery.hasUnroundedNow("[NOW/DAY+1DAY TO *]"));
+		assertFalse(RangeQuery.hasUnroundedNow("[2020-01-01T00:00:00Z TO *]"));
+		assertFalse(RangeQuery.hasUnroundedNow("[10 TO 20]"));
+	}
+
+	@Test
+	public void testRangeWithoutSeparator() {
+		assertInvalidRange(SolrFieldType.LONG, "[10 20]",
+				"Range [10 20] is not on the form [from TO to] for field year_l");
+	}
+
+	private void assertInvalidRange(SolrFieldType fieldType, String range, String message) {
+		try {
+			RangeQuery.createQuery("year_l", fieldType, range);
+			fail("Exception should have been thrown");
+		} catch (SolrSearchException e) {
+			assertEquals(e.getMessage(), message);
+		}
+	}
+
+	@Test
+	public void testInvalidNumberBound() {
+		assertInvalidRange(SolrFieldType.LONG, "[10 TO twenty]",
+				"Range [10 TO twenty] has an invalid bound twenty for field year_l");
+		assertInvalidRange(SolrFieldType.LONG, "[1.5 TO 2]",
+				"Range [1.5 TO 2] has an invalid bound 1.5 for field year_l");
+	}
+
+	@Test
+	public void testInvalidDateBound() {
+		assertInvalidRange(SolrFieldType.DATE, "[2020-01-01 TO *]",
+				"Range [2020-01-01 TO *] has an invalid bound 2020-01-01 for field year_l");
+		assertInvalidRange(SolrFieldType.DATE, "[* TO 10) OR id:(*]",
+				"Range [* TO 10) OR id:(*] has an invalid bound 10) OR id:(* for field year_l");
+	}
+}
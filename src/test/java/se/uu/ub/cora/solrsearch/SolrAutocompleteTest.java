@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+import se.uu.ub.cora.solr.metrics.SolrOperation;
+import se.uu.ub.cora.solrindex.SolrClientProviderSpy;
+import se.uu.ub.cora.solrindex.SolrClientSpy;
+
+public class SolrAutocompleteTest {
+	private SolrMetrics metrics;
+	private SolrClientProviderSpy solrClientProvider;
+	private SolrClientSpy solrClientSpy;
+	private SearchStorageViewSpy searchStorage;
+	private SolrAutocomplete autocomplete;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		metrics = new SolrMetrics();
+		SolrMetricsProvider.onlyForTestSetMetrics(metrics);
+		solrClientProvider = new SolrClientProviderSpy();
+		solrClientSpy = solrClientProvider.solrClientSpy;
+		setDocumentsInResponse(new SolrDocumentList());
+		searchStorage = new SearchStorageViewSpy();
+		autocomplete = SolrAutocomplete.usingSolrClientProviderAndSearchStorage(solrClientProvider,
+				searchStorage);
+	}
+
+	private void setDocumentsInResponse(SolrDocumentList documents) {
+		NamedList<Object> response = new NamedList<>();
+		response.add("response", documents);
+		solrClientSpy.queryResponse.setResponse(response);
+	}
+
+	@Test
+	public void testQueryUsesAutocompleteFieldOfSearchTerm() {
+		autocomplete.suggest(List.of("book", "article"), "titleSearchTerm", "Upps", 10);
+
+		SolrQuery query = (SolrQuery) solrClientSpy.params;
+		assertEquals(searchStorage.searchTermIds, List.of("titleSearchTerm"));
+		assertEquals(query.getQuery(), "title_ac:Upps");
+		assertEquals(query.getFilterQueries(), new String[] { "type:book OR type:article" });
+		assertEquals(query.getFields(), "id,type,title_ac");
+		assertEquals(query.getRows(), Integer.valueOf(10));
+	}
+
+	@Test
+	public void testAllWordsInPrefixMustMatch() {
+		autocomplete.suggest(List.of("book"), "titleSearchTerm", "  upps  uni ", 10);
+
+		SolrQuery query = (SolrQuery) solrClientSpy.params;
+		assertEquals(query.getQuery(), "title_ac:upps AND title_ac:uni");
+	}
+
+	@Test
+	public void testSpecialCharactersInPrefixAreEscaped() {
+		autocomplete.suggest(List.of("book"), "titleSearchTerm", "a:b*", 10);
+
+		SolrQuery query = (SolrQuery) solrClientSpy.params;
+		assertEquals(query.getQuery(), "title_ac:a\\:b\\*");
+	}
+
+	@Test
+	public void testEmptyPrefixDoesNotSearch() {
+		assertTrue(autocomplete.suggest(List.of("book"), "titleSearchTerm", " ", 10).isEmpty());
+		assertTrue(autocomplete.suggest(List.of("book"), "titleSearchTerm", null, 10).isEmpty());
+
+		assertNull(solrClientSpy.params);
+		assertEquals(metrics.getRequestCount(SolrOperation.SUGGEST, "book"), 0);
+	}
+
+	@Test
+	public void testSuggestionsContainTypeIdAndLabel() {
+		SolrDocumentList documents = new SolrDocumentList();
+		documents.add(createDocument("book", "book:1", "Uppsala"));
+		documents.add(createDocument("article", "article_2", "Uppsala University"));
+		setDocumentsInResponse(documents);
+
+		List<Suggestion> suggestions = autocomplete.suggest(List.of("book", "article"),
+				"titleSearchTerm", "Upps", 10);
+
+		assertEquals(suggestions, List.of(new Suggestion("book", "book:1", "Uppsala"),
+				new Suggestion("article", "article_2", "Uppsala University")));
+		assertEquals(metrics.getRequestCount(SolrOperation.SUGGEST, "multiple"), 1);
+	}
+
+	private SolrDocument createDocument(String type, String id, String label) {
+		SolrDocument document = new SolrDocument();
+		document.addField("id", type + "_" + id);
+		document.addField("type", type);
+		document.addField("title_ac", label);
+		return document;
+	}
+
+	@Test
+	public void testLabelIsValueMatchingTypedWords() {
+		SolrDocument document = createDocument("book", "book:1", "Stockholm Library");
+		document.addField("title_ac", "Uppsala-University Library");
+		document.addField("title_ac", "Uppsala University");
+		setDocumentsInResponse(createDocumentList(document));
+
+		List<Suggestion> suggestions = autocomplete.suggest(List.of("book"), "titleSearchTerm",
+				"uni UPPS", 10);
+
+		assertEquals(suggestions.get(0).label(), "Uppsala-University Library");
+	}
+
+	private SolrDocumentList createDocumentList(SolrDocument document) {
+		SolrDocumentList documents = new SolrDocumentList();
+		documents.add(document);
+		return documents;
+	}
+
+	@Test
+	public void testLabelIsFirstValueWhenNoValueMatchesTypedWords() {
+		SolrDocument document = createDocument("book", "book:1", "Stockholm Library");
+		document.addField("title_ac", "Uppsala University");
+		setDocumentsInResponse(createDocumentList(document));
+
+		List<Suggestion> suggestions = autocomplete.suggest(List.of("book"), "titleSearchTerm",
+				"\u00d6rebro", 10);
+
+		assertEquals(suggestions.get(0).label(), "Stockholm Library");
+	}
+
+	@Test
+	public void testErrorIsCountedAndThrown() {
+		solrClientProvider.returnErrorThrowingClient = true;
+
+		try {
+			autocomplete.suggest(List.of("book"), "titleSearchTerm", "Upps", 10);
+			fail("Exception should have been thrown");
+		} catch (SolrSearchException e) {
+			assertEquals(e.getMessage(), "Error getting suggestions: something went wrong");
+		}
+		assertEquals(metrics.getErrorCount(SolrOperation.SUGGEST, "book"), 1);
+	}
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.solrsearch;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.solr.SolrClientProvider;
+import se.uu.ub.cora.solr.SolrClientProviderFactorySpy;
+import se.uu.ub.cora.solr.SolrClientProviderImp;
+import se.uu.ub.cora.solr.SolrClientProviders;
+import se.uu.ub.cora.solr.admission.AdmissionControlledSolrClientProvider;
+import se.uu.ub.cora.solr.admission.AdmissionController;
+import se.uu.ub.cora.solr.admission.LimiterSettings;
+import se.uu.ub.cora.solr.admission.TrafficClass;
+import se.uu.ub.cora.solr.hedging.HedgingSettings;
+import se.uu.ub.cora.solr.hedging.HedgingSolrClientProvider;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.resilience.ResilienceSettings;
+import se.uu.ub.cora.solr.resilience.ResilientSolrClientProvider;
+import se.uu.ub.cora.solr.warmup.WarmUpReport;
+import se.uu.ub.cora.solr.warmup.WarmUpSettings;
+
+public class SolrRecordSearchFactoryTest {
+	private SolrRecordSearchFactory searchFactory;
+	private SearchStorageViewSpy searchStorage;
+	private String solrUrl = "someSolrUrl";
+
+	@BeforeMethod
+	public void setup() {
+		searchFactory = new SolrRecordSearchFactory();
+		searchStorage = new SearchStorageViewSpy();
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		SolrClientProviders.onlyForTestResetFactories();
+	}
+
+	@Test
+	public void testFactor() {
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+
+		SolrClientProviderImp solrClientProvider = (SolrClientProviderImp) search
+				.getSolrClientProvider();
+		assertEquals(solrClientProvider.getBaseURL(), solrUrl);
+		assertSame(search.onlyForTestGetSearchStorageView(), searchStorage);
+	}
+
+	@Test
+	public void testFactorUsesDefaultSearchSettings() {
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+
+		assertEquals(search.onlyForTestGetSearchSettings().getMaxNumberOfLinkedIdsForTwoPhase(),
+				SolrSearchSettings.withDefaults().getMaxNumberOfLinkedIdsForTwoPhase());
+	}
+
+	@Test
+	public void testFactorUsesSearchSettings() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchFactory = new SolrRecordSearchFactory(searchSettings);
+
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+
+		assertSame(search.onlyForTestGetSearchSettings(), searchSettings);
+	}
+
+	@Test
+	public void testFactorSameUrlUsesSameSolrClientProvider() {
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+		SolrAutocomplete autocomplete = searchFactory
+				.factorAutocompleteUsingSolrUrlAndSearchStorage(solrUrl, searchStorage);
+
+		assertSame(autocomplete.onlyForTestGetSolrClientProvider(),
+				search.getSolrClientProvider());
+	}
+
+	@Test
+	public void testFactorDifferentUrlUsesDifferentSolrClientProvider() {
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+		SolrRecordSearch search2 = searchFactory
+				.factorUsingSolrUrlAndSearchStorage("someOtherSolrUrl", searchStorage);
+
+		assertNotSame(search.getSolrClientProvider(), search2.getSolrClientProvider());
+	}
+
+	@Test
+	public void testFactorEmbeddedUrlUsesRegisteredProviderFactory() {
+		SolrClientProviderFactorySpy providerFactory = new SolrClientProviderFactorySpy(
+				"embedded:");
+		SolrClientProviders.onlyForTestSetFactories(List.of(providerFactory));
+
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(
+				"embedded:/var/lib/solr/coracore", searchStorage);
+
+		assertSame(search.getSolrClientProvider(), providerFactory.factoredProviders.get(0));
+	}
+
+	@Test
+	public void testFactorWithAdmissionControllerUsesSearchTrafficClass() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchSettings.setAdmissionController(createAdmissionController());
+		searchFactory = new SolrRecordSearchFactory(searchSettings);
+
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+
+		AdmissionControlledSolrClientProvider admissionProvider = (AdmissionControlledSolrClientProvider) search
+				.getSolrClientProvider();
+		assertEquals(admissionProvider.onlyForTestGetTrafficClass(), TrafficClass.SEARCH);
+		assertEquals(((SolrClientProviderImp) admissionProvider.onlyForTestGetSolrClientProvider())
+				.getBaseURL(), solrUrl);
+	}
+
+	@Test
+	public void testFactorWithResilienceWrapsSolrClientProvider() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchSettings.setResilienceSettings(ResilienceSettings.withDefaults());
+		searchFactory = new SolrRecordSearchFactory(searchSettings);
+
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+
+		ResilientSolrClientProvider resilientProvider = (ResilientSolrClientProvider) search
+				.getSolrClientProvider();
+		assertEquals(((SolrClientProviderImp) resilientProvider.onlyForTestGetSolrClientProvider())
+				.getBaseURL(), solrUrl);
+		assertEquals(resilientProvider.getCircuitBreaker().getName(), "search:" + solrUrl);
+	}
+
+	@Test
+	public void testFactorWithAdmissionControllerWrapsResilientSolrClientProvider() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchSettings.setResilienceSettings(ResilienceSettings.withDefaults());
+		searchSettings.setAdmissionController(createAdmissionController());
+		searchFactory = new SolrRecordSearchFactory(searchSettings);
+
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+
+		AdmissionControlledSolrClientProvider admissionProvider = (AdmissionControlledSolrClientProvider) search
+				.getSolrClientProvider();
+		assertTrue(admissionProvider
+				.onlyForTestGetSolrClientProvider() instanceof ResilientSolrClientProvider);
+		assertEquals(admissionProvider.onlyForTestGetTrafficClass(), TrafficClass.SEARCH);
+	}
+
+	@Test
+	public void testFactorWithHedgingReplicasUsesHedgingSolrClientProvider() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		HedgingSettings hedgingSettings = HedgingSettings.withDefaults();
+		searchSettings.setHedgingSettings(hedgingSettings);
+		searchSettings.setHedgingReplicaUrlsForSolrUrl(solrUrl, List.of("someReplicaUrl"));
+		searchFactory = new SolrRecordSearchFactory(searchSettings);
+
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+
+		HedgingSolrClientProvider hedgingProvider = (HedgingSolrClientProvider) search
+				.getSolrClientProvider();
+		assertEquals(hedgingProvider.getName(), solrUrl);
+		List<SolrClientProvider> replicaProviders = hedgingProvider
+				.onlyForTestGetReplicaProviders();
+		assertEquals(replicaProviders.size(), 2);
+		assertEquals(((SolrClientProviderImp) replicaProviders.get(0)).getBaseURL(), solrUrl);
+		assertEquals(((SolrClientProviderImp) replicaProviders.get(1)).getBaseURL(),
+				"someReplicaUrl");
+		assertSame(hedgingProvider.onlyForTestGetSettings(), hedgingSettings);
+		assertTrue(searchFactory
+				.factorUsingSolrUrlAndSearchStorage("someOtherSolrUrl", searchStorage)
+				.getSolrClientProvider() instanceof SolrClientProviderImp);
+	}
+
+	@Test
+	public void testFactorWithHedgingAndResilienceWrapsHedgingSolrClientProvider() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchSettings.setHedgingReplicaUrlsForSolrUrl(solrUrl, List.of("someReplicaUrl"));
+		searchSettings.setResilienceSettings(ResilienceSettings.withDefaults());
+		searchFactory = new SolrRecordSearchFactory(searchSettings);
+
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+
+		ResilientSolrClientProvider resilientProvider = (ResilientSolrClientProvider) search
+				.getSolrClientProvider();
+		assertTrue(resilientProvider
+				.onlyForTestGetSolrClientProvider() instanceof HedgingSolrClientProvider);
+	}
+
+	private AdmissionController createAdmissionController() {
+		return AdmissionController.usingSearchAndIndexSettingsAndMetrics(
+				LimiterSettings.withDefaults(), LimiterSettings.withDefaults(), new SolrMetrics());
+	}
+
+	@Test
+	public void testFactorDoesNotWarmUp() {
+		SolrSearchSettings searchSettings = createSettingsWithWarmUp();
+		searchFactory = new SolrRecordSearchFactory(searchSettings);
+
+		searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl, searchStorage);
+
+		assertNull(searchFactory.getWarmUpReport(solrUrl));
+		assertFalse(searchFactory.isReady(solrUrl));
+	}
+
+	private SolrSearchSettings createSettingsWithWarmUp() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		WarmUpSettings warmUpSettings = WarmUpSettings.withDefaults();
+		warmUpSettings.setPing(false);
+		warmUpSettings.addSearchTermToPreload("titleSearchTerm");
+		warmUpSettings.addWarmUpQuery("q=*:*");
+		searchSettings.setWarmUpSettings(warmUpSettings);
+		return searchSettings;
+	}
+
+	@Test
+	public void testWarmUpMakesUrlReady() {
+		searchFactory = new SolrRecordSearchFactory(createSettingsWithWarmUp());
+		CachingSearchStorageView cachingView = CachingSearchStorageView.wrapping(searchStorage);
+
+		WarmUpReport report = searchFactory.warmUp(solrUrl, cachingView);
+
+		assertSame(searchFactory.getWarmUpReport(solrUrl), report);
+		assertTrue(searchFactory.isReady(solrUrl));
+		assertFalse(searchFactory.isReady("someOtherSolrUrl"));
+		assertEquals(report.numberOfPreloadedSearchTerms(), 1);
+		assertEquals(searchStorage.searchTermIds, List.of("titleSearchTerm"));
+		assertEquals(report.failures().size(), 1);
+		assertTrue(report.failures().get(0).startsWith("Warm-up query q=*:* failed: "));
+	}
+
+	@Test
+	public void testWarmUpWithFailedPingIsNotReady() {
+		SolrSearchSettings searchSettings = createSettingsWithWarmUp();
+		searchSettings.getWarmUpSettings().setPing(true);
+		searchFactory = new SolrRecordSearchFactory(searchSettings);
+
+		WarmUpReport report = searchFactory.warmUp(solrUrl,
+				CachingSearchStorageView.wrapping(searchStorage));
+
+		assertFalse(report.ready());
+		assertFalse(searchFactory.isReady(solrUrl));
+		assertEquals(report.failures().size(), 2);
+		assertTrue(report.failures().get(0).startsWith("Ping failed: "));
+	}
+
+	@Test
+	public void testWarmUpUsesSearchClient() {
+		SolrSearchSettings searchSettings = createSettingsWithWarmUp();
+		searchSettings.setAdmissionController(createAdmissionController());
+		searchFactory = new SolrRecordSearchFactory(searchSettings);
+		searchFactory.warmUp(solrUrl, CachingSearchStorageView.wrapping(searchStorage));
+
+		SolrRecordSearch search = searchFactory.factorUsingSolrUrlAndSearchStorage(solrUrl,
+				searchStorage);
+
+		AdmissionControlledSolrClientProvider admissionProvider = (AdmissionControlledSolrClientProvider) search
+				.getSolrClientProvider();
+		assertEquals(admissionProvider.onlyForTestGetTrafficClass(), TrafficClass.SEARCH);
+	}
+
+	@Test
+	public void testWithoutWarmUpUrlIsReadyAndWarmUpDoesNothing() {
+		assertTrue(searchFactory.isReady(solrUrl));
+
+		WarmUpReport report = searchFactory.warmUp(solrUrl,
+				CachingSearchStorageView.wrapping(searchStorage));
+
+		assertEquals(report.numberOfPreloadedSearchTerms(), 0);
+		assertEquals(report.numberOfWarmUpQueries(), 0);
+		assertTrue(report.failures().isEmpty());
+		assertTrue(searchStorage.searchTermIds.isEmpty());
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017, 2019 Uppsala University Library
+ * Copyright 2017, 2019, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -20,8 +20,11 @@
 package se.uu.ub.cora.solrsearch;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -29,19 +32,36 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import jdk.jfr.consumer.RecordedEvent;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
 import se.uu.ub.cora.data.converter.JsonToDataConverterProvider;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
 import se.uu.ub.cora.json.parser.JsonObject;
 import se.uu.ub.cora.json.parser.JsonParser;
 import se.uu.ub.cora.json.parser.org.OrgJsonParser;
 import se.uu.ub.cora.search.SearchResult;
+import se.uu.ub.cora.solr.RecordBinaryCodec;
+import se.uu.ub.cora.solr.RecordPayload;
+import se.uu.ub.cora.solr.jfr.JfrEventRecorder;
+import se.uu.ub.cora.solr.metrics.SolrMetrics;
+import se.uu.ub.cora.solr.metrics.SolrMetricsProvider;
+import se.uu.ub.cora.solr.metrics.SolrOperation;
+import se.uu.ub.cora.solr.metrics.SolrPhase;
+import se.uu.ub.cora.solr.slowlog.SlowOperationLog;
 import se.uu.ub.cora.solrindex.SolrClientProviderSpy;
 import se.uu.ub.cora.solrindex.SolrClientSpy;
 
 public class SolrRecordSearchTest {
+	private static final String JOIN_FILTER = "{!join from=id to=textId_s}swedish_t:(textToSearchFor) AND type:coraText";
 	private SolrClientProviderSpy solrClientProvider;
 	private SearchStorageViewSpy searchStorage;
 	private SolrRecordSearch solrSearch;
@@ -50,8 +70,12 @@ public class SolrRecordSearchTest {
 	private List<String> emptyList = new ArrayList<>();
 	private JsonToDataConverterFactorySpy jsonToDataConverterFactory;
 
+	private SolrMetrics metrics;
+
 	@BeforeMethod
 	public void beforeMethod() {
+		metrics = new SolrMetrics();
+		SolrMetricsProvider.onlyForTestSetMetrics(metrics);
 		solrClientProvider = new SolrClientProviderSpy();
 		searchStorage = new SearchStorageViewSpy();
 		jsonToDataConverterFactory = new JsonToDataConverterFactorySpy();
@@ -91,7 +115,8 @@ public class SolrRecordSearchTest {
 		assertEquals(jsonObject.toJsonFormattedString(), resultFromSpyAsJsonFormattedString);
 
 		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
-		assertEquals(solrQueryCreated.getQuery(), "title_s:(A title)");
+		assertEquals(solrQueryCreated.getQuery(), "*:*");
+		assertEquals(solrQueryCreated.getFilterQueries()[1], "title_s:(A title)");
 
 		assertEquals(searchStorage.searchTermIds.get(0), "titleSearchTerm");
 		assertEquals(searchStorage.collectIndexTermIds.get(0), "titleIndexTerm");
@@ -142,15 +167,19 @@ public class SolrRecordSearchTest {
 	@Test
 	public void testIndexTypeTextGeneratesCorrectQueryParamSuffix() {
 		SolrQuery solrQueryCreated = performIncludeSearchForIndexType("indexTypeText");
-		String suffix = extractCreatedParameterSuffix(solrQueryCreated);
+		String suffix = extractSuffix(solrQueryCreated.getQuery());
 		assertEquals(suffix, "_t");
 	}
 
-	private String extractCreatedParameterSuffix(SolrQuery solrQueryCreated) {
-		String query = solrQueryCreated.getQuery();
+	private String extractSuffix(String query) {
 		return query.substring(query.indexOf('_'), query.indexOf(':'));
 	}
 
+	private String extractCreatedFilterQuerySuffix(SolrQuery solrQueryCreated) {
+		String[] filterQueries = solrQueryCreated.getFilterQueries();
+		return extractSuffix(filterQueries[filterQueries.length - 1]);
+	}
+
 	private SolrQuery performIncludeSearchForIndexType(String indexType) {
 		searchStorage.indexTypeToReturn = indexType;
 		Map<String, String> searchTerms = createSearchTerms("titleSearchTerm", "A title");
@@ -163,24 +192,174 @@ public class SolrRecordSearchTest {
 	@Test
 	public void testIndexTypeBooleanGeneratesCorrectQueryParamSuffix() {
 		SolrQuery solrQueryCreated = performIncludeSearchForIndexType("indexTypeBoolean");
-		String suffix = extractCreatedParameterSuffix(solrQueryCreated);
+		String suffix = extractCreatedFilterQuerySuffix(solrQueryCreated);
 		assertEquals(suffix, "_b");
 	}
 
 	@Test
 	public void testIndexTypeDateGeneratesCorrectQueryParamSuffix() {
 		SolrQuery solrQueryCreated = performIncludeSearchForIndexType("indexTypeDate");
-		String suffix = extractCreatedParameterSuffix(solrQueryCreated);
+		String suffix = extractCreatedFilterQuerySuffix(solrQueryCreated);
 		assertEquals(suffix, "_dt");
 	}
 
 	@Test
 	public void testIndexTypeNumberGeneratesCorrectQueryParamSuffix() {
 		SolrQuery solrQueryCreated = performIncludeSearchForIndexType("indexTypeNumber");
-		String suffix = extractCreatedParameterSuffix(solrQueryCreated);
+		String suffix = extractCreatedFilterQuerySuffix(solrQueryCreated);
 		assertEquals(suffix, "_l");
 	}
 
+	@Test
+	public void testNumberRangeIsSentAsFilterQuery() {
+		SolrQuery solrQueryCreated = performIncludeSearchForIndexTypeAndValue("indexTypeNumber",
+				"[1990 TO *]");
+
+		assertEquals(solrQueryCreated.getQuery(), "*:*");
+		String[] filterQueries = solrQueryCreated.getFilterQueries();
+		assertEquals(filterQueries[filterQueries.length - 1], "title_l:[1990 TO *]");
+	}
+
+	private SolrQuery performIncludeSearchForIndexTypeAndValue(String indexType, String value) {
+		searchStorage.indexTypeToReturn = indexType;
+		Map<String, String> searchTerms = createSearchTerms("titleSearchTerm", value);
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(searchTerms);
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
+
+		return (SolrQuery) solrClientSpy.params;
+	}
+
+	@Test
+	public void testDateRangeIsSentAsFilterQuery() {
+		SolrQuery solrQueryCreated = performIncludeSearchForIndexTypeAndValue("indexTypeDate",
+				"{2020-01-01T00:00:00Z TO NOW]");
+
+		String[] filterQueries = solrQueryCreated.getFilterQueries();
+		assertEquals(filterQueries[filterQueries.length - 1],
+				"{!lucene cache=false cost=50}title_dt:{2020-01-01T00:00:00Z TO NOW]");
+	}
+
+	@Test
+	public void testDateRangeWithRoundedNowIsSentAsCachedFilterQuery() {
+		SolrQuery solrQueryCreated = performIncludeSearchForIndexTypeAndValue("indexTypeDate",
+				"{2020-01-01T00:00:00Z TO NOW/DAY]");
+
+		String[] filterQueries = solrQueryCreated.getFilterQueries();
+		assertEquals(filterQueries[filterQueries.length - 1],
+				"title_dt:{2020-01-01T00:00:00Z TO NOW/DAY]");
+	}
+
+	@Test
+	public void testDateRangeWithUnroundedNowIsClassifiedAsUncachedFilter() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		List<String> classifiedClauses = new ArrayList<>();
+		searchSettings.setQueryClauseListener(
+				(clauseType, clause) -> classifiedClauses.add(clauseType + " " + clause));
+		solrSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						solrClientProvider, searchStorage, searchSettings);
+
+		performIncludeSearchForIndexTypeAndValue("indexTypeDate", "[NOW-1YEAR TO NOW/DAY]");
+
+		assertEquals(classifiedClauses.get(classifiedClauses.size() - 1),
+				"UNCACHED_FILTER {!lucene cache=false cost=50}title_dt:[NOW-1YEAR TO NOW/DAY]");
+	}
+
+	@Test
+	public void testRangeOnStringFieldIsSearchedAsValue() {
+		SolrQuery solrQueryCreated = performIncludeSearchForIndexTypeAndValue("indexTypeString",
+				"[1990 TO *]");
+
+		String[] filterQueries = solrQueryCreated.getFilterQueries();
+		assertEquals(filterQueries[filterQueries.length - 1], "title_s:([1990 TO *])");
+	}
+
+	@Test(expectedExceptions = SolrSearchException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error searching for records: Range \\[1990 TO later\\] has an invalid bound "
+			+ "later for field title_l")
+	public void testInvalidRangeThrowsException() {
+		performIncludeSearchForIndexTypeAndValue("indexTypeNumber", "[1990 TO later]");
+	}
+
+	@Test
+	public void testNoSortWhenNoSortInSearchData() {
+		SolrQuery solrQueryCreated = performIncludeSearchForIndexType("indexTypeString");
+
+		assertNull(solrQueryCreated.getSortField());
+	}
+
+	@Test
+	public void testSortOnSearchTermsWithIdAsTieBreaker() {
+		searchStorage.indexTypeToReturn = "indexTypeDate";
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+		searchData.addChild(createSort("titleSearchTerm", "desc"));
+		searchData.addChild(createSort("authorSearchTerm", "asc"));
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
+
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
+		assertEquals(solrQueryCreated.getSortField(),
+				"field(title_dt,max) desc,field(author_dt,min) asc,id asc");
+	}
+
+	private DataGroup createSort(String searchTermId, String order) {
+		DataGroup sort = new DataGroupSpy("sort");
+		sort.addChild(new DataAtomicSpy("searchTerm", searchTermId));
+		if (order != null) {
+			sort.addChild(new DataAtomicSpy("order", order));
+		}
+		return sort;
+	}
+
+	@Test
+	public void testSortIsAscendingWhenNoOrderIsGiven() {
+		searchStorage.indexTypeToReturn = "indexTypeNumber";
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+		searchData.addChild(createSort("titleSearchTerm", null));
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
+
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
+		assertEquals(solrQueryCreated.getSortField(), "field(title_l,min) asc,id asc");
+	}
+
+	@Test(expectedExceptions = SolrSearchException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error searching for records: Sorting on search term titleSearchTerm with field "
+			+ "type TEXT is not supported")
+	public void testSortOnTextFieldIsNotSupported() {
+		searchStorage.indexTypeToReturn = "indexTypeText";
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+		searchData.addChild(createSort("titleSearchTerm", "asc"));
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
+	}
+
+	@Test(expectedExceptions = SolrSearchException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error searching for records: Sorting on linked data search term "
+			+ "linkedTextSearchTerm is not supported")
+	public void testSortOnLinkedDataSearchTermIsNotSupported() {
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+		searchData.addChild(createSort("linkedTextSearchTerm", "asc"));
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
+	}
+
+	@Test(expectedExceptions = SolrSearchException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error searching for records: Sort order upwards is not asc or desc")
+	public void testUnknownSortOrder() {
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+		searchData.addChild(createSort("titleSearchTerm", "upwards"));
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
+	}
+
+	@Test
+	public void testIndexTypeIdGeneratesSameQueryParamSuffixAsIndexer() {
+		SolrQuery solrQueryCreated = performIncludeSearchForIndexType("indexTypeId");
+		String suffix = extractCreatedFilterQuerySuffix(solrQueryCreated);
+		assertEquals(suffix, "_s");
+	}
+
 	@Test
 	public void testReturnNumberOfRecordsFound() {
 		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
@@ -375,10 +554,9 @@ public class SolrRecordSearchTest {
 		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(recordTypeList, searchData);
 
 		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
-		assertEquals(solrQueryCreated.getQuery(), "title_s:(A title\\: with a colon character)");
-
 		String[] createdFilterQueries = solrQueryCreated.getFilterQueries();
 		assertEquals(createdFilterQueries[0], "type:someRecordType");
+		assertEquals(createdFilterQueries[1], "title_s:(A title\\: with a colon character)");
 	}
 
 	@Test
@@ -394,8 +572,8 @@ public class SolrRecordSearchTest {
 		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
 		String[] createdFilterQueries = solrQueryCreated.getFilterQueries();
 		assertEquals(createdFilterQueries[0], "type:someRecordType");
-		assertEquals(solrQueryCreated.getQuery(),
-				"{!join from=id to=textId_s}swedish_t:textToSearchFor AND type:coraText");
+		assertEquals(createdFilterQueries[1], JOIN_FILTER);
+		assertEquals(solrQueryCreated.getQuery(), "*:*");
 	}
 
 	@Test
@@ -413,7 +591,10 @@ public class SolrRecordSearchTest {
 		assertEquals(jsonObject.toJsonFormattedString(), resultFromSpyAsJsonFormattedString);
 
 		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
-		assertEquals(solrQueryCreated.getQuery(), "author_s:(Eriksson) AND title_s:(Uppsala)");
+		assertEquals(solrQueryCreated.getQuery(), "*:*");
+		String[] createdFilterQueries = solrQueryCreated.getFilterQueries();
+		assertEquals(createdFilterQueries[1], "author_s:(Eriksson)");
+		assertEquals(createdFilterQueries[2], "title_s:(Uppsala)");
 
 		assertEquals(searchStorage.searchTermIds.get(0), "authorSearchTerm");
 		assertEquals(searchStorage.collectIndexTermIds.get(0), "authorIndexTerm");
@@ -433,9 +614,520 @@ public class SolrRecordSearchTest {
 		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(recordTypeList, searchData);
 
 		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
-		assertEquals(solrQueryCreated.getQuery(), "author_s:(Eriksson) AND title_s:(Uppsala)");
+		assertEquals(solrQueryCreated.getQuery(), "*:*");
 		String[] createdFilterQueries = solrQueryCreated.getFilterQueries();
 		assertEquals(createdFilterQueries[0], "type:someRecordType");
+		assertEquals(createdFilterQueries[1], "author_s:(Eriksson)");
+		assertEquals(createdFilterQueries[2], "title_s:(Uppsala)");
+	}
+
+	@Test
+	public void testDefaultSettingsUsesRelevanceScoring() {
+		assertTrue(solrSearch.onlyForTestGetSearchSettings().isRelevanceScoring());
+	}
+
+	@Test
+	public void testCreateWithSettings() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		SolrRecordSearch search = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						solrClientProvider, searchStorage, searchSettings);
+
+		assertSame(search.onlyForTestGetSearchSettings(), searchSettings);
+		assertSame(search.getSolrClientProvider(), solrClientProvider);
+		assertSame(search.onlyForTestGetSearchStorageView(), searchStorage);
+	}
+
+	@Test
+	public void testTextSearchTermsAreScoredAndOtherTermsAreFilters() {
+		searchStorage.indexTypeToReturn = "indexTypeText";
+		Map<String, String> searchTerms = createSearchTerms("titleSearchTerm", "Uppsala");
+		searchTerms.put("linkedTextSearchTerm", "textToSearchFor");
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(searchTerms);
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(List.of("someRecordType"),
+				searchData);
+
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
+		assertEquals(solrQueryCreated.getQuery(), "title_t:(Uppsala)");
+		String[] createdFilterQueries = solrQueryCreated.getFilterQueries();
+		assertEquals(createdFilterQueries.length, 2);
+		assertEquals(createdFilterQueries[0], "type:someRecordType");
+		assertEquals(createdFilterQueries[1], JOIN_FILTER);
+	}
+
+	@Test
+	public void testNoRelevanceScoringSendsAllSearchTermsAsFilters() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchSettings.setRelevanceScoring(false);
+		solrSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						solrClientProvider, searchStorage, searchSettings);
+		searchStorage.indexTypeToReturn = "indexTypeText";
+		Map<String, String> searchTerms = createSearchTerms("titleSearchTerm", "Uppsala");
+		searchTerms.put("linkedTextSearchTerm", "textToSearchFor");
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(searchTerms);
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(List.of("someRecordType"),
+				searchData);
+
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
+		assertEquals(solrQueryCreated.getQuery(), "*:*");
+		String[] createdFilterQueries = solrQueryCreated.getFilterQueries();
+		assertEquals(createdFilterQueries[0], "type:someRecordType");
+		assertEquals(createdFilterQueries[1], JOIN_FILTER);
+		assertEquals(createdFilterQueries[2], "title_t:(Uppsala)");
+	}
+
+	@Test
+	public void testLinkedDataDefaultStrategyIsJoin() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+
+		assertEquals(searchSettings.getLinkedDataStrategyForSearchTerm("linkedTextSearchTerm"),
+				LinkedDataStrategy.JOIN);
+	}
+
+	@Test
+	public void testLinkedDataTwoPhaseFirstSearchesLinkedIds() {
+		SolrSearchSettings searchSettings = createSettingsWithLinkedDataStrategy(
+				LinkedDataStrategy.TWO_PHASE);
+		queryResponse.noOfDocumentsToReturn = 2;
+		queryResponse.noOfDocumentsFound = 2;
+
+		searchLinkedTextInSomeRecordTypeUsingSettings(searchSettings);
+
+		assertEquals(solrClientSpy.allParams.size(), 2);
+		SolrQuery linkedIdsQuery = (SolrQuery) solrClientSpy.allParams.get(0);
+		assertEquals(linkedIdsQuery.getQuery(), "swedish_t:(textToSearchFor)");
+		assertEquals(linkedIdsQuery.getFilterQueries()[0], "type:coraText");
+		assertEquals(linkedIdsQuery.getFields(), "id");
+		assertEquals((int) linkedIdsQuery.getRows(), 1000);
+
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.allParams.get(1);
+		assertEquals(solrQueryCreated.getQuery(), "*:*");
+		String[] createdFilterQueries = solrQueryCreated.getFilterQueries();
+		assertEquals(createdFilterQueries[0], "type:someRecordType");
+		assertEquals(createdFilterQueries[1], "{!terms f=textId_s cache=false cost=50}552199,552200");
+	}
+
+	@Test
+	public void testLinkedDataTwoPhaseEscapesMultiWordValue() {
+		solrSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						solrClientProvider, searchStorage,
+						createSettingsWithLinkedDataStrategy(LinkedDataStrategy.TWO_PHASE));
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(
+				createSearchTerms("linkedTextSearchTerm", "some text: with colon"));
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(List.of("someRecordType"),
+				searchData);
+
+		SolrQuery linkedIdsQuery = (SolrQuery) solrClientSpy.allParams.get(0);
+		assertEquals(linkedIdsQuery.getQuery(), "swedish_t:(some text\\: with colon)");
+	}
+
+	private SolrSearchSettings createSettingsWithLinkedDataStrategy(LinkedDataStrategy strategy) {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchSettings.setLinkedDataStrategyForSearchTerm("linkedTextSearchTerm", strategy);
+		return searchSettings;
+	}
+
+	private void searchLinkedTextInSomeRecordTypeUsingSettings(
+			SolrSearchSettings searchSettings) {
+		solrSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						solrClientProvider, searchStorage, searchSettings);
+		Map<String, String> searchTerms = createSearchTerms("linkedTextSearchTerm",
+				"textToSearchFor");
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(searchTerms);
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(List.of("someRecordType"),
+				searchData);
+	}
+
+	@Test
+	public void testLinkedDataTwoPhaseNoLinkedIdsFound() {
+		SolrSearchSettings searchSettings = createSettingsWithLinkedDataStrategy(
+				LinkedDataStrategy.TWO_PHASE);
+		queryResponse.noOfDocumentsToReturn = 0;
+		queryResponse.noOfDocumentsFound = 0;
+
+		searchLinkedTextInSomeRecordTypeUsingSettings(searchSettings);
+
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.allParams.get(1);
+		assertEquals(solrQueryCreated.getFilterQueries()[1], "{!terms f=textId_s cache=false cost=50}");
+	}
+
+	@Test
+	public void testLinkedDataTwoPhaseFallsBackToJoinWhenTooManyLinkedIds() {
+		SolrSearchSettings searchSettings = createSettingsWithLinkedDataStrategy(
+				LinkedDataStrategy.TWO_PHASE);
+		searchSettings.setMaxNumberOfLinkedIdsForTwoPhase(1);
+		queryResponse.noOfDocumentsToReturn = 1;
+		queryResponse.noOfDocumentsFound = 2;
+
+		searchLinkedTextInSomeRecordTypeUsingSettings(searchSettings);
+
+		SolrQuery linkedIdsQuery = (SolrQuery) solrClientSpy.allParams.get(0);
+		assertEquals((int) linkedIdsQuery.getRows(), 1);
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.allParams.get(1);
+		assertEquals(solrQueryCreated.getQuery(), "*:*");
+		assertEquals(solrQueryCreated.getFilterQueries()[1], JOIN_FILTER);
+	}
+
+	@Test
+	public void testLinkedDataTwoPhaseFallbackToJoinEscapesMultiWordValue() {
+		SolrSearchSettings searchSettings = createSettingsWithLinkedDataStrategy(
+				LinkedDataStrategy.TWO_PHASE);
+		searchSettings.setMaxNumberOfLinkedIdsForTwoPhase(1);
+		queryResponse.noOfDocumentsToReturn = 1;
+		queryResponse.noOfDocumentsFound = 2;
+		solrSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						solrClientProvider, searchStorage, searchSettings);
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(
+				createSearchTerms("linkedTextSearchTerm", "some text: with colon"));
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(List.of("someRecordType"),
+				searchData);
+
+		SolrQuery linkedIdsQuery = (SolrQuery) solrClientSpy.allParams.get(0);
+		assertEquals(linkedIdsQuery.getQuery(), "swedish_t:(some text\\: with colon)");
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.allParams.get(1);
+		assertEquals(solrQueryCreated.getFilterQueries()[1], "{!join from=id to=textId_s}"
+				+ "swedish_t:(some text\\: with colon) AND type:coraText");
+	}
+
+	@Test
+	public void testLinkedDataDenormalizedSearchesCopiedField() {
+		SolrSearchSettings searchSettings = createSettingsWithLinkedDataStrategy(
+				LinkedDataStrategy.DENORMALIZED);
+
+		searchLinkedTextInSomeRecordTypeUsingSettings(searchSettings);
+
+		assertEquals(solrClientSpy.allParams.size(), 1);
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
+		assertEquals(solrQueryCreated.getQuery(), "textId_s__swedish_t:(textToSearchFor)");
+		assertEquals(solrQueryCreated.getFilterQueries().length, 1);
+	}
+
+	@Test
+	public void testQueryClauseListenerIsToldHowClausesAreClassified() {
+		SolrSearchSettings searchSettings = createSettingsWithLinkedDataStrategy(
+				LinkedDataStrategy.TWO_PHASE);
+		List<String> classifiedClauses = new ArrayList<>();
+		searchSettings.setQueryClauseListener(
+				(clauseType, clause) -> classifiedClauses.add(clauseType + " " + clause));
+		solrSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						solrClientProvider, searchStorage, searchSettings);
+		Map<String, String> searchTerms = createSearchTerms("linkedTextSearchTerm",
+				"textToSearchFor");
+		searchTerms.put("titleSearchTerm", "Uppsala");
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(searchTerms);
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(List.of("someRecordType"),
+				searchData);
+
+		assertEquals(classifiedClauses, List.of("CACHED_FILTER type:someRecordType",
+				"UNCACHED_FILTER {!terms f=textId_s cache=false cost=50}552199",
+				"CACHED_FILTER title_s:(Uppsala)"));
+	}
+
+	@Test
+	public void testQueryClauseListenerScoredAndJoinFilterClauses() {
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		List<String> classifiedClauses = new ArrayList<>();
+		searchSettings.setQueryClauseListener(
+				(clauseType, clause) -> classifiedClauses.add(clauseType + " " + clause));
+		solrSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						solrClientProvider, searchStorage, searchSettings);
+		searchStorage.indexTypeToReturn = "indexTypeText";
+		Map<String, String> searchTerms = createSearchTerms("linkedTextSearchTerm",
+				"textToSearchFor");
+		searchTerms.put("titleSearchTerm", "Uppsala");
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(searchTerms);
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(List.of("someRecordType"),
+				searchData);
+
+		assertEquals(classifiedClauses, List.of("CACHED_FILTER type:someRecordType",
+				"JOIN_FILTER " + JOIN_FILTER, "SCORED title_t:(Uppsala)"));
+	}
+
+	@Test
+	public void testSearchRecordsMetrics() {
+		queryResponse.noOfDocumentsToReturn = 3;
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(
+				List.of("someRecordType", "someOtherRecordType"), searchData);
+
+		String recordTypes = SolrMetrics.MULTIPLE_RECORD_TYPES;
+		assertEquals(metrics.getRequestCount(SolrOperation.SEARCH, recordTypes), 1);
+		assertEquals(metrics.getDocumentCount(SolrOperation.SEARCH, recordTypes), 3);
+		assertEquals(metrics.getErrorCount(SolrOperation.SEARCH, recordTypes), 0);
+		assertPhaseRecordedOnce(SolrPhase.QUERY_BUILD);
+		assertPhaseRecordedOnce(SolrPhase.SOLR_ROUND_TRIP);
+		assertPhaseRecordedOnce(SolrPhase.JSON_CONVERSION);
+	}
+
+	private void assertPhaseRecordedOnce(SolrPhase phase) {
+		assertEquals(metrics.getPhaseSnapshot(SolrOperation.SEARCH, phase).count(), 1);
+	}
+
+	@Test
+	public void testSearchErrorIsCountedInMetrics() {
+		solrClientProvider.returnErrorThrowingClient = true;
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+
+		try {
+			solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(
+					List.of("someRecordType"), searchData);
+		} catch (SolrSearchException e) {
+			// expected
+		}
+
+		assertEquals(metrics.getRequestCount(SolrOperation.SEARCH, "someRecordType"), 1);
+		assertEquals(metrics.getErrorCount(SolrOperation.SEARCH, "someRecordType"), 1);
+	}
+
+	@Test
+	public void testSearchEmitsFlightRecorderEvent() {
+		JfrEventRecorder recorder = JfrEventRecorder
+				.startRecordingEvents("se.uu.ub.cora.solr.Search");
+		queryResponse.noOfDocumentsToReturn = 3;
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(
+				List.of("someRecordType", "someOtherRecordType"), searchData);
+
+		List<RecordedEvent> events = recorder.stopAndGetEvents();
+		assertEquals(events.size(), 1);
+		RecordedEvent event = events.get(0);
+		assertEquals(event.getString("recordTypes"), "someRecordType,someOtherRecordType");
+		assertEquals(event.getInt("start"), 1);
+		assertEquals(event.getInt("rows"), 100);
+		assertEquals(event.getInt("numberOfDocuments"), 3);
+		assertTrue(event.getLong("payloadBytes") > 0);
+		assertTrue(event.getBoolean("successful"));
+	}
+
+	@Test
+	public void testFailedSearchEmitsUnsuccessfulFlightRecorderEvent() {
+		JfrEventRecorder recorder = JfrEventRecorder
+				.startRecordingEvents("se.uu.ub.cora.solr.Search");
+		solrClientProvider.returnErrorThrowingClient = true;
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+
+		try {
+			solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(
+					List.of("someRecordType"), searchData);
+		} catch (SolrSearchException e) {
+			// expected
+		}
+
+		List<RecordedEvent> events = recorder.stopAndGetEvents();
+		assertEquals(events.size(), 1);
+		assertEquals(events.get(0).getBoolean("successful"), false);
+	}
+
+	@Test
+	public void testDefaultSettingsSlowOperationLogIsDisabled() {
+		assertEquals(solrSearch.onlyForTestGetSearchSettings().getSlowOperationLog().isEnabled(),
+				false);
+	}
+
+	@Test
+	public void testSlowSearchIsLoggedWithSolrParameters() {
+		List<String> slowLogEntries = setUpSearchWithSlowOperationLogLoggingAll();
+		queryResponse.noOfDocumentsToReturn = 3;
+		Map<String, String> searchTerms = createSearchTerms("titleSearchTerm", "A title");
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(searchTerms);
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(List.of("someRecordType"),
+				searchData);
+
+		assertEquals(slowLogEntries.size(), 1);
+		String entry = slowLogEntries.get(0);
+		assertTrue(entry.startsWith("Slow Solr operation ("));
+		assertTrue(entry.endsWith(" ms): search in recordTypes: someRecordType, start: 1,"
+				+ " rows: 100, QTime: 0 ms, totalNumberOfMatches: 1, returned: 3,"
+				+ " successful: true, params: rows=100 start=0 fq=type:someRecordType"
+				+ " fq=title_s:(A title) q=*:*"));
+	}
+
+	private List<String> setUpSearchWithSlowOperationLogLoggingAll() {
+		List<String> slowLogEntries = new ArrayList<>();
+		SlowOperationLog slowOperationLog = SlowOperationLog.usingThresholdInMillis(0);
+		slowOperationLog.setSink(slowLogEntries::add);
+		SolrSearchSettings searchSettings = SolrSearchSettings.withDefaults();
+		searchSettings.setSlowOperationLog(slowOperationLog);
+		solrSearch = SolrRecordSearch
+				.createSolrRecordSearchUsingSolrClientProviderSearchStorageAndSettings(
+						solrClientProvider, searchStorage, searchSettings);
+		return slowLogEntries;
+	}
+
+	@Test
+	public void testSlowFailedSearchIsLogged() {
+		List<String> slowLogEntries = setUpSearchWithSlowOperationLogLoggingAll();
+		solrClientProvider.returnErrorThrowingClient = true;
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+
+		try {
+			solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(
+					List.of("someRecordType"), searchData);
+		} catch (SolrSearchException e) {
+			// expected
+		}
+
+		assertEquals(slowLogEntries.size(), 1);
+		assertTrue(slowLogEntries.get(0).contains("successful: false"));
+	}
+
+	@Test
+	public void testCompressedRecordPayloadIsReadInsteadOfRecordAsJson() {
+		String expectedJson = getResultFromSpyAsJsonFormattedString();
+		queryResponse.recordAsJsonToRecordPayload = RecordPayload::compressJson;
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+
+		SearchResult searchResult = solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(
+				emptyList, searchData);
+
+		SolrDocument document = solrClientSpy.queryResponse.getResults().get(0);
+		assertFalse(document.containsKey("recordAsJson"));
+		byte[] payload = (byte[]) document.getFieldValue(RecordPayload.FIELD_NAME);
+		assertEquals(payload[0], RecordPayload.COMPRESSED_JSON_MARKER);
+		assertEquals(searchResult.listOfDataGroups.size(), 1);
+		JsonObject jsonObject = (JsonObject) jsonToDataConverterFactory.jsonValue;
+		assertEquals(jsonObject.toJsonFormattedString(), expectedJson);
+	}
+
+	@Test
+	public void testBinaryRecordPayloadIsDecodedInsteadOfRecordAsJson() {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactory);
+		byte[] binaryRecord = createBinaryRecordUsingDataFactory(dataFactory);
+		queryResponse.recordAsJsonToRecordPayload = recordAsJson -> binaryRecord;
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+
+		SearchResult searchResult = solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(
+				emptyList, searchData);
+
+		dataFactory.MCR.assertParameters("factorGroupUsingNameInData", 0, "someRecord");
+		assertSame(searchResult.listOfDataGroups.get(0),
+				dataFactory.MCR.getReturnValue("factorGroupUsingNameInData", 0));
+	}
+
+	private byte[] createBinaryRecordUsingDataFactory(DataFactorySpy dataFactory) {
+		se.uu.ub.cora.data.spies.DataGroupSpy recordAsGroup =
+				new se.uu.ub.cora.data.spies.DataGroupSpy();
+		recordAsGroup.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someRecord");
+		dataFactory.MRV.setDefaultReturnValuesSupplier("factorGroupFromDataRecordGroup",
+				() -> recordAsGroup);
+		return RecordBinaryCodec.encode(new DataRecordGroupSpy()).get();
+	}
+
+	@Test
+	public void testIdSearchRequestsOnlyIdAndType() {
+		setDocumentsInResponse(new SolrDocumentList());
+		Map<String, String> searchTerms = createSearchTerms("titleSearchTerm", "A title");
+		DataGroup searchData = createSearchIncludeDataWithSearchTermIdAndValue(searchTerms);
+
+		solrSearch.searchForIdsUsingListOfRecordTypesToSearchInAndSearchData(
+				List.of("someRecordType"), searchData);
+
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
+		assertEquals(solrQueryCreated.getFields(), "id,type");
+		assertEquals(solrQueryCreated.getFilterQueries()[0], "type:someRecordType");
+		assertEquals(solrQueryCreated.getFilterQueries()[1], "title_s:(A title)");
+	}
+
+	@Test
+	public void testSearchRequestsAllFields() {
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+
+		solrSearch.searchUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
+
+		SolrQuery solrQueryCreated = (SolrQuery) solrClientSpy.params;
+		assertNull(solrQueryCreated.getFields());
+	}
+
+	@Test
+	public void testIdSearchReturnsTypeAndIdWithoutConversion() {
+		SolrDocumentList documents = new SolrDocumentList();
+		documents.add(createDocumentWithTypeAndId("book", "book:1"));
+		documents.add(createDocumentWithTypeAndId("article", "article_2"));
+		documents.setNumFound(42);
+		setDocumentsInResponse(documents);
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+		searchData.addChild(new DataAtomicSpy("start", "11"));
+
+		IdSearchResult searchResult = solrSearch
+				.searchForIdsUsingListOfRecordTypesToSearchInAndSearchData(
+						List.of("book", "article"), searchData);
+
+		assertEquals(searchResult.records(), List.of(new RecordIdentifier("book", "book:1"),
+				new RecordIdentifier("article", "article_2")));
+		assertEquals(searchResult.start(), 11);
+		assertEquals(searchResult.totalNumberOfMatches(), 42);
+		assertNull(jsonToDataConverterFactory.jsonValue);
+		assertEquals(
+				metrics.getDocumentCount(SolrOperation.SEARCH, SolrMetrics.MULTIPLE_RECORD_TYPES),
+				2);
+		assertEquals(metrics.getPhaseSnapshot(SolrOperation.SEARCH, SolrPhase.JSON_CONVERSION)
+				.count(), 0);
+	}
+
+	private SolrDocument createDocumentWithTypeAndId(String type, String id) {
+		SolrDocument document = new SolrDocument();
+		document.addField("id", type + "_" + id);
+		document.addField("type", type);
+		return document;
+	}
+
+	private void setDocumentsInResponse(SolrDocumentList documents) {
+		NamedList<Object> response = new NamedList<>();
+		response.add("response", documents);
+		QueryResponse queryResponseWithDocuments = new QueryResponse();
+		queryResponseWithDocuments.setResponse(response);
+		solrClientSpy.queryResponse = queryResponseWithDocuments;
+	}
+
+	@Test
+	public void testIdSearchOnUndefinedFieldReturnsEmptyResult() {
+		solrClientProvider.returnErrorThrowingClient = true;
+		solrClientProvider.errorMessage = "undefined field title_s";
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+
+		IdSearchResult searchResult = solrSearch
+				.searchForIdsUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
+
+		assertTrue(searchResult.records().isEmpty());
+		assertEquals(searchResult.totalNumberOfMatches(), 0);
+		assertEquals(searchResult.start(), 1);
+	}
+
+	@Test
+	public void testIdSearchOnUndefinedFieldReturnsEmptyResultWithRequestedStart() {
+		solrClientProvider.returnErrorThrowingClient = true;
+		solrClientProvider.errorMessage = "undefined field title_s";
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
+		searchData.addChild(new DataAtomicSpy("start", "11"));
+
+		IdSearchResult searchResult = solrSearch
+				.searchForIdsUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
+
+		assertEquals(searchResult.start(), 11);
+	}
+
+	@Test(expectedExceptions = SolrSearchException.class, expectedExceptionsMessageRegExp = ""
+			+ "Error searching for records: something went wrong")
+	public void testIdSearchError() {
+		solrClientProvider.returnErrorThrowingClient = true;
+		DataGroup searchData = createSearchDataGroupWithMinimumNecessaryParts();
 
+		solrSearch.searchForIdsUsingListOfRecordTypesToSearchInAndSearchData(emptyList, searchData);
 	}
 }